@@ -0,0 +1,113 @@
+package com.example.store.config;
+
+import com.example.store.dto.OrderCustomerDTO;
+import com.example.store.dto.OrderDTO;
+import com.example.store.dto.PagedResponse;
+import com.example.store.dto.ProductDTO;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cache value formats on a page of 100 orders as returned by {@code GET /order}, each with its customer
+ * and three products. Prints the encoded size of every variant during setup; the benchmarks measure encoding and
+ * decoding time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class CacheValueSerializerBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+    private static final int PRODUCTS_PER_ORDER = 3;
+
+    /** The format and whether encodings are compressed. */
+    @Param({"JSON", "JSON_LZ4", "SMILE", "SMILE_LZ4"})
+    public String variant;
+
+    private CacheValueSerializer serializer;
+    private PagedResponse<OrderDTO> page;
+    private byte[] encoded;
+
+    /** Builds the page and encodes it once. */
+    @Setup(Level.Trial)
+    public void setUp() {
+        CacheValueFormat format = CacheValueFormat.valueOf(variant.replace("_LZ4", ""));
+        serializer = new CacheValueSerializer(format, variant.endsWith("_LZ4") ? 0 : -1);
+        page = orderPage();
+        encoded = serializer.serialize(page);
+        System.out.printf("%n%s: %d bytes%n", variant, encoded.length);
+    }
+
+    /**
+     * Encodes the page.
+     *
+     * @return the encoded page
+     */
+    @Benchmark
+    public byte[] serialize() {
+        return serializer.serialize(page);
+    }
+
+    /**
+     * Decodes the page.
+     *
+     * @return the decoded page
+     */
+    @Benchmark
+    public Object deserialize() {
+        return serializer.deserialize(encoded);
+    }
+
+    /**
+     * Builds the page of orders both benchmarks encode.
+     *
+     * @return the page
+     */
+    static PagedResponse<OrderDTO> orderPage() {
+        List<OrderDTO> orders = new ArrayList<>();
+        for (long id = 1; id <= PAGE_SIZE; id++) {
+            OrderCustomerDTO customer = new OrderCustomerDTO();
+            customer.setId(1000 + id % 37);
+            customer.setName("Customer " + (1000 + id % 37));
+            List<ProductDTO> products = new ArrayList<>();
+            for (long p = 0; p < PRODUCTS_PER_ORDER; p++) {
+                ProductDTO product = new ProductDTO();
+                product.setId(500 + (id * 7 + p) % 50);
+                product.setDescription("Product " + product.getId() + " with a typical catalogue description");
+                product.setOrderIds(List.of(id, id + PAGE_SIZE, id + 2 * PAGE_SIZE));
+                products.add(product);
+            }
+            OrderDTO order = new OrderDTO();
+            order.setId(id);
+            order.setDescription("Order " + id + " placed through the web shop");
+            order.setCustomer(customer);
+            order.setProducts(products);
+            orders.add(order);
+        }
+
+        PagedResponse<OrderDTO> page = new PagedResponse<>();
+        page.setContent(orders);
+        page.setPage(0);
+        page.setSize(PAGE_SIZE);
+        page.setTotalElements(25_000);
+        page.setTotalPages(250);
+        page.setTotalExact(true);
+        page.setFirst(true);
+        page.setHasNext(true);
+        page.setSortBy("id");
+        page.setSortOrder("asc");
+        return page;
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.store.config;
+
+import com.example.store.dto.FieldSet;
+import com.example.store.dto.OrderDTO;
+import com.example.store.dto.PagedResponse;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the response formats on the page of 100 orders of {@link CacheValueSerializerBenchmark}: JSON, as written
+ * by default, and Smile, as written for {@code Accept: application/x-jackson-smile}. Unlike the cache formats these
+ * carry no type hints. Prints the encoded size of every format during setup; the benchmarks measure the encoding
+ * time on the server and the decoding time on a client reading the page back into DTOs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WireFormatBenchmark {
+
+    /** The response format. */
+    @Param({"JSON", "SMILE"})
+    public String format;
+
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private PagedResponse<OrderDTO> page;
+    private byte[] encoded;
+
+    /**
+     * Builds the page and encodes it once.
+     *
+     * @throws IOException if the page cannot be encoded
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ObjectMapper mapper = "SMILE".equals(format)
+                ? new ObjectMapper(SmileHttpMessageConverter.smileFactory())
+                : new ObjectMapper();
+        mapper.setFilterProvider(FieldSet.allFields());
+        writer = mapper.writer();
+        reader = mapper.readerFor(new TypeReference<PagedResponse<OrderDTO>>() {});
+        page = CacheValueSerializerBenchmark.orderPage();
+        encoded = writer.writeValueAsBytes(page);
+        System.out.printf("%n%s: %d bytes%n", format, encoded.length);
+    }
+
+    /**
+     * Encodes the page.
+     *
+     * @return the encoded page
+     * @throws IOException if the page cannot be encoded
+     */
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return writer.writeValueAsBytes(page);
+    }
+
+    /**
+     * Decodes the page.
+     *
+     * @return the decoded page
+     * @throws IOException if the page cannot be decoded
+     */
+    @Benchmark
+    public Object decode() throws IOException {
+        return reader.readValue(encoded);
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.store.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.cache.Cache;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Predicate;
+
+/**
+ * Single-flight loading of cache misses. The first caller missing a key on this instance runs the loader and caches the
+ * result; concurrent callers for the same key wait on its future instead of running the same queries again.
+ *
+ * <p>With a lock template the loads are also coordinated across instances: the loading caller takes a short Redis lock
+ * on the key, and callers on other instances poll the cache until the value appears, the lock is released or the lock
+ * times out, loading the value themselves only in the last two cases.
+ *
+ * <p>Every load is counted in {@code store.cache.loads}, tagged by cache and outcome: {@code loaded} for loads that ran
+ * the loader, {@code coalesced} for callers served by another caller's load on this instance and {@code awaited} for
+ * callers served by a load on another instance.
+ */
+@Slf4j
+public class CacheLoadCoalescer {
+
+    private static final String LOCK_PREFIX = "cache-locks::";
+    private static final RedisScript<Long> RELEASE_LOCK = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+
+    private final ConcurrentMap<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+    private final StringRedisTemplate lockTemplate;
+    private final Duration lockTimeout;
+    private final Duration lockPollInterval;
+
+    /**
+     * Instantiates a new Cache load coalescer.
+     *
+     * @param meterRegistry the meter registry
+     * @param lockTemplate the redis template taking the cross-instance locks, or null to coalesce per instance only
+     * @param lockTimeout how long a lock is held at most, and how long other instances wait for it
+     * @param lockPollInterval how often other instances check whether the value has been cached
+     */
+    public CacheLoadCoalescer(
+            MeterRegistry meterRegistry,
+            StringRedisTemplate lockTemplate,
+            Duration lockTimeout,
+            Duration lockPollInterval) {
+        this.meterRegistry = meterRegistry;
+        this.lockTemplate = lockTemplate;
+        this.lockTimeout = lockTimeout;
+        this.lockPollInterval = lockPollInterval;
+    }
+
+    /**
+     * Returns the cached value of a key, loading and caching it once however many callers miss it at the same time.
+     * Values loaded as {@code null} are returned but not cached.
+     *
+     * @param cache the cache
+     * @param key the key
+     * @param loader loads the value
+     * @return the value
+     * @throws Exception the exception thrown by the loader, rethrown to every caller waiting on the load
+     */
+    public Object load(Cache cache, Object key, Callable<?> loader) throws Exception {
+        return load(cache, key, loader, value -> true);
+    }
+
+    /**
+     * Like {@link #load(Cache, Object, Callable)}, but accepts a value cached by a concurrent load only if it is still
+     * usable, so that a stale value can be replaced.
+     *
+     * @param cache the cache
+     * @param key the key
+     * @param loader loads the value
+     * @param usable whether a cached value can be returned instead of loading
+     * @return the value
+     * @throws Exception the exception thrown by the loader, rethrown to every caller waiting on the load
+     */
+    public Object load(Cache cache, Object key, Callable<?> loader, Predicate<Object> usable) throws Exception {
+        String id = cache.getName() + "::" + key;
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(id, future);
+        if (existing != null) {
+            count(cache, "coalesced");
+            return await(existing);
+        }
+
+        try {
+            Object value = loadOnce(cache, key, id, loader, usable);
+            future.complete(value);
+            return value;
+        } catch (Exception | Error e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, future);
+        }
+    }
+
+    /**
+     * The number of keys being loaded on this instance.
+     *
+     * @return the number of loads in flight
+     */
+    public int getInFlightCount() {
+        return inFlight.size();
+    }
+
+    private Object loadOnce(Cache cache, Object key, String id, Callable<?> loader, Predicate<Object> usable)
+            throws Exception {
+        // The previous load of the key may have completed between the caller's miss and now
+        Cache.ValueWrapper cached = cache.get(key);
+        if (cached != null && usable.test(cached.get())) {
+            count(cache, "coalesced");
+            return cached.get();
+        }
+        if (lockTemplate == null) {
+            return loadAndPut(cache, key, loader);
+        }
+
+        String lockKey = LOCK_PREFIX + id;
+        String token = UUID.randomUUID().toString();
+        boolean locked = tryLock(lockKey, token);
+        if (!locked) {
+            long deadline = System.nanoTime() + lockTimeout.toNanos();
+            while (System.nanoTime() < deadline) {
+                Thread.sleep(lockPollInterval.toMillis());
+                cached = cache.get(key);
+                if (cached != null && usable.test(cached.get())) {
+                    count(cache, "awaited");
+                    return cached.get();
+                }
+                if (!isLocked(lockKey)) {
+                    break;
+                }
+            }
+            // The other instance loaded nothing cacheable, failed or is too slow; load without the lock
+        }
+        try {
+            return loadAndPut(cache, key, loader);
+        } finally {
+            if (locked) {
+                unlock(lockKey, token);
+            }
+        }
+    }
+
+    private Object loadAndPut(Cache cache, Object key, Callable<?> loader) throws Exception {
+        count(cache, "loaded");
+        // Stored through every layer of the cache, so that a value that went stale while loading is not cached
+        Object token = DecoratingCache.beginLoad(cache);
+        Object value = loader.call();
+        if (value != null) {
+            DecoratingCache.putLoaded(cache, key, value, token);
+        }
+        return value;
+    }
+
+    private boolean tryLock(String lockKey, String token) {
+        try {
+            return Boolean.TRUE.equals(lockTemplate.opsForValue().setIfAbsent(lockKey, token, lockTimeout));
+        } catch (DataAccessException e) {
+            // Without Redis the load cannot be coordinated; going ahead alone beats failing the request
+            log.debug("Failed to take cache lock {}: {}", lockKey, e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean isLocked(String lockKey) {
+        try {
+            return Boolean.TRUE.equals(lockTemplate.hasKey(lockKey));
+        } catch (DataAccessException e) {
+            return false;
+        }
+    }
+
+    private void unlock(String lockKey, String token) {
+        try {
+            lockTemplate.execute(RELEASE_LOCK, List.of(lockKey), token);
+        } catch (DataAccessException e) {
+            log.debug("Failed to release cache lock {}, it expires on its own: {}", lockKey, e.getMessage());
+        }
+    }
+
+    private static Object await(CompletableFuture<Object> future) throws Exception {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw (Exception) e.getCause();
+        }
+    }
+
+    private void count(Cache cache, String outcome) {
+        Counter.builder("store.cache.loads")
+                .description("Loads of missed cache entries, by whether the caller ran the loader")
+                .tag("cache", cache.getName())
+                .tag("outcome", outcome)
+                .register(meterRegistry)
+                .increment();
+    }
+}
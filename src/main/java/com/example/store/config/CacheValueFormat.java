@@ -0,0 +1,88 @@
+package com.example.store.config;
+
+import com.example.store.dto.FieldSet;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.jsontype.BasicPolymorphicTypeValidator;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+/** The encodings of cached values, see {@link CacheValueSerializer}. */
+public enum CacheValueFormat {
+
+    /**
+     * Jackson JSON with {@code @class} type hints, as written by {@link GenericJackson2JsonRedisSerializer}. Cached
+     * DTOs are always written with all their fields.
+     */
+    JSON((byte) 1) {
+        @Override
+        RedisSerializer<Object> createSerializer() {
+            return new GenericJackson2JsonRedisSerializer()
+                    .configure(mapper -> mapper.setFilterProvider(FieldSet.allFields()));
+        }
+    },
+
+    /**
+     * Jackson Smile, the binary form of the same JSON model. Property names and type hints repeated across the
+     * elements of a page are written once and back-referenced afterwards, which is where most of the JSON size goes.
+     */
+    SMILE((byte) 2) {
+        @Override
+        @SuppressWarnings("deprecation")
+        RedisSerializer<Object> createSerializer() {
+            SmileFactory factory = new SmileFactory();
+            factory.enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+            ObjectMapper mapper = new ObjectMapper(factory);
+            mapper.setFilterProvider(FieldSet.allFields());
+            GenericJackson2JsonRedisSerializer.registerNullValueSerializer(mapper, null);
+            // Same type hints as the JSON format, so any cached value round-trips to its original class
+            mapper.activateDefaultTyping(
+                    BasicPolymorphicTypeValidator.builder()
+                            .allowIfBaseType(Object.class)
+                            .build(),
+                    ObjectMapper.DefaultTyping.EVERYTHING,
+                    JsonTypeInfo.As.PROPERTY);
+            return new GenericJackson2JsonRedisSerializer(mapper);
+        }
+    };
+
+    private final byte id;
+
+    CacheValueFormat(byte id) {
+        this.id = id;
+    }
+
+    /**
+     * The id written in front of every value of this format.
+     *
+     * @return the format id
+     */
+    byte getId() {
+        return id;
+    }
+
+    /**
+     * Creates the serializer encoding values in this format.
+     *
+     * @return the serializer
+     */
+    abstract RedisSerializer<Object> createSerializer();
+
+    /**
+     * The format of an id.
+     *
+     * @param id the format id
+     * @return the format, or null for an unknown id
+     */
+    static CacheValueFormat ofId(byte id) {
+        for (CacheValueFormat format : values()) {
+            if (format.id == id) {
+                return format;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.store.config;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Exception;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Serializes cached values in a {@link CacheValueFormat}, LZ4-compressing encodings of at least a threshold size.
+ * Every value starts with a header byte holding the format id and, in its high bit, whether the rest is compressed; a
+ * compressed value continues with its uncompressed length as a 4-byte int.
+ *
+ * <p>Values are read in whatever format they were written in, so the format of a cache can be changed while entries
+ * written in the old one are still around. Values written before the header was introduced are plain JSON and are
+ * read as such.
+ */
+public class CacheValueSerializer implements RedisSerializer<Object> {
+
+    private static final int COMPRESSED = 0x80;
+    private static final int COMPRESSED_HEADER_LENGTH = 5;
+    private static final LZ4Factory LZ4 = LZ4Factory.fastestInstance();
+
+    private final CacheValueFormat format;
+    private final int compressionThreshold;
+    private final Map<CacheValueFormat, RedisSerializer<Object>> serializers = new EnumMap<>(CacheValueFormat.class);
+
+    /**
+     * Instantiates a new Cache value serializer.
+     *
+     * @param format the format values are written in
+     * @param compressionThreshold the smallest encoding in bytes that is compressed, or a negative value to never
+     *     compress
+     */
+    public CacheValueSerializer(CacheValueFormat format, int compressionThreshold) {
+        this.format = format;
+        this.compressionThreshold = compressionThreshold;
+        for (CacheValueFormat each : CacheValueFormat.values()) {
+            serializers.put(each, each.createSerializer());
+        }
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        byte[] encoded = serializers.get(format).serialize(value);
+        if (encoded == null) {
+            return null;
+        }
+        if (compressionThreshold >= 0 && encoded.length >= compressionThreshold) {
+            LZ4Compressor compressor = LZ4.fastCompressor();
+            byte[] compressed = new byte[COMPRESSED_HEADER_LENGTH + compressor.maxCompressedLength(encoded.length)];
+            int length = compressor.compress(
+                    encoded,
+                    0,
+                    encoded.length,
+                    compressed,
+                    COMPRESSED_HEADER_LENGTH,
+                    compressed.length - COMPRESSED_HEADER_LENGTH);
+            // Incompressible values are stored as they are
+            if (COMPRESSED_HEADER_LENGTH + length < 1 + encoded.length) {
+                ByteBuffer.wrap(compressed).put((byte) (format.getId() | COMPRESSED)).putInt(encoded.length);
+                return Arrays.copyOf(compressed, COMPRESSED_HEADER_LENGTH + length);
+            }
+        }
+        byte[] framed = new byte[1 + encoded.length];
+        framed[0] = format.getId();
+        System.arraycopy(encoded, 0, framed, 1, encoded.length);
+        return framed;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0) {
+            return null;
+        }
+        CacheValueFormat valueFormat = CacheValueFormat.ofId((byte) (bytes[0] & ~COMPRESSED));
+        if (valueFormat == null) {
+            return serializers.get(CacheValueFormat.JSON).deserialize(bytes);
+        }
+
+        byte[] encoded;
+        if ((bytes[0] & COMPRESSED) != 0) {
+            int length = ByteBuffer.wrap(bytes, 1, 4).getInt();
+            encoded = new byte[length];
+            try {
+                LZ4FastDecompressor decompressor = LZ4.fastDecompressor();
+                decompressor.decompress(bytes, COMPRESSED_HEADER_LENGTH, encoded, 0, length);
+            } catch (LZ4Exception e) {
+                throw new SerializationException("Cannot decompress cached value", e);
+            }
+        } else {
+            encoded = Arrays.copyOfRange(bytes, 1, bytes.length);
+        }
+        return serializers.get(valueFormat).deserialize(encoded);
+    }
+}
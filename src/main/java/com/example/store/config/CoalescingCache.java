@@ -0,0 +1,96 @@
+package com.example.store.config;
+
+import org.springframework.cache.Cache;
+
+import java.util.concurrent.Callable;
+
+/**
+ * Cache decorator collapsing concurrent misses of the same key into a single load, see {@link CacheLoadCoalescer}. Only
+ * {@link #get(Object, Callable)} coalesces, so cached methods opt in with {@code @Cacheable(sync = true)}. Unlike the
+ * stores underneath, a {@code null} result is returned to every caller without being cached.
+ */
+public class CoalescingCache implements DecoratingCache {
+
+    private final Cache target;
+    private final CacheLoadCoalescer coalescer;
+
+    /**
+     * Instantiates a new Coalescing cache.
+     *
+     * @param target the decorated cache
+     * @param coalescer the coalescer
+     */
+    public CoalescingCache(Cache target, CacheLoadCoalescer coalescer) {
+        this.target = target;
+        this.coalescer = coalescer;
+    }
+
+    @Override
+    public Cache getTargetCache() {
+        return target;
+    }
+
+    @Override
+    public String getName() {
+        return target.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return target.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return target.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return target.get(key, type);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = target.get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        try {
+            return (T) coalescer.load(target, key, valueLoader);
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        target.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return target.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        target.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return target.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        target.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return target.invalidate();
+    }
+}
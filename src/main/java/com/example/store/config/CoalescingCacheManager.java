@@ -0,0 +1,26 @@
+package com.example.store.config;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/** Cache manager wrapping every cache of another manager in a {@link CoalescingCache}. */
+public class CoalescingCacheManager extends DecoratingCacheManager {
+
+    private final CacheLoadCoalescer coalescer;
+
+    /**
+     * Instantiates a new Coalescing cache manager.
+     *
+     * @param target the cache manager whose caches are decorated; must not be transaction aware itself
+     * @param coalescer the coalescer shared by all caches
+     */
+    public CoalescingCacheManager(CacheManager target, CacheLoadCoalescer coalescer) {
+        super(target);
+        this.coalescer = coalescer;
+    }
+
+    @Override
+    protected Cache decorate(Cache cache) {
+        return new CoalescingCache(cache, coalescer);
+    }
+}
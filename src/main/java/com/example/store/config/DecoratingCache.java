@@ -0,0 +1,77 @@
+package com.example.store.config;
+
+import org.springframework.cache.Cache;
+
+/**
+ * A cache decorating another cache. Code reaching past the decorators to the store, such as a batch read, follows
+ * {@link #getTargetCache()} down the chain. A value loaded on a miss is stored with
+ * {@link #putLoaded(Object, Object, Object)} rather than {@link #put(Object, Object)}, passing the token
+ * {@link #beginLoad()} returned before the load started, so that a layer such as {@link TaggingCache} can refuse a
+ * value that went stale while it was being loaded.
+ */
+public interface DecoratingCache extends Cache {
+
+    /**
+     * The decorated cache.
+     *
+     * @return the target cache
+     */
+    Cache getTargetCache();
+
+    /**
+     * Whether values are stored in the target cache as they are given, so that the target can be read and written
+     * directly, bypassing this decorator.
+     *
+     * @return true unless this decorator changes the values it stores
+     */
+    default boolean storesValuesUnchanged() {
+        return true;
+    }
+
+    /**
+     * Called before loading a value that is then stored with {@link #putLoaded(Object, Object, Object)}.
+     *
+     * @return the token to store the loaded value with
+     */
+    default Object beginLoad() {
+        return beginLoad(getTargetCache());
+    }
+
+    /**
+     * Stores a loaded value, unless a layer finds that it went stale while it was being loaded. Decorators changing
+     * values on {@link #put(Object, Object)} change them here the same way.
+     *
+     * @param key the key
+     * @param value the loaded value
+     * @param token the token {@link #beginLoad()} returned before the load started
+     */
+    default void putLoaded(Object key, Object value, Object token) {
+        putLoaded(getTargetCache(), key, value, token);
+    }
+
+    /**
+     * Called before loading a value for any cache, decorated or not.
+     *
+     * @param cache the cache
+     * @return the token to store the loaded value with
+     */
+    static Object beginLoad(Cache cache) {
+        return cache instanceof DecoratingCache decorating ? decorating.beginLoad() : null;
+    }
+
+    /**
+     * Stores a loaded value in any cache, decorated or not.
+     *
+     * @param cache the cache
+     * @param key the key
+     * @param value the loaded value
+     * @param token the token {@link #beginLoad(Cache)} returned before the load started
+     */
+    static void putLoaded(Cache cache, Object key, Object value, Object token) {
+        if (cache instanceof DecoratingCache decorating) {
+            decorating.putLoaded(key, value, token);
+        } else {
+            cache.put(key, value);
+        }
+    }
+}
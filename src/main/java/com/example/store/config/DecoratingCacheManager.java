@@ -0,0 +1,67 @@
+package com.example.store.config;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/** Base class of cache managers wrapping every cache of another manager in a decorator. */
+public abstract class DecoratingCacheManager extends AbstractTransactionSupportingCacheManager {
+
+    private final CacheManager target;
+
+    /**
+     * Instantiates a new Decorating cache manager.
+     *
+     * @param target the cache manager whose caches are decorated; must not be transaction aware itself
+     */
+    protected DecoratingCacheManager(CacheManager target) {
+        this.target = target;
+    }
+
+    /**
+     * Follows the chain of decorating managers down to the first manager of the given type.
+     *
+     * @param <T> the type of the manager
+     * @param cacheManager the outermost cache manager
+     * @param type the type of the manager
+     * @return the manager, or null if the chain contains none of the type
+     */
+    public static <T extends CacheManager> T unwrap(CacheManager cacheManager, Class<T> type) {
+        CacheManager manager = cacheManager;
+        while (!type.isInstance(manager) && manager instanceof DecoratingCacheManager decorating) {
+            manager = decorating.getTargetCacheManager();
+        }
+        return type.isInstance(manager) ? type.cast(manager) : null;
+    }
+
+    /**
+     * The cache manager whose caches are decorated.
+     *
+     * @return the target cache manager
+     */
+    public CacheManager getTargetCacheManager() {
+        return target;
+    }
+
+    /**
+     * Wraps a cache of the target manager.
+     *
+     * @param cache the cache of the target manager
+     * @return the decorated cache
+     */
+    protected abstract Cache decorate(Cache cache);
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        return List.of();
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        Cache cache = target.getCache(name);
+        return cache != null ? decorate(cache) : null;
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.store.config;
+
+import com.example.store.dto.FieldSet;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Lets the application's {@link ObjectMapper} write the DTOs that carry a {@code @JsonFilter}: Jackson refuses to
+ * serialize them without a filter provider, so every property is written unless a response sets the filters of a
+ * {@link FieldSet}. Registered as a module so that Spring Boot applies it to the auto-configured mapper, including in
+ * MVC slice tests.
+ */
+@Component
+public class FieldFilterModule extends SimpleModule {
+
+    /** Instantiates a new Field filter module. */
+    public FieldFilterModule() {
+        super(FieldFilterModule.class.getSimpleName());
+    }
+
+    @Override
+    public void setupModule(SetupContext context) {
+        super.setupModule(context);
+        if (context.getOwner() instanceof ObjectMapper mapper) {
+            mapper.setFilterProvider(FieldSet.allFields());
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.store.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.zset.Aggregate;
+import org.springframework.data.redis.connection.zset.Weights;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Records which keys of the tracked caches are read most, shared across instances so that a new instance can warm its
+ * caches with them. Lookups are counted in memory and flushed on a fixed delay into one Redis sorted set per cache,
+ * whose scores decay by a constant factor on every flush; the set is trimmed to the hottest keys and expires when no
+ * instance flushes into it any more.
+ */
+@Slf4j
+public class HotKeyRecorder {
+
+    private static final String KEY_PREFIX = "hot-keys::";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Set<String> cacheNames;
+    private final int maxTracked;
+    private final int retained;
+    private final double decay;
+    private final Duration ttl;
+    private final ConcurrentMap<String, ConcurrentMap<String, LongAdder>> counts = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new Hot key recorder.
+     *
+     * @param redisTemplate the redis template holding the shared hot-key sets
+     * @param cacheNames the caches whose keys are recorded
+     * @param maxTracked the most distinct keys counted per cache between two flushes
+     * @param retained the number of hottest keys kept per cache in Redis
+     * @param decay the factor applied to the shared scores on every flush, between 0 and 1
+     * @param ttl how long a shared set is kept after the last flush into it
+     */
+    public HotKeyRecorder(
+            StringRedisTemplate redisTemplate,
+            Set<String> cacheNames,
+            int maxTracked,
+            int retained,
+            double decay,
+            Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.cacheNames = Set.copyOf(cacheNames);
+        this.maxTracked = maxTracked;
+        this.retained = retained;
+        this.decay = decay;
+        this.ttl = ttl;
+        for (String cacheName : this.cacheNames) {
+            counts.put(cacheName, new ConcurrentHashMap<>());
+        }
+    }
+
+    /**
+     * The caches whose keys are recorded.
+     *
+     * @return the cache names
+     */
+    public Set<String> getCacheNames() {
+        return cacheNames;
+    }
+
+    /**
+     * Counts a lookup of a key. Lookups of untracked caches, and of new keys once {@code maxTracked} keys have been
+     * counted since the last flush, are ignored.
+     *
+     * @param cacheName the cache name
+     * @param key the cache key
+     */
+    public void record(String cacheName, Object key) {
+        ConcurrentMap<String, LongAdder> cacheCounts = counts.get(cacheName);
+        if (cacheCounts == null) {
+            return;
+        }
+        String member = String.valueOf(key);
+        LongAdder count = cacheCounts.get(member);
+        if (count == null) {
+            if (cacheCounts.size() >= maxTracked) {
+                return;
+            }
+            count = cacheCounts.computeIfAbsent(member, m -> new LongAdder());
+        }
+        count.increment();
+    }
+
+    /** Adds the lookups counted since the last flush to the shared sets. Runs in the background on a fixed delay. */
+    @Scheduled(
+            initialDelayString = "${store.cache.hot-keys.flush-interval-ms:60000}",
+            fixedDelayString = "${store.cache.hot-keys.flush-interval-ms:60000}")
+    public void flush() {
+        for (String cacheName : cacheNames) {
+            Map<String, LongAdder> flushed = counts.put(cacheName, new ConcurrentHashMap<>());
+            if (flushed == null || flushed.isEmpty()) {
+                continue;
+            }
+            String key = KEY_PREFIX + cacheName;
+            try {
+                redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    StringRedisConnection commands = (StringRedisConnection) connection;
+                    commands.zUnionStore(key, Aggregate.SUM, Weights.of(decay), key);
+                    for (Map.Entry<String, LongAdder> entry : flushed.entrySet()) {
+                        commands.zIncrBy(key, entry.getValue().sum(), entry.getKey());
+                    }
+                    commands.zRemRange(key, 0, -retained - 1L);
+                    commands.expire(key, ttl.toSeconds());
+                    return null;
+                });
+            } catch (DataAccessException e) {
+                log.warn("Failed to record hot keys of cache {}: {}", cacheName, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Returns the hottest keys of a cache, as recorded by every instance.
+     *
+     * @param cacheName the cache name
+     * @param count the most keys to return
+     * @return the keys, hottest first; empty if none are recorded or Redis is unavailable
+     */
+    public List<String> getHottest(String cacheName, int count) {
+        if (count <= 0) {
+            return List.of();
+        }
+        try {
+            Set<String> keys = redisTemplate.opsForZSet().reverseRange(KEY_PREFIX + cacheName, 0, count - 1L);
+            return keys == null ? List.of() : List.copyOf(keys);
+        } catch (DataAccessException e) {
+            log.warn("Failed to read hot keys of cache {}: {}", cacheName, e.getMessage());
+            return List.of();
+        }
+    }
+}
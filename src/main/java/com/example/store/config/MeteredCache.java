@@ -0,0 +1,230 @@
+package com.example.store.config;
+
+import org.springframework.cache.Cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache decorator recording per-cache metrics, all tagged by cache name:
+ *
+ * <ul>
+ *   <li>{@code store.cache.gets}, tagged {@code result} {@code hit} or {@code miss};
+ *   <li>{@code store.cache.puts} and {@code store.cache.evictions};
+ *   <li>{@code store.cache.get.latency}, tagged by result, and {@code store.cache.put.latency}, both with percentile
+ *       histograms.
+ * </ul>
+ *
+ * <p>A lookup through {@link #get(Object, Callable)} is a miss when its own loader runs. Callers served by a concurrent
+ * load of the same key count as hits; {@code store.cache.loads} tells them apart. Looked up keys are also passed to the
+ * {@link HotKeyRecorder}, if any.
+ */
+public class MeteredCache implements DecoratingCache {
+
+    private static final Duration MIN_LATENCY = Duration.ofNanos(10_000);
+    private static final Duration MAX_LATENCY = Duration.ofSeconds(10);
+
+    private final Cache target;
+    private final HotKeyRecorder hotKeyRecorder;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter puts;
+    private final Counter evictions;
+    private final Timer hitLatency;
+    private final Timer missLatency;
+    private final Timer putLatency;
+
+    /**
+     * Instantiates a new Metered cache.
+     *
+     * @param target the decorated cache
+     * @param meterRegistry the meter registry
+     */
+    public MeteredCache(Cache target, MeterRegistry meterRegistry) {
+        this(target, meterRegistry, null);
+    }
+
+    /**
+     * Instantiates a new Metered cache that also records the keys looked up.
+     *
+     * @param target the decorated cache
+     * @param meterRegistry the meter registry
+     * @param hotKeyRecorder the recorder of looked up keys, or null
+     */
+    public MeteredCache(Cache target, MeterRegistry meterRegistry, HotKeyRecorder hotKeyRecorder) {
+        this.target = target;
+        this.hotKeyRecorder = hotKeyRecorder;
+        String name = target.getName();
+        this.hits = gets(meterRegistry, name, "hit");
+        this.misses = gets(meterRegistry, name, "miss");
+        this.puts = Counter.builder("store.cache.puts")
+                .description("Entries written to the cache")
+                .tag("cache", name)
+                .register(meterRegistry);
+        this.evictions = Counter.builder("store.cache.evictions")
+                .description("Entries evicted from the cache")
+                .tag("cache", name)
+                .register(meterRegistry);
+        this.hitLatency = getLatency(meterRegistry, name, "hit");
+        this.missLatency = getLatency(meterRegistry, name, "miss");
+        this.putLatency = Timer.builder("store.cache.put.latency")
+                .description("Time taken to write an entry to the cache")
+                .tag("cache", name)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_LATENCY)
+                .maximumExpectedValue(MAX_LATENCY)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Cache getTargetCache() {
+        return target;
+    }
+
+    /**
+     * Records lookups made around this cache, for example by a batch read going to the store directly.
+     *
+     * @param keys the keys looked up
+     * @param missCount the number of them that were missing
+     */
+    public void recordGets(Collection<?> keys, int missCount) {
+        hits.increment(keys.size() - missCount);
+        misses.increment(missCount);
+        if (hotKeyRecorder != null) {
+            for (Object key : keys) {
+                hotKeyRecorder.record(getName(), key);
+            }
+        }
+    }
+
+    @Override
+    public String getName() {
+        return target.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return target.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        long start = System.nanoTime();
+        ValueWrapper value = target.get(key);
+        recordGet(key, value != null, start);
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        long start = System.nanoTime();
+        T value = target.get(key, type);
+        recordGet(key, value != null, start);
+        return value;
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        long start = System.nanoTime();
+        boolean[] loaded = new boolean[1];
+        try {
+            return target.get(key, () -> {
+                loaded[0] = true;
+                return valueLoader.call();
+            });
+        } finally {
+            recordGet(key, !loaded[0], start);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        long start = System.nanoTime();
+        target.put(key, value);
+        putLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        puts.increment();
+    }
+
+    @Override
+    public void putLoaded(Object key, Object value, Object token) {
+        long start = System.nanoTime();
+        DecoratingCache.putLoaded(target, key, value, token);
+        putLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        puts.increment();
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        long start = System.nanoTime();
+        ValueWrapper existing = target.putIfAbsent(key, value);
+        putLatency.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        if (existing == null) {
+            puts.increment();
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        target.evict(key);
+        evictions.increment();
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted = target.evictIfPresent(key);
+        if (evicted) {
+            evictions.increment();
+        }
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        target.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return target.invalidate();
+    }
+
+    private void recordGet(Object key, boolean hit, long start) {
+        long elapsed = System.nanoTime() - start;
+        if (hotKeyRecorder != null) {
+            hotKeyRecorder.record(getName(), key);
+        }
+        if (hit) {
+            hits.increment();
+            hitLatency.record(elapsed, TimeUnit.NANOSECONDS);
+        } else {
+            misses.increment();
+            missLatency.record(elapsed, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private static Counter gets(MeterRegistry meterRegistry, String cacheName, String result) {
+        return Counter.builder("store.cache.gets")
+                .description("Cache lookups, by whether the entry was found")
+                .tag("cache", cacheName)
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Timer getLatency(MeterRegistry meterRegistry, String cacheName, String result) {
+        return Timer.builder("store.cache.get.latency")
+                .description("Time taken to look up an entry, including loading it on a miss")
+                .tag("cache", cacheName)
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_LATENCY)
+                .maximumExpectedValue(MAX_LATENCY)
+                .register(meterRegistry);
+    }
+}
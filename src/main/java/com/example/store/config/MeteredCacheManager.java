@@ -0,0 +1,31 @@
+package com.example.store.config;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/** Cache manager wrapping every cache of another manager in a {@link MeteredCache}. */
+public class MeteredCacheManager extends DecoratingCacheManager {
+
+    private final MeterRegistry meterRegistry;
+    private final HotKeyRecorder hotKeyRecorder;
+
+    /**
+     * Instantiates a new Metered cache manager.
+     *
+     * @param target the cache manager whose caches are decorated; must not be transaction aware itself
+     * @param meterRegistry the meter registry
+     * @param hotKeyRecorder the recorder of looked up keys, or null
+     */
+    public MeteredCacheManager(CacheManager target, MeterRegistry meterRegistry, HotKeyRecorder hotKeyRecorder) {
+        super(target);
+        this.meterRegistry = meterRegistry;
+        this.hotKeyRecorder = hotKeyRecorder;
+    }
+
+    @Override
+    protected Cache decorate(Cache cache) {
+        return new MeteredCache(cache, meterRegistry, hotKeyRecorder);
+    }
+}
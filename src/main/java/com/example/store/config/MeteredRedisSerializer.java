@@ -0,0 +1,60 @@
+package com.example.store.config;
+
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Records the size of every value a cache writes to and reads from Redis in {@code store.cache.payload.size}, tagged by
+ * cache and operation.
+ */
+public class MeteredRedisSerializer implements RedisSerializer<Object> {
+
+    private final RedisSerializer<Object> delegate;
+    private final DistributionSummary writeSizes;
+    private final DistributionSummary readSizes;
+
+    /**
+     * Instantiates a new Metered redis serializer.
+     *
+     * @param delegate the serializer encoding the values
+     * @param meterRegistry the meter registry
+     * @param cacheName the name of the cache the values belong to
+     */
+    public MeteredRedisSerializer(RedisSerializer<Object> delegate, MeterRegistry meterRegistry, String cacheName) {
+        this.delegate = delegate;
+        this.writeSizes = payloadSize(meterRegistry, cacheName, "write");
+        this.readSizes = payloadSize(meterRegistry, cacheName, "read");
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        byte[] bytes = delegate.serialize(value);
+        if (bytes != null) {
+            writeSizes.record(bytes.length);
+        }
+        return bytes;
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes != null) {
+            readSizes.record(bytes.length);
+        }
+        return delegate.deserialize(bytes);
+    }
+
+    private static DistributionSummary payloadSize(MeterRegistry meterRegistry, String cacheName, String operation) {
+        return DistributionSummary.builder("store.cache.payload.size")
+                .description("Serialized size of cached values as stored in Redis")
+                .baseUnit("bytes")
+                .tag("cache", cacheName)
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(64.0)
+                .maximumExpectedValue(8.0 * 1024 * 1024)
+                .register(meterRegistry);
+    }
+}
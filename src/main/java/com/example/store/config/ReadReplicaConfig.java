@@ -0,0 +1,115 @@
+package com.example.store.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+/**
+ * Routes read-only transactions to read replicas when {@code store.datasource.replicas.enabled} is true. Writes keep
+ * using the {@code spring.datasource} pool; read-only transactions ({@code @Transactional(readOnly = true)} and the
+ * Spring Data repository defaults) take their connection from {@link ReplicaRoutingDataSource}.
+ *
+ * <p>The routing relies on {@link LazyConnectionDataSourceProxy}: the transaction manager marks the connection
+ * read-only before the first statement, and only then does the proxy pick the pool to fetch the real connection from.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "store.datasource.replicas", name = "enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    /**
+     * Primary pool, configured exactly like the default {@code spring.datasource} pool.
+     *
+     * @param properties the spring.datasource properties
+     * @return the primary data source
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource =
+                properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    /**
+     * Replica pools, one per entry of {@code store.datasource.replicas.pools}. Each entry takes any Hikari setting
+     * ({@code jdbc-url}, {@code username}, {@code maximum-pool-size}, {@code connection-timeout}, ...).
+     *
+     * @param primary the primary data source
+     * @param environment the environment
+     * @param maxLagMs the replication lag above which a replica is skipped
+     * @return the replica routing data source
+     */
+    @Bean
+    public ReplicaRoutingDataSource replicaDataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            Environment environment,
+            @Value("${store.datasource.replicas.max-lag-ms:0}") long maxLagMs) {
+        List<HikariConfig> configs = Binder.get(environment)
+                .bind("store.datasource.replicas.pools", Bindable.listOf(HikariConfig.class))
+                .orElse(List.of());
+        if (configs.isEmpty()) {
+            throw new IllegalStateException("store.datasource.replicas.pools must list at least one replica");
+        }
+
+        boolean virtualThreads = Threading.VIRTUAL.isActive(environment);
+        List<DataSource> pools = new ArrayList<>(configs.size());
+        for (int i = 0; i < configs.size(); i++) {
+            HikariConfig config = configs.get(i);
+            if (config.getPoolName() == null) {
+                config.setPoolName("replica-" + (i + 1));
+            }
+            // A replica that is down at startup is left out of rotation instead of failing the application
+            config.setInitializationFailTimeout(-1);
+            HikariDataSource pool = new HikariDataSource(config);
+            pools.add(virtualThreads ? VirtualThreadConfig.limit(pool) : pool);
+        }
+        return new ReplicaRoutingDataSource(primary, pools, maxLagMs);
+    }
+
+    /**
+     * The application data source: the primary for writes, the replicas for read-only transactions.
+     *
+     * @param primary the primary data source
+     * @param replicas the replica routing data source
+     * @return the data source
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(
+            @Qualifier("primaryDataSource") DataSource primary, ReplicaRoutingDataSource replicas) {
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(replicas);
+        return dataSource;
+    }
+
+    /**
+     * Read your writes filter.
+     *
+     * @param windowMs how long after a write the client's reads stay on the primary
+     * @return the read your writes filter
+     */
+    @Bean
+    public ReadYourWritesFilter readYourWritesFilter(
+            @Value("${store.datasource.replicas.read-your-writes-ms:5000}") long windowMs) {
+        return new ReadYourWritesFilter(windowMs);
+    }
+}
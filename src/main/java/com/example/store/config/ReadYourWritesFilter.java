@@ -0,0 +1,78 @@
+package com.example.store.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Keeps a client's reads on the primary for a short window after it writes, so it sees its own changes even while the
+ * replicas are catching up. A write request sets a cookie holding the end of the window; requests carrying an unexpired
+ * cookie, and the write request itself, are {@linkplain ReplicaRoutingContext pinned to the primary}.
+ */
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    /** Name of the cookie holding the epoch millisecond until which reads go to the primary. */
+    public static final String COOKIE_NAME = "store-primary-until";
+
+    private static final Set<String> READ_METHODS = Set.of("GET", "HEAD", "OPTIONS", "TRACE");
+
+    private final long windowMs;
+
+    /**
+     * Instantiates a new Read your writes filter.
+     *
+     * @param windowMs how long after a write the client's reads stay on the primary
+     */
+    public ReadYourWritesFilter(long windowMs) {
+        this.windowMs = windowMs;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        long now = System.currentTimeMillis();
+        boolean pinned = pinnedUntil(request) > now;
+        if (!READ_METHODS.contains(request.getMethod())) {
+            // Set before the body is written; the response may be committed once the chain returns
+            Cookie cookie = new Cookie(COOKIE_NAME, String.valueOf(now + windowMs));
+            cookie.setPath("/");
+            cookie.setHttpOnly(true);
+            cookie.setMaxAge((int) Math.max(1, (windowMs + 999) / 1000));
+            response.addCookie(cookie);
+            pinned = true;
+        }
+
+        if (pinned) {
+            ReplicaRoutingContext.pinToPrimary();
+        }
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReplicaRoutingContext.clear();
+        }
+    }
+
+    private static long pinnedUntil(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return 0;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    return Long.parseLong(cookie.getValue());
+                } catch (NumberFormatException e) {
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
@@ -1,22 +1,42 @@
 package com.example.store.config;
 
+import com.example.store.service.CacheTagIndex;
+import com.example.store.service.CustomerNameIndex;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
-import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
+import io.micrometer.core.instrument.MeterRegistry;
+
 import java.time.Duration;
+import java.util.EnumMap;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
-/** The type Redis config. */
+/**
+ * The type Redis config. With {@code store.cache.local.enabled} the Redis caches are fronted by in-process Caffeine
+ * caches, see {@link TwoTierCacheManager}.
+ */
 @Configuration
 @EnableCaching
 @EnableTransactionManagement
@@ -26,16 +46,50 @@ public class RedisConfig {
      * Cache manager.
      *
      * @param redisConnectionFactory the redis connection factory
+     * @param redisTemplate the redis template publishing local cache invalidations
+     * @param cacheTagIndex the index recording the entity tags of cached values
+     * @param cacheLoadCoalescer collapses concurrent misses of a key into one load, if enabled
+     * @param staleCachePolicy lets caches serve stale entries, if enabled
+     * @param environment the environment binding the per-cache value formats
+     * @param meterRegistry the meter registry recording per-cache hits, latencies and payload sizes
+     * @param hotKeyRecorder records the keys looked up for the startup warm-up, if enabled
+     * @param localEnabled whether an in-process cache sits in front of Redis
+     * @param localMaximumSize the maximum number of entries of each in-process cache
+     * @param localTtl the longest time an entry stays in an in-process cache
      * @return the cache manager
      */
     @Bean
-    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
+    public CacheManager cacheManager(
+            RedisConnectionFactory redisConnectionFactory,
+            StringRedisTemplate redisTemplate,
+            CacheTagIndex cacheTagIndex,
+            ObjectProvider<CacheLoadCoalescer> cacheLoadCoalescer,
+            ObjectProvider<StaleCachePolicy> staleCachePolicy,
+            Environment environment,
+            MeterRegistry meterRegistry,
+            ObjectProvider<HotKeyRecorder> hotKeyRecorder,
+            @Value("${store.cache.local.enabled:true}") boolean localEnabled,
+            @Value("${store.cache.local.maximum-size:10000}") long localMaximumSize,
+            @Value("${store.cache.local.ttl:60s}") Duration localTtl) {
+        Binder binder = Binder.get(environment);
+        CacheValueFormat defaultFormat = binder.bind("store.cache.serialization.default-format", CacheValueFormat.class)
+                .orElse(CacheValueFormat.JSON);
+        Map<String, CacheValueFormat> formats = binder.bind(
+                        "store.cache.serialization.formats", Bindable.mapOf(String.class, CacheValueFormat.class))
+                .orElse(Map.of());
+        int compressionThreshold = binder.bind("store.cache.serialization.compression-threshold", Integer.class)
+                .orElse(1024);
+        Map<CacheValueFormat, CacheValueSerializer> valueSerializers = new EnumMap<>(CacheValueFormat.class);
+        for (CacheValueFormat format : CacheValueFormat.values()) {
+            valueSerializers.put(format, new CacheValueSerializer(format, compressionThreshold));
+        }
+
         RedisCacheConfiguration defaultConfig = RedisCacheConfiguration.defaultCacheConfig()
                 .entryTtl(Duration.ofMinutes(10))
                 .serializeKeysWith(
                         RedisSerializationContext.SerializationPair.fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
-                        new GenericJackson2JsonRedisSerializer()))
+                        new MeteredRedisSerializer(valueSerializers.get(defaultFormat), meterRegistry, "default")))
                 .disableCachingNullValues();
 
         RedisCacheConfiguration customerConfig = defaultConfig.entryTtl(Duration.ofMinutes(5));
@@ -53,11 +107,194 @@ public class RedisConfig {
         cacheConfigurations.put("pagedCustomers", pagedConfig);
         cacheConfigurations.put("pagedProducts", pagedConfig);
         cacheConfigurations.put("pagedOrders", pagedConfig);
+        for (String name : formats.keySet()) {
+            cacheConfigurations.putIfAbsent(name, defaultConfig);
+        }
+        // Each named cache gets its own serializer instance so payload sizes are recorded per cache
+        for (Map.Entry<String, RedisCacheConfiguration> entry : cacheConfigurations.entrySet()) {
+            CacheValueSerializer serializer = valueSerializers.get(formats.getOrDefault(entry.getKey(), defaultFormat));
+            entry.setValue(entry.getValue()
+                    .serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                            new MeteredRedisSerializer(serializer, meterRegistry, entry.getKey()))));
+        }
 
-        return RedisCacheManager.builder(redisConnectionFactory)
+        // Caches serving stale entries keep them in Redis until the hard expiry and track freshness themselves
+        StaleCachePolicy policy = staleCachePolicy.getIfAvailable();
+        Map<String, Duration> freshFor = new HashMap<>();
+        if (policy != null) {
+            for (Map.Entry<String, RedisCacheConfiguration> entry : cacheConfigurations.entrySet()) {
+                if (policy.appliesTo(entry.getKey())) {
+                    Duration ttl = entry.getValue().getTtlFunction().getTimeToLive(entry.getKey(), null);
+                    freshFor.put(entry.getKey(), ttl);
+                    entry.setValue(entry.getValue().entryTtl(policy.getHardExpiry(ttl)));
+                }
+            }
+        }
+
+        // The outermost manager defers writes to commit itself, so the Redis manager underneath is not made
+        // transaction aware
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(redisConnectionFactory)
                 .cacheDefaults(defaultConfig)
                 .withInitialCacheConfigurations(cacheConfigurations)
-                .transactionAware()
                 .build();
+        redisCacheManager.initializeCaches();
+        CacheManager target = redisCacheManager;
+        if (localEnabled) {
+            TwoTierCacheManager twoTierCacheManager = new TwoTierCacheManager(
+                    redisCacheManager,
+                    redisTemplate,
+                    localMaximumSize,
+                    localTtl,
+                    name -> cacheConfigurations
+                            .getOrDefault(name, defaultConfig)
+                            .getTtlFunction()
+                            .getTimeToLive(name, null));
+            twoTierCacheManager.initializeCaches();
+            target = twoTierCacheManager;
+        }
+        return decorate(
+                target,
+                cacheTagIndex,
+                cacheLoadCoalescer.getIfAvailable(),
+                policy,
+                freshFor::get,
+                meterRegistry,
+                hotKeyRecorder.getIfAvailable());
+    }
+
+    /**
+     * Wraps the caches of a store in the tagging, coalescing, stale-while-revalidate and metering layers.
+     *
+     * @param target the cache manager of the store, with its caches initialized
+     * @param cacheTagIndex the index recording the entity tags of cached values
+     * @param coalescer collapses concurrent misses of a key into one load, or null
+     * @param policy lets caches serve stale entries, or null
+     * @param freshFor how long the entries of a cache are fresh, by cache name
+     * @param meterRegistry the meter registry recording per-cache hits, latencies and payload sizes
+     * @param hotKeyRecorder records the keys looked up for the startup warm-up, or null
+     * @return the outermost, transaction aware cache manager
+     */
+    static DecoratingCacheManager decorate(
+            CacheManager target,
+            CacheTagIndex cacheTagIndex,
+            CacheLoadCoalescer coalescer,
+            StaleCachePolicy policy,
+            Function<String, Duration> freshFor,
+            MeterRegistry meterRegistry,
+            HotKeyRecorder hotKeyRecorder) {
+        DecoratingCacheManager cacheManager = new TaggingCacheManager(target, cacheTagIndex);
+        if (coalescer != null) {
+            // Loads run below the coalescing layer, so each coalesced load is tagged once
+            cacheManager.initializeCaches();
+            cacheManager = new CoalescingCacheManager(cacheManager, coalescer);
+        }
+        if (policy != null) {
+            cacheManager.initializeCaches();
+            cacheManager = new StaleWhileRevalidateCacheManager(cacheManager, policy, freshFor, coalescer);
+        }
+        // Measured outermost, so latencies include every layer and stale entries served count as hits
+        cacheManager.initializeCaches();
+        cacheManager = new MeteredCacheManager(cacheManager, meterRegistry, hotKeyRecorder);
+        cacheManager.setTransactionAware(true);
+        return cacheManager;
+    }
+
+    /**
+     * Collapses concurrent misses of the same key of a {@code @Cacheable(sync = true)} method into a single load.
+     *
+     * @param meterRegistry the meter registry counting collapsed loads
+     * @param redisTemplate the redis template taking the cross-instance locks
+     * @param lockEnabled whether loads are also coordinated across instances through a Redis lock
+     * @param lockTimeout how long a lock is held at most
+     * @param lockPollInterval how often other instances check whether the value has been cached
+     * @return the cache load coalescer
+     */
+    @Bean
+    @ConditionalOnProperty(
+            prefix = "store.cache.coalescing",
+            name = "enabled",
+            havingValue = "true",
+            matchIfMissing = true)
+    public CacheLoadCoalescer cacheLoadCoalescer(
+            MeterRegistry meterRegistry,
+            StringRedisTemplate redisTemplate,
+            @Value("${store.cache.coalescing.lock.enabled:false}") boolean lockEnabled,
+            @Value("${store.cache.coalescing.lock.timeout:5s}") Duration lockTimeout,
+            @Value("${store.cache.coalescing.lock.poll-interval:50ms}") Duration lockPollInterval) {
+        return new CacheLoadCoalescer(meterRegistry, lockEnabled ? redisTemplate : null, lockTimeout, lockPollInterval);
+    }
+
+    /**
+     * Lets the paged caches serve entries past their TTL while they are reloaded, or while reloading them fails.
+     *
+     * @param cacheNames the caches that may serve stale entries
+     * @param staleWhileRevalidate how long after going stale an entry is served while it is refreshed in the background
+     * @param staleIfError how long after going stale an entry is served when reloading it fails
+     * @param refreshThreads the number of background refresh threads
+     * @param transactionManager the transaction manager the refreshes run in
+     * @return the stale cache policy
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "store.cache.stale", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public StaleCachePolicy staleCachePolicy(
+            @Value("${store.cache.stale.caches:pagedCustomers,pagedProducts,pagedOrders}") Set<String> cacheNames,
+            @Value("${store.cache.stale.stale-while-revalidate:1m}") Duration staleWhileRevalidate,
+            @Value("${store.cache.stale.stale-if-error:30m}") Duration staleIfError,
+            @Value("${store.cache.stale.refresh-threads:2}") int refreshThreads,
+            PlatformTransactionManager transactionManager) {
+        return new StaleCachePolicy(cacheNames, staleWhileRevalidate, staleIfError, transactionManager, refreshThreads);
+    }
+
+    /**
+     * Records the most read keys of the by-id caches in Redis, so that new instances can warm up with them.
+     *
+     * @param redisTemplate the redis template holding the shared hot-key sets
+     * @param cacheNames the caches whose keys are recorded
+     * @param maxTracked the most distinct keys counted per cache between two flushes
+     * @param retained the number of hottest keys kept per cache
+     * @param decay the factor applied to the recorded scores on every flush
+     * @param ttl how long the recorded keys are kept after the last flush
+     * @return the hot key recorder
+     */
+    @Bean
+    @ConditionalOnProperty(
+            prefix = "store.cache.hot-keys",
+            name = "enabled",
+            havingValue = "true",
+            matchIfMissing = true)
+    public HotKeyRecorder hotKeyRecorder(
+            StringRedisTemplate redisTemplate,
+            @Value("${store.cache.hot-keys.caches:customers,orders,products}") Set<String> cacheNames,
+            @Value("${store.cache.hot-keys.max-tracked:10000}") int maxTracked,
+            @Value("${store.cache.hot-keys.retained:1000}") int retained,
+            @Value("${store.cache.hot-keys.decay:0.9}") double decay,
+            @Value("${store.cache.hot-keys.ttl:1d}") Duration ttl) {
+        return new HotKeyRecorder(redisTemplate, cacheNames, maxTracked, retained, decay, ttl);
+    }
+
+    /**
+     * Subscribes this instance to the local cache invalidations and customer name index additions published by the
+     * other instances.
+     *
+     * @param redisConnectionFactory the redis connection factory
+     * @param cacheManager the cache manager
+     * @param customerNameIndex the customer name index
+     * @return the listener container
+     */
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListenerContainer(
+            RedisConnectionFactory redisConnectionFactory,
+            CacheManager cacheManager,
+            CustomerNameIndex customerNameIndex) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        container.addMessageListener(customerNameIndex, new ChannelTopic(CustomerNameIndex.ADDITIONS_CHANNEL));
+        TwoTierCacheManager twoTierCacheManager =
+                DecoratingCacheManager.unwrap(cacheManager, TwoTierCacheManager.class);
+        if (twoTierCacheManager != null) {
+            container.addMessageListener(
+                    twoTierCacheManager, new ChannelTopic(TwoTierCacheManager.INVALIDATION_CHANNEL));
+        }
+        return container;
     }
 }
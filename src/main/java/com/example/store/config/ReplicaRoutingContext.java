@@ -0,0 +1,31 @@
+package com.example.store.config;
+
+/**
+ * Holds whether the current thread must read from the primary database, for example because its client wrote
+ * recently. Consulted by {@link ReplicaRoutingDataSource} whenever a read-only connection is opened.
+ */
+public final class ReplicaRoutingContext {
+
+    private static final ThreadLocal<Boolean> PINNED_TO_PRIMARY = new ThreadLocal<>();
+
+    private ReplicaRoutingContext() {}
+
+    /**
+     * Whether read-only transactions of the current thread must use the primary.
+     *
+     * @return true if reads are pinned to the primary
+     */
+    public static boolean isPinnedToPrimary() {
+        return Boolean.TRUE.equals(PINNED_TO_PRIMARY.get());
+    }
+
+    /** Sends the read-only transactions of the current thread to the primary until {@link #clear()}. */
+    public static void pinToPrimary() {
+        PINNED_TO_PRIMARY.set(Boolean.TRUE);
+    }
+
+    /** Lets the read-only transactions of the current thread use the replicas again. */
+    public static void clear() {
+        PINNED_TO_PRIMARY.remove();
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.store.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+/**
+ * Hands out connections to read replicas, round robin. A replica is skipped while it is unhealthy: when it fails to
+ * hand out a connection, fails the periodic health check, or lags further behind the primary than the configured
+ * maximum. When no replica is usable, or the current thread is {@linkplain ReplicaRoutingContext pinned to the
+ * primary}, connections come from the primary instead.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    /** Replication lag in milliseconds, or 0 when the replica has replayed everything it received. */
+    private static final String LAG_SQL = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0"
+            + " ELSE COALESCE(EXTRACT(EPOCH FROM now() - pg_last_xact_replay_timestamp()) * 1000, 0) END";
+
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final long maxLagMs;
+    private final AtomicInteger next = new AtomicInteger();
+
+    /**
+     * Instantiates a new Replica routing data source.
+     *
+     * @param primary the primary data source, used when no replica is usable
+     * @param replicas the replica data sources
+     * @param maxLagMs the replication lag above which a replica is skipped, or 0 to not check the lag
+     */
+    public ReplicaRoutingDataSource(DataSource primary, List<? extends DataSource> replicas, long maxLagMs) {
+        this.primary = primary;
+        this.replicas = replicas.stream().map(Replica::new).toList();
+        this.maxLagMs = maxLagMs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!ReplicaRoutingContext.isPinnedToPrimary()) {
+            int size = replicas.size();
+            int start = Math.floorMod(next.getAndIncrement(), size);
+            for (int i = 0; i < size; i++) {
+                Replica replica = replicas.get((start + i) % size);
+                if (!replica.healthy) {
+                    continue;
+                }
+                try {
+                    return replica.dataSource.getConnection();
+                } catch (SQLException e) {
+                    replica.markUnhealthy(e.getMessage());
+                }
+            }
+        }
+        return primary.getConnection();
+    }
+
+    /**
+     * Replica pools only hand out connections with their own credentials, so a connection for other credentials always
+     * comes from the primary.
+     */
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return primary.getConnection(username, password);
+    }
+
+    /** Checks every replica and brings recovered ones back into rotation. Runs in the background on a fixed delay. */
+    @Scheduled(
+            initialDelayString = "${store.datasource.replicas.health-check-interval-ms:5000}",
+            fixedDelayString = "${store.datasource.replicas.health-check-interval-ms:5000}")
+    public void checkHealth() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.dataSource.getConnection()) {
+                if (!connection.isValid(VALIDATION_TIMEOUT_SECONDS)) {
+                    replica.markUnhealthy("connection is not valid");
+                    continue;
+                }
+                long lag = maxLagMs > 0 ? lagMs(connection) : 0;
+                if (maxLagMs > 0 && lag > maxLagMs) {
+                    replica.markUnhealthy("replication lag of " + lag + " ms");
+                } else {
+                    replica.markHealthy();
+                }
+            } catch (SQLException e) {
+                replica.markUnhealthy(e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Counts the replicas currently in rotation.
+     *
+     * @return the number of healthy replicas
+     */
+    public int getHealthyReplicaCount() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    @Override
+    public void close() {
+        for (Replica replica : replicas) {
+            HikariDataSource pool = replica.pool();
+            if (pool != null) {
+                pool.close();
+            }
+        }
+    }
+
+    private static long lagMs(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+                ResultSet resultSet = statement.executeQuery(LAG_SQL)) {
+            return resultSet.next() ? resultSet.getLong(1) : 0;
+        }
+    }
+
+    private static final class Replica {
+        private final DataSource dataSource;
+        private volatile boolean healthy = true;
+
+        Replica(DataSource dataSource) {
+            this.dataSource = dataSource;
+        }
+
+        void markUnhealthy(String reason) {
+            if (healthy) {
+                log.warn("Taking read replica {} out of rotation: {}", name(), reason);
+            }
+            healthy = false;
+        }
+
+        void markHealthy() {
+            if (!healthy) {
+                log.info("Read replica {} is back in rotation", name());
+            }
+            healthy = true;
+        }
+
+        /** The Hikari pool behind this replica, which may be wrapped by a {@link ConnectionLimitingDataSource}. */
+        HikariDataSource pool() {
+            try {
+                if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                    return dataSource.unwrap(HikariDataSource.class);
+                }
+                return null;
+            } catch (SQLException e) {
+                return null;
+            }
+        }
+
+        private String name() {
+            HikariDataSource pool = pool();
+            return pool != null ? pool.getPoolName() : dataSource.toString();
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.example.store.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/** The type Scheduling config. */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {}
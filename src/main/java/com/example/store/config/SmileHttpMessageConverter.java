@@ -0,0 +1,40 @@
+package com.example.store.config;
+
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reads and writes {@code application/x-jackson-smile}, the binary form of the JSON responses, for clients that ask
+ * for it in {@code Accept}; JSON stays the default. Replaces the Smile converter Spring MVC registers on its own, whose
+ * mapper lacks the application's modules: built from Spring Boot's {@link Jackson2ObjectMapperBuilder}, this one
+ * shares the configuration of the JSON mapper, including the filter provider of {@link FieldFilterModule}, so
+ * {@code fields} narrows Smile responses the same way.
+ */
+@Component
+public class SmileHttpMessageConverter extends MappingJackson2SmileHttpMessageConverter {
+
+    /**
+     * Instantiates a new Smile http message converter.
+     *
+     * @param objectMapperBuilder the builder of the application's JSON mapper
+     */
+    public SmileHttpMessageConverter(Jackson2ObjectMapperBuilder objectMapperBuilder) {
+        super(objectMapperBuilder.factory(smileFactory()).build());
+    }
+
+    /**
+     * Creates the factory of the Smile mapper. Repeated property names are back-referenced as by default; repeated
+     * short string values, such as customer names across the orders of a page, are back-referenced too.
+     *
+     * @return the factory
+     */
+    static SmileFactory smileFactory() {
+        SmileFactory factory = new SmileFactory();
+        factory.enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+        return factory;
+    }
+}
@@ -0,0 +1,135 @@
+package com.example.store.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Which caches may serve stale entries and for how long, see {@link StaleWhileRevalidateCache}. Also runs the
+ * background refreshes of those caches: at most one per entry at a time, each in a read-only transaction, on a small
+ * bounded pool so that a burst of stale hits cannot pile up refreshes.
+ */
+@Slf4j
+public class StaleCachePolicy implements DisposableBean {
+
+    private static final int REFRESH_QUEUE_CAPACITY = 100;
+
+    private final Set<String> cacheNames;
+    private final Duration staleWhileRevalidate;
+    private final Duration staleIfError;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final Set<String> refreshing = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Instantiates a new Stale cache policy.
+     *
+     * @param cacheNames the caches that may serve stale entries
+     * @param staleWhileRevalidate how long after going stale an entry is served while it is refreshed in the background
+     * @param staleIfError how long after going stale an entry is served when reloading it fails
+     * @param transactionManager the transaction manager the refreshes run in
+     * @param refreshThreads the number of background refresh threads
+     */
+    public StaleCachePolicy(
+            Set<String> cacheNames,
+            Duration staleWhileRevalidate,
+            Duration staleIfError,
+            PlatformTransactionManager transactionManager,
+            int refreshThreads) {
+        this.cacheNames = Set.copyOf(cacheNames);
+        this.staleWhileRevalidate = staleWhileRevalidate;
+        this.staleIfError = staleIfError;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cache-refresh-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(
+                refreshThreads,
+                refreshThreads,
+                0,
+                TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(REFRESH_QUEUE_CAPACITY),
+                threadFactory);
+    }
+
+    /**
+     * Whether a cache may serve stale entries.
+     *
+     * @param cacheName the cache name
+     * @return true if the cache is covered by this policy
+     */
+    public boolean appliesTo(String cacheName) {
+        return cacheNames.contains(cacheName);
+    }
+
+    /**
+     * How long after going stale an entry is served while it is refreshed in the background.
+     *
+     * @return the stale-while-revalidate window
+     */
+    public Duration getStaleWhileRevalidate() {
+        return staleWhileRevalidate;
+    }
+
+    /**
+     * How long after going stale an entry is served when reloading it fails.
+     *
+     * @return the stale-if-error window
+     */
+    public Duration getStaleIfError() {
+        return staleIfError;
+    }
+
+    /**
+     * The time after which an entry can no longer be served at all, and thus the TTL of the stored entries.
+     *
+     * @param freshFor how long an entry is fresh
+     * @return the hard expiry
+     */
+    public Duration getHardExpiry(Duration freshFor) {
+        return freshFor.plus(staleWhileRevalidate.compareTo(staleIfError) > 0 ? staleWhileRevalidate : staleIfError);
+    }
+
+    /**
+     * Runs a refresh in the background unless a refresh of the same entry is already pending. Failures are logged; the
+     * stale entry stays in place until its hard expiry.
+     *
+     * @param id identifies the entry
+     * @param refresh reloads and caches the entry
+     */
+    public void refresh(String id, Runnable refresh) {
+        if (!refreshing.add(id)) {
+            return;
+        }
+        try {
+            executor.execute(() -> {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> refresh.run());
+                } catch (RuntimeException e) {
+                    log.warn("Background refresh of cache entry {} failed: {}", id, e.getMessage());
+                } finally {
+                    refreshing.remove(id);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(id);
+            log.debug("Skipped background refresh of cache entry {}, the refresh queue is full", id);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
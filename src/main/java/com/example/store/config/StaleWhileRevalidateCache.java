@@ -0,0 +1,204 @@
+package com.example.store.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Cache decorator serving entries past their freshness, as in HTTP's {@code stale-while-revalidate} and
+ * {@code stale-if-error}. Entries are stored as {@link StampedValue}s and kept until their hard expiry, see
+ * {@link StaleCachePolicy#getHardExpiry(Duration)}. A lookup through {@link #get(Object, Callable)}:
+ *
+ * <ul>
+ *   <li>returns a fresh entry as is;
+ *   <li>returns an entry that went stale less than the stale-while-revalidate window ago at once and reloads it in the
+ *       background;
+ *   <li>reloads an older entry, returning the stale entry instead if reloading fails within the stale-if-error window.
+ * </ul>
+ *
+ * <p>Stale entries mark the current request with {@link #STALE_ATTRIBUTE}, which {@link StaleResponseAdvice} turns
+ * into a response header. Reloads go through the {@link CacheLoadCoalescer} when there is one.
+ */
+@Slf4j
+public class StaleWhileRevalidateCache implements DecoratingCache {
+
+    /** Request attribute set when the response contains a stale cache entry. */
+    public static final String STALE_ATTRIBUTE = StaleWhileRevalidateCache.class.getName() + ".STALE";
+
+    private final Cache target;
+    private final Duration freshFor;
+    private final StaleCachePolicy policy;
+    private final CacheLoadCoalescer coalescer;
+    private final Clock clock;
+
+    /**
+     * Instantiates a new Stale while revalidate cache.
+     *
+     * @param target the decorated cache, keeping entries until their hard expiry
+     * @param freshFor how long an entry is fresh
+     * @param policy the stale windows and background refreshes
+     * @param coalescer the coalescer loads go through, or null to load directly
+     * @param clock the clock entries are stamped with
+     */
+    public StaleWhileRevalidateCache(
+            Cache target, Duration freshFor, StaleCachePolicy policy, CacheLoadCoalescer coalescer, Clock clock) {
+        this.target = target;
+        this.freshFor = freshFor;
+        this.policy = policy;
+        this.coalescer = coalescer;
+        this.clock = clock;
+    }
+
+    @Override
+    public Cache getTargetCache() {
+        return target;
+    }
+
+    /**
+     * Entries are stored as {@link StampedValue}s, so they are read and written through this cache.
+     *
+     * @return false
+     */
+    @Override
+    public boolean storesValuesUnchanged() {
+        return false;
+    }
+
+    @Override
+    public String getName() {
+        return target.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return target.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        ValueWrapper cached = target.get(key);
+        return cached != null ? new SimpleValueWrapper(unstamp(cached.get())) : null;
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper cached = get(key);
+        if (cached == null || cached.get() == null) {
+            return null;
+        }
+        if (type != null && !type.isInstance(cached.get())) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]");
+        }
+        return type != null ? type.cast(cached.get()) : null;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = target.get(key);
+        if (cached == null || !(cached.get() instanceof StampedValue stamped)) {
+            return (T) load(key, valueLoader);
+        }
+
+        Duration staleFor = Duration.ofMillis(clock.millis() - stamped.getLoadedAt()).minus(freshFor);
+        if (staleFor.isNegative()) {
+            return (T) stamped.getValue();
+        }
+        if (staleFor.compareTo(policy.getStaleWhileRevalidate()) < 0) {
+            policy.refresh(getName() + "::" + key, () -> load(key, valueLoader));
+            markStale();
+            return (T) stamped.getValue();
+        }
+        try {
+            return (T) load(key, valueLoader);
+        } catch (ValueRetrievalException e) {
+            if (staleFor.compareTo(policy.getStaleIfError()) >= 0) {
+                throw e;
+            }
+            log.warn("Serving stale entry {} of cache {} after failing to reload it", key, getName(), e.getCause());
+            markStale();
+            return (T) stamped.getValue();
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        target.put(key, stamp(value));
+    }
+
+    @Override
+    public void putLoaded(Object key, Object value, Object token) {
+        DecoratingCache.putLoaded(target, key, stamp(value), token);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = target.putIfAbsent(key, stamp(value));
+        return existing != null ? new SimpleValueWrapper(unstamp(existing.get())) : null;
+    }
+
+    @Override
+    public void evict(Object key) {
+        target.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return target.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        target.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return target.invalidate();
+    }
+
+    private Object load(Object key, Callable<?> valueLoader) {
+        Callable<StampedValue> stampingLoader = () -> stamp(valueLoader.call());
+        try {
+            Object loaded;
+            if (coalescer != null) {
+                loaded = coalescer.load(target, key, stampingLoader, this::isFresh);
+            } else {
+                Object token = DecoratingCache.beginLoad(target);
+                loaded = stampingLoader.call();
+                if (loaded != null) {
+                    DecoratingCache.putLoaded(target, key, loaded, token);
+                }
+            }
+            return unstamp(loaded);
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+    }
+
+    private boolean isFresh(Object value) {
+        return value instanceof StampedValue stamped && clock.millis() - stamped.getLoadedAt() < freshFor.toMillis();
+    }
+
+    private StampedValue stamp(Object value) {
+        return value != null ? new StampedValue(value, clock.millis()) : null;
+    }
+
+    private static Object unstamp(Object value) {
+        return value instanceof StampedValue stamped ? stamped.getValue() : value;
+    }
+
+    private static void markStale() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(STALE_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+}
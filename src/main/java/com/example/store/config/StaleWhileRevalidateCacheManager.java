@@ -0,0 +1,44 @@
+package com.example.store.config;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.function.Function;
+
+/** Cache manager wrapping the caches covered by a {@link StaleCachePolicy} in a {@link StaleWhileRevalidateCache}. */
+public class StaleWhileRevalidateCacheManager extends DecoratingCacheManager {
+
+    private final StaleCachePolicy policy;
+    private final Function<String, Duration> freshFor;
+    private final CacheLoadCoalescer coalescer;
+
+    /**
+     * Instantiates a new Stale while revalidate cache manager.
+     *
+     * @param target the cache manager whose caches are decorated; must not be transaction aware itself
+     * @param policy the policy naming the caches that may serve stale entries
+     * @param freshFor how long the entries of a cache are fresh, by cache name
+     * @param coalescer the coalescer loads go through, or null to load directly
+     */
+    public StaleWhileRevalidateCacheManager(
+            CacheManager target,
+            StaleCachePolicy policy,
+            Function<String, Duration> freshFor,
+            CacheLoadCoalescer coalescer) {
+        super(target);
+        this.policy = policy;
+        this.freshFor = freshFor;
+        this.coalescer = coalescer;
+    }
+
+    @Override
+    protected Cache decorate(Cache cache) {
+        if (!policy.appliesTo(cache.getName())) {
+            return cache;
+        }
+        return new StaleWhileRevalidateCache(
+                cache, freshFor.apply(cache.getName()), policy, coalescer, Clock.systemUTC());
+    }
+}
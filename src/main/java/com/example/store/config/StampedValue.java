@@ -0,0 +1,14 @@
+package com.example.store.config;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** A cached value together with the time it was loaded, stored by {@link StaleWhileRevalidateCache}. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StampedValue {
+    private Object value;
+    private long loadedAt;
+}
@@ -0,0 +1,134 @@
+package com.example.store.config;
+
+import com.example.store.service.CacheTagIndex;
+
+import org.springframework.cache.Cache;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Cache decorator recording the tags of every value it stores in the {@link CacheTagIndex}. {@code null} values are
+ * never stored, so a {@code @Cacheable(sync = true)} method may return {@code null} for a missing entity. Neither are
+ * values whose tags were invalidated while they were being loaded, whether the load ran here or in a layer above,
+ * see {@link DecoratingCache#putLoaded(Object, Object, Object)}.
+ */
+public class TaggingCache implements DecoratingCache {
+
+    private final Cache target;
+    private final CacheTagIndex tagIndex;
+
+    /**
+     * Instantiates a new Tagging cache.
+     *
+     * @param target the decorated cache
+     * @param tagIndex the tag index
+     */
+    public TaggingCache(Cache target, CacheTagIndex tagIndex) {
+        this.target = target;
+        this.tagIndex = tagIndex;
+    }
+
+    @Override
+    public Cache getTargetCache() {
+        return target;
+    }
+
+    @Override
+    public String getName() {
+        return target.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return target.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return target.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return target.get(key, type);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        // Loaded here rather than by the target so that null results are returned instead of rejected by Redis
+        ValueWrapper cached = target.get(key);
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        Object token = beginLoad();
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        putLoaded(key, value, token);
+        return value;
+    }
+
+    /**
+     * Takes the generation of the tag index, to which {@link #putLoaded(Object, Object, Object)} compares the
+     * invalidations of the loaded value's tags.
+     *
+     * @return the generation of the tag index
+     */
+    @Override
+    public Object beginLoad() {
+        return tagIndex.generation();
+    }
+
+    @Override
+    public void putLoaded(Object key, Object value, Object token) {
+        // A value loaded across an invalidation of its tags may be the old state; it is returned but not cached
+        if (value != null
+                && token instanceof Long generation
+                && !tagIndex.invalidatedSince(generation, getName(), Map.of(key, value)).isEmpty()) {
+            return;
+        }
+        put(key, value);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        if (value != null) {
+            target.put(key, value);
+            tagIndex.tag(getName(), Map.of(key, value));
+        }
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = target.putIfAbsent(key, value);
+        if (existing == null && value != null) {
+            tagIndex.tag(getName(), Map.of(key, value));
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        target.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return target.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        target.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return target.invalidate();
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.store.config;
+
+import com.example.store.service.CacheTagIndex;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+/** Cache manager wrapping every cache of another manager in a {@link TaggingCache}. */
+public class TaggingCacheManager extends DecoratingCacheManager {
+
+    private final CacheTagIndex tagIndex;
+
+    /**
+     * Instantiates a new Tagging cache manager.
+     *
+     * @param target the cache manager whose caches are decorated; must not be transaction aware itself
+     * @param tagIndex the tag index
+     */
+    public TaggingCacheManager(CacheManager target, CacheTagIndex tagIndex) {
+        super(target);
+        this.tagIndex = tagIndex;
+    }
+
+    @Override
+    protected Cache decorate(Cache cache) {
+        return new TaggingCache(cache, tagIndex);
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.store.config;
+
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * A cache with an in-process Caffeine tier (L1) in front of a shared Redis tier (L2). Reads are answered from L1 when
+ * possible and fill it from L2 otherwise; writes go to L2 first. Writes, evictions and clears are applied to both tiers
+ * and then announced through the invalidation callback, so the other instances drop their L1 copies as well. An entry
+ * filled from L2 expires from L1 no later than from L2.
+ *
+ * <p>L1 holds the deserialized values themselves, so values handed out by this cache are shared between callers and
+ * must not be modified. L1 keys are the string form of the cache keys, matching how Redis keys are built.
+ */
+public class TwoTierCache implements Cache {
+
+    private final String name;
+    private final Cache remote;
+    private final com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private final Duration localTtl;
+    private final Function<Object, Duration> remoteTtl;
+    private final BiConsumer<String, String> invalidationPublisher;
+
+    /**
+     * Instantiates a new Two tier cache.
+     *
+     * @param name the cache name
+     * @param remote the Redis cache
+     * @param local the in-process cache, with variable expiry defaulting to the local TTL
+     * @param localTtl the longest time an entry stays in L1
+     * @param remoteTtl looks up the remaining L2 TTL of a key, or {@code null} if it is unknown or unlimited
+     * @param invalidationPublisher announces a written or evicted key, or {@code null} for a clear, to the other
+     *     instances
+     */
+    public TwoTierCache(
+            String name,
+            Cache remote,
+            com.github.benmanes.caffeine.cache.Cache<String, Object> local,
+            Duration localTtl,
+            Function<Object, Duration> remoteTtl,
+            BiConsumer<String, String> invalidationPublisher) {
+        this.name = name;
+        this.remote = remote;
+        this.local = local;
+        this.localTtl = localTtl;
+        this.remoteTtl = remoteTtl;
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return local;
+    }
+
+    /**
+     * The shared Redis tier.
+     *
+     * @return the Redis cache
+     */
+    public Cache getRemote() {
+        return remote;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            return new SimpleValueWrapper(value);
+        }
+        ValueWrapper remoteValue = remote.get(key);
+        if (remoteValue != null && remoteValue.get() != null) {
+            putLocal(key, remoteValue.get(), remoteTtl.apply(key));
+        }
+        return remoteValue;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException(
+                    "Cached value is not of required type [" + type.getName() + "]: " + value.getClass().getName());
+        }
+        return (T) value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        Object value = local.getIfPresent(localKey);
+        if (value != null) {
+            return (T) value;
+        }
+        T loaded = remote.get(key, valueLoader);
+        if (loaded != null) {
+            // The value may have been read from L2 rather than loaded, so it keeps no longer than the L2 entry
+            putLocal(key, loaded, remoteTtl.apply(key));
+        }
+        return loaded;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        putLocal(key, value);
+        invalidationPublisher.accept(name, localKey(key));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        if (existing != null) {
+            putLocal(key, existing.get(), remoteTtl.apply(key));
+        } else {
+            putLocal(key, value);
+            invalidationPublisher.accept(name, localKey(key));
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        evictLocal(localKey(key));
+        invalidationPublisher.accept(name, localKey(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = remote.evictIfPresent(key);
+        evictLocal(localKey(key));
+        invalidationPublisher.accept(name, localKey(key));
+        return present;
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        clearLocal();
+        invalidationPublisher.accept(name, null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean present = remote.invalidate();
+        clearLocal();
+        invalidationPublisher.accept(name, null);
+        return present;
+    }
+
+    /**
+     * Looks a key up in L1 only.
+     *
+     * @param key the cache key
+     * @return the value, or {@code null} if L1 does not hold the key
+     */
+    public Object getLocal(Object key) {
+        return local.getIfPresent(localKey(key));
+    }
+
+    /**
+     * Stores a value in L1 only, for values that were just read from or written to L2 by other means.
+     *
+     * @param key the cache key
+     * @param value the value; {@code null} drops the key
+     */
+    public void putLocal(Object key, Object value) {
+        if (value != null) {
+            local.put(localKey(key), value);
+        } else {
+            local.invalidate(localKey(key));
+        }
+    }
+
+    /**
+     * Stores a value that was just written to L2 by other means, such as a pipelined batch write, in L1 and announces
+     * the write to the other instances, as {@link #put(Object, Object)} does.
+     *
+     * @param key the cache key
+     * @param value the value written to L2
+     */
+    public void putWrittenRemotely(Object key, Object value) {
+        putLocal(key, value);
+        invalidationPublisher.accept(name, localKey(key));
+    }
+
+    /**
+     * Stores a value that was just read from L2 in L1 only, expiring it from L1 no later than from L2.
+     *
+     * @param key the cache key
+     * @param value the value; {@code null} drops the key
+     * @param remaining the remaining L2 TTL of the key, or {@code null} if it is unknown or unlimited
+     */
+    public void putLocal(Object key, Object value, Duration remaining) {
+        if (value == null || remaining == null || remaining.compareTo(localTtl) >= 0) {
+            putLocal(key, value);
+        } else if (remaining.isZero() || remaining.isNegative()) {
+            local.invalidate(localKey(key));
+        } else {
+            local.policy()
+                    .expireVariably()
+                    .ifPresentOrElse(
+                            expiry -> expiry.put(localKey(key), value, remaining),
+                            () -> local.invalidate(localKey(key)));
+        }
+    }
+
+    /**
+     * Drops a key from L1 only, on an invalidation announced by another instance.
+     *
+     * @param localKey the string form of the cache key
+     */
+    void evictLocal(String localKey) {
+        local.invalidate(localKey);
+    }
+
+    /** Drops every key from L1 only, on a clear announced by another instance. */
+    void clearLocal() {
+        local.invalidateAll();
+    }
+
+    /**
+     * The L1 expiry, giving every write the local TTL unless a fill from L2 shortens it.
+     *
+     * @param localTtl the longest time an entry stays in L1
+     * @return the expiry
+     */
+    static Expiry<String, Object> localExpiry(Duration localTtl) {
+        long nanos = localTtl.toNanos();
+        return new Expiry<>() {
+            @Override
+            public long expireAfterCreate(String key, Object value, long currentTime) {
+                return nanos;
+            }
+
+            @Override
+            public long expireAfterUpdate(String key, Object value, long currentTime, long currentDuration) {
+                return nanos;
+            }
+
+            @Override
+            public long expireAfterRead(String key, Object value, long currentTime, long currentDuration) {
+                return currentDuration;
+            }
+        };
+    }
+
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.store.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.AbstractTransactionSupportingCacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Cache manager layering a bounded Caffeine cache per cache name (L1) over the Redis cache manager (L2). Each L1 entry
+ * lives at most as long as the local TTL, and an entry filled from Redis no longer than the Redis key has left.
+ *
+ * <p>Writes, evictions and clears are published on {@link #INVALIDATION_CHANNEL}; every instance subscribes to the
+ * channel and drops the affected L1 entries, so a write on one instance reaches the L1 of the others within a pub/sub
+ * round trip. If an invalidation message is lost, the local TTL bounds how long a stale entry is served.
+ */
+@Slf4j
+public class TwoTierCacheManager extends AbstractTransactionSupportingCacheManager implements MessageListener {
+
+    /** Redis pub/sub channel carrying L1 invalidations between instances. */
+    public static final String INVALIDATION_CHANNEL = "store:cache:invalidations";
+
+    private static final String SEPARATOR = "\n";
+    private static final String CLEAR = "*";
+
+    private final CacheManager remote;
+    private final StringRedisTemplate redisTemplate;
+    private final long maximumSize;
+    private final Duration localTtl;
+    private final Function<String, Duration> remoteTtl;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final Map<String, TwoTierCache> caches = new ConcurrentHashMap<>();
+
+    /**
+     * Instantiates a new Two tier cache manager.
+     *
+     * @param remote the Redis cache manager; must not be transaction aware itself
+     * @param redisTemplate the template used to publish invalidations
+     * @param maximumSize the maximum number of entries held in L1 per cache
+     * @param localTtl the longest time an entry stays in L1
+     * @param remoteTtl the Redis TTL of each cache name
+     */
+    public TwoTierCacheManager(
+            CacheManager remote,
+            StringRedisTemplate redisTemplate,
+            long maximumSize,
+            Duration localTtl,
+            Function<String, Duration> remoteTtl) {
+        this.remote = remote;
+        this.redisTemplate = redisTemplate;
+        this.maximumSize = maximumSize;
+        this.localTtl = localTtl;
+        this.remoteTtl = remoteTtl;
+    }
+
+    @Override
+    protected Collection<? extends Cache> loadCaches() {
+        // Caches are created on first use, from the cache of the same name in Redis
+        return List.of();
+    }
+
+    @Override
+    protected Cache getMissingCache(String name) {
+        Cache remoteCache = remote.getCache(name);
+        if (remoteCache == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, cacheName -> {
+            Duration ttl = localTtl(cacheName);
+            return new TwoTierCache(
+                    cacheName,
+                    remoteCache,
+                    Caffeine.newBuilder()
+                            .maximumSize(maximumSize)
+                            .expireAfter(TwoTierCache.localExpiry(ttl))
+                            .build(),
+                    ttl,
+                    key -> remainingTtl(remoteCache, key),
+                    this::publishInvalidation);
+        });
+    }
+
+    /**
+     * Looks up the two-tier cache of a name without the transaction-aware decoration.
+     *
+     * @param name the cache name
+     * @return the cache, or {@code null} if it has not been used yet
+     */
+    public TwoTierCache getTwoTierCache(String name) {
+        return caches.get(name);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+        if (parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        TwoTierCache cache = caches.get(parts[1]);
+        if (cache == null) {
+            return;
+        }
+        if (CLEAR.equals(parts[2])) {
+            cache.clearLocal();
+        } else {
+            cache.evictLocal(parts[2]);
+        }
+    }
+
+    private void publishInvalidation(String cacheName, String key) {
+        String message = nodeId + SEPARATOR + cacheName + SEPARATOR + (key != null ? key : CLEAR);
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, message);
+        } catch (DataAccessException e) {
+            log.warn(
+                    "Failed to publish invalidation of cache {}; other instances keep their copies for up to {}: {}",
+                    cacheName,
+                    localTtl,
+                    e.getMessage());
+        }
+    }
+
+    /** Reads the remaining TTL of a key in Redis, so that an L1 copy does not outlive the Redis entry. */
+    private Duration remainingTtl(Cache remoteCache, Object key) {
+        if (!(remoteCache instanceof RedisCache redisCache)) {
+            return null;
+        }
+        RedisCacheConfiguration config = redisCache.getCacheConfiguration();
+        String redisKey = config.usePrefix() ? config.getKeyPrefixFor(redisCache.getName()) + key : String.valueOf(key);
+        try {
+            Long millis = redisTemplate.getExpire(redisKey, TimeUnit.MILLISECONDS);
+            // -1 marks a key without expiry, -2 a key that has expired in the meantime
+            if (millis == null || millis == -1) {
+                return null;
+            }
+            return Duration.ofMillis(Math.max(millis, 0));
+        } catch (DataAccessException e) {
+            log.debug("Failed to read the TTL of {}, keeping the local TTL: {}", redisKey, e.getMessage());
+            return null;
+        }
+    }
+
+    private Duration localTtl(String cacheName) {
+        Duration ttl = remoteTtl.apply(cacheName);
+        if (ttl == null || ttl.isZero() || ttl.isNegative() || ttl.compareTo(localTtl) > 0) {
+            return localTtl;
+        }
+        return ttl;
+    }
+}
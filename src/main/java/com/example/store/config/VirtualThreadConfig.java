@@ -0,0 +1,63 @@
+package com.example.store.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.time.Duration;
+
+/**
+ * Extra wiring for {@code spring.threads.virtual.enabled=true} on Java 21. Spring Boot itself moves Tomcat, the
+ * scheduler and the async executors onto virtual threads; this configuration keeps the connection pools from being
+ * stampeded by the unbounded number of request threads and reports virtual threads that get pinned while blocking.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+    /**
+     * Wraps every Hikari pool in a {@link ConnectionLimitingDataSource} sized to the pool's maximum size.
+     *
+     * @return the bean post processor
+     */
+    @Bean
+    public static BeanPostProcessor connectionLimitingPostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof HikariDataSource pool ? limit(pool) : bean;
+            }
+        };
+    }
+
+    /**
+     * Virtual thread pinning monitor.
+     *
+     * @param meterRegistry the meter registry
+     * @param thresholdMs the shortest pinning reported
+     * @return the virtual thread pinning monitor
+     */
+    @Bean
+    public VirtualThreadPinningMonitor virtualThreadPinningMonitor(
+            MeterRegistry meterRegistry,
+            @Value("${store.virtual-threads.pinning-threshold-ms:20}") long thresholdMs) {
+        return new VirtualThreadPinningMonitor(meterRegistry, Duration.ofMillis(thresholdMs));
+    }
+
+    /**
+     * Limits the connections handed out by a pool to the pool's size, waiting at most its connection timeout.
+     *
+     * @param pool the pool
+     * @return the limited data source
+     */
+    static ConnectionLimitingDataSource limit(HikariDataSource pool) {
+        return new ConnectionLimitingDataSource(pool, pool.getMaximumPoolSize(), pool.getConnectionTimeout());
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.store.config;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Reports virtual threads that stay pinned to their carrier thread, which happens when a virtual thread blocks inside a
+ * {@code synchronized} block or a native frame. Pinned threads hold a carrier for the whole blocking call, so the JDBC
+ * and Lettuce paths are watched closely: every {@code jdk.VirtualThreadPinned} event longer than the threshold is
+ * logged with its top frames and counted in {@code store.virtual-threads.pinned}, tagged by the library it came from.
+ */
+@Slf4j
+public class VirtualThreadPinningMonitor implements InitializingBean, DisposableBean {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int LOGGED_FRAMES = 8;
+
+    private final MeterRegistry meterRegistry;
+    private final Duration threshold;
+    private RecordingStream stream;
+
+    /**
+     * Instantiates a new Virtual thread pinning monitor.
+     *
+     * @param meterRegistry the meter registry
+     * @param threshold the shortest pinning reported
+     */
+    public VirtualThreadPinningMonitor(MeterRegistry meterRegistry, Duration threshold) {
+        this.meterRegistry = meterRegistry;
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::report);
+        stream.startAsync();
+        log.info("Reporting virtual threads pinned for longer than {} ms", threshold.toMillis());
+    }
+
+    @Override
+    public void destroy() {
+        if (stream != null) {
+            stream.close();
+        }
+    }
+
+    private void report(RecordedEvent event) {
+        RecordedStackTrace stackTrace = event.getStackTrace();
+        List<RecordedFrame> frames = stackTrace == null ? List.of() : stackTrace.getFrames();
+        String source = source(frames);
+        Counter.builder("store.virtual-threads.pinned")
+                .description("Virtual threads pinned to their carrier for longer than the reporting threshold")
+                .tag("source", source)
+                .register(meterRegistry)
+                .increment();
+
+        StringBuilder top = new StringBuilder();
+        for (RecordedFrame frame : frames.subList(0, Math.min(LOGGED_FRAMES, frames.size()))) {
+            if (frame.getMethod() == null) {
+                continue;
+            }
+            top.append("\n\tat ")
+                    .append(frame.getMethod().getType().getName())
+                    .append('.')
+                    .append(frame.getMethod().getName())
+                    .append(':')
+                    .append(frame.getLineNumber());
+        }
+        log.warn("Virtual thread pinned for {} ms in {} code{}", event.getDuration().toMillis(), source, top);
+    }
+
+    /**
+     * Names the library the pinning happened in, from the innermost frame that belongs to a known one.
+     *
+     * @param frames the stack of the pinned thread, innermost first
+     * @return jdbc, redis or other
+     */
+    private static String source(List<RecordedFrame> frames) {
+        for (RecordedFrame frame : frames) {
+            if (frame.getMethod() == null) {
+                continue;
+            }
+            String type = frame.getMethod().getType().getName();
+            if (type.startsWith("org.postgresql.") || type.startsWith("com.zaxxer.hikari.")) {
+                return "jdbc";
+            }
+            if (type.startsWith("io.lettuce.") || type.startsWith("org.springframework.data.redis.")) {
+                return "redis";
+            }
+        }
+        return "other";
+    }
+}
@@ -1,15 +1,26 @@
 package com.example.store.controller;
 
+import com.example.store.dto.BatchResponse;
+import com.example.store.dto.CountMode;
 import com.example.store.dto.CustomerDTO;
+import com.example.store.dto.ExportFormat;
+import com.example.store.dto.FieldSet;
+import com.example.store.dto.Include;
 import com.example.store.entity.Customer;
 import com.example.store.service.CustomerService;
+import com.example.store.service.ExportService;
 
 import jakarta.validation.Valid;
 
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -19,6 +30,8 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import java.util.List;
+
 /** Customer controller. */
 @RestController
 @RequestMapping("/customer")
@@ -27,6 +40,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class CustomerController {
 
     private final CustomerService customerService;
+    private final ExportService exportService;
 
     /**
      * Gets all customers paged.
@@ -35,12 +49,18 @@ public class CustomerController {
      * @param size the size
      * @param sortBy the sort by
      * @param sortOrder the sort order
+     * @param count the count mode
+     * @param after the keyset cursor
+     * @param fields the fields to return
+     * @param include the relations to expand
+     * @param includeLimit the most orders per customer
      * @return the all customers paged
      */
     @GetMapping("/all")
     @Operation(
             summary = "Get all customers with pagination",
-            description = "Retrieve a paginated list of all customers")
+            description = "Retrieve a paginated list of all customers; their orders are included with include=orders,"
+                    + " loaded with one batched query per page")
     @ApiResponses(
             value = {
                 @ApiResponse(
@@ -49,15 +69,42 @@ public class CustomerController {
                         content =
                                 @Content(
                                         mediaType = "application/json",
-                                        schema = @Schema(implementation = com.example.store.dto.PagedResponse.class)))
+                                        schema = @Schema(implementation = com.example.store.dto.PagedResponse.class))),
+                @ApiResponse(responseCode = "304", description = "Unchanged since the ETag sent in If-None-Match")
             })
-    public com.example.store.dto.PagedResponse<CustomerDTO> getAllCustomersPaged(
+    public ResponseEntity<MappingJacksonValue> getAllCustomersPaged(
             @Parameter(description = "Page number (0-based)", example = "0") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size", example = "20") @RequestParam(defaultValue = "20") int size,
             @Parameter(description = "Sort field", example = "id") @RequestParam(defaultValue = "id") String sortBy,
             @Parameter(description = "Sort direction (asc/desc)", example = "asc") @RequestParam(defaultValue = "asc")
-                    String sortOrder) {
-        return customerService.getAllCustomers(page, size, sortBy, sortOrder);
+                    String sortOrder,
+            @Parameter(description = "How the total is obtained (exact/approximate/none)", example = "exact")
+                    @RequestParam(defaultValue = "exact")
+                    String count,
+            @Parameter(description = "Keyset cursor from a previous page; pass an empty value to start")
+                    @RequestParam(required = false)
+                    String after,
+            @Parameter(
+                            description = "Comma-separated fields to return, always including id; all when omitted",
+                            example = "id,name")
+                    @RequestParam(required = false)
+                    String fields,
+            @Parameter(
+                            description = "Comma-separated relations to expand (orders); none when omitted",
+                            example = "orders")
+                    @RequestParam(required = false)
+                    String include,
+            @Parameter(description = "Most orders per customer when included; the configured maximum when omitted")
+                    @RequestParam(required = false)
+                    Integer includeLimit) {
+        FieldSet fieldSet = FieldSet.fromParam(FieldSet.Resource.CUSTOMER, fields);
+        Include relations = Include.fromParam(fieldSet, include, includeLimit);
+        com.example.store.dto.PagedResponse<CustomerDTO> customers = after != null
+                ? customerService.getAllCustomersAfter(after, size, sortBy, sortOrder, relations)
+                : customerService.getAllCustomers(
+                        page, size, sortBy, sortOrder, CountMode.fromParam(count), relations);
+        FieldSet written = relations.isEmpty() ? fieldSet.withoutAssociations() : fieldSet;
+        return FieldResponses.ok(customers, ETags.ofPage(customers, ETags::hash), written);
     }
 
     /**
@@ -88,6 +135,7 @@ public class CustomerController {
      * Gets customer by id.
      *
      * @param id the id
+     * @param fields the fields to return
      * @return the customer by id
      */
     @GetMapping("/{id}")
@@ -101,12 +149,56 @@ public class CustomerController {
                                 @Content(
                                         mediaType = "application/json",
                                         schema = @Schema(implementation = CustomerDTO.class))),
+                @ApiResponse(responseCode = "304", description = "Unchanged since the ETag sent in If-None-Match"),
                 @ApiResponse(responseCode = "404", description = "Customer not found"),
                 @ApiResponse(responseCode = "400", description = "Invalid customer ID")
             })
-    public CustomerDTO getCustomerById(
-            @Parameter(description = "Customer ID", required = true, example = "1") @PathVariable Long id) {
-        return customerService.getCustomerById(id);
+    public ResponseEntity<MappingJacksonValue> getCustomerById(
+            @Parameter(description = "Customer ID", required = true, example = "1") @PathVariable Long id,
+            @Parameter(
+                            description = "Comma-separated fields to return, always including id; all when omitted",
+                            example = "id,name")
+                    @RequestParam(required = false)
+                    String fields) {
+        FieldSet fieldSet = FieldSet.fromParam(FieldSet.Resource.CUSTOMER, fields);
+        CustomerDTO customer = customerService.getCustomerById(id, fieldSet.getProjection());
+        return FieldResponses.ok(customer, ETags.of(customer), fieldSet);
+    }
+
+    /**
+     * Gets many customers by id.
+     *
+     * @param ids the customer ids
+     * @param fields the fields to return
+     * @return one item per requested id in request order
+     */
+    @GetMapping("/batch")
+    @Operation(
+            summary = "Get customers by IDs",
+            description = "Retrieve up to store.batch-get.max-ids customers in one request. Items are returned in"
+                    + " request order; unknown IDs are reported with status NOT_FOUND instead of failing the request")
+    @ApiResponses(
+            value = {
+                @ApiResponse(
+                        responseCode = "200",
+                        description = "Customers resolved; see the status of each item",
+                        content =
+                                @Content(
+                                        mediaType = "application/json",
+                                        schema = @Schema(implementation = BatchResponse.class))),
+                @ApiResponse(responseCode = "400", description = "No IDs or too many IDs")
+            })
+    public MappingJacksonValue getCustomersByIds(
+            @Parameter(description = "Comma-separated customer IDs", required = true, example = "1,2,3")
+                    @RequestParam
+                    List<Long> ids,
+            @Parameter(
+                            description = "Comma-separated fields to return, always including id; all when omitted",
+                            example = "id,name")
+                    @RequestParam(required = false)
+                    String fields) {
+        FieldSet fieldSet = FieldSet.fromParam(FieldSet.Resource.CUSTOMER, fields);
+        return FieldResponses.body(customerService.getCustomersByIds(ids, fieldSet.getProjection()), fieldSet);
     }
 
     /**
@@ -117,12 +209,17 @@ public class CustomerController {
      * @param size the size
      * @param sortBy the sort by
      * @param sortOrder the sort order
+     * @param count the count mode
+     * @param fields the fields to return
+     * @param include the relations to expand
+     * @param includeLimit the most orders per customer when included
      * @return the com . example . store . dto . paged response
      */
     @GetMapping("/search")
     @Operation(
             summary = "Search customers by name with pagination",
-            description = "Search for customers whose name contains the specified query string with pagination support")
+            description = "Search for customers whose name contains the specified query string with pagination support;"
+                    + " their orders are included with include=orders, loaded with one batched query per page")
     @ApiResponses(
             value = {
                 @ApiResponse(
@@ -134,7 +231,7 @@ public class CustomerController {
                                         schema = @Schema(implementation = com.example.store.dto.PagedResponse.class))),
                 @ApiResponse(responseCode = "400", description = "Invalid search query")
             })
-    public com.example.store.dto.PagedResponse<CustomerDTO> searchCustomers(
+    public MappingJacksonValue searchCustomers(
             @Parameter(
                             description = "Search query string to match against customer names",
                             required = false,
@@ -145,7 +242,62 @@ public class CustomerController {
             @Parameter(description = "Page size", example = "20") @RequestParam(defaultValue = "20") int size,
             @Parameter(description = "Sort field", example = "id") @RequestParam(defaultValue = "id") String sortBy,
             @Parameter(description = "Sort direction (asc/desc)", example = "asc") @RequestParam(defaultValue = "asc")
-                    String sortOrder) {
-        return customerService.searchCustomersByName(query, page, size, sortBy, sortOrder);
+                    String sortOrder,
+            @Parameter(description = "How the total is obtained (exact/approximate/none)", example = "exact")
+                    @RequestParam(defaultValue = "exact")
+                    String count,
+            @Parameter(
+                            description = "Comma-separated fields to return, always including id; all when omitted",
+                            example = "id,name")
+                    @RequestParam(required = false)
+                    String fields,
+            @Parameter(
+                            description = "Comma-separated relations to expand (orders); none when omitted",
+                            example = "orders")
+                    @RequestParam(required = false)
+                    String include,
+            @Parameter(description = "Most orders per customer when included; the configured maximum when omitted")
+                    @RequestParam(required = false)
+                    Integer includeLimit) {
+        FieldSet fieldSet = FieldSet.fromParam(FieldSet.Resource.CUSTOMER, fields);
+        Include relations = Include.fromParam(fieldSet, include, includeLimit);
+        FieldSet written = relations.isEmpty() ? fieldSet.withoutAssociations() : fieldSet;
+        return FieldResponses.body(
+                customerService.searchCustomersByName(
+                        query, page, size, sortBy, sortOrder, CountMode.fromParam(count), relations),
+                written);
+    }
+
+    /**
+     * Streams all customers as NDJSON or CSV.
+     *
+     * @param format the export format
+     * @return the streaming export
+     */
+    @GetMapping("/export")
+    @Operation(
+            summary = "Export all customers",
+            description = "Stream every customer with its id and name as NDJSON (one JSON object per line) or CSV."
+                    + " Rows are read through a database cursor and written as they arrive, so exports of any"
+                    + " size use constant memory")
+    @ApiResponses(
+            value = {
+                @ApiResponse(responseCode = "200", description = "Export streamed successfully"),
+                @ApiResponse(responseCode = "400", description = "Unknown export format")
+            })
+    public ResponseEntity<StreamingResponseBody> exportCustomers(
+            @Parameter(description = "Export format (ndjson or csv)", example = "ndjson")
+                    @RequestParam(defaultValue = "ndjson")
+                    String format) {
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(
+                        HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment()
+                                .filename("customers." + exportFormat.getFileExtension())
+                                .build()
+                                .toString())
+                .body(out -> exportService.exportCustomers(exportFormat, out));
     }
 }
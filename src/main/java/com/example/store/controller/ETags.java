@@ -0,0 +1,188 @@
+package com.example.store.controller;
+
+import com.example.store.dto.CustomerDTO;
+import com.example.store.dto.CustomerOrderDTO;
+import com.example.store.dto.FieldSet;
+import com.example.store.dto.OrderCustomerDTO;
+import com.example.store.dto.OrderDTO;
+import com.example.store.dto.PagedResponse;
+import com.example.store.dto.ProductDTO;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * Weak entity tags of the customer, order and product responses, computed from the ids and {@code @Version}s of the
+ * entities a response shows instead of from its serialized body. Every update of an entity increments its version,
+ * and the associations that change without one, such as the orders of a customer or the order ids of a product, are
+ * covered by their ids. Returned in a {@code ResponseEntity}, the tag lets Spring MVC answer a matching
+ * {@code If-None-Match} with {@code 304 Not Modified} before the body is written.
+ *
+ * <p>The tags are weak because one tag covers every encoding of the same data: JSON and Smile, compressed or not.
+ * Tomcat does not compress responses with a strong tag, and {@code If-None-Match} compares tags weakly anyway.
+ */
+final class ETags {
+
+    private static final long SEED = 0xcbf29ce484222325L;
+    private static final long MULTIPLIER = 0x9e3779b97f4a7c15L;
+    private static final long ABSENT = -1;
+
+    private ETags() {}
+
+    /**
+     * The entity tag of a customer response.
+     *
+     * @param customer the customer
+     * @return the weak entity tag
+     */
+    static String of(CustomerDTO customer) {
+        return format(hash(customer));
+    }
+
+    /**
+     * The entity tag of an order response.
+     *
+     * @param order the order
+     * @return the weak entity tag
+     */
+    static String of(OrderDTO order) {
+        return format(hash(order));
+    }
+
+    /**
+     * The entity tag of a product response.
+     *
+     * @param product the product
+     * @return the weak entity tag
+     */
+    static String of(ProductDTO product) {
+        return format(hash(product));
+    }
+
+    /**
+     * The entity tag of a page, from its metadata and the hashes of its elements.
+     *
+     * @param <T> the type of the elements
+     * @param page the page
+     * @param element hashes an element, e.g. {@code ETags::hash}
+     * @return the weak entity tag
+     */
+    static <T> String ofPage(PagedResponse<T> page, ToLongFunction<T> element) {
+        long hash = mix(SEED, page.getPage());
+        hash = mix(hash, page.getSize());
+        hash = mix(hash, page.getTotalElements());
+        hash = mix(hash, page.getTotalPages());
+        hash = mix(
+                hash,
+                (page.isTotalExact() ? 1 : 0)
+                        | (page.isFirst() ? 2 : 0)
+                        | (page.isLast() ? 4 : 0)
+                        | (page.isHasNext() ? 8 : 0)
+                        | (page.isHasPrevious() ? 16 : 0));
+        hash = mix(hash, page.getNextCursor() != null ? page.getNextCursor().hashCode() : ABSENT);
+        List<T> content = page.getContent();
+        if (content == null) {
+            return format(mix(hash, ABSENT));
+        }
+        hash = mix(hash, content.size());
+        for (T item : content) {
+            hash = mix(hash, element.applyAsLong(item));
+        }
+        return format(hash);
+    }
+
+    /**
+     * The entity tag of a response showing only some fields. Responses with different fields are different
+     * representations of the same resource, so the field names are mixed into the tag.
+     *
+     * @param etag the weak entity tag of the full response
+     * @param fields the requested fields
+     * @return the weak entity tag
+     */
+    static String withFields(String etag, FieldSet fields) {
+        if (fields.isAll()) {
+            return etag;
+        }
+        long hash = SEED;
+        for (String field : fields.getFields()) {
+            hash = mix(hash, field.hashCode());
+        }
+        return etag.substring(0, etag.length() - 1) + "-" + Long.toHexString(hash) + "\"";
+    }
+
+    /**
+     * Hashes a customer with its nested orders.
+     *
+     * @param customer the customer
+     * @return the hash
+     */
+    static long hash(CustomerDTO customer) {
+        long hash = mix(mix(SEED, value(customer.getId())), value(customer.getVersion()));
+        hash = mix(hash, customer.isOrdersTruncated() ? 1 : 0);
+        List<CustomerOrderDTO> orders = customer.getOrders();
+        if (orders == null) {
+            return mix(hash, ABSENT);
+        }
+        hash = mix(hash, orders.size());
+        for (CustomerOrderDTO order : orders) {
+            hash = mix(mix(hash, value(order.getId())), value(order.getVersion()));
+        }
+        return hash;
+    }
+
+    /**
+     * Hashes an order with its customer and products.
+     *
+     * @param order the order
+     * @return the hash
+     */
+    static long hash(OrderDTO order) {
+        long hash = mix(mix(SEED, value(order.getId())), value(order.getVersion()));
+        OrderCustomerDTO customer = order.getCustomer();
+        hash = customer == null
+                ? mix(hash, ABSENT)
+                : mix(mix(hash, value(customer.getId())), value(customer.getVersion()));
+        List<ProductDTO> products = order.getProducts();
+        if (products == null) {
+            return mix(hash, ABSENT);
+        }
+        hash = mix(hash, products.size());
+        for (ProductDTO product : products) {
+            hash = mix(hash, hash(product));
+        }
+        return hash;
+    }
+
+    /**
+     * Hashes a product with its order ids.
+     *
+     * @param product the product
+     * @return the hash
+     */
+    static long hash(ProductDTO product) {
+        long hash = mix(mix(SEED, value(product.getId())), value(product.getVersion()));
+        hash = mix(hash, product.isOrderIdsTruncated() ? 1 : 0);
+        List<Long> orderIds = product.getOrderIds();
+        if (orderIds == null) {
+            return mix(hash, ABSENT);
+        }
+        hash = mix(hash, orderIds.size());
+        for (Long orderId : orderIds) {
+            hash = mix(hash, value(orderId));
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, long value) {
+        long mixed = (hash ^ value) * MULTIPLIER;
+        return mixed ^ (mixed >>> 32);
+    }
+
+    private static long value(Long value) {
+        return value != null ? value : ABSENT;
+    }
+
+    private static String format(long hash) {
+        return "W/\"" + Long.toHexString(hash) + "\"";
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.store.controller;
+
+import com.example.store.dto.FieldSet;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+/** Response bodies written with only the fields requested through the {@code fields} parameter. */
+final class FieldResponses {
+
+    private FieldResponses() {}
+
+    /**
+     * Wraps a body so that the JSON and Smile converters write only the requested fields.
+     *
+     * @param body the body
+     * @param fields the requested fields
+     * @return the wrapped body
+     */
+    static MappingJacksonValue body(Object body, FieldSet fields) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(fields.getFilters());
+        return value;
+    }
+
+    /**
+     * A {@code 200 OK} response with the requested fields of a body and its entity tag. The tag follows the entities
+     * shown, not the encoding, so the response varies by {@code Accept} for caches holding both JSON and Smile.
+     *
+     * @param body the body
+     * @param etag the entity tag of the full body
+     * @param fields the requested fields
+     * @return the response
+     */
+    static ResponseEntity<MappingJacksonValue> ok(Object body, String etag, FieldSet fields) {
+        return ResponseEntity.ok()
+                .eTag(ETags.withFields(etag, fields))
+                .varyBy(HttpHeaders.ACCEPT)
+                .body(body(body, fields));
+    }
+}
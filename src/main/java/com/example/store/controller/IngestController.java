@@ -0,0 +1,72 @@
+package com.example.store.controller;
+
+import com.example.store.dto.ExportFormat;
+import com.example.store.dto.IngestReport;
+import com.example.store.dto.IngestTarget;
+import com.example.store.service.IngestService;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.web.bind.annotation.*;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/** Ingest controller. */
+@RestController
+@RequestMapping("/ingest")
+@RequiredArgsConstructor
+@Tag(name = "Ingestion", description = "Bulk loading of customers, products and orders from files")
+public class IngestController {
+
+    private final IngestService ingestService;
+
+    /**
+     * Loads an NDJSON or CSV upload into a table.
+     *
+     * @param target the table to load (customers, products or orders)
+     * @param format the upload format
+     * @param body the request body, optionally gzip-compressed
+     * @return the ingestion report
+     * @throws IOException if the upload cannot be read
+     */
+    @PostMapping("/{target}")
+    @Operation(
+            summary = "Bulk load rows from a file",
+            description = "Load an NDJSON or CSV request body, optionally gzip-compressed, into customers (name),"
+                    + " products (description) or orders (description, customerId, productIds). Rows are validated"
+                    + " and inserted in batches by parallel workers; invalid rows are rejected individually and"
+                    + " reported with their line numbers")
+    @ApiResponses(
+            value = {
+                @ApiResponse(
+                        responseCode = "200",
+                        description = "Upload processed; see the report for inserted and rejected rows",
+                        content =
+                                @Content(
+                                        mediaType = "application/json",
+                                        schema = @Schema(implementation = IngestReport.class))),
+                @ApiResponse(
+                        responseCode = "400",
+                        description = "Unknown target or format, or the CSV header lacks a column")
+            })
+    public IngestReport ingest(
+            @Parameter(description = "Target table (customers, products or orders)", example = "customers")
+                    @PathVariable
+                    String target,
+            @Parameter(description = "Upload format (ndjson or csv)", example = "ndjson")
+                    @RequestParam(defaultValue = "ndjson")
+                    String format,
+            InputStream body)
+            throws IOException {
+        return ingestService.ingest(IngestTarget.fromParam(target), ExportFormat.fromParam(format), body);
+    }
+}
@@ -1,16 +1,26 @@
 package com.example.store.controller;
 
+import com.example.store.dto.BatchResponse;
+import com.example.store.dto.BulkOrderResponse;
+import com.example.store.dto.CountMode;
 import com.example.store.dto.CreateOrderRequest;
+import com.example.store.dto.ExportFormat;
+import com.example.store.dto.FieldSet;
 import com.example.store.dto.OrderDTO;
+import com.example.store.service.ExportService;
 import com.example.store.service.OrderService;
 
 import jakarta.validation.Valid;
 
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -20,6 +30,8 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import java.util.List;
+
 /** Order controller. */
 @RestController
 @RequestMapping("/order")
@@ -28,6 +40,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class OrderController {
 
     private final OrderService orderService;
+    private final ExportService exportService;
 
     /**
      * Gets all orders paged.
@@ -36,6 +49,9 @@ public class OrderController {
      * @param size the size
      * @param sortBy the sort by
      * @param sortOrder the sort order
+     * @param count the count mode
+     * @param after the keyset cursor
+     * @param fields the fields to return
      * @return the all orders paged
      */
     @GetMapping("")
@@ -48,21 +64,39 @@ public class OrderController {
                         content =
                                 @Content(
                                         mediaType = "application/json",
-                                        schema = @Schema(implementation = com.example.store.dto.PagedResponse.class)))
+                                        schema = @Schema(implementation = com.example.store.dto.PagedResponse.class))),
+                @ApiResponse(responseCode = "304", description = "Unchanged since the ETag sent in If-None-Match")
             })
-    public com.example.store.dto.PagedResponse<OrderDTO> getAllOrdersPaged(
+    public ResponseEntity<MappingJacksonValue> getAllOrdersPaged(
             @Parameter(description = "Page number (0-based)", example = "0") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size", example = "20") @RequestParam(defaultValue = "20") int size,
             @Parameter(description = "Sort field", example = "id") @RequestParam(defaultValue = "id") String sortBy,
             @Parameter(description = "Sort direction (asc/desc)", example = "asc") @RequestParam(defaultValue = "asc")
-                    String sortOrder) {
-        return orderService.getAllOrders(page, size, sortBy, sortOrder);
+                    String sortOrder,
+            @Parameter(description = "How the total is obtained (exact/approximate/none)", example = "exact")
+                    @RequestParam(defaultValue = "exact")
+                    String count,
+            @Parameter(description = "Keyset cursor from a previous page; pass an empty value to start")
+                    @RequestParam(required = false)
+                    String after,
+            @Parameter(
+                            description = "Comma-separated fields to return, always including id; all when omitted",
+                            example = "id,description")
+                    @RequestParam(required = false)
+                    String fields) {
+        FieldSet fieldSet = FieldSet.fromParam(FieldSet.Resource.ORDER, fields);
+        com.example.store.dto.PagedResponse<OrderDTO> orders = after != null
+                ? orderService.getAllOrdersAfter(after, size, sortBy, sortOrder, fieldSet.getProjection())
+                : orderService.getAllOrders(
+                        page, size, sortBy, sortOrder, CountMode.fromParam(count), fieldSet.getProjection());
+        return FieldResponses.ok(orders, ETags.ofPage(orders, ETags::hash), fieldSet);
     }
 
     /**
      * Gets order by id.
      *
      * @param id the id
+     * @param fields the fields to return
      * @return the order by id
      */
     @GetMapping("/{id}")
@@ -76,12 +110,57 @@ public class OrderController {
                                 @Content(
                                         mediaType = "application/json",
                                         schema = @Schema(implementation = OrderDTO.class))),
+                @ApiResponse(responseCode = "304", description = "Unchanged since the ETag sent in If-None-Match"),
                 @ApiResponse(responseCode = "404", description = "Order not found")
             })
-    public ResponseEntity<OrderDTO> getOrderById(
-            @Parameter(description = "Order ID", required = true, example = "1") @PathVariable Long id) {
-        return orderService.getOrderById(id).map(ResponseEntity::ok).orElseGet(() -> ResponseEntity.notFound()
-                .build());
+    public ResponseEntity<MappingJacksonValue> getOrderById(
+            @Parameter(description = "Order ID", required = true, example = "1") @PathVariable Long id,
+            @Parameter(
+                            description = "Comma-separated fields to return, always including id; all when omitted",
+                            example = "id,description")
+                    @RequestParam(required = false)
+                    String fields) {
+        FieldSet fieldSet = FieldSet.fromParam(FieldSet.Resource.ORDER, fields);
+        return orderService
+                .getOrderById(id, fieldSet.getProjection())
+                .map(order -> FieldResponses.ok(order, ETags.of(order), fieldSet))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Gets many orders by id.
+     *
+     * @param ids the order ids
+     * @param fields the fields to return
+     * @return one item per requested id in request order
+     */
+    @GetMapping("/batch")
+    @Operation(
+            summary = "Get orders by IDs",
+            description = "Retrieve up to store.batch-get.max-ids orders in one request. Items are returned in"
+                    + " request order; unknown IDs are reported with status NOT_FOUND instead of failing the request")
+    @ApiResponses(
+            value = {
+                @ApiResponse(
+                        responseCode = "200",
+                        description = "Orders resolved; see the status of each item",
+                        content =
+                                @Content(
+                                        mediaType = "application/json",
+                                        schema = @Schema(implementation = BatchResponse.class))),
+                @ApiResponse(responseCode = "400", description = "No IDs or too many IDs")
+            })
+    public MappingJacksonValue getOrdersByIds(
+            @Parameter(description = "Comma-separated order IDs", required = true, example = "1,2,3")
+                    @RequestParam
+                    List<Long> ids,
+            @Parameter(
+                            description = "Comma-separated fields to return, always including id; all when omitted",
+                            example = "id,description")
+                    @RequestParam(required = false)
+                    String fields) {
+        FieldSet fieldSet = FieldSet.fromParam(FieldSet.Resource.ORDER, fields);
+        return FieldResponses.body(orderService.getOrdersByIds(ids, fieldSet.getProjection()), fieldSet);
     }
 
     /**
@@ -107,4 +186,64 @@ public class OrderController {
     public OrderDTO createOrder(@Valid @RequestBody CreateOrderRequest request) {
         return orderService.createOrder(request);
     }
+
+    /**
+     * Creates many orders in one request.
+     *
+     * @param requests the orders to create
+     * @return the result of each item
+     */
+    @PostMapping("/bulk")
+    @Operation(
+            summary = "Create orders in bulk",
+            description = "Create up to store.order.bulk.max-items orders in one request. Items referencing unknown"
+                    + " customers or products are rejected individually; all other items are created together and"
+                    + " the response reports the outcome of every item in request order")
+    @ApiResponses(
+            value = {
+                @ApiResponse(
+                        responseCode = "200",
+                        description = "Items processed; see the per-item results",
+                        content =
+                                @Content(
+                                        mediaType = "application/json",
+                                        schema = @Schema(implementation = BulkOrderResponse.class))),
+                @ApiResponse(responseCode = "400", description = "Empty or oversized request")
+            })
+    public BulkOrderResponse createOrders(@RequestBody List<CreateOrderRequest> requests) {
+        return orderService.createOrders(requests);
+    }
+
+    /**
+     * Streams all orders as NDJSON or CSV.
+     *
+     * @param format the export format
+     * @return the streaming export
+     */
+    @GetMapping("/export")
+    @Operation(
+            summary = "Export all orders",
+            description = "Stream every order with its customer and product ids as NDJSON (one JSON object per line) or"
+                    + " CSV. Rows are read through a database cursor and written as they arrive, so exports of"
+                    + " any size use constant memory")
+    @ApiResponses(
+            value = {
+                @ApiResponse(responseCode = "200", description = "Export streamed successfully"),
+                @ApiResponse(responseCode = "400", description = "Unknown export format")
+            })
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @Parameter(description = "Export format (ndjson or csv)", example = "ndjson")
+                    @RequestParam(defaultValue = "ndjson")
+                    String format) {
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(
+                        HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment()
+                                .filename("orders." + exportFormat.getFileExtension())
+                                .build()
+                                .toString())
+                .body(out -> exportService.exportOrders(exportFormat, out));
+    }
 }
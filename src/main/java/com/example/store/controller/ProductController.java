@@ -1,15 +1,27 @@
 package com.example.store.controller;
 
+import com.example.store.dto.BatchResponse;
+import com.example.store.dto.CountMode;
 import com.example.store.dto.CreateProductRequest;
+import com.example.store.dto.ExportFormat;
+import com.example.store.dto.FieldSet;
+import com.example.store.dto.Include;
 import com.example.store.dto.ProductDTO;
+import com.example.store.dto.SearchMode;
+import com.example.store.service.ExportService;
 import com.example.store.service.ProductService;
 
 import jakarta.validation.Valid;
 
 import lombok.RequiredArgsConstructor;
 
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -19,6 +31,8 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 
+import java.util.List;
+
 /** Product controller. */
 @RestController
 @RequestMapping("/products")
@@ -27,6 +41,7 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 public class ProductController {
 
     private final ProductService productService;
+    private final ExportService exportService;
 
     /**
      * Gets all products paged.
@@ -35,12 +50,18 @@ public class ProductController {
      * @param size the size
      * @param sortBy the sort by
      * @param sortOrder the sort order
+     * @param count the count mode
+     * @param after the keyset cursor
+     * @param fields the fields to return
+     * @param include the relations to expand
+     * @param includeLimit the most order IDs per product
      * @return the all products paged
      */
     @GetMapping("")
     @Operation(
             summary = "Get all products with pagination",
-            description = "Retrieve a paginated list of all products with their associated order IDs")
+            description = "Retrieve a paginated list of all products; their associated order IDs are included with"
+                    + " include=orderIds, loaded with one batched query per page")
     @ApiResponses(
             value = {
                 @ApiResponse(
@@ -49,15 +70,41 @@ public class ProductController {
                         content =
                                 @Content(
                                         mediaType = "application/json",
-                                        schema = @Schema(implementation = com.example.store.dto.PagedResponse.class)))
+                                        schema = @Schema(implementation = com.example.store.dto.PagedResponse.class))),
+                @ApiResponse(responseCode = "304", description = "Unchanged since the ETag sent in If-None-Match")
             })
-    public com.example.store.dto.PagedResponse<ProductDTO> getAllProductsPaged(
+    public ResponseEntity<MappingJacksonValue> getAllProductsPaged(
             @Parameter(description = "Page number (0-based)", example = "0") @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Page size", example = "20") @RequestParam(defaultValue = "20") int size,
             @Parameter(description = "Sort field", example = "id") @RequestParam(defaultValue = "id") String sortBy,
             @Parameter(description = "Sort direction (asc/desc)", example = "asc") @RequestParam(defaultValue = "asc")
-                    String sortOrder) {
-        return productService.getAllProducts(page, size, sortBy, sortOrder);
+                    String sortOrder,
+            @Parameter(description = "How the total is obtained (exact/approximate/none)", example = "exact")
+                    @RequestParam(defaultValue = "exact")
+                    String count,
+            @Parameter(description = "Keyset cursor from a previous page; pass an empty value to start")
+                    @RequestParam(required = false)
+                    String after,
+            @Parameter(
+                            description = "Comma-separated fields to return, always including id; all when omitted",
+                            example = "id,description")
+                    @RequestParam(required = false)
+                    String fields,
+            @Parameter(
+                            description = "Comma-separated relations to expand (orderIds); none when omitted",
+                            example = "orderIds")
+                    @RequestParam(required = false)
+                    String include,
+            @Parameter(description = "Most order IDs per product when included; the configured maximum when omitted")
+                    @RequestParam(required = false)
+                    Integer includeLimit) {
+        FieldSet fieldSet = FieldSet.fromParam(FieldSet.Resource.PRODUCT, fields);
+        Include relations = Include.fromParam(fieldSet, include, includeLimit);
+        com.example.store.dto.PagedResponse<ProductDTO> products = after != null
+                ? productService.getAllProductsAfter(after, size, sortBy, sortOrder, relations)
+                : productService.getAllProducts(page, size, sortBy, sortOrder, CountMode.fromParam(count), relations);
+        FieldSet written = relations.isEmpty() ? fieldSet.withoutAssociations() : fieldSet;
+        return FieldResponses.ok(products, ETags.ofPage(products, ETags::hash), written);
     }
 
     /**
@@ -88,6 +135,7 @@ public class ProductController {
      * Gets product by id.
      *
      * @param id the id
+     * @param fields the fields to return
      * @return the product by id
      */
     @GetMapping("/{id}")
@@ -103,12 +151,56 @@ public class ProductController {
                                 @Content(
                                         mediaType = "application/json",
                                         schema = @Schema(implementation = ProductDTO.class))),
+                @ApiResponse(responseCode = "304", description = "Unchanged since the ETag sent in If-None-Match"),
                 @ApiResponse(responseCode = "404", description = "Product not found"),
                 @ApiResponse(responseCode = "400", description = "Invalid product ID")
             })
-    public ProductDTO getProductById(
-            @Parameter(description = "Product ID", required = true, example = "1") @PathVariable Long id) {
-        return productService.getProductById(id);
+    public ResponseEntity<MappingJacksonValue> getProductById(
+            @Parameter(description = "Product ID", required = true, example = "1") @PathVariable Long id,
+            @Parameter(
+                            description = "Comma-separated fields to return, always including id; all when omitted",
+                            example = "id,description")
+                    @RequestParam(required = false)
+                    String fields) {
+        FieldSet fieldSet = FieldSet.fromParam(FieldSet.Resource.PRODUCT, fields);
+        ProductDTO product = productService.getProductById(id, fieldSet.getProjection());
+        return FieldResponses.ok(product, ETags.of(product), fieldSet);
+    }
+
+    /**
+     * Gets many products by id.
+     *
+     * @param ids the product ids
+     * @param fields the fields to return
+     * @return one item per requested id in request order
+     */
+    @GetMapping("/batch")
+    @Operation(
+            summary = "Get products by IDs",
+            description = "Retrieve up to store.batch-get.max-ids products in one request. Items are returned in"
+                    + " request order; unknown IDs are reported with status NOT_FOUND instead of failing the request")
+    @ApiResponses(
+            value = {
+                @ApiResponse(
+                        responseCode = "200",
+                        description = "Products resolved; see the status of each item",
+                        content =
+                                @Content(
+                                        mediaType = "application/json",
+                                        schema = @Schema(implementation = BatchResponse.class))),
+                @ApiResponse(responseCode = "400", description = "No IDs or too many IDs")
+            })
+    public MappingJacksonValue getProductsByIds(
+            @Parameter(description = "Comma-separated product IDs", required = true, example = "1,2,3")
+                    @RequestParam
+                    List<Long> ids,
+            @Parameter(
+                            description = "Comma-separated fields to return, always including id; all when omitted",
+                            example = "id,description")
+                    @RequestParam(required = false)
+                    String fields) {
+        FieldSet fieldSet = FieldSet.fromParam(FieldSet.Resource.PRODUCT, fields);
+        return FieldResponses.body(productService.getProductsByIds(ids, fieldSet.getProjection()), fieldSet);
     }
 
     /**
@@ -119,13 +211,19 @@ public class ProductController {
      * @param size the size
      * @param sortBy the sort by
      * @param sortOrder the sort order
+     * @param count the count mode
+     * @param mode the search mode
+     * @param fields the fields to return
+     * @param include the relations to expand
+     * @param includeLimit the most order IDs per product when included
      * @return the com . example . store . dto . paged response
      */
     @GetMapping("/search")
     @Operation(
             summary = "Search products by description with pagination",
-            description =
-                    "Search for products whose description contains the specified query string with pagination support")
+            description = "Search for products whose description contains the specified query string with pagination"
+                    + " support. With mode=fulltext every query word is matched as a prefix and results are ordered"
+                    + " by relevance; sortBy and sortOrder are ignored.")
     @ApiResponses(
             value = {
                 @ApiResponse(
@@ -137,7 +235,7 @@ public class ProductController {
                                         schema = @Schema(implementation = com.example.store.dto.PagedResponse.class))),
                 @ApiResponse(responseCode = "400", description = "Invalid search query")
             })
-    public com.example.store.dto.PagedResponse<ProductDTO> searchProductsPaged(
+    public MappingJacksonValue searchProductsPaged(
             @Parameter(
                             description = "Search query string to match against product descriptions",
                             required = false,
@@ -148,7 +246,70 @@ public class ProductController {
             @Parameter(description = "Page size", example = "20") @RequestParam(defaultValue = "20") int size,
             @Parameter(description = "Sort field", example = "id") @RequestParam(defaultValue = "id") String sortBy,
             @Parameter(description = "Sort direction (asc/desc)", example = "asc") @RequestParam(defaultValue = "asc")
-                    String sortOrder) {
-        return productService.searchProductsByDescription(query, page, size, sortBy, sortOrder);
+                    String sortOrder,
+            @Parameter(description = "How the total is obtained (exact/approximate/none)", example = "exact")
+                    @RequestParam(defaultValue = "exact")
+                    String count,
+            @Parameter(description = "How the query is matched (substring/fulltext)", example = "substring")
+                    @RequestParam(defaultValue = "substring")
+                    String mode,
+            @Parameter(
+                            description = "Comma-separated fields to return, always including id; all when omitted",
+                            example = "id,description")
+                    @RequestParam(required = false)
+                    String fields,
+            @Parameter(
+                            description = "Comma-separated relations to expand (orderIds); none when omitted",
+                            example = "orderIds")
+                    @RequestParam(required = false)
+                    String include,
+            @Parameter(description = "Most order IDs per product when included; the configured maximum when omitted")
+                    @RequestParam(required = false)
+                    Integer includeLimit) {
+        FieldSet fieldSet = FieldSet.fromParam(FieldSet.Resource.PRODUCT, fields);
+        Include relations = Include.fromParam(fieldSet, include, includeLimit);
+        FieldSet written = relations.isEmpty() ? fieldSet.withoutAssociations() : fieldSet;
+        if (SearchMode.fromParam(mode) == SearchMode.FULLTEXT) {
+            return FieldResponses.body(
+                    productService.searchProductsByFullText(query, page, size, CountMode.fromParam(count), relations),
+                    written);
+        }
+        return FieldResponses.body(
+                productService.searchProductsByDescription(
+                        query, page, size, sortBy, sortOrder, CountMode.fromParam(count), relations),
+                written);
+    }
+
+    /**
+     * Streams all products as NDJSON or CSV.
+     *
+     * @param format the export format
+     * @return the streaming export
+     */
+    @GetMapping("/export")
+    @Operation(
+            summary = "Export all products",
+            description = "Stream every product with its order ids as NDJSON (one JSON object per line) or CSV."
+                    + " Rows are read through a database cursor and written as they arrive, so exports of any"
+                    + " size use constant memory")
+    @ApiResponses(
+            value = {
+                @ApiResponse(responseCode = "200", description = "Export streamed successfully"),
+                @ApiResponse(responseCode = "400", description = "Unknown export format")
+            })
+    public ResponseEntity<StreamingResponseBody> exportProducts(
+            @Parameter(description = "Export format (ndjson or csv)", example = "ndjson")
+                    @RequestParam(defaultValue = "ndjson")
+                    String format) {
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        return ResponseEntity.ok()
+                .contentType(exportFormat.getMediaType())
+                .header(
+                        HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment()
+                                .filename("products." + exportFormat.getFileExtension())
+                                .build()
+                                .toString())
+                .body(out -> exportService.exportProducts(exportFormat, out));
     }
 }
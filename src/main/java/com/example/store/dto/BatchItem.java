@@ -0,0 +1,52 @@
+package com.example.store.dto;
+
+import lombok.Data;
+
+/**
+ * One entry of a multi-get response.
+ *
+ * @param <T> the type of the resource
+ */
+@Data
+public class BatchItem<T> {
+
+    /** Whether the requested id exists. */
+    public enum Status {
+        FOUND,
+        NOT_FOUND
+    }
+
+    private Long id;
+    private Status status;
+    private T data;
+
+    /**
+     * Creates the entry of an id that was found.
+     *
+     * @param <T> the type of the resource
+     * @param id the requested id
+     * @param data the resource
+     * @return the entry
+     */
+    public static <T> BatchItem<T> found(Long id, T data) {
+        BatchItem<T> item = new BatchItem<>();
+        item.setId(id);
+        item.setStatus(Status.FOUND);
+        item.setData(data);
+        return item;
+    }
+
+    /**
+     * Creates the entry of an id that does not exist.
+     *
+     * @param <T> the type of the resource
+     * @param id the requested id
+     * @return the entry
+     */
+    public static <T> BatchItem<T> notFound(Long id) {
+        BatchItem<T> item = new BatchItem<>();
+        item.setId(id);
+        item.setStatus(Status.NOT_FOUND);
+        return item;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.store.dto;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-get response, with one item per requested id in request order.
+ *
+ * @param <T> the type of the resource
+ */
+@Data
+public class BatchResponse<T> {
+    private int found;
+    private int notFound;
+    private List<BatchItem<T>> items;
+
+    /**
+     * Builds the response for the requested ids from the resources that were found.
+     *
+     * @param <T> the type of the resource
+     * @param ids the requested ids in request order
+     * @param resources the resources found, by id
+     * @return the response
+     */
+    public static <T> BatchResponse<T> of(List<Long> ids, Map<Long, T> resources) {
+        List<BatchItem<T>> items = new ArrayList<>(ids.size());
+        int found = 0;
+        for (Long id : ids) {
+            T resource = resources.get(id);
+            if (resource != null) {
+                items.add(BatchItem.found(id, resource));
+                found++;
+            } else {
+                items.add(BatchItem.notFound(id));
+            }
+        }
+        BatchResponse<T> response = new BatchResponse<>();
+        response.setFound(found);
+        response.setNotFound(ids.size() - found);
+        response.setItems(items);
+        return response;
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.store.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/** Bulk order response, with one result per requested item in request order. */
+@Data
+public class BulkOrderResponse {
+    private int created;
+    private int failed;
+    private List<BulkOrderResult> results;
+}
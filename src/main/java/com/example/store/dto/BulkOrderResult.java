@@ -0,0 +1,49 @@
+package com.example.store.dto;
+
+import lombok.Data;
+
+/** Outcome of one item of a bulk order request. */
+@Data
+public class BulkOrderResult {
+
+    /** Whether the item was created. */
+    public enum Status {
+        CREATED,
+        FAILED
+    }
+
+    private int index;
+    private Status status;
+    private Long id;
+    private String error;
+
+    /**
+     * Creates the result of an item that was created.
+     *
+     * @param index the position of the item in the request
+     * @param id the id of the created order
+     * @return the result
+     */
+    public static BulkOrderResult created(int index, Long id) {
+        BulkOrderResult result = new BulkOrderResult();
+        result.setIndex(index);
+        result.setStatus(Status.CREATED);
+        result.setId(id);
+        return result;
+    }
+
+    /**
+     * Creates the result of an item that was rejected.
+     *
+     * @param index the position of the item in the request
+     * @param error why the item was rejected
+     * @return the result
+     */
+    public static BulkOrderResult failed(int index, String error) {
+        BulkOrderResult result = new BulkOrderResult();
+        result.setIndex(index);
+        result.setStatus(Status.FAILED);
+        result.setError(error);
+        return result;
+    }
+}
@@ -0,0 +1,35 @@
+package com.example.store.dto;
+
+import com.example.store.exception.ValidationException;
+
+import java.util.Locale;
+
+/** How the total number of elements of a paged response is obtained. */
+public enum CountMode {
+    /** Runs a {@code COUNT(*)} alongside the page query; totals are exact. */
+    EXACT,
+
+    /** Fetches the page as a slice and reports the cached, possibly stale, table row count. */
+    APPROXIMATE,
+
+    /** Fetches the page as a slice without any total; {@code totalElements} is reported as {@code -1}. */
+    NONE;
+
+    /**
+     * Parses a request parameter value into a count mode.
+     *
+     * @param value the parameter value (exact, approximate or none), case-insensitive
+     * @return the count mode
+     * @throws ValidationException if the value is not a known count mode
+     */
+    public static CountMode fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return EXACT;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw ValidationException.invalidInput("count", "Count mode must be one of exact, approximate or none");
+        }
+    }
+}
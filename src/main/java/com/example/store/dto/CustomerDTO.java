@@ -1,13 +1,18 @@
 package com.example.store.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+
 import lombok.Data;
 
 import java.util.List;
 
 /** Customer dto. */
 @Data
+@JsonFilter(FieldSet.CUSTOMER_FILTER)
 public class CustomerDTO {
     private Long id;
+    private Long version;
     private String name;
     private List<CustomerOrderDTO> orders;
+    private boolean ordersTruncated;
 }
@@ -6,5 +6,6 @@ import lombok.Data;
 @Data
 public class CustomerOrderDTO {
     private Long id;
+    private Long version;
     private String description;
 }
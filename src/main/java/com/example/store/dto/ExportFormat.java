@@ -0,0 +1,42 @@
+package com.example.store.dto;
+
+import com.example.store.exception.ValidationException;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.http.MediaType;
+
+import java.util.Locale;
+
+/** Wire format of a streaming export or ingestion upload. */
+@Getter
+@RequiredArgsConstructor
+public enum ExportFormat {
+    /** One JSON object per line. */
+    NDJSON(MediaType.parseMediaType("application/x-ndjson"), "ndjson"),
+
+    /** Comma-separated values with a header row, quoted as described in RFC 4180. */
+    CSV(MediaType.parseMediaType("text/csv;charset=UTF-8"), "csv");
+
+    private final MediaType mediaType;
+    private final String fileExtension;
+
+    /**
+     * Parses a request parameter value into an export format.
+     *
+     * @param value the parameter value (ndjson or csv), case-insensitive
+     * @return the export format
+     * @throws ValidationException if the value is not a known export format
+     */
+    public static ExportFormat fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return NDJSON;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw ValidationException.invalidInput("format", "Format must be one of ndjson or csv");
+        }
+    }
+}
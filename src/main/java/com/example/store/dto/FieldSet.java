@@ -0,0 +1,203 @@
+package com.example.store.dto;
+
+import com.example.store.exception.ValidationException;
+import com.fasterxml.jackson.databind.ser.FilterProvider;
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * The fields of a customer, order or product requested with the {@code fields} parameter, e.g.
+ * {@code fields=id,description}. The DTOs carry a {@code @JsonFilter} that drops every other property when the
+ * response is written, and the {@linkplain #getProjection() projection} tells the services whether the associations
+ * have to be loaded at all. The id is always included. Nested DTOs, such as the products of an order, are written in
+ * full.
+ */
+public final class FieldSet {
+
+    /** The id of the field filter of {@link CustomerDTO}. */
+    public static final String CUSTOMER_FILTER = "customerFields";
+
+    /** The id of the field filter of {@link OrderDTO}. */
+    public static final String ORDER_FILTER = "orderFields";
+
+    /** The id of the field filter of {@link ProductDTO}. */
+    public static final String PRODUCT_FILTER = "productFields";
+
+    private final Resource resource;
+    private final SortedSet<String> fields;
+
+    private FieldSet(Resource resource, SortedSet<String> fields) {
+        this.resource = resource;
+        this.fields = fields;
+    }
+
+    /**
+     * Parses a request parameter value into a field set.
+     *
+     * @param resource the resource whose fields are requested
+     * @param value the comma-separated field names, or null or blank for all fields
+     * @return the field set
+     * @throws ValidationException if a name is not a field of the resource
+     */
+    public static FieldSet fromParam(Resource resource, String value) {
+        if (value == null || value.isBlank()) {
+            return new FieldSet(resource, null);
+        }
+        SortedSet<String> fields = new TreeSet<>();
+        fields.add("id");
+        for (String part : value.split(",")) {
+            String field = part.trim();
+            if (field.isEmpty()) {
+                continue;
+            }
+            if (!resource.fields.contains(field)) {
+                throw ValidationException.invalidInput(
+                        "fields",
+                        "Unknown field '" + field + "'; fields must be among " + String.join(", ", resource.fields));
+            }
+            fields.add(field);
+        }
+        return new FieldSet(resource, fields);
+    }
+
+    /**
+     * Filters writing every property; the default of every mapper that serializes the DTOs.
+     *
+     * @return the filter provider
+     */
+    public static FilterProvider allFields() {
+        return serializeAll();
+    }
+
+    /**
+     * The resource whose fields are requested.
+     *
+     * @return the resource
+     */
+    public Resource getResource() {
+        return resource;
+    }
+
+    /**
+     * Whether every field is requested.
+     *
+     * @return true if no fields were given
+     */
+    public boolean isAll() {
+        return fields == null;
+    }
+
+    /**
+     * The requested fields, including the id.
+     *
+     * @return the field names in alphabetical order, or every field of the resource if all are requested
+     */
+    public SortedSet<String> getFields() {
+        return Collections.unmodifiableSortedSet(fields != null ? fields : new TreeSet<>(resource.fields));
+    }
+
+    /**
+     * The projection to load: the full resource if any of its associations is requested, its own columns otherwise.
+     *
+     * @return the projection
+     */
+    public Projection getProjection() {
+        return fields == null || requestsAssociation() ? Projection.FULL : Projection.SUMMARY;
+    }
+
+    /**
+     * Whether an association of the resource is named among the requested fields.
+     *
+     * @return true if fields were given and include an association
+     */
+    public boolean requestsAssociation() {
+        if (fields == null) {
+            return false;
+        }
+        for (String association : resource.associations) {
+            if (fields.contains(association)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Narrows the field set to the own columns of the resource, for listings that did not load its associations.
+     *
+     * @return the requested fields without the associations
+     */
+    public FieldSet withoutAssociations() {
+        SortedSet<String> narrowed = new TreeSet<>(getFields());
+        narrowed.removeAll(resource.associations);
+        return new FieldSet(resource, narrowed);
+    }
+
+    /**
+     * Filters writing the requested fields of the resource and every property of all other DTOs.
+     *
+     * @return the filter provider
+     */
+    public FilterProvider getFilters() {
+        SimpleFilterProvider filters = serializeAll();
+        if (fields != null) {
+            filters.addFilter(resource.filterId, SimpleBeanPropertyFilter.filterOutAllExcept(fields));
+        }
+        return filters;
+    }
+
+    private static SimpleFilterProvider serializeAll() {
+        return new SimpleFilterProvider().setDefaultFilter(SimpleBeanPropertyFilter.serializeAll());
+    }
+
+    /** The resources whose fields can be selected. */
+    public enum Resource {
+        /** {@link CustomerDTO}; its orders are an association that listings load on request. */
+        CUSTOMER(
+                CUSTOMER_FILTER,
+                List.of("id", "version", "name", "orders", "ordersTruncated"),
+                Set.of("orders", "ordersTruncated"),
+                Set.of(Include.ORDERS)),
+
+        /** {@link OrderDTO}; its customer and products are associations, always loaded by listings. */
+        ORDER(
+                ORDER_FILTER,
+                List.of("id", "version", "description", "customer", "products"),
+                Set.of("customer", "products"),
+                Set.of()),
+
+        /** {@link ProductDTO}; its order ids are an association that listings load on request. */
+        PRODUCT(
+                PRODUCT_FILTER,
+                List.of("id", "version", "description", "orderIds", "orderIdsTruncated"),
+                Set.of("orderIds", "orderIdsTruncated"),
+                Set.of(Include.ORDER_IDS));
+
+        private final String filterId;
+        private final List<String> fields;
+        private final Set<String> associations;
+        private final Set<String> includes;
+
+        Resource(String filterId, List<String> fields, Set<String> associations, Set<String> includes) {
+            this.filterId = filterId;
+            this.fields = fields;
+            this.associations = associations;
+            this.includes = includes;
+        }
+
+        /**
+         * The relations a listing of this resource can expand with the {@code include} parameter.
+         *
+         * @return the relation names
+         */
+        public Set<String> getIncludes() {
+            return includes;
+        }
+    }
+}
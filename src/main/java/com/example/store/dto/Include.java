@@ -0,0 +1,138 @@
+package com.example.store.dto;
+
+import com.example.store.exception.ValidationException;
+
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
+
+import java.util.Set;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * The relations expanded into the rows of a listing with the {@code include} parameter, e.g. {@code include=orders},
+ * and the most related entries loaded per row with {@code includeLimit}. Listings return rows without relations unless
+ * asked; every included relation is loaded with one batched query for the whole page.
+ */
+@EqualsAndHashCode
+@ToString
+public final class Include {
+
+    /** The orders of a customer. */
+    public static final String ORDERS = "orders";
+
+    /** The order ids of a product. */
+    public static final String ORDER_IDS = "orderIds";
+
+    private static final Include NONE = new Include(new TreeSet<>(), null);
+
+    private final SortedSet<String> relations;
+    private final Integer limit;
+
+    private Include(SortedSet<String> relations, Integer limit) {
+        this.relations = relations;
+        this.limit = limit;
+    }
+
+    /**
+     * No relations; the rows carry their own columns only.
+     *
+     * @return the empty include
+     */
+    public static Include none() {
+        return NONE;
+    }
+
+    /**
+     * Includes one relation.
+     *
+     * @param relation the relation
+     * @param limit the most related entries per row, or null for the configured maximum
+     * @return the include
+     */
+    public static Include of(String relation, Integer limit) {
+        return new Include(new TreeSet<>(Set.of(relation)), limit);
+    }
+
+    /**
+     * Parses the request parameters of a listing. A relation also counts as included when {@code fields} names one of
+     * the associations of the resource, so that a requested field is never written empty.
+     *
+     * @param fields the requested fields, which name the resource
+     * @param value the comma-separated relations, or null or blank for none
+     * @param limit the most related entries per row, or null for the configured maximum
+     * @return the include
+     * @throws ValidationException if a relation cannot be included in listings of the resource or the limit is not
+     *     positive
+     */
+    public static Include fromParam(FieldSet fields, String value, Integer limit) {
+        Set<String> includes = fields.getResource().getIncludes();
+        SortedSet<String> relations = new TreeSet<>();
+        if (value != null && !value.isBlank()) {
+            for (String part : value.split(",")) {
+                String relation = part.trim();
+                if (relation.isEmpty()) {
+                    continue;
+                }
+                if (!includes.contains(relation)) {
+                    throw ValidationException.invalidInput(
+                            "include",
+                            includes.isEmpty()
+                                    ? "No relations can be included here"
+                                    : "Unknown relation '" + relation + "'; relations must be among "
+                                            + String.join(", ", new TreeSet<>(includes)));
+                }
+                relations.add(relation);
+            }
+        }
+        if (fields.requestsAssociation()) {
+            relations.addAll(includes);
+        }
+        if (limit != null && limit < 1) {
+            throw ValidationException.invalidInput("includeLimit", "Include limit must be positive");
+        }
+        return relations.isEmpty() ? NONE : new Include(relations, limit);
+    }
+
+    /**
+     * Whether a relation is included.
+     *
+     * @param relation the relation
+     * @return true if it is loaded
+     */
+    public boolean has(String relation) {
+        return relations.contains(relation);
+    }
+
+    /**
+     * Whether no relation is included.
+     *
+     * @return true if the rows carry their own columns only
+     */
+    public boolean isEmpty() {
+        return relations.isEmpty();
+    }
+
+    /**
+     * The most related entries loaded per row.
+     *
+     * @param max the configured maximum
+     * @return the requested limit, capped at the maximum, or the maximum if none was requested
+     */
+    public int limit(int max) {
+        return limit == null ? max : Math.min(limit, max);
+    }
+
+    /**
+     * Derives the cache key of a listing with these relations.
+     *
+     * @param key the key of the listing
+     * @return the cache key
+     */
+    public Object key(Object key) {
+        if (relations.isEmpty()) {
+            return Projection.SUMMARY.key(key);
+        }
+        return key + "_" + String.join("+", relations) + "_" + (limit == null ? "max" : limit);
+    }
+}
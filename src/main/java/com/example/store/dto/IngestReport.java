@@ -0,0 +1,30 @@
+package com.example.store.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/** Outcome of an ingestion upload. */
+@Data
+public class IngestReport {
+    private String target;
+    private String format;
+    private long rowsRead;
+    private long rowsInserted;
+    private long rowsRejected;
+    private long elapsedMs;
+    private double rowsPerSecond;
+    private boolean errorsTruncated;
+    private List<RowError> errors;
+
+    /** Why a row was rejected. */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
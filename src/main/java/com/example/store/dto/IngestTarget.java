@@ -0,0 +1,48 @@
+package com.example.store.dto;
+
+import com.example.store.exception.ValidationException;
+
+import java.util.List;
+import java.util.Locale;
+
+/** The table an ingestion upload is loaded into, with the columns read from each row. */
+public enum IngestTarget {
+    /** Customers, one per row with a {@code name}. */
+    CUSTOMERS("name"),
+
+    /** Products, one per row with a {@code description}. */
+    PRODUCTS("description"),
+
+    /** Orders, one per row with a {@code description}, {@code customerId} and optional {@code productIds}. */
+    ORDERS("description", "customerId", "productIds");
+
+    private final List<String> columns;
+
+    IngestTarget(String... columns) {
+        this.columns = List.of(columns);
+    }
+
+    /**
+     * Gets the columns read from each row, in the order their values are passed on.
+     *
+     * @return the column names
+     */
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    /**
+     * Parses a path segment into an ingestion target.
+     *
+     * @param value the path segment (customers, products or orders), case-insensitive
+     * @return the ingestion target
+     * @throws ValidationException if the value is not a known target
+     */
+    public static IngestTarget fromParam(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw ValidationException.invalidInput("target", "Target must be one of customers, products or orders");
+        }
+    }
+}
@@ -6,5 +6,6 @@ import lombok.Data;
 @Data
 public class OrderCustomerDTO {
     private Long id;
+    private Long version;
     private String name;
 }
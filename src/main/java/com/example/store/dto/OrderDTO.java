@@ -1,13 +1,17 @@
 package com.example.store.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+
 import lombok.Data;
 
 import java.util.List;
 
 /** Order dto. */
 @Data
+@JsonFilter(FieldSet.ORDER_FILTER)
 public class OrderDTO {
     private Long id;
+    private Long version;
     private String description;
     private OrderCustomerDTO customer;
     private List<ProductDTO> products;
@@ -0,0 +1,69 @@
+package com.example.store.dto;
+
+import com.example.store.exception.ValidationException;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque keyset pagination cursor. A cursor records the sort field together with the sort key value and id of the
+ * last row of a page, so the next page can be fetched with a {@code (sortKey, id) > (value, id)} seek instead of an
+ * OFFSET scan.
+ */
+@Getter
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class PageCursor {
+
+    private static final String SEPARATOR = "\n";
+
+    private final String sortBy;
+    private final Long id;
+    private final String sortValue;
+
+    /**
+     * Encodes the position of a row as an opaque, URL-safe cursor.
+     *
+     * @param sortBy the field the page is sorted by
+     * @param sortValue the value of the sort field for the row
+     * @param id the id of the row
+     * @return the encoded cursor
+     */
+    public static String encode(String sortBy, Object sortValue, Long id) {
+        String raw = sortBy + SEPARATOR + id + SEPARATOR + sortValue;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decodes a cursor previously produced by {@link #encode(String, Object, Long)}.
+     *
+     * @param cursor the encoded cursor
+     * @param sortBy the field the requested page is sorted by
+     * @return the decoded cursor
+     * @throws ValidationException if the cursor is malformed or was issued for a different sort field
+     */
+    public static PageCursor decode(String cursor, String sortBy) {
+        String[] parts;
+        Long id;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            parts = raw.split(SEPARATOR, 3);
+            id = parts.length == 3 ? Long.valueOf(parts[1]) : null;
+        } catch (IllegalArgumentException e) {
+            throw ValidationException.invalidInput("after", "Malformed cursor");
+        }
+
+        if (id == null) {
+            throw ValidationException.invalidInput("after", "Malformed cursor");
+        }
+
+        if (!parts[0].equals(sortBy)) {
+            throw ValidationException.invalidInput("after", "Cursor was issued for sorting by '" + parts[0] + "'");
+        }
+
+        return new PageCursor(parts[0], id, parts[2]);
+    }
+}
@@ -4,6 +4,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import org.springframework.data.domain.Slice;
+
 import java.util.List;
 
 /**
@@ -20,12 +22,14 @@ public class PagedResponse<T> {
     private int size;
     private long totalElements;
     private int totalPages;
+    private boolean totalExact;
     private boolean first;
     private boolean last;
     private boolean hasNext;
     private boolean hasPrevious;
     private String sortBy;
     private String sortOrder;
+    private String nextCursor;
 
     /**
      * Creates a PagedResponse from Spring Data Page object.
@@ -44,11 +48,81 @@ public class PagedResponse<T> {
                 page.getSize(),
                 page.getTotalElements(),
                 page.getTotalPages(),
+                true,
                 page.isFirst(),
                 page.isLast(),
                 page.hasNext(),
                 page.hasPrevious(),
                 sortBy,
-                sortOrder);
+                sortOrder,
+                null);
+    }
+
+    /**
+     * Creates a PagedResponse from a Spring Data Slice, which is fetched without a count query. The total, if known,
+     * comes from a row count cache and is therefore reported as approximate.
+     *
+     * @param <T> the type parameter
+     * @param slice the Spring Data Slice object
+     * @param approximateTotal the cached total number of elements, or {@code null} if unknown
+     * @param sortBy the sort field
+     * @param sortOrder the sort direction
+     * @return PagedResponse with pagination metadata
+     */
+    public static <T> PagedResponse<T> ofSlice(Slice<T> slice, Long approximateTotal, String sortBy, String sortOrder) {
+        long totalElements = approximateTotal != null ? approximateTotal : -1;
+        int totalPages = approximateTotal != null ? (int) Math.ceil((double) approximateTotal / slice.getSize()) : -1;
+        return new PagedResponse<>(
+                slice.getContent(),
+                slice.getNumber(),
+                slice.getSize(),
+                totalElements,
+                totalPages,
+                false,
+                slice.isFirst(),
+                slice.isLast(),
+                slice.hasNext(),
+                slice.hasPrevious(),
+                sortBy,
+                sortOrder,
+                null);
+    }
+
+    /**
+     * Creates a PagedResponse for a keyset (cursor) page. Keyset pages are never counted, so {@code page},
+     * {@code totalElements} and {@code totalPages} are reported as {@code -1}.
+     *
+     * @param <T> the type parameter
+     * @param content the page content
+     * @param size the requested page size
+     * @param hasNext whether another page follows this one
+     * @param hasPrevious whether this page was requested with a cursor
+     * @param nextCursor the cursor for the next page, or {@code null} on the last page
+     * @param sortBy the sort field
+     * @param sortOrder the sort direction
+     * @return PagedResponse with keyset pagination metadata
+     */
+    public static <T> PagedResponse<T> ofKeyset(
+            List<T> content,
+            int size,
+            boolean hasNext,
+            boolean hasPrevious,
+            String nextCursor,
+            String sortBy,
+            String sortOrder) {
+        return new PagedResponse<>(
+                content,
+                -1,
+                size,
+                -1,
+                -1,
+                false,
+                !hasPrevious,
+                !hasNext,
+                hasNext,
+                hasPrevious,
+                sortBy,
+                sortOrder,
+                nextCursor);
     }
 }
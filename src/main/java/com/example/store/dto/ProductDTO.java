@@ -1,13 +1,18 @@
 package com.example.store.dto;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+
 import lombok.Data;
 
 import java.util.List;
 
 /** Product dto. */
 @Data
+@JsonFilter(FieldSet.PRODUCT_FILTER)
 public class ProductDTO {
     private Long id;
+    private Long version;
     private String description;
     private List<Long> orderIds;
+    private boolean orderIdsTruncated;
 }
@@ -0,0 +1,24 @@
+package com.example.store.dto;
+
+/** How much of a resource is loaded: the resource with its associations, or its own columns only. */
+public enum Projection {
+    /** Loads the resource together with its associations. */
+    FULL,
+
+    /**
+     * Loads the columns of the resource only. Associations are neither queried nor set on the DTO: orders have no
+     * customer and products, customers no orders and products no order ids.
+     */
+    SUMMARY;
+
+    /**
+     * Derives the cache key of a result in this projection. Full results keep the plain key, so they share their
+     * entries with the methods that take no projection.
+     *
+     * @param key the key of the full result
+     * @return the cache key
+     */
+    public Object key(Object key) {
+        return this == FULL ? key : key + "_" + name();
+    }
+}
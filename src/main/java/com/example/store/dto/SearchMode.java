@@ -0,0 +1,32 @@
+package com.example.store.dto;
+
+import com.example.store.exception.ValidationException;
+
+import java.util.Locale;
+
+/** How a product search query is matched against descriptions. */
+public enum SearchMode {
+    /** Case-insensitive substring match, ordered by the requested sort field. */
+    SUBSTRING,
+
+    /** Full-text match of every query word as a prefix, ordered by relevance. */
+    FULLTEXT;
+
+    /**
+     * Parses a request parameter value into a search mode.
+     *
+     * @param value the parameter value (substring or fulltext), case-insensitive
+     * @return the search mode
+     * @throws ValidationException if the value is not a known search mode
+     */
+    public static SearchMode fromParam(String value) {
+        if (value == null || value.isBlank()) {
+            return SUBSTRING;
+        }
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw ValidationException.invalidInput("mode", "Search mode must be one of substring or fulltext");
+        }
+    }
+}
@@ -19,6 +19,11 @@ public class Customer {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    @Column(nullable = false)
+    @JsonIgnore
+    private Long version;
+
     @NotBlank(message = "Customer name is required")
     @Size(min = 1, max = 255, message = "Customer name must be between 1 and 255 characters")
     @Column(nullable = false)
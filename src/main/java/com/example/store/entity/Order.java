@@ -18,6 +18,11 @@ public class Order {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    @Column(nullable = false)
+    @JsonIgnore
+    private Long version;
+
     private String description;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -19,6 +19,11 @@ public class Product {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    @Column(nullable = false)
+    @JsonIgnore
+    private Long version;
+
     @NotBlank(message = "Product description is required")
     @Size(min = 1, max = 500, message = "Product description must be between 1 and 500 characters")
     @Column(nullable = false)
@@ -4,6 +4,7 @@ import com.example.store.dto.CustomerDTO;
 import com.example.store.entity.Customer;
 
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 import java.util.List;
 
@@ -11,11 +12,15 @@ import java.util.List;
 @Mapper(componentModel = "spring")
 public interface CustomerMapper {
     /**
-     * Customer to customer dto customer dto.
+     * Customer to customer dto customer dto. Orders are not mapped here because initialising {@code Customer.orders}
+     * loads every order of the customer; they are attached by
+     * {@link com.example.store.service.CustomerOrderBatchLoader}.
      *
      * @param customer the customer
      * @return the customer dto
      */
+    @Mapping(target = "orders", ignore = true)
+    @Mapping(target = "ordersTruncated", ignore = true)
     CustomerDTO customerToCustomerDTO(Customer customer);
 
     /**
@@ -9,6 +9,7 @@ import com.example.store.entity.Product;
 
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.Named;
 
 import java.util.List;
 
@@ -28,6 +29,17 @@ public interface OrderMapper {
                     "java(order.getProducts() != null ? productsToProductDTOs(order.getProducts()) : java.util.Collections.emptyList())")
     OrderDTO orderToOrderDTO(Order order);
 
+    /**
+     * Maps an order without its customer and products, so that neither lazy association is loaded.
+     *
+     * @param order the order
+     * @return the order dto
+     */
+    @Named("summary")
+    @Mapping(target = "customer", ignore = true)
+    @Mapping(target = "products", ignore = true)
+    OrderDTO orderToOrderSummaryDTO(Order order);
+
     /**
      * Orders to order dt os list.
      *
@@ -2,10 +2,14 @@ package com.example.store.mapper;
 
 import com.example.store.dto.ProductDTO;
 import com.example.store.entity.Product;
+import com.example.store.repository.ProductView;
 
+import org.mapstruct.IterableMapping;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.Named;
 
+import java.util.ArrayList;
 import java.util.List;
 
 /** The interface Product mapper. */
@@ -22,8 +26,20 @@ public interface ProductMapper {
             target = "orderIds",
             expression =
                     "java(product.getOrders() != null ? product.getOrders().stream().map(order -> order.getId()).collect(java.util.stream.Collectors.toList()) : java.util.Collections.emptyList())")
+    @Mapping(target = "orderIdsTruncated", ignore = true)
     ProductDTO productToProductDTO(Product product);
 
+    /**
+     * Maps a Product entity to ProductDTO without its order ids, so that the lazy orders are not loaded.
+     *
+     * @param product the product entity
+     * @return the product DTO
+     */
+    @Named("summary")
+    @Mapping(target = "orderIds", ignore = true)
+    @Mapping(target = "orderIdsTruncated", ignore = true)
+    ProductDTO productToProductSummaryDTO(Product product);
+
     /**
      * Maps a list of Product entities to a list of ProductDTOs.
      *
@@ -32,6 +48,50 @@ public interface ProductMapper {
      */
     List<ProductDTO> productsToProductDTOs(List<Product> products);
 
+    /**
+     * Maps a list of Product entities to ProductDTOs without their order ids.
+     *
+     * @param products the list of product entities
+     * @return the list of product DTOs
+     */
+    @IterableMapping(qualifiedByName = "summary")
+    List<ProductDTO> productsToProductSummaryDTOs(List<Product> products);
+
+    /**
+     * Maps a product view to ProductDTO. The aggregated order ids are split by {@link #splitOrderIds(String)}.
+     *
+     * @param productView the product view
+     * @return the product DTO
+     */
+    @Mapping(target = "orderIdsTruncated", ignore = true)
+    ProductDTO productViewToProductDTO(ProductView productView);
+
+    /**
+     * Maps a list of product views to a list of ProductDTOs.
+     *
+     * @param productViews the list of product views
+     * @return the list of product DTOs
+     */
+    List<ProductDTO> productViewsToProductDTOs(List<ProductView> productViews);
+
+    /**
+     * Splits the comma-separated order ids of a product view.
+     *
+     * @param orderIds the aggregated order ids, may be null
+     * @return the order ids, empty if there are none
+     */
+    default List<Long> splitOrderIds(String orderIds) {
+        if (orderIds == null || orderIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        String[] parts = orderIds.split(",");
+        List<Long> ids = new ArrayList<>(parts.length);
+        for (String part : parts) {
+            ids.add(Long.valueOf(part.trim()));
+        }
+        return ids;
+    }
+
     /**
      * Maps a ProductDTO to Product entity (without orders).
      *
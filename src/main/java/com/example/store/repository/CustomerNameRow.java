@@ -0,0 +1,19 @@
+package com.example.store.repository;
+
+/** Read-only projection of a customer's id and name. */
+public interface CustomerNameRow {
+
+    /**
+     * Gets the customer id.
+     *
+     * @return the id
+     */
+    Long getId();
+
+    /**
+     * Gets the customer name.
+     *
+     * @return the name
+     */
+    String getName();
+}
@@ -0,0 +1,33 @@
+package com.example.store.repository;
+
+/** Read-only projection of an order row as it is nested under its customer. */
+public interface CustomerOrderRow {
+
+    /**
+     * Gets the id of the customer owning the order.
+     *
+     * @return the customer id
+     */
+    Long getCustomerId();
+
+    /**
+     * Gets the order id.
+     *
+     * @return the id
+     */
+    Long getId();
+
+    /**
+     * Gets the order version.
+     *
+     * @return the version
+     */
+    Long getVersion();
+
+    /**
+     * Gets the order description.
+     *
+     * @return the description
+     */
+    String getDescription();
+}
@@ -2,24 +2,38 @@ package com.example.store.repository;
 
 import com.example.store.entity.Customer;
 
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 /** The interface Customer repository. */
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
+    /**
+     * Matches customers whose name contains {@code :query}, ignoring case. Served by {@code idx_customer_name_trgm} on
+     * PostgreSQL for queries of three or more characters.
+     */
+    String NAME_MATCHES = " WHERE LOWER(c.name) LIKE"
+            + " :#{T(com.example.store.repository.SearchPatterns).containsIgnoreCase(#query)} ESCAPE '\\'";
+
     /**
      * Find by name containing ignore case list.
      *
      * @param query the query
      * @return the list
      */
-    @Query("SELECT c FROM Customer c WHERE LOWER(c.name) LIKE LOWER(CONCAT('%', :query, '%'))")
+    @Query("SELECT c FROM Customer c" + NAME_MATCHES)
     List<Customer> findByNameContainingIgnoreCase(@Param("query") String query);
 
     /**
@@ -29,6 +43,104 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
      * @param pageable the pageable
      * @return the page
      */
-    @Query("SELECT c FROM Customer c WHERE LOWER(c.name) LIKE LOWER(CONCAT('%', :query, '%'))")
+    @Query("SELECT c FROM Customer c" + NAME_MATCHES)
     Page<Customer> findByNameContainingIgnoreCase(@Param("query") String query, Pageable pageable);
+
+    /**
+     * Finds a slice of customers without counting the total. Fetches one extra row to determine whether a next slice
+     * exists.
+     *
+     * @param pageable the pageable
+     * @return the slice
+     */
+    @Query("SELECT c FROM Customer c")
+    Slice<Customer> findAllAsSlice(Pageable pageable);
+
+    /**
+     * Find by name containing ignore case slice, without counting the total.
+     *
+     * @param query the query
+     * @param pageable the pageable
+     * @return the slice
+     */
+    @Query("SELECT c FROM Customer c" + NAME_MATCHES)
+    Slice<Customer> findSliceByNameContainingIgnoreCase(@Param("query") String query, Pageable pageable);
+
+    /**
+     * Finds the first keyset page of customers. Unlike {@code findAll(Pageable)} this does not issue a count query.
+     *
+     * @param pageable the page size and sort; the page number must be 0
+     * @return the first rows in sort order
+     */
+    @Query("SELECT c FROM Customer c")
+    List<Customer> seekFirst(Pageable pageable);
+
+    /**
+     * Finds the customers following the given id in ascending id order.
+     *
+     * @param id the id of the last customer of the previous page
+     * @param pageable the page size and sort; the page number must be 0
+     * @return the next rows in sort order
+     */
+    @Query("SELECT c FROM Customer c WHERE c.id > :id")
+    List<Customer> seekAfterId(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Finds the customers following the given id in descending id order.
+     *
+     * @param id the id of the last customer of the previous page
+     * @param pageable the page size and sort; the page number must be 0
+     * @return the next rows in sort order
+     */
+    @Query("SELECT c FROM Customer c WHERE c.id < :id")
+    List<Customer> seekBeforeId(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Finds the customers following the given {@code (name, id)} position in ascending order.
+     *
+     * @param name the name of the last customer of the previous page
+     * @param id the id of the last customer of the previous page
+     * @param pageable the page size and sort; the page number must be 0
+     * @return the next rows in sort order
+     */
+    @Query("SELECT c FROM Customer c WHERE (c.name, c.id) > (:name, :id)")
+    List<Customer> seekAfterName(@Param("name") String name, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Finds the customers following the given {@code (name, id)} position in descending order.
+     *
+     * @param name the name of the last customer of the previous page
+     * @param id the id of the last customer of the previous page
+     * @param pageable the page size and sort; the page number must be 0
+     * @return the next rows in sort order
+     */
+    @Query("SELECT c FROM Customer c WHERE (c.name, c.id) < (:name, :id)")
+    List<Customer> seekBeforeName(@Param("name") String name, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Finds the id and name of every customer, for building the in-memory name index.
+     *
+     * @return the rows in ascending id order
+     */
+    @Query("SELECT c.id AS id, c.name AS name FROM Customer c ORDER BY c.id")
+    List<CustomerNameRow> findAllNameRows();
+
+    /**
+     * Streams the id and name of every customer through a server-side cursor, for the customer export. Must be
+     * consumed inside a transaction and closed afterwards.
+     *
+     * @return the rows in ascending id order
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT c.id AS id, c.name AS name FROM Customer c ORDER BY c.id")
+    Stream<CustomerNameRow> streamAllNameRows();
+
+    /**
+     * Finds which of the given ids belong to existing customers.
+     *
+     * @param ids the ids to check
+     * @return the ids that exist
+     */
+    @Query("SELECT c.id FROM Customer c WHERE c.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
 }
@@ -0,0 +1,92 @@
+package com.example.store.repository;
+
+import lombok.RequiredArgsConstructor;
+
+import org.postgresql.PGConnection;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Inserts the rows of an ingestion upload. Customers and products are streamed with PostgreSQL {@code COPY ... FROM
+ * STDIN} when the connection is a PostgreSQL one and fall back to a single JDBC batch otherwise; orders go through
+ * {@link OrderBatchRepository}, which needs the generated ids to write the {@code order_product} rows.
+ *
+ * <p>Callers are expected to run inside a transaction and to have validated every value.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IngestRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final OrderBatchRepository orderBatchRepository;
+
+    /**
+     * Inserts customers.
+     *
+     * @param names the customer names
+     */
+    public void insertCustomers(List<String> names) {
+        insertColumn("customer", "name", names);
+    }
+
+    /**
+     * Inserts products.
+     *
+     * @param descriptions the product descriptions
+     */
+    public void insertProducts(List<String> descriptions) {
+        insertColumn("product", "description", descriptions);
+    }
+
+    /**
+     * Inserts orders and their product links.
+     *
+     * @param orders the orders
+     * @return the ids of the inserted orders, in the same order as {@code orders}
+     */
+    public List<Long> insertOrders(List<OrderBatchRepository.NewOrder> orders) {
+        return orderBatchRepository.insertAll(orders);
+    }
+
+    private void insertColumn(String table, String column, List<String> values) {
+        if (values.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            if (connection.isWrapperFor(PGConnection.class)) {
+                String sql = "COPY " + table + " (" + column + ") FROM STDIN WITH (FORMAT csv)";
+                try {
+                    connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, new StringReader(toCsv(values)));
+                } catch (IOException e) {
+                    throw new SQLException("Failed to copy rows into " + table, e);
+                }
+                return null;
+            }
+            try (PreparedStatement statement =
+                    connection.prepareStatement("INSERT INTO " + table + " (" + column + ") VALUES (?)")) {
+                for (String value : values) {
+                    statement.setString(1, value);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            return null;
+        });
+    }
+
+    /** Renders one quoted CSV field per line, the input format of {@code COPY ... WITH (FORMAT csv)}. */
+    private static String toCsv(List<String> values) {
+        StringBuilder csv = new StringBuilder(values.size() * 32);
+        for (String value : values) {
+            csv.append('"').append(value.replace("\"", "\"\"")).append("\"\n");
+        }
+        return csv.toString();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.store.repository;
+
+import lombok.RequiredArgsConstructor;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Inserts orders with plain JDBC batches. {@code Order} ids are generated by the database ({@code IDENTITY}), which
+ * makes Hibernate insert orders one statement at a time; this repository instead reserves the ids from the
+ * {@code "order"} serial sequence in a single query and sends the order and {@code order_product} rows as JDBC
+ * batches, which the PostgreSQL driver rewrites into multi-row inserts ({@code reWriteBatchedInserts=true}).
+ *
+ * <p>Callers are expected to run inside a transaction and to have validated the referenced customers and products.
+ */
+@Repository
+@RequiredArgsConstructor
+public class OrderBatchRepository {
+
+    private static final String RESERVE_IDS_SQL =
+            "SELECT nextval(pg_get_serial_sequence('\"order\"', 'id')) FROM generate_series(1, ?)";
+    private static final String INSERT_ORDER_SQL =
+            "INSERT INTO \"order\" (id, description, customer_id) VALUES (?, ?, ?)";
+    private static final String INSERT_ORDER_PRODUCT_SQL =
+            "INSERT INTO order_product (order_id, product_id) VALUES (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${store.order.bulk.batch-size:500}")
+    private int batchSize;
+
+    /**
+     * Inserts the given orders and their product links.
+     *
+     * @param orders the orders to insert
+     * @return the ids of the inserted orders, in the same order as {@code orders}
+     */
+    public List<Long> insertAll(List<NewOrder> orders) {
+        if (orders.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<Long> ids = jdbcTemplate.queryForList(RESERVE_IDS_SQL, Long.class, orders.size());
+
+        List<Object[]> orderRows = new ArrayList<>(orders.size());
+        List<Object[]> productRows = new ArrayList<>();
+        for (int i = 0; i < orders.size(); i++) {
+            NewOrder order = orders.get(i);
+            Long id = ids.get(i);
+            orderRows.add(new Object[] {id, order.description(), order.customerId()});
+            for (Long productId : order.productIds()) {
+                productRows.add(new Object[] {id, productId});
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_ORDER_SQL, orderRows, batchSize, (ps, row) -> {
+            ps.setLong(1, (Long) row[0]);
+            ps.setString(2, (String) row[1]);
+            ps.setLong(3, (Long) row[2]);
+        });
+        if (!productRows.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_ORDER_PRODUCT_SQL, productRows, batchSize, (ps, row) -> {
+                ps.setLong(1, (Long) row[0]);
+                ps.setLong(2, (Long) row[1]);
+            });
+        }
+        return ids;
+    }
+
+    /**
+     * An order to insert.
+     *
+     * @param description the order description
+     * @param customerId the id of an existing customer
+     * @param productIds the ids of existing products, without duplicates
+     */
+    public record NewOrder(String description, Long customerId, Collection<Long> productIds) {}
+}
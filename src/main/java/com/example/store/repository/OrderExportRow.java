@@ -0,0 +1,40 @@
+package com.example.store.repository;
+
+/** Read-only projection of an order with its customer and the ids of its products, as written by the order export. */
+public interface OrderExportRow {
+
+    /**
+     * Gets the order id.
+     *
+     * @return the id
+     */
+    Long getId();
+
+    /**
+     * Gets the order description.
+     *
+     * @return the description
+     */
+    String getDescription();
+
+    /**
+     * Gets the id of the customer who placed the order.
+     *
+     * @return the customer id, or null if the order has no customer
+     */
+    Long getCustomerId();
+
+    /**
+     * Gets the name of the customer who placed the order.
+     *
+     * @return the customer name, or null if the order has no customer
+     */
+    String getCustomerName();
+
+    /**
+     * Gets the ids of the ordered products as a comma-separated list in ascending order.
+     *
+     * @return the product ids, or null if the order has no products
+     */
+    String getProductIds();
+}
@@ -2,7 +2,173 @@ package com.example.store.repository;
 
 import com.example.store.entity.Order;
 
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /** The interface Order repository. */
-public interface OrderRepository extends JpaRepository<Order, Long> {}
+public interface OrderRepository extends JpaRepository<Order, Long> {
+
+    /**
+     * Selects {@link OrderSeekKey} rows. The keyset seeks return the sort keys with the ids, so that the next cursor
+     * does not depend on the orders still existing when they are loaded.
+     */
+    String SEEK_KEY_SELECT = "SELECT o.id AS id, o.description AS description FROM Order o";
+
+    /**
+     * Finds a page of order ids. Paging over ids alone keeps LIMIT/OFFSET away from the association fetch joins; the
+     * orders themselves are then loaded with {@link #findAllWithCustomerAndProductsByIdIn(Collection)}.
+     *
+     * @param pageable the pageable
+     * @return the page of ids
+     */
+    @Query(value = "SELECT o.id FROM Order o", countQuery = "SELECT COUNT(o) FROM Order o")
+    Page<Long> findPageOfIds(Pageable pageable);
+
+    /**
+     * Finds a slice of order ids without counting the total. Fetches one extra row to determine whether a next slice
+     * exists.
+     *
+     * @param pageable the pageable
+     * @return the slice of ids
+     */
+    @Query("SELECT o.id FROM Order o")
+    Slice<Long> findSliceOfIds(Pageable pageable);
+
+    /**
+     * Finds a slice of orders without their associations and without counting the total. Fetches one extra row to
+     * determine whether a next slice exists.
+     *
+     * @param pageable the pageable
+     * @return the slice of orders
+     */
+    @Query("SELECT o FROM Order o")
+    Slice<Order> findAllAsSlice(Pageable pageable);
+
+    /**
+     * Finds the orders with the given ids together with their customer and products in a single statement.
+     *
+     * @param ids the order ids
+     * @return the orders, in no particular order
+     */
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.customer LEFT JOIN FETCH o.products WHERE o.id IN :ids")
+    List<Order> findAllWithCustomerAndProductsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds all orders together with their customer and products in a single statement.
+     *
+     * @return the orders
+     */
+    @Query("SELECT o FROM Order o LEFT JOIN FETCH o.customer LEFT JOIN FETCH o.products ORDER BY o.id")
+    List<Order> findAllWithCustomerAndProducts();
+
+    /**
+     * Streams every order with its customer and aggregated product ids through a server-side cursor, for the order
+     * export. Rows are projections rather than entities, so nothing accumulates in the persistence context. Must be
+     * consumed inside a transaction and closed afterwards.
+     *
+     * @return stream of order rows ordered by id
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT o.id AS id, o.description AS description, c.id AS customerId, c.name AS customerName,"
+            + " listagg(cast(p.id as String), ',') WITHIN GROUP (ORDER BY p.id) AS productIds"
+            + " FROM Order o LEFT JOIN o.customer c LEFT JOIN o.products p"
+            + " GROUP BY o.id, o.description, c.id, c.name ORDER BY o.id")
+    Stream<OrderExportRow> streamAllExportRows();
+
+    /**
+     * Finds an order together with its customer and products in a single statement.
+     *
+     * @param id the order id
+     * @return the order
+     */
+    @EntityGraph(attributePaths = {"customer", "products"})
+    @Query("SELECT o FROM Order o WHERE o.id = :id")
+    Optional<Order> findWithCustomerAndProductsById(@Param("id") Long id);
+
+    /**
+     * Finds the keys of the first keyset page of orders. Unlike {@code findAll(Pageable)} this does not issue a count
+     * query.
+     *
+     * @param pageable the page size and sort; the page number must be 0
+     * @return the keys of the first rows in sort order
+     */
+    @Query(SEEK_KEY_SELECT)
+    List<OrderSeekKey> seekFirst(Pageable pageable);
+
+    /**
+     * Finds the keys of the orders following the given id in ascending id order.
+     *
+     * @param id the id of the last order of the previous page
+     * @param pageable the page size and sort; the page number must be 0
+     * @return the keys of the next rows in sort order
+     */
+    @Query(SEEK_KEY_SELECT + " WHERE o.id > :id")
+    List<OrderSeekKey> seekAfterId(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Finds the keys of the orders following the given id in descending id order.
+     *
+     * @param id the id of the last order of the previous page
+     * @param pageable the page size and sort; the page number must be 0
+     * @return the keys of the next rows in sort order
+     */
+    @Query(SEEK_KEY_SELECT + " WHERE o.id < :id")
+    List<OrderSeekKey> seekBeforeId(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Finds the keys of the orders following the given {@code (description, id)} position in ascending order.
+     *
+     * @param description the description of the last order of the previous page
+     * @param id the id of the last order of the previous page
+     * @param pageable the page size and sort; the page number must be 0
+     * @return the keys of the next rows in sort order
+     */
+    @Query(SEEK_KEY_SELECT + " WHERE (o.description, o.id) > (:description, :id)")
+    List<OrderSeekKey> seekAfterDescription(
+            @Param("description") String description, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Finds the keys of the orders following the given {@code (description, id)} position in descending order.
+     *
+     * @param description the description of the last order of the previous page
+     * @param id the id of the last order of the previous page
+     * @param pageable the page size and sort; the page number must be 0
+     * @return the keys of the next rows in sort order
+     */
+    @Query(SEEK_KEY_SELECT + " WHERE (o.description, o.id) < (:description, :id)")
+    List<OrderSeekKey> seekBeforeDescription(
+            @Param("description") String description, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Finds the orders of the given customers, at most {@code limit} per customer, in a single statement. The
+     * {@code customer_id IN} predicate is served by {@code idx_order_customer_id}.
+     *
+     * @param customerIds the customer ids
+     * @param limit the maximum number of orders returned per customer
+     * @return the order rows ordered by customer id and order id
+     */
+    @Query(
+            value = "SELECT ranked.customer_id AS customerId, ranked.id AS id, ranked.version AS version,"
+                    + " ranked.description AS description"
+                    + " FROM (SELECT o.customer_id, o.id, o.version, o.description,"
+                    + " ROW_NUMBER() OVER (PARTITION BY o.customer_id ORDER BY o.id) AS rn"
+                    + " FROM \"order\" o WHERE o.customer_id IN (:customerIds)) ranked"
+                    + " WHERE ranked.rn <= :limit ORDER BY ranked.customer_id, ranked.id",
+            nativeQuery = true)
+    List<CustomerOrderRow> findCustomerOrderRows(
+            @Param("customerIds") Collection<Long> customerIds, @Param("limit") int limit);
+}
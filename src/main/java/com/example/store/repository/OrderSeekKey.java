@@ -0,0 +1,19 @@
+package com.example.store.repository;
+
+/** Read-only projection of the keyset position of an order: its id and the description it can be sorted by. */
+public interface OrderSeekKey {
+
+    /**
+     * Gets the order id.
+     *
+     * @return the id
+     */
+    Long getId();
+
+    /**
+     * Gets the order description.
+     *
+     * @return the description
+     */
+    String getDescription();
+}
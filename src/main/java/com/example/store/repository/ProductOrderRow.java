@@ -0,0 +1,19 @@
+package com.example.store.repository;
+
+/** Read-only projection of a row of the order/product join table. */
+public interface ProductOrderRow {
+
+    /**
+     * Gets the product id.
+     *
+     * @return the product id
+     */
+    Long getProductId();
+
+    /**
+     * Gets the id of an order containing the product.
+     *
+     * @return the order id
+     */
+    Long getOrderId();
+}
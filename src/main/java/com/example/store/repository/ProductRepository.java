@@ -2,17 +2,40 @@ package com.example.store.repository;
 
 import com.example.store.entity.Product;
 
+import jakarta.persistence.QueryHint;
+
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /** The interface Product repository. */
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
+    /** Selects {@link ProductView} rows; every query using it must end with {@link #VIEW_GROUP_BY}. */
+    String VIEW_SELECT = "SELECT p.id AS id, p.version AS version, p.description AS description,"
+            + " listagg(cast(o.id as String), ',') WITHIN GROUP (ORDER BY o.id) AS orderIds"
+            + " FROM Product p LEFT JOIN p.orders o";
+
+    /** Groups the joined order rows of {@link #VIEW_SELECT} back into one row per product. */
+    String VIEW_GROUP_BY = " GROUP BY p.id, p.version, p.description";
+
+    /**
+     * Matches products whose description contains {@code :query}, ignoring case. Served by
+     * {@code idx_product_description_trgm} on PostgreSQL for queries of three or more characters.
+     */
+    String DESCRIPTION_MATCHES = " WHERE LOWER(p.description) LIKE"
+            + " :#{T(com.example.store.repository.SearchPatterns).containsIgnoreCase(#query)} ESCAPE '\\'";
+
     /**
      * Finds products by description containing the given substring (case-insensitive). The search matches any word in
      * the product's description that contains the query string.
@@ -20,7 +43,7 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      * @param query the substring to search for in product descriptions
      * @return list of products matching the search criteria
      */
-    @Query("SELECT p FROM Product p WHERE LOWER(p.description) LIKE LOWER(CONCAT('%', :query, '%'))")
+    @Query("SELECT p FROM Product p" + DESCRIPTION_MATCHES)
     List<Product> findByDescriptionContainingIgnoreCase(@Param("query") String query);
 
     /**
@@ -30,9 +53,29 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      * @param pageable pagination information
      * @return page of products matching the search criteria
      */
-    @Query("SELECT p FROM Product p WHERE LOWER(p.description) LIKE LOWER(CONCAT('%', :query, '%'))")
+    @Query("SELECT p FROM Product p" + DESCRIPTION_MATCHES)
     Page<Product> findByDescriptionContainingIgnoreCase(@Param("query") String query, Pageable pageable);
 
+    /**
+     * Finds a slice of products without counting the total. Fetches one extra row to determine whether a next slice
+     * exists.
+     *
+     * @param pageable pagination information
+     * @return slice of products
+     */
+    @Query("SELECT p FROM Product p")
+    Slice<Product> findAllAsSlice(Pageable pageable);
+
+    /**
+     * Finds products by description containing the given substring (case-insensitive) without counting the total.
+     *
+     * @param query the substring to search for in product descriptions
+     * @param pageable pagination information
+     * @return slice of products matching the search criteria
+     */
+    @Query("SELECT p FROM Product p" + DESCRIPTION_MATCHES)
+    Slice<Product> findSliceByDescriptionContainingIgnoreCase(@Param("query") String query, Pageable pageable);
+
     /**
      * Finds products that are contained in orders.
      *
@@ -66,4 +109,196 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      */
     @Query("SELECT p FROM Product p LEFT JOIN p.orders o WHERE o IS NULL")
     Page<Product> findProductsWithoutOrders(Pageable pageable);
+
+    /**
+     * Finds the first keyset page of products. Unlike {@code findAll(Pageable)} this does not issue a count query.
+     *
+     * @param pageable the page size and sort; the page number must be 0
+     * @return the first rows in sort order
+     */
+    @Query("SELECT p FROM Product p")
+    List<Product> seekFirst(Pageable pageable);
+
+    /**
+     * Finds the products following the given id in ascending id order.
+     *
+     * @param id the id of the last product of the previous page
+     * @param pageable the page size and sort; the page number must be 0
+     * @return the next rows in sort order
+     */
+    @Query("SELECT p FROM Product p WHERE p.id > :id")
+    List<Product> seekAfterId(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Finds the products following the given id in descending id order.
+     *
+     * @param id the id of the last product of the previous page
+     * @param pageable the page size and sort; the page number must be 0
+     * @return the next rows in sort order
+     */
+    @Query("SELECT p FROM Product p WHERE p.id < :id")
+    List<Product> seekBeforeId(@Param("id") Long id, Pageable pageable);
+
+    /**
+     * Finds the products following the given {@code (description, id)} position in ascending order.
+     *
+     * @param description the description of the last product of the previous page
+     * @param id the id of the last product of the previous page
+     * @param pageable the page size and sort; the page number must be 0
+     * @return the next rows in sort order
+     */
+    @Query("SELECT p FROM Product p WHERE (p.description, p.id) > (:description, :id)")
+    List<Product> seekAfterDescription(
+            @Param("description") String description, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Finds the products following the given {@code (description, id)} position in descending order.
+     *
+     * @param description the description of the last product of the previous page
+     * @param id the id of the last product of the previous page
+     * @param pageable the page size and sort; the page number must be 0
+     * @return the next rows in sort order
+     */
+    @Query("SELECT p FROM Product p WHERE (p.description, p.id) < (:description, :id)")
+    List<Product> seekBeforeDescription(
+            @Param("description") String description, @Param("id") Long id, Pageable pageable);
+
+    /**
+     * Finds all product views.
+     *
+     * @return list of product views ordered by id
+     */
+    @Query(VIEW_SELECT + VIEW_GROUP_BY + " ORDER BY p.id")
+    List<ProductView> findAllViews();
+
+    /**
+     * Streams all product views through a server-side cursor, for the product export. Must be consumed inside a
+     * transaction and closed afterwards.
+     *
+     * @return stream of product views ordered by id
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(VIEW_SELECT + VIEW_GROUP_BY + " ORDER BY p.id")
+    Stream<ProductView> streamAllViews();
+
+    /**
+     * Finds the view of a single product.
+     *
+     * @param id the product id
+     * @return the product view
+     */
+    @Query(VIEW_SELECT + " WHERE p.id = :id" + VIEW_GROUP_BY)
+    Optional<ProductView> findViewById(@Param("id") Long id);
+
+    /**
+     * Finds views of products whose description contains the given substring (case-insensitive).
+     *
+     * @param query the substring to search for in product descriptions
+     * @return list of matching product views
+     */
+    @Query(VIEW_SELECT + DESCRIPTION_MATCHES + VIEW_GROUP_BY)
+    List<ProductView> findViewsByDescriptionContainingIgnoreCase(@Param("query") String query);
+
+    /**
+     * Finds views of products that are contained in orders.
+     *
+     * @return list of product views that have associated orders
+     */
+    @Query(VIEW_SELECT + " WHERE o.id IS NOT NULL" + VIEW_GROUP_BY)
+    List<ProductView> findViewsWithOrders();
+
+    /**
+     * Finds a page of views of products that are contained in orders.
+     *
+     * @param pageable pagination information
+     * @return page of product views that have associated orders
+     */
+    @Query(
+            value = VIEW_SELECT + " WHERE o.id IS NOT NULL" + VIEW_GROUP_BY,
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.orders IS NOT EMPTY")
+    Page<ProductView> findViewsWithOrders(Pageable pageable);
+
+    /**
+     * Finds views of products that are not contained in any orders.
+     *
+     * @return list of product views that have no associated orders
+     */
+    @Query(VIEW_SELECT + " WHERE o.id IS NULL" + VIEW_GROUP_BY)
+    List<ProductView> findViewsWithoutOrders();
+
+    /**
+     * Finds a page of views of products that are not contained in any orders.
+     *
+     * @param pageable pagination information
+     * @return page of product views that have no associated orders
+     */
+    @Query(
+            value = VIEW_SELECT + " WHERE o.id IS NULL" + VIEW_GROUP_BY,
+            countQuery = "SELECT COUNT(p) FROM Product p WHERE p.orders IS EMPTY")
+    Page<ProductView> findViewsWithoutOrders(Pageable pageable);
+
+    /**
+     * Finds the views of the given products.
+     *
+     * @param ids the product ids
+     * @return the product views, in no particular order
+     */
+    @Query(VIEW_SELECT + " WHERE p.id IN :ids" + VIEW_GROUP_BY)
+    List<ProductView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds the ids of the products matching a full-text query, most relevant first. Uses the generated
+     * {@code description_tsv} column and its GIN index; PostgreSQL only.
+     *
+     * @param tsQuery the query in {@code to_tsquery} syntax
+     * @param limit the maximum number of ids
+     * @param offset the number of ids to skip
+     * @return the ids ordered by descending rank, then id
+     */
+    @Query(
+            value = "SELECT p.id FROM product p, to_tsquery('english', :tsQuery) q"
+                    + " WHERE p.description_tsv @@ q"
+                    + " ORDER BY ts_rank(p.description_tsv, q) DESC, p.id"
+                    + " LIMIT :limit OFFSET :offset",
+            nativeQuery = true)
+    List<Long> findIdsByFullText(
+            @Param("tsQuery") String tsQuery, @Param("limit") int limit, @Param("offset") long offset);
+
+    /**
+     * Counts the products matching a full-text query. PostgreSQL only.
+     *
+     * @param tsQuery the query in {@code to_tsquery} syntax
+     * @return the number of matching products
+     */
+    @Query(
+            value = "SELECT count(*) FROM product p WHERE p.description_tsv @@ to_tsquery('english', :tsQuery)",
+            nativeQuery = true)
+    long countByFullText(@Param("tsQuery") String tsQuery);
+
+    /**
+     * Finds which of the given ids belong to existing products.
+     *
+     * @param ids the ids to check
+     * @return the ids that exist
+     */
+    @Query("SELECT p.id FROM Product p WHERE p.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Finds the order ids of the given products, at most {@code limit} per product, in a single statement. The
+     * {@code product_id IN} predicate is served by {@code idx_order_product_product_id}.
+     *
+     * @param productIds the product ids
+     * @param limit the maximum number of order ids returned per product
+     * @return the rows ordered by product id and order id
+     */
+    @Query(
+            value = "SELECT ranked.product_id AS productId, ranked.order_id AS orderId"
+                    + " FROM (SELECT op.product_id, op.order_id,"
+                    + " ROW_NUMBER() OVER (PARTITION BY op.product_id ORDER BY op.order_id) AS rn"
+                    + " FROM order_product op WHERE op.product_id IN (:productIds)) ranked"
+                    + " WHERE ranked.rn <= :limit ORDER BY ranked.product_id, ranked.order_id",
+            nativeQuery = true)
+    List<ProductOrderRow> findProductOrderRows(
+            @Param("productIds") Collection<Long> productIds, @Param("limit") int limit);
 }
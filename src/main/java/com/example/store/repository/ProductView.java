@@ -0,0 +1,36 @@
+package com.example.store.repository;
+
+/**
+ * Read-only projection of a product row together with the ids of its orders, aggregated by the database so that no
+ * {@link com.example.store.entity.Order} entities are loaded.
+ */
+public interface ProductView {
+
+    /**
+     * Gets the product id.
+     *
+     * @return the id
+     */
+    Long getId();
+
+    /**
+     * Gets the product version.
+     *
+     * @return the version
+     */
+    Long getVersion();
+
+    /**
+     * Gets the product description.
+     *
+     * @return the description
+     */
+    String getDescription();
+
+    /**
+     * Gets the ids of the orders containing the product.
+     *
+     * @return the order ids in ascending order separated by commas, or {@code null} if the product has no orders
+     */
+    String getOrderIds();
+}
@@ -0,0 +1,35 @@
+package com.example.store.repository;
+
+import java.util.Locale;
+
+/**
+ * Builds the {@code LIKE} patterns bound by the substring search queries. The column side of those queries is written
+ * as {@code LOWER(column)} so it matches the {@code pg_trgm} GIN expression indexes, and the pattern side is a single
+ * pre-lowered bind parameter so the planner sees a plain {@code lower(column) LIKE $1} index condition.
+ */
+public final class SearchPatterns {
+
+    /** The escape character of the patterns; queries must declare it with {@code ESCAPE '\'}. */
+    public static final char ESCAPE = '\\';
+
+    private SearchPatterns() {}
+
+    /**
+     * Builds a case-insensitive "contains" pattern, escaping any {@code LIKE} wildcards in the query.
+     *
+     * @param query the substring to search for
+     * @return the lowered pattern {@code %query%}
+     */
+    public static String containsIgnoreCase(String query) {
+        String lowered = query == null ? "" : query.toLowerCase(Locale.ROOT);
+        StringBuilder pattern = new StringBuilder(lowered.length() + 2).append('%');
+        for (int i = 0; i < lowered.length(); i++) {
+            char c = lowered.charAt(i);
+            if (c == '%' || c == '_' || c == ESCAPE) {
+                pattern.append(ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+}
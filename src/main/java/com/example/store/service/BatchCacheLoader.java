@@ -0,0 +1,277 @@
+package com.example.store.service;
+
+import com.example.store.config.DecoratingCache;
+import com.example.store.config.MeteredCache;
+import com.example.store.config.TaggingCache;
+import com.example.store.config.TwoTierCache;
+import com.example.store.exception.ValidationException;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.util.ByteUtils;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Reads many entries of a {@code @Cacheable} by-id cache at once. Hits are fetched with a single Redis {@code MGET},
+ * the misses are loaded together by the caller's loader, and the loaded entries are written back in one pipeline.
+ * Entries use the same keys, serializer and TTL as the cache manager, so they are shared with the single-item
+ * {@code getXxxById} methods. With a {@link TwoTierCache} the in-process tier is consulted first and filled from the
+ * results. Loaded entries are recorded in the {@link CacheTagIndex} like any other cache write. Caches that are not
+ * backed by Redis are read and written entry by entry, as are caches behind a decorator changing the values it stores.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class BatchCacheLoader {
+
+    private final CacheManager cacheManager;
+    private final RedisConnectionFactory redisConnectionFactory;
+    private final CacheTagIndex cacheTagIndex;
+
+    @Value("${store.batch-get.max-ids:100}")
+    private int maxIds;
+
+    /**
+     * Returns the entries with the given ids, from the cache where possible and from the loader otherwise.
+     *
+     * @param <T> the type of the entries
+     * @param cacheName the name of the by-id cache
+     * @param ids the ids, duplicates allowed
+     * @param type the type of the entries
+     * @param loader loads the entries missing from the cache, by id; ids that do not exist are left out
+     * @return the entries found, by id
+     * @throws ValidationException if no ids, a null id or more than {@code store.batch-get.max-ids} ids are given
+     */
+    public <T> Map<Long, T> getAll(
+            String cacheName, Collection<Long> ids, Class<T> type, Function<Set<Long>, Map<Long, T>> loader) {
+        return getAll(cacheName, ids, type, loader, true);
+    }
+
+    /**
+     * Returns the entries with the given ids, from the cache where possible and from the loader otherwise, caching the
+     * loaded entries only if asked to. A loader returning less than the cached form of an entry, such as a summary
+     * without associations, must not write it back, but can still be served by the full entries already cached.
+     *
+     * @param <T> the type of the entries
+     * @param cacheName the name of the by-id cache
+     * @param ids the ids, duplicates allowed
+     * @param type the type of the entries
+     * @param loader loads the entries missing from the cache, by id; ids that do not exist are left out
+     * @param cacheLoaded whether the loaded entries are written to the cache
+     * @return the entries found, by id
+     * @throws ValidationException if no ids, a null id or more than {@code store.batch-get.max-ids} ids are given
+     */
+    public <T> Map<Long, T> getAll(
+            String cacheName,
+            Collection<Long> ids,
+            Class<T> type,
+            Function<Set<Long>, Map<Long, T>> loader,
+            boolean cacheLoaded) {
+        if (ids == null || ids.isEmpty()) {
+            throw ValidationException.invalidInput("ids", "At least one id is required");
+        }
+        if (ids.size() > maxIds) {
+            throw ValidationException.invalidInput("ids", "At most " + maxIds + " ids can be requested at once");
+        }
+        if (ids.stream().anyMatch(Objects::isNull)) {
+            throw ValidationException.invalidInput("ids", "Ids must not contain null");
+        }
+
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        Cache cache = cacheManager.getCache(cacheName);
+        MeteredCache meteredCache = null;
+        TaggingCache taggingCache = null;
+        while (true) {
+            if (cache instanceof TransactionAwareCacheDecorator decorator) {
+                cache = decorator.getTargetCache();
+            } else if (cache instanceof DecoratingCache decorating && decorating.storesValuesUnchanged()) {
+                if (decorating instanceof MeteredCache metered) {
+                    meteredCache = metered;
+                } else if (decorating instanceof TaggingCache tagging) {
+                    taggingCache = tagging;
+                }
+                cache = decorating.getTargetCache();
+            } else {
+                break;
+            }
+        }
+        TwoTierCache twoTierCache = cache instanceof TwoTierCache twoTier ? twoTier : null;
+        Cache sharedCache = twoTierCache != null ? twoTierCache.getRemote() : cache;
+
+        Map<Long, T> entries = new HashMap<>();
+        if (twoTierCache != null) {
+            for (Long id : distinctIds) {
+                Object entry = twoTierCache.getLocal(id);
+                if (type.isInstance(entry)) {
+                    entries.put(id, type.cast(entry));
+                }
+            }
+        }
+        Set<Long> sharedIds = new LinkedHashSet<>(distinctIds);
+        sharedIds.removeAll(entries.keySet());
+        if (!sharedIds.isEmpty() && sharedCache instanceof RedisCache redisCache) {
+            entries.putAll(multiGet(redisCache, sharedIds, type, twoTierCache));
+        } else if (sharedCache != null) {
+            for (Long id : sharedIds) {
+                T entry = sharedCache.get(id, type);
+                if (entry != null) {
+                    entries.put(id, entry);
+                }
+            }
+        }
+
+        Set<Long> misses = new LinkedHashSet<>(distinctIds);
+        misses.removeAll(entries.keySet());
+        if (!misses.isEmpty()) {
+            boolean tagged = cacheLoaded && taggingCache != null;
+            long generation = tagged ? cacheTagIndex.generation() : 0;
+            Object token = cacheLoaded ? DecoratingCache.beginLoad(sharedCache) : null;
+            Map<Long, T> loaded = loader.apply(misses);
+            entries.putAll(loaded);
+            if (tagged && !loaded.isEmpty()) {
+                // Entries loaded across an invalidation of their tags may be the old state and are not cached
+                Set<Object> invalidated = cacheTagIndex.invalidatedSince(generation, cacheName, loaded);
+                if (!invalidated.isEmpty()) {
+                    loaded = new HashMap<>(loaded);
+                    loaded.keySet().removeAll(invalidated);
+                }
+            }
+            if (cacheLoaded) {
+                if (sharedCache instanceof RedisCache redisCache) {
+                    multiPut(redisCache, loaded);
+                } else if (sharedCache != null) {
+                    loaded.forEach((id, entry) -> DecoratingCache.putLoaded(sharedCache, id, entry, token));
+                }
+                if (twoTierCache != null) {
+                    // Other instances may hold an older copy in L1, as when an entry was loaded after an eviction
+                    loaded.forEach(twoTierCache::putWrittenRemotely);
+                }
+                if (taggingCache != null && !loaded.isEmpty()) {
+                    cacheTagIndex.tag(cacheName, loaded);
+                }
+            }
+        }
+        if (meteredCache != null) {
+            meteredCache.recordGets(distinctIds, misses.size());
+        }
+        log.debug(
+                "Resolved {} of {} ids from cache {}, loaded {}",
+                distinctIds.size() - misses.size(),
+                distinctIds.size(),
+                cacheName,
+                misses.size());
+        return entries;
+    }
+
+    /** Reads entries with one {@code MGET}, filling the L1 tier, if given, with the hits and their remaining TTLs. */
+    @SuppressWarnings("unchecked")
+    private <T> Map<Long, T> multiGet(RedisCache cache, Set<Long> ids, Class<T> type, TwoTierCache twoTierCache) {
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        List<Long> orderedIds = new ArrayList<>(ids);
+        byte[][] keys = new byte[orderedIds.size()][];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = key(cache, orderedIds.get(i));
+        }
+
+        Map<Long, T> hits = new HashMap<>();
+        List<byte[]> values;
+        List<Object> ttls = List.of();
+        try (RedisConnection connection = redisConnectionFactory.getConnection()) {
+            if (twoTierCache == null) {
+                values = connection.stringCommands().mGet(keys);
+            } else {
+                // The TTLs come in the same round trip, so that the L1 copies do not outlive the Redis entries
+                connection.openPipeline();
+                connection.stringCommands().mGet(keys);
+                for (byte[] key : keys) {
+                    connection.keyCommands().pTtl(key);
+                }
+                List<Object> results = connection.closePipeline();
+                values = (List<byte[]>) results.get(0);
+                ttls = results.subList(1, results.size());
+            }
+        } catch (DataAccessException e) {
+            log.warn("Multi-get from cache {} failed, loading every id: {}", cache.getName(), e.getMessage());
+            return hits;
+        }
+        if (values == null) {
+            return hits;
+        }
+        for (int i = 0; i < values.size(); i++) {
+            byte[] value = values.get(i);
+            if (value == null) {
+                continue;
+            }
+            Object entry = config.getValueSerializationPair().read(ByteBuffer.wrap(value));
+            if (type.isInstance(entry)) {
+                hits.put(orderedIds.get(i), type.cast(entry));
+                if (twoTierCache != null) {
+                    twoTierCache.putLocal(orderedIds.get(i), entry, remainingTtl(ttls, i));
+                }
+            }
+        }
+        return hits;
+    }
+
+    private <T> void multiPut(RedisCache cache, Map<Long, T> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        try (RedisConnection connection = redisConnectionFactory.getConnection()) {
+            connection.openPipeline();
+            for (Map.Entry<Long, T> entry : entries.entrySet()) {
+                byte[] value = ByteUtils.getBytes(config.getValueSerializationPair().write(entry.getValue()));
+                Duration ttl = config.getTtlFunction().getTimeToLive(entry.getKey(), entry.getValue());
+                Expiration expiration =
+                        ttl.isZero() || ttl.isNegative() ? Expiration.persistent() : Expiration.from(ttl);
+                connection
+                        .stringCommands()
+                        .set(key(cache, entry.getKey()), value, expiration, RedisStringCommands.SetOption.upsert());
+            }
+            connection.closePipeline();
+        } catch (DataAccessException e) {
+            log.warn("Writing {} entries back to cache {} failed: {}", entries.size(), cache.getName(), e.getMessage());
+        }
+    }
+
+    /** The remaining TTL answered by {@code PTTL}, or {@code null} if it is unknown or the key does not expire. */
+    private static Duration remainingTtl(List<Object> ttls, int index) {
+        Object millis = index < ttls.size() ? ttls.get(index) : null;
+        if (!(millis instanceof Long ttl) || ttl == -1) {
+            return null;
+        }
+        return Duration.ofMillis(Math.max(ttl, 0));
+    }
+
+    /** The Redis key of an entry, as {@link RedisCache} would build it for a {@code #id} cache key. */
+    private static byte[] key(RedisCache cache, Long id) {
+        RedisCacheConfiguration config = cache.getCacheConfiguration();
+        String key = config.usePrefix() ? config.getKeyPrefixFor(cache.getName()) + id : String.valueOf(id);
+        return ByteUtils.getBytes(config.getKeySerializationPair().write(key));
+    }
+}
@@ -0,0 +1,250 @@
+package com.example.store.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Redis-backed index from {@link CacheTags tags} to the cache entries carrying them. Each tag is a Redis set of
+ * {@code cacheName::key} members, filled whenever an entry is cached; invalidating a tag evicts exactly those entries
+ * instead of clearing whole caches. Tag sets expire a while after their last entry was added, so they never outlive
+ * the entries by much.
+ *
+ * <p>A read that loaded the old state before a commit could otherwise cache it again after the post-commit
+ * invalidation. Every invalidation therefore bumps a generation and marks its tags with it, and a loaded value is only
+ * cached if none of its tags were marked since the {@link #generation()} taken before loading. What remains is the
+ * short gap between that check and the write; an entry slipping through it lives at most until its cache TTL.
+ */
+@Component
+@Slf4j
+public class CacheTagIndex {
+
+    private static final String KEY_PREFIX = "cache-tags::";
+    private static final String MEMBER_SEPARATOR = "::";
+    private static final String GENERATION_KEY = "cache-tags-generation";
+    private static final String INVALIDATED_PREFIX = "cache-tags-invalidated::";
+
+    private final StringRedisTemplate redisTemplate;
+    private final ObjectProvider<CacheManager> cacheManager;
+    private final Duration ttl;
+
+    /**
+     * Instantiates a new Cache tag index.
+     *
+     * @param redisTemplate the redis template
+     * @param cacheManager the cache manager, resolved lazily since it records into this index
+     * @param ttl how long a tag set is kept after its last entry was added; at least the longest cache TTL
+     */
+    public CacheTagIndex(
+            StringRedisTemplate redisTemplate,
+            ObjectProvider<CacheManager> cacheManager,
+            @Value("${store.cache.tags.ttl:40m}") Duration ttl) {
+        this.redisTemplate = redisTemplate;
+        this.cacheManager = cacheManager;
+        this.ttl = ttl;
+    }
+
+    /**
+     * Records the tags of entries that were just cached.
+     *
+     * @param cacheName the cache name
+     * @param entries the cached values by cache key
+     */
+    public void tag(String cacheName, Map<?, ?> entries) {
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection commands = (StringRedisConnection) connection;
+                for (Map.Entry<?, ?> entry : entries.entrySet()) {
+                    String member = cacheName + MEMBER_SEPARATOR + entry.getKey();
+                    for (String tag : CacheTags.of(cacheName, entry.getValue())) {
+                        commands.sAdd(KEY_PREFIX + tag, member);
+                        commands.expire(KEY_PREFIX + tag, ttl.toSeconds());
+                    }
+                }
+                return null;
+            });
+        } catch (DataAccessException e) {
+            // An untagged entry is only evicted by its TTL, so drop it rather than risk serving it stale
+            log.warn("Failed to tag entries of cache {}, evicting them: {}", cacheName, e.getMessage());
+            Cache cache = targetCache(cacheName);
+            if (cache != null) {
+                entries.keySet().forEach(cache::evict);
+            }
+        }
+    }
+
+    /**
+     * Returns the current invalidation generation, to be taken before loading values that are cached afterwards.
+     *
+     * @return the generation, or {@code -1} if it could not be read
+     */
+    public long generation() {
+        try {
+            String generation = redisTemplate.opsForValue().get(GENERATION_KEY);
+            return generation != null ? Long.parseLong(generation) : 0;
+        } catch (DataAccessException e) {
+            log.warn("Failed to read the cache tag generation: {}", e.getMessage());
+            return -1;
+        }
+    }
+
+    /**
+     * Returns the keys of loaded entries carrying a tag that was invalidated after the given generation. Those entries
+     * may hold the state from before the invalidation and must not be cached.
+     *
+     * @param generation the {@link #generation()} taken before the entries were loaded
+     * @param cacheName the cache name
+     * @param entries the loaded values by cache key
+     * @return the keys of the entries that must not be cached; all of them if the tags could not be checked
+     */
+    public Set<Object> invalidatedSince(long generation, String cacheName, Map<?, ?> entries) {
+        if (generation < 0) {
+            return new LinkedHashSet<>(entries.keySet());
+        }
+        Map<Object, Set<String>> tagsByKey = new HashMap<>();
+        Set<String> tags = new LinkedHashSet<>();
+        for (Map.Entry<?, ?> entry : entries.entrySet()) {
+            Set<String> entryTags = CacheTags.of(cacheName, entry.getValue());
+            tagsByKey.put(entry.getKey(), entryTags);
+            tags.addAll(entryTags);
+        }
+        if (tags.isEmpty()) {
+            return Set.of();
+        }
+
+        List<String> tagList = new ArrayList<>(tags);
+        List<String> markers;
+        try {
+            markers = redisTemplate
+                    .opsForValue()
+                    .multiGet(tagList.stream().map(tag -> INVALIDATED_PREFIX + tag).toList());
+        } catch (DataAccessException e) {
+            log.warn("Failed to read cache tag markers of cache {}: {}", cacheName, e.getMessage());
+            return new LinkedHashSet<>(entries.keySet());
+        }
+        Set<String> invalidatedTags = new HashSet<>();
+        for (int i = 0; i < tagList.size(); i++) {
+            String marker = markers != null ? markers.get(i) : null;
+            if (marker != null && Long.parseLong(marker) > generation) {
+                invalidatedTags.add(tagList.get(i));
+            }
+        }
+        if (invalidatedTags.isEmpty()) {
+            return Set.of();
+        }
+        Set<Object> invalidated = new LinkedHashSet<>();
+        tagsByKey.forEach((key, entryTags) -> {
+            if (entryTags.stream().anyMatch(invalidatedTags::contains)) {
+                invalidated.add(key);
+            }
+        });
+        return invalidated;
+    }
+
+    /**
+     * Evicts every cache entry carrying one of the tags. Inside a transaction the entries are evicted after the commit,
+     * so no reader can cache the old state again in between.
+     *
+     * @param tags the tags to invalidate
+     */
+    public void invalidate(Collection<String> tags) {
+        Set<String> distinctTags = new LinkedHashSet<>(tags);
+        if (distinctTags.isEmpty()) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidateNow(distinctTags);
+                }
+            });
+        } else {
+            invalidateNow(distinctTags);
+        }
+    }
+
+    private void invalidateNow(Set<String> tags) {
+        List<String> keys = new ArrayList<>(tags.size());
+        for (String tag : tags) {
+            keys.add(KEY_PREFIX + tag);
+        }
+
+        Set<String> members;
+        try {
+            // Marked before the eviction, so that reads which loaded the old state no longer cache it
+            Long generation = redisTemplate.opsForValue().increment(GENERATION_KEY);
+            String marker = String.valueOf(generation);
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection commands = (StringRedisConnection) connection;
+                for (String tag : tags) {
+                    commands.setEx(INVALIDATED_PREFIX + tag, ttl.toSeconds(), marker);
+                }
+                return null;
+            });
+            members = redisTemplate.opsForSet().union(keys);
+            if (members != null && !members.isEmpty()) {
+                redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                    StringRedisConnection commands = (StringRedisConnection) connection;
+                    String[] removed = members.toArray(new String[0]);
+                    for (String key : keys) {
+                        commands.sRem(key, removed);
+                    }
+                    return null;
+                });
+            }
+        } catch (DataAccessException e) {
+            // Without the index the affected entries are unknown; clearing everything is the only safe choice
+            log.warn("Failed to read cache tags {}, clearing all caches: {}", tags, e.getMessage());
+            for (String cacheName : cacheManager.getObject().getCacheNames()) {
+                Cache cache = targetCache(cacheName);
+                if (cache != null) {
+                    cache.clear();
+                }
+            }
+            return;
+        }
+        if (members == null || members.isEmpty()) {
+            return;
+        }
+
+        for (String member : members) {
+            int separator = member.indexOf(MEMBER_SEPARATOR);
+            if (separator < 0) {
+                continue;
+            }
+            Cache cache = targetCache(member.substring(0, separator));
+            if (cache != null) {
+                cache.evict(member.substring(separator + MEMBER_SEPARATOR.length()));
+            }
+        }
+        log.debug("Invalidated {} cache entries for tags {}", members.size(), tags);
+    }
+
+    /** The cache of a name, bypassing the transaction-aware decoration since evictions already run after commit. */
+    private Cache targetCache(String cacheName) {
+        Cache cache = cacheManager.getObject().getCache(cacheName);
+        return cache instanceof TransactionAwareCacheDecorator decorator ? decorator.getTargetCache() : cache;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.store.service;
+
+import com.example.store.config.StampedValue;
+import com.example.store.dto.CustomerDTO;
+import com.example.store.dto.CustomerOrderDTO;
+import com.example.store.dto.OrderDTO;
+import com.example.store.dto.PagedResponse;
+import com.example.store.dto.ProductDTO;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Names the tags a cached value is indexed under by {@link CacheTagIndex}. Every cached customer, order and product
+ * carries the tag of each entity whose data it shows, so a write invalidates exactly the entries and pages that show
+ * the written entity. Pages additionally carry the list tag of their entity, invalidated when rows are added or removed
+ * and thus every page may shift.
+ */
+public final class CacheTags {
+
+    /** Carried by every cached customer page. */
+    public static final String CUSTOMER_LIST = "customer-list";
+
+    /** Carried by every cached order page. */
+    public static final String ORDER_LIST = "order-list";
+
+    /** Carried by every cached product page. */
+    public static final String PRODUCT_LIST = "product-list";
+
+    private CacheTags() {}
+
+    /**
+     * The tag of a customer.
+     *
+     * @param id the customer id
+     * @return the tag
+     */
+    public static String customer(Long id) {
+        return "customer:" + id;
+    }
+
+    /**
+     * The tag of an order.
+     *
+     * @param id the order id
+     * @return the tag
+     */
+    public static String order(Long id) {
+        return "order:" + id;
+    }
+
+    /**
+     * The tag of a product.
+     *
+     * @param id the product id
+     * @return the tag
+     */
+    public static String product(Long id) {
+        return "product:" + id;
+    }
+
+    /**
+     * The tag of the product pages sorted by a field, invalidated when that field of any product changes.
+     *
+     * @param sortBy the sort field
+     * @return the tag
+     */
+    public static String productSort(String sortBy) {
+        return PRODUCT_LIST + ":" + sortBy;
+    }
+
+    /**
+     * Returns the tags of a value stored in a cache.
+     *
+     * @param cacheName the cache name
+     * @param value the cached value
+     * @return the tags, empty for values of unknown type
+     */
+    public static Set<String> of(String cacheName, Object value) {
+        if (value instanceof StampedValue stamped) {
+            return of(cacheName, stamped.getValue());
+        }
+        Set<String> tags = new LinkedHashSet<>();
+        if (value instanceof PagedResponse<?> page) {
+            switch (cacheName) {
+                case "pagedCustomers" -> tags.add(CUSTOMER_LIST);
+                case "pagedOrders" -> tags.add(ORDER_LIST);
+                case "pagedProducts" -> {
+                    tags.add(PRODUCT_LIST);
+                    tags.add(productSort(page.getSortBy()));
+                }
+                default -> {}
+            }
+            if (page.getContent() != null) {
+                for (Object element : page.getContent()) {
+                    addEntityTags(tags, element);
+                }
+            }
+        } else {
+            addEntityTags(tags, value);
+        }
+        return tags;
+    }
+
+    private static void addEntityTags(Set<String> tags, Object value) {
+        if (value instanceof CustomerDTO customer) {
+            tags.add(customer(customer.getId()));
+            if (customer.getOrders() != null) {
+                for (CustomerOrderDTO order : customer.getOrders()) {
+                    tags.add(order(order.getId()));
+                }
+            }
+        } else if (value instanceof OrderDTO order) {
+            tags.add(order(order.getId()));
+            if (order.getCustomer() != null) {
+                tags.add(customer(order.getCustomer().getId()));
+            }
+            if (order.getProducts() != null) {
+                for (ProductDTO product : order.getProducts()) {
+                    tags.add(product(product.getId()));
+                }
+            }
+        } else if (value instanceof ProductDTO product) {
+            tags.add(product(product.getId()));
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package com.example.store.service;
+
+import com.example.store.config.HotKeyRecorder;
+import com.example.store.dto.CountMode;
+import com.example.store.dto.Include;
+import com.example.store.dto.Projection;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Preloads the caches of a freshly started instance, so that its first requests do not all go to the database. Once
+ * the application is ready, the first pages of every paged cache, in the default sort order and page size of the
+ * controllers, and the hottest ids of every by-id cache recorded by the {@link HotKeyRecorder} are loaded through the
+ * services on a small pool, the ids in batches of at most {@code store.batch-get.max-ids}.
+ *
+ * <p>Until the warm-up completes or times out this indicator reports {@code OUT_OF_SERVICE}; it is part of the
+ * readiness health group, so the instance receives no traffic while its caches are cold.
+ */
+@Component
+@Slf4j
+public class CacheWarmUp implements HealthIndicator {
+
+    private final CustomerService customerService;
+    private final OrderService orderService;
+    private final ProductService productService;
+    private final ObjectProvider<HotKeyRecorder> hotKeyRecorder;
+    private final int pages;
+    private final int pageSize;
+    private final int hotKeys;
+    private final int batchSize;
+    private final int threads;
+    private final Duration timeout;
+    private final AtomicInteger warmed = new AtomicInteger();
+    private final AtomicInteger failed = new AtomicInteger();
+
+    private volatile State state;
+
+    /**
+     * Instantiates a new Cache warm up.
+     *
+     * @param customerService the customer service
+     * @param orderService the order service
+     * @param productService the product service
+     * @param hotKeyRecorder the recorder of the hottest ids, if enabled
+     * @param enabled whether the caches are warmed up at startup
+     * @param pages the number of leading pages loaded per paged cache
+     * @param pageSize the size of those pages
+     * @param hotKeys the number of hottest ids loaded per by-id cache
+     * @param batchSize the most ids loaded at once
+     * @param threads the number of threads loading in parallel
+     * @param timeout how long the warm-up may take before the instance reports ready anyway
+     */
+    public CacheWarmUp(
+            CustomerService customerService,
+            OrderService orderService,
+            ProductService productService,
+            ObjectProvider<HotKeyRecorder> hotKeyRecorder,
+            @Value("${store.cache.warm-up.enabled:true}") boolean enabled,
+            @Value("${store.cache.warm-up.pages:5}") int pages,
+            @Value("${store.cache.warm-up.page-size:20}") int pageSize,
+            @Value("${store.cache.warm-up.hot-keys:500}") int hotKeys,
+            @Value("${store.batch-get.max-ids:100}") int batchSize,
+            @Value("${store.cache.warm-up.threads:4}") int threads,
+            @Value("${store.cache.warm-up.timeout:60s}") Duration timeout) {
+        this.customerService = customerService;
+        this.orderService = orderService;
+        this.productService = productService;
+        this.hotKeyRecorder = hotKeyRecorder;
+        this.pages = pages;
+        this.pageSize = pageSize;
+        this.hotKeys = hotKeys;
+        this.batchSize = batchSize;
+        this.threads = threads;
+        this.timeout = timeout;
+        this.state = enabled ? State.PENDING : State.DISABLED;
+    }
+
+    /** Starts the warm-up once the application has started. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        warmUp();
+    }
+
+    @Override
+    public Health health() {
+        State current = state;
+        boolean warming = current == State.PENDING || current == State.RUNNING;
+        return (warming ? Health.outOfService() : Health.up())
+                .withDetail("state", current.label)
+                .withDetail("warmed", warmed.get())
+                .withDetail("failed", failed.get())
+                .build();
+    }
+
+    /**
+     * Loads the caches in the background.
+     *
+     * @return completes when the warm-up has completed or timed out
+     */
+    CompletableFuture<Void> warmUp() {
+        if (state != State.PENDING) {
+            return CompletableFuture.completedFuture(null);
+        }
+        state = State.RUNNING;
+        long start = System.nanoTime();
+
+        List<Runnable> tasks = new ArrayList<>();
+        for (int page = 0; page < pages; page++) {
+            int p = page;
+            // The listings as the endpoints serve them by default, without expanded relations
+            tasks.add(() -> customerService.getAllCustomers(p, pageSize, "id", "asc", CountMode.EXACT, Include.none()));
+            tasks.add(() -> orderService.getAllOrders(p, pageSize, "id", "asc", CountMode.EXACT, Projection.FULL));
+            tasks.add(() -> productService.getAllProducts(p, pageSize, "id", "asc", CountMode.EXACT, Include.none()));
+        }
+        HotKeyRecorder recorder = hotKeyRecorder.getIfAvailable();
+        if (recorder != null) {
+            addBatches(tasks, recorder, "customers", customerService::getCustomersByIds);
+            addBatches(tasks, recorder, "orders", orderService::getOrdersByIds);
+            addBatches(tasks, recorder, "products", productService::getProductsByIds);
+        }
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("cache-warm-up-");
+        threadFactory.setDaemon(true);
+        ExecutorService executor = Executors.newFixedThreadPool(threads, threadFactory);
+        CompletableFuture<?>[] futures = tasks.stream()
+                .map(task -> CompletableFuture.runAsync(() -> run(task), executor))
+                .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(futures)
+                .orTimeout(timeout.toMillis(), TimeUnit.MILLISECONDS)
+                .handle((result, e) -> {
+                    executor.shutdownNow();
+                    Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                    state = cause instanceof TimeoutException ? State.TIMED_OUT : State.COMPLETED;
+                    log.info(
+                            "Cache warm-up {} after {} ms: {} loads done, {} failed, {} not run",
+                            state.label,
+                            (System.nanoTime() - start) / 1_000_000,
+                            warmed.get(),
+                            failed.get(),
+                            tasks.size() - warmed.get() - failed.get());
+                    return null;
+                });
+    }
+
+    private void addBatches(
+            List<Runnable> tasks, HotKeyRecorder recorder, String cacheName, Consumer<List<Long>> loader) {
+        List<Long> ids = new ArrayList<>();
+        for (String key : recorder.getHottest(cacheName, hotKeys)) {
+            try {
+                ids.add(Long.valueOf(key));
+            } catch (NumberFormatException e) {
+                log.debug("Skipping hot key {} of cache {} that is not an id", key, cacheName);
+            }
+        }
+        for (int from = 0; from < ids.size(); from += batchSize) {
+            List<Long> batch = List.copyOf(ids.subList(from, Math.min(from + batchSize, ids.size())));
+            tasks.add(() -> loader.accept(batch));
+        }
+    }
+
+    private void run(Runnable task) {
+        try {
+            task.run();
+            warmed.incrementAndGet();
+        } catch (RuntimeException e) {
+            failed.incrementAndGet();
+            log.warn("Cache warm-up load failed: {}", e.getMessage());
+        }
+    }
+
+    private enum State {
+        DISABLED("disabled"),
+        PENDING("pending"),
+        RUNNING("running"),
+        COMPLETED("completed"),
+        TIMED_OUT("timed out");
+
+        private final String label;
+
+        State(String label) {
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,367 @@
+package com.example.store.service;
+
+import com.example.store.repository.CustomerNameRow;
+import com.example.store.repository.CustomerRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory trigram inverted index over customer names. Each trigram of a lower-cased name maps to a sorted
+ * {@code long[]} posting list of customer ids, so a substring search intersects the posting lists of the query's
+ * trigrams and verifies the few remaining candidates against the stored names without a database round trip.
+ *
+ * <p>The index is built in the background once the application is ready; until the first build completes
+ * {@link #isReady()} is {@code false} and callers are expected to query the database instead. A customer committed
+ * through {@link #add(Long, String)} is indexed here and published on {@link #ADDITIONS_CHANNEL}, so the other
+ * instances index it within a pub/sub round trip. Rows they miss, such as bulk ingests or lost messages, are picked
+ * up by the rebuild every {@code store.search.customer-index.refresh-interval-ms}, five minutes by default.
+ */
+@Component
+@Slf4j
+public class CustomerNameIndex implements MessageListener {
+
+    /** Redis pub/sub channel carrying the customers added on each instance. */
+    public static final String ADDITIONS_CHANNEL = "store:search:customer-names";
+
+    private static final String SEPARATOR = "\n";
+
+    private final CustomerRepository customerRepository;
+    private final StringRedisTemplate redisTemplate;
+    private final boolean enabled;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Lock rebuildLock = new ReentrantLock();
+
+    private Map<Long, PostingList> postings = new HashMap<>();
+    private Map<Long, String> names = new HashMap<>();
+    private Map<Long, String> addedDuringRebuild;
+    private volatile boolean ready;
+
+    /**
+     * Instantiates a new Customer name index.
+     *
+     * @param customerRepository the customer repository
+     * @param redisTemplate the redis template publishing added customers
+     * @param enabled whether the index is built and used
+     */
+    public CustomerNameIndex(
+            CustomerRepository customerRepository,
+            StringRedisTemplate redisTemplate,
+            @Value("${store.search.customer-index.enabled:true}") boolean enabled) {
+        this.customerRepository = customerRepository;
+        this.redisTemplate = redisTemplate;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Whether the index has been built and can answer searches.
+     *
+     * @return true if searches can be served from memory
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /** Builds the index in the background once the application has started, without delaying the startup. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("customer-name-index-");
+        threadFactory.setDaemon(true);
+        threadFactory.newThread(this::rebuild).start();
+    }
+
+    /** Rebuilds the index from the database. Runs in the background on a fixed delay. */
+    @Scheduled(
+            initialDelayString = "${store.search.customer-index.refresh-interval-ms:300000}",
+            fixedDelayString = "${store.search.customer-index.refresh-interval-ms:300000}")
+    public void rebuild() {
+        if (!enabled) {
+            return;
+        }
+        // The startup, scheduled and ingest rebuilds may overlap; each must see the additions made during it
+        rebuildLock.lock();
+        try {
+            rebuildNow();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private void rebuildNow() {
+        lock.writeLock().lock();
+        try {
+            addedDuringRebuild = new HashMap<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            long start = System.nanoTime();
+            Map<Long, PostingList> newPostings = new HashMap<>();
+            Map<Long, String> newNames = new HashMap<>();
+            // Ascending ids let every posting list be built by appending
+            for (CustomerNameRow row : customerRepository.findAllNameRows()) {
+                index(newPostings, newNames, row.getId(), row.getName());
+            }
+
+            lock.writeLock().lock();
+            try {
+                // Customers committed while the rows were being read may be missing from the snapshot
+                for (Map.Entry<Long, String> added : addedDuringRebuild.entrySet()) {
+                    index(newPostings, newNames, added.getKey(), added.getValue());
+                }
+                postings = newPostings;
+                names = newNames;
+                ready = true;
+            } finally {
+                addedDuringRebuild = null;
+                lock.writeLock().unlock();
+            }
+            log.info(
+                    "Built customer name index with {} names and {} trigrams in {} ms",
+                    newNames.size(),
+                    newPostings.size(),
+                    (System.nanoTime() - start) / 1_000_000);
+        } catch (Exception e) {
+            lock.writeLock().lock();
+            try {
+                addedDuringRebuild = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.warn("Failed to build customer name index: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Adds a customer to the index of every instance. When called inside a transaction the customer is added after the
+     * commit, so a rolled back insert never becomes searchable.
+     *
+     * @param id the customer id
+     * @param name the customer name
+     */
+    public void add(Long id, String name) {
+        if (!enabled || id == null || name == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    addNow(id, name);
+                    publishAddition(id, name);
+                }
+            });
+        } else {
+            addNow(id, name);
+            publishAddition(id, name);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String[] parts = new String(message.getBody(), StandardCharsets.UTF_8).split(SEPARATOR, 3);
+        if (!enabled || parts.length != 3 || nodeId.equals(parts[0])) {
+            return;
+        }
+        try {
+            addNow(Long.valueOf(parts[1]), parts[2]);
+        } catch (NumberFormatException e) {
+            log.warn("Ignoring malformed customer name index addition: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Finds the customers whose name contains the query, ignoring case.
+     *
+     * @param query the substring to search for
+     * @return the matches in ascending id order
+     */
+    public List<Match> search(String query) {
+        String needle = query.toLowerCase(Locale.ROOT);
+        List<Match> matches = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            if (needle.length() < 3) {
+                // No trigram to narrow by; short queries verify every name
+                for (Map.Entry<Long, String> entry : names.entrySet()) {
+                    if (entry.getValue().contains(needle)) {
+                        matches.add(new Match(entry.getKey(), entry.getValue()));
+                    }
+                }
+                matches.sort(Comparator.comparingLong(Match::id));
+                return matches;
+            }
+
+            long[] queryTrigrams = trigrams(needle);
+            PostingList[] lists = new PostingList[queryTrigrams.length];
+            for (int i = 0; i < queryTrigrams.length; i++) {
+                lists[i] = postings.get(queryTrigrams[i]);
+                if (lists[i] == null) {
+                    return matches;
+                }
+            }
+            // Intersecting from the shortest list keeps the candidate set small from the start
+            Arrays.sort(lists, Comparator.comparingInt(list -> list.size));
+            long[] candidates = Arrays.copyOf(lists[0].ids, lists[0].size);
+            int candidateCount = candidates.length;
+            for (int i = 1; i < lists.length && candidateCount > 0; i++) {
+                candidateCount = intersect(candidates, candidateCount, lists[i].ids, lists[i].size);
+            }
+
+            for (int i = 0; i < candidateCount; i++) {
+                String name = names.get(candidates[i]);
+                if (name != null && name.contains(needle)) {
+                    matches.add(new Match(candidates[i], name));
+                }
+            }
+            return matches;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void publishAddition(Long id, String name) {
+        try {
+            redisTemplate.convertAndSend(ADDITIONS_CHANNEL, nodeId + SEPARATOR + id + SEPARATOR + name);
+        } catch (DataAccessException e) {
+            log.warn(
+                    "Failed to publish customer {} to the name index; other instances find it after their next rebuild:"
+                            + " {}",
+                    id,
+                    e.getMessage());
+        }
+    }
+
+    private void addNow(Long id, String name) {
+        lock.writeLock().lock();
+        try {
+            if (addedDuringRebuild != null) {
+                addedDuringRebuild.put(id, name);
+            }
+            index(postings, names, id, name);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void index(Map<Long, PostingList> postings, Map<Long, String> names, Long id, String name) {
+        String lowered = name.toLowerCase(Locale.ROOT);
+        if (names.put(id, lowered) != null) {
+            return;
+        }
+        for (long trigram : trigrams(lowered)) {
+            postings.computeIfAbsent(trigram, t -> new PostingList()).add(id);
+        }
+    }
+
+    /**
+     * Returns the distinct trigrams of a string, each packed into a long as three 16-bit chars.
+     *
+     * @param value the lower-cased string
+     * @return the packed trigrams
+     */
+    static long[] trigrams(String value) {
+        if (value.length() < 3) {
+            return new long[0];
+        }
+        long[] trigrams = new long[value.length() - 2];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = ((long) value.charAt(i) << 32) | ((long) value.charAt(i + 1) << 16) | value.charAt(i + 2);
+        }
+        Arrays.sort(trigrams);
+        int distinct = 0;
+        for (int i = 0; i < trigrams.length; i++) {
+            if (i == 0 || trigrams[i] != trigrams[i - 1]) {
+                trigrams[distinct++] = trigrams[i];
+            }
+        }
+        return Arrays.copyOf(trigrams, distinct);
+    }
+
+    /**
+     * Intersects two sorted id arrays, writing the result into the first one.
+     *
+     * @return the number of ids in the intersection
+     */
+    private static int intersect(long[] target, int targetSize, long[] other, int otherSize) {
+        int i = 0;
+        int j = 0;
+        int size = 0;
+        while (i < targetSize && j < otherSize) {
+            if (target[i] < other[j]) {
+                i++;
+            } else if (target[i] > other[j]) {
+                j++;
+            } else {
+                target[size++] = target[i];
+                i++;
+                j++;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * A matching customer.
+     *
+     * @param id the customer id
+     * @param name the lower-cased customer name
+     */
+    public record Match(long id, String name) {}
+
+    /** Growable sorted array of customer ids. */
+    private static final class PostingList {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            if (size == 0 || ids[size - 1] < id) {
+                ids[size++] = id;
+                return;
+            }
+            int position = Arrays.binarySearch(ids, 0, size, id);
+            if (position >= 0) {
+                return;
+            }
+            int insertAt = -position - 1;
+            System.arraycopy(ids, insertAt, ids, insertAt + 1, size - insertAt);
+            ids[insertAt] = id;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.store.service;
+
+import com.example.store.dto.CustomerDTO;
+import com.example.store.dto.CustomerOrderDTO;
+import com.example.store.repository.CustomerOrderRow;
+import com.example.store.repository.OrderRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Attaches the nested orders to a batch of customer DTOs with a single query instead of initialising
+ * {@code Customer.orders} per customer. At most {@code store.customer.orders.max-per-customer} orders are attached to
+ * each customer; customers with more orders are flagged with {@link CustomerDTO#isOrdersTruncated()}.
+ */
+@Component
+public class CustomerOrderBatchLoader {
+
+    private final OrderRepository orderRepository;
+    private final int maxOrdersPerCustomer;
+
+    /**
+     * Instantiates a new Customer order batch loader.
+     *
+     * @param orderRepository the order repository
+     * @param maxOrdersPerCustomer the maximum number of orders attached to each customer
+     */
+    public CustomerOrderBatchLoader(
+            OrderRepository orderRepository,
+            @Value("${store.customer.orders.max-per-customer:100}") int maxOrdersPerCustomer) {
+        if (maxOrdersPerCustomer < 1) {
+            throw new IllegalArgumentException("store.customer.orders.max-per-customer must be positive");
+        }
+        this.orderRepository = orderRepository;
+        this.maxOrdersPerCustomer = maxOrdersPerCustomer;
+    }
+
+    /**
+     * Gets the maximum number of orders attached to each customer.
+     *
+     * @return the configured maximum
+     */
+    public int getMaxOrdersPerCustomer() {
+        return maxOrdersPerCustomer;
+    }
+
+    /**
+     * Loads the orders of the given customers and sets them on the DTOs.
+     *
+     * @param customers the customer DTOs, typically one page
+     */
+    public void attachOrders(List<CustomerDTO> customers) {
+        attachOrders(customers, maxOrdersPerCustomer);
+    }
+
+    /**
+     * Loads at most {@code limit} orders of each of the given customers and sets them on the DTOs.
+     *
+     * @param customers the customer DTOs, typically one page
+     * @param limit the maximum number of orders attached to each customer; capped at the configured maximum
+     */
+    public void attachOrders(List<CustomerDTO> customers, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        int max = Math.min(limit, maxOrdersPerCustomer);
+        Set<Long> customerIds = new LinkedHashSet<>();
+        for (CustomerDTO customer : customers) {
+            customer.setOrders(new ArrayList<>());
+            customer.setOrdersTruncated(false);
+            if (customer.getId() != null) {
+                customerIds.add(customer.getId());
+            }
+        }
+        if (customerIds.isEmpty()) {
+            return;
+        }
+
+        // One row more than the cap tells a truncated customer apart from one with exactly the cap
+        Map<Long, List<CustomerOrderDTO>> ordersByCustomer = new HashMap<>();
+        for (CustomerOrderRow row : orderRepository.findCustomerOrderRows(customerIds, max + 1)) {
+            CustomerOrderDTO order = new CustomerOrderDTO();
+            order.setId(row.getId());
+            order.setVersion(row.getVersion());
+            order.setDescription(row.getDescription());
+            ordersByCustomer.computeIfAbsent(row.getCustomerId(), id -> new ArrayList<>()).add(order);
+        }
+
+        for (CustomerDTO customer : customers) {
+            List<CustomerOrderDTO> orders = ordersByCustomer.get(customer.getId());
+            if (orders == null) {
+                continue;
+            }
+            if (orders.size() > max) {
+                customer.setOrders(new ArrayList<>(orders.subList(0, max)));
+                customer.setOrdersTruncated(true);
+            } else {
+                customer.setOrders(orders);
+            }
+        }
+    }
+}
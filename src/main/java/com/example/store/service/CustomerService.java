@@ -1,23 +1,85 @@
 package com.example.store.service;
 
+import com.example.store.dto.BatchResponse;
+import com.example.store.dto.CountMode;
 import com.example.store.dto.CustomerDTO;
+import com.example.store.dto.Include;
 import com.example.store.dto.PagedResponse;
+import com.example.store.dto.Projection;
 import com.example.store.entity.Customer;
 
+import java.util.List;
+
 /** The interface Customer service. */
 public interface CustomerService {
 
     /**
-     * Retrieves all customers with pagination support.
+     * Retrieves all customers with pagination support. Not cached; the cached listing is
+     * {@link #getAllCustomers(int, int, String, String, CountMode, Include)}.
      *
      * @param page the page number (0-based)
      * @param size the page size
      * @param sortBy the field to sort by
      * @param sortOrder the sort direction (asc/desc)
-     * @return paged response of customers
+     * @return paged response of customers, without their orders
      */
     PagedResponse<CustomerDTO> getAllCustomers(int page, int size, String sortBy, String sortOrder);
 
+    /**
+     * Retrieves all customers with pagination support, obtaining the total as requested. Not cached; the cached
+     * listing is {@link #getAllCustomers(int, int, String, String, CountMode, Include)}.
+     *
+     * @param page the page number (0-based)
+     * @param size the page size
+     * @param sortBy the field to sort by
+     * @param sortOrder the sort direction (asc/desc)
+     * @param countMode whether the total is counted exactly, served from the row count cache, or omitted
+     * @return paged response of customers, without their orders
+     */
+    PagedResponse<CustomerDTO> getAllCustomers(
+            int page, int size, String sortBy, String sortOrder, CountMode countMode);
+
+    /**
+     * Retrieves all customers with pagination support, expanding the given relations. Without
+     * {@link Include#ORDERS} the customers are returned without querying their orders; with it, the orders of the whole
+     * page are loaded with one batched query.
+     *
+     * @param page the page number (0-based)
+     * @param size the page size
+     * @param sortBy the field to sort by
+     * @param sortOrder the sort direction (asc/desc)
+     * @param countMode whether the total is counted exactly, served from the row count cache, or omitted
+     * @param include the relations to load and the most orders per customer
+     * @return paged response of customers
+     */
+    PagedResponse<CustomerDTO> getAllCustomers(
+            int page, int size, String sortBy, String sortOrder, CountMode countMode, Include include);
+
+    /**
+     * Retrieves customers using keyset (cursor) pagination. The cost of a page does not depend on how deep into the
+     * result set it is, and no count query is issued.
+     *
+     * @param after the cursor returned as {@code nextCursor} by the previous page, or empty for the first page
+     * @param size the page size
+     * @param sortBy the field to sort by (id or name)
+     * @param sortOrder the sort direction (asc/desc)
+     * @return keyset page of customers, without their orders
+     */
+    PagedResponse<CustomerDTO> getAllCustomersAfter(String after, int size, String sortBy, String sortOrder);
+
+    /**
+     * Retrieves customers using keyset (cursor) pagination, expanding the given relations.
+     *
+     * @param after the cursor returned as {@code nextCursor} by the previous page, or empty for the first page
+     * @param size the page size
+     * @param sortBy the field to sort by (id or name)
+     * @param sortOrder the sort direction (asc/desc)
+     * @param include the relations to load and the most orders per customer
+     * @return keyset page of customers
+     */
+    PagedResponse<CustomerDTO> getAllCustomersAfter(
+            String after, int size, String sortBy, String sortOrder, Include include);
+
     /**
      * Creates a new customer.
      *
@@ -34,10 +96,43 @@ public interface CustomerService {
      * @param size the page size
      * @param sortBy the field to sort by
      * @param sortOrder the sort direction (asc/desc)
-     * @return paged response of customers matching the search criteria
+     * @return paged response of customers matching the search criteria, without their orders
      */
     PagedResponse<CustomerDTO> searchCustomersByName(String query, int page, int size, String sortBy, String sortOrder);
 
+    /**
+     * Searches for customers whose name contains the given query string with pagination support, obtaining the total
+     * as requested.
+     *
+     * @param query the search query string
+     * @param page the page number (0-based)
+     * @param size the page size
+     * @param sortBy the field to sort by
+     * @param sortOrder the sort direction (asc/desc)
+     * @param countMode whether the total is counted exactly or omitted; the row count cache cannot serve search
+     *     totals, so {@link CountMode#APPROXIMATE} omits the total as well
+     * @return paged response of customers matching the search criteria, without their orders
+     */
+    PagedResponse<CustomerDTO> searchCustomersByName(
+            String query, int page, int size, String sortBy, String sortOrder, CountMode countMode);
+
+    /**
+     * Searches for customers whose name contains the given query string with pagination support, expanding the given
+     * relations. With {@link Include#ORDERS} the orders of the whole page are loaded with one batched query.
+     *
+     * @param query the search query string
+     * @param page the page number (0-based)
+     * @param size the page size
+     * @param sortBy the field to sort by
+     * @param sortOrder the sort direction (asc/desc)
+     * @param countMode whether the total is counted exactly or omitted; the row count cache cannot serve search
+     *     totals, so {@link CountMode#APPROXIMATE} omits the total as well
+     * @param include the relations to load and the most orders per customer
+     * @return paged response of customers matching the search criteria
+     */
+    PagedResponse<CustomerDTO> searchCustomersByName(
+            String query, int page, int size, String sortBy, String sortOrder, CountMode countMode, Include include);
+
     /**
      * Retrieves a customer by ID.
      *
@@ -45,4 +140,32 @@ public interface CustomerService {
      * @return the customer DTO
      */
     CustomerDTO getCustomerById(Long id);
+
+    /**
+     * Retrieves a customer by ID, loading the given projection.
+     *
+     * @param id the customer ID
+     * @param projection whether the orders of the customer are loaded
+     * @return the customer DTO
+     */
+    CustomerDTO getCustomerById(Long id, Projection projection);
+
+    /**
+     * Retrieves many customers by ID at once. Cached customers are read with one round trip and the rest are loaded
+     * with one query, together with their orders, and cached.
+     *
+     * @param ids the customer IDs, at most {@code store.batch-get.max-ids}
+     * @return one item per requested ID in request order, marked as not found for unknown IDs
+     */
+    BatchResponse<CustomerDTO> getCustomersByIds(List<Long> ids);
+
+    /**
+     * Retrieves many customers by ID at once, loading the given projection. Summaries are served from the cached
+     * customers where possible; the rest are loaded with one query and not cached.
+     *
+     * @param ids the customer IDs, at most {@code store.batch-get.max-ids}
+     * @param projection whether the orders of the customers are loaded
+     * @return one item per requested ID in request order, marked as not found for unknown IDs
+     */
+    BatchResponse<CustomerDTO> getCustomersByIds(List<Long> ids, Projection projection);
 }
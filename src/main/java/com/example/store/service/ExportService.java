@@ -0,0 +1,39 @@
+package com.example.store.service;
+
+import com.example.store.dto.ExportFormat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * The interface Export service. Exports stream every row of a table to the given output through a server-side cursor,
+ * so memory use stays bounded by the JDBC fetch size regardless of the table size.
+ */
+public interface ExportService {
+    /**
+     * Writes every customer to the output.
+     *
+     * @param format the export format
+     * @param out the output to write to; flushed but not closed
+     * @throws IOException if writing to the output fails
+     */
+    void exportCustomers(ExportFormat format, OutputStream out) throws IOException;
+
+    /**
+     * Writes every order with its customer and product ids to the output.
+     *
+     * @param format the export format
+     * @param out the output to write to; flushed but not closed
+     * @throws IOException if writing to the output fails
+     */
+    void exportOrders(ExportFormat format, OutputStream out) throws IOException;
+
+    /**
+     * Writes every product with its order ids to the output.
+     *
+     * @param format the export format
+     * @param out the output to write to; flushed but not closed
+     * @throws IOException if writing to the output fails
+     */
+    void exportProducts(ExportFormat format, OutputStream out) throws IOException;
+}
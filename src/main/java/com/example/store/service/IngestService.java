@@ -0,0 +1,24 @@
+package com.example.store.service;
+
+import com.example.store.dto.ExportFormat;
+import com.example.store.dto.IngestReport;
+import com.example.store.dto.IngestTarget;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/** The interface Ingest service. */
+public interface IngestService {
+    /**
+     * Loads every row of an upload into the target table. Rows are parsed on the calling thread, then validated and
+     * inserted in batches by a pool of workers behind a bounded queue, so a fast upload waits for the database instead
+     * of piling up in memory. Each batch is committed on its own; rows that fail validation are rejected individually.
+     *
+     * @param target the table to load
+     * @param format the upload format
+     * @param in the upload, optionally gzip-compressed
+     * @return the number of rows read, inserted and rejected, with the first rejection reasons
+     * @throws IOException if the upload cannot be read
+     */
+    IngestReport ingest(IngestTarget target, ExportFormat format, InputStream in) throws IOException;
+}
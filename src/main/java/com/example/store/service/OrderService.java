@@ -1,8 +1,12 @@
 package com.example.store.service;
 
+import com.example.store.dto.BatchResponse;
+import com.example.store.dto.BulkOrderResponse;
+import com.example.store.dto.CountMode;
 import com.example.store.dto.CreateOrderRequest;
 import com.example.store.dto.OrderDTO;
 import com.example.store.dto.PagedResponse;
+import com.example.store.dto.Projection;
 
 import java.util.List;
 import java.util.Optional;
@@ -10,7 +14,8 @@ import java.util.Optional;
 /** The interface Order service. */
 public interface OrderService {
     /**
-     * Retrieves all orders with pagination support.
+     * Retrieves all orders with pagination support. Not cached; the cached listing is
+     * {@link #getAllOrders(int, int, String, String, CountMode, Projection)}.
      *
      * @param page the page number (0-based)
      * @param size the page size
@@ -21,7 +26,61 @@ public interface OrderService {
     PagedResponse<OrderDTO> getAllOrders(int page, int size, String sortBy, String sortOrder);
 
     /**
-     * Retrieves all orders (legacy method for backward compatibility).
+     * Retrieves all orders with pagination support, obtaining the total as requested. Not cached; the cached
+     * listing is {@link #getAllOrders(int, int, String, String, CountMode, Projection)}.
+     *
+     * @param page the page number (0-based)
+     * @param size the page size
+     * @param sortBy the field to sort by
+     * @param sortOrder the sort direction (asc/desc)
+     * @param countMode whether the total is counted exactly, served from the row count cache, or omitted
+     * @return paged response of orders
+     */
+    PagedResponse<OrderDTO> getAllOrders(int page, int size, String sortBy, String sortOrder, CountMode countMode);
+
+    /**
+     * Retrieves all orders with pagination support, loading the given projection. Summaries are paged directly
+     * without querying the customers and products of the orders.
+     *
+     * @param page the page number (0-based)
+     * @param size the page size
+     * @param sortBy the field to sort by
+     * @param sortOrder the sort direction (asc/desc)
+     * @param countMode whether the total is counted exactly, served from the row count cache, or omitted
+     * @param projection whether the customer and products of the orders are loaded
+     * @return paged response of orders
+     */
+    PagedResponse<OrderDTO> getAllOrders(
+            int page, int size, String sortBy, String sortOrder, CountMode countMode, Projection projection);
+
+    /**
+     * Retrieves orders using keyset (cursor) pagination. The cost of a page does not depend on how deep into the
+     * result set it is, and no count query is issued.
+     *
+     * @param after the cursor returned as {@code nextCursor} by the previous page, or empty for the first page
+     * @param size the page size
+     * @param sortBy the field to sort by (id or description)
+     * @param sortOrder the sort direction (asc/desc)
+     * @return keyset page of orders
+     */
+    PagedResponse<OrderDTO> getAllOrdersAfter(String after, int size, String sortBy, String sortOrder);
+
+    /**
+     * Retrieves orders using keyset (cursor) pagination, loading the given projection.
+     *
+     * @param after the cursor returned as {@code nextCursor} by the previous page, or empty for the first page
+     * @param size the page size
+     * @param sortBy the field to sort by (id or description)
+     * @param sortOrder the sort direction (asc/desc)
+     * @param projection whether the customer and products of the orders are loaded
+     * @return keyset page of orders
+     */
+    PagedResponse<OrderDTO> getAllOrdersAfter(
+            String after, int size, String sortBy, String sortOrder, Projection projection);
+
+    /**
+     * Retrieves all orders (legacy method for backward compatibility). The whole table is loaded into memory and the
+     * result is not cached; use {@link ExportService#exportOrders} to read every order of a large table.
      *
      * @return list of all orders
      */
@@ -35,6 +94,34 @@ public interface OrderService {
      */
     Optional<OrderDTO> getOrderById(Long id);
 
+    /**
+     * Gets order by id, loading the given projection.
+     *
+     * @param id the id
+     * @param projection whether the customer and products of the order are loaded
+     * @return the order by id
+     */
+    Optional<OrderDTO> getOrderById(Long id, Projection projection);
+
+    /**
+     * Gets many orders by id at once. Cached orders are read with one round trip and the rest are loaded with one
+     * query and cached.
+     *
+     * @param ids the order ids, at most {@code store.batch-get.max-ids}
+     * @return one item per requested id in request order, marked as not found for unknown ids
+     */
+    BatchResponse<OrderDTO> getOrdersByIds(List<Long> ids);
+
+    /**
+     * Gets many orders by id at once, loading the given projection. Summaries are served from the cached orders where
+     * possible; the rest are loaded with one query and not cached.
+     *
+     * @param ids the order ids, at most {@code store.batch-get.max-ids}
+     * @param projection whether the customer and products of the orders are loaded
+     * @return one item per requested id in request order, marked as not found for unknown ids
+     */
+    BatchResponse<OrderDTO> getOrdersByIds(List<Long> ids, Projection projection);
+
     /**
      * Creates a new order from the request data.
      *
@@ -42,4 +129,13 @@ public interface OrderService {
      * @return the created order DTO
      */
     OrderDTO createOrder(CreateOrderRequest request);
+
+    /**
+     * Creates many orders at once. The referenced customers and products of all items are checked with a few set-based
+     * queries; items that fail validation are reported individually and the others are inserted in JDBC batches.
+     *
+     * @param requests the orders to create
+     * @return the result of each item, in request order
+     */
+    BulkOrderResponse createOrders(List<CreateOrderRequest> requests);
 }
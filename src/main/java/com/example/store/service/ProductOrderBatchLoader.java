@@ -0,0 +1,95 @@
+package com.example.store.service;
+
+import com.example.store.dto.ProductDTO;
+import com.example.store.repository.ProductOrderRow;
+import com.example.store.repository.ProductRepository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Attaches the order ids to a batch of product DTOs with a single query on the order/product join table instead of
+ * aggregating them per product. At most {@code store.product.order-ids.max-per-product} order ids are attached to each
+ * product; products in more orders are flagged with {@link ProductDTO#isOrderIdsTruncated()}.
+ */
+@Component
+public class ProductOrderBatchLoader {
+
+    private final ProductRepository productRepository;
+    private final int maxOrderIdsPerProduct;
+
+    /**
+     * Instantiates a new Product order batch loader.
+     *
+     * @param productRepository the product repository
+     * @param maxOrderIdsPerProduct the maximum number of order ids attached to each product
+     */
+    public ProductOrderBatchLoader(
+            ProductRepository productRepository,
+            @Value("${store.product.order-ids.max-per-product:100}") int maxOrderIdsPerProduct) {
+        if (maxOrderIdsPerProduct < 1) {
+            throw new IllegalArgumentException("store.product.order-ids.max-per-product must be positive");
+        }
+        this.productRepository = productRepository;
+        this.maxOrderIdsPerProduct = maxOrderIdsPerProduct;
+    }
+
+    /**
+     * Gets the maximum number of order ids attached to each product.
+     *
+     * @return the configured maximum
+     */
+    public int getMaxOrderIdsPerProduct() {
+        return maxOrderIdsPerProduct;
+    }
+
+    /**
+     * Loads at most {@code limit} order ids of each of the given products and sets them on the DTOs.
+     *
+     * @param products the product DTOs, typically one page
+     * @param limit the maximum number of order ids attached to each product; capped at the configured maximum
+     */
+    public void attachOrderIds(List<ProductDTO> products, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be positive");
+        }
+        int max = Math.min(limit, maxOrderIdsPerProduct);
+        Set<Long> productIds = new LinkedHashSet<>();
+        for (ProductDTO product : products) {
+            product.setOrderIds(new ArrayList<>());
+            product.setOrderIdsTruncated(false);
+            if (product.getId() != null) {
+                productIds.add(product.getId());
+            }
+        }
+        if (productIds.isEmpty()) {
+            return;
+        }
+
+        // One row more than the cap tells a truncated product apart from one with exactly the cap
+        Map<Long, List<Long>> orderIdsByProduct = new HashMap<>();
+        for (ProductOrderRow row : productRepository.findProductOrderRows(productIds, max + 1)) {
+            orderIdsByProduct.computeIfAbsent(row.getProductId(), id -> new ArrayList<>()).add(row.getOrderId());
+        }
+
+        for (ProductDTO product : products) {
+            List<Long> orderIds = orderIdsByProduct.get(product.getId());
+            if (orderIds == null) {
+                continue;
+            }
+            if (orderIds.size() > max) {
+                product.setOrderIds(new ArrayList<>(orderIds.subList(0, max)));
+                product.setOrderIdsTruncated(true);
+            } else {
+                product.setOrderIds(orderIds);
+            }
+        }
+    }
+}
@@ -1,8 +1,12 @@
 package com.example.store.service;
 
+import com.example.store.dto.BatchResponse;
+import com.example.store.dto.CountMode;
 import com.example.store.dto.CreateProductRequest;
+import com.example.store.dto.Include;
 import com.example.store.dto.PagedResponse;
 import com.example.store.dto.ProductDTO;
+import com.example.store.dto.Projection;
 import com.example.store.entity.Product;
 
 import java.util.List;
@@ -11,18 +15,74 @@ import java.util.List;
 public interface ProductService {
 
     /**
-     * Retrieves all products with pagination support.
+     * Retrieves all products with pagination support. Not cached; the cached listing is
+     * {@link #getAllProducts(int, int, String, String, CountMode, Include)}.
      *
      * @param page the page number (0-based)
      * @param size the page size
      * @param sortBy the field to sort by
      * @param sortOrder the sort direction (asc/desc)
-     * @return paged response of products with their associated order IDs
+     * @return paged response of products, without their order IDs
      */
     PagedResponse<ProductDTO> getAllProducts(int page, int size, String sortBy, String sortOrder);
 
     /**
-     * Retrieves all products (legacy method for backward compatibility).
+     * Retrieves all products with pagination support, obtaining the total as requested. Not cached; the cached
+     * listing is {@link #getAllProducts(int, int, String, String, CountMode, Include)}.
+     *
+     * @param page the page number (0-based)
+     * @param size the page size
+     * @param sortBy the field to sort by
+     * @param sortOrder the sort direction (asc/desc)
+     * @param countMode whether the total is counted exactly, served from the row count cache, or omitted
+     * @return paged response of products, without their order IDs
+     */
+    PagedResponse<ProductDTO> getAllProducts(int page, int size, String sortBy, String sortOrder, CountMode countMode);
+
+    /**
+     * Retrieves all products with pagination support, expanding the given relations. The products are paged directly
+     * from the product table; with {@link Include#ORDER_IDS} the order IDs of the whole page are then loaded with one
+     * batched query.
+     *
+     * @param page the page number (0-based)
+     * @param size the page size
+     * @param sortBy the field to sort by
+     * @param sortOrder the sort direction (asc/desc)
+     * @param countMode whether the total is counted exactly, served from the row count cache, or omitted
+     * @param include the relations to load and the most order IDs per product
+     * @return paged response of products
+     */
+    PagedResponse<ProductDTO> getAllProducts(
+            int page, int size, String sortBy, String sortOrder, CountMode countMode, Include include);
+
+    /**
+     * Retrieves products using keyset (cursor) pagination. The cost of a page does not depend on how deep into the
+     * result set it is, and no count query is issued.
+     *
+     * @param after the cursor returned as {@code nextCursor} by the previous page, or empty for the first page
+     * @param size the page size
+     * @param sortBy the field to sort by (id or description)
+     * @param sortOrder the sort direction (asc/desc)
+     * @return keyset page of products, without their order IDs
+     */
+    PagedResponse<ProductDTO> getAllProductsAfter(String after, int size, String sortBy, String sortOrder);
+
+    /**
+     * Retrieves products using keyset (cursor) pagination, expanding the given relations.
+     *
+     * @param after the cursor returned as {@code nextCursor} by the previous page, or empty for the first page
+     * @param size the page size
+     * @param sortBy the field to sort by (id or description)
+     * @param sortOrder the sort direction (asc/desc)
+     * @param include the relations to load and the most order IDs per product
+     * @return keyset page of products
+     */
+    PagedResponse<ProductDTO> getAllProductsAfter(
+            String after, int size, String sortBy, String sortOrder, Include include);
+
+    /**
+     * Retrieves all products (legacy method for backward compatibility). The whole table is loaded into memory and the
+     * result is not cached; use {@link ExportService#exportProducts} to read every product of a large table.
      *
      * @return list of all products with their associated order IDs
      */
@@ -44,6 +104,34 @@ public interface ProductService {
      */
     ProductDTO getProductById(Long id);
 
+    /**
+     * Retrieves a product by ID, loading the given projection.
+     *
+     * @param id the product ID
+     * @param projection whether the order IDs of the product are loaded
+     * @return the product DTO
+     */
+    ProductDTO getProductById(Long id, Projection projection);
+
+    /**
+     * Retrieves many products by ID at once. Cached products are read with one round trip and the rest are loaded with
+     * one query and cached.
+     *
+     * @param ids the product IDs, at most {@code store.batch-get.max-ids}
+     * @return one item per requested ID in request order, marked as not found for unknown IDs
+     */
+    BatchResponse<ProductDTO> getProductsByIds(List<Long> ids);
+
+    /**
+     * Retrieves many products by ID at once, loading the given projection. Summaries are served from the cached
+     * products where possible; the rest are loaded with one query and not cached.
+     *
+     * @param ids the product IDs, at most {@code store.batch-get.max-ids}
+     * @param projection whether the order IDs of the products are loaded
+     * @return one item per requested ID in request order, marked as not found for unknown IDs
+     */
+    BatchResponse<ProductDTO> getProductsByIds(List<Long> ids, Projection projection);
+
     /**
      * Updates an existing product.
      *
@@ -68,11 +156,71 @@ public interface ProductService {
      * @param size the page size
      * @param sortBy the field to sort by
      * @param sortOrder the sort direction (asc/desc)
-     * @return paged response of products matching the search criteria
+     * @return paged response of products matching the search criteria, without their order IDs
      */
     PagedResponse<ProductDTO> searchProductsByDescription(
             String query, int page, int size, String sortBy, String sortOrder);
 
+    /**
+     * Searches for products whose description contains the given query string with pagination support, obtaining the
+     * total as requested.
+     *
+     * @param query the search query string
+     * @param page the page number (0-based)
+     * @param size the page size
+     * @param sortBy the field to sort by
+     * @param sortOrder the sort direction (asc/desc)
+     * @param countMode whether the total is counted exactly or omitted; the row count cache cannot serve search
+     *     totals, so {@link CountMode#APPROXIMATE} omits the total as well
+     * @return paged response of products matching the search criteria, without their order IDs
+     */
+    PagedResponse<ProductDTO> searchProductsByDescription(
+            String query, int page, int size, String sortBy, String sortOrder, CountMode countMode);
+
+    /**
+     * Searches for products whose description contains the given query string with pagination support, expanding the
+     * given relations. The products are paged directly from the product table; with {@link Include#ORDER_IDS} the
+     * order IDs of the whole page are then loaded with one batched query.
+     *
+     * @param query the search query string
+     * @param page the page number (0-based)
+     * @param size the page size
+     * @param sortBy the field to sort by
+     * @param sortOrder the sort direction (asc/desc)
+     * @param countMode whether the total is counted exactly or omitted; the row count cache cannot serve search
+     *     totals, so {@link CountMode#APPROXIMATE} omits the total as well
+     * @param include the relations to load and the most order IDs per product
+     * @return paged response of products matching the search criteria
+     */
+    PagedResponse<ProductDTO> searchProductsByDescription(
+            String query, int page, int size, String sortBy, String sortOrder, CountMode countMode, Include include);
+
+    /**
+     * Searches for products whose description matches every word of the query as a prefix, using full-text search.
+     * Results are ordered by relevance, most relevant first.
+     *
+     * @param query the search query string
+     * @param page the page number (0-based)
+     * @param size the page size
+     * @param countMode whether the total is counted exactly or omitted; {@link CountMode#APPROXIMATE} omits the total
+     * @return paged response of matching products ordered by relevance, without their order IDs
+     */
+    PagedResponse<ProductDTO> searchProductsByFullText(String query, int page, int size, CountMode countMode);
+
+    /**
+     * Searches for products whose description matches every word of the query as a prefix, using full-text search,
+     * expanding the given relations. Results are ordered by relevance, most relevant first.
+     *
+     * @param query the search query string
+     * @param page the page number (0-based)
+     * @param size the page size
+     * @param countMode whether the total is counted exactly or omitted; {@link CountMode#APPROXIMATE} omits the total
+     * @param include the relations to load and the most order IDs per product
+     * @return paged response of matching products ordered by relevance
+     */
+    PagedResponse<ProductDTO> searchProductsByFullText(
+            String query, int page, int size, CountMode countMode, Include include);
+
     /**
      * Searches for products whose description contains the given query string (legacy method for backward
      * compatibility).
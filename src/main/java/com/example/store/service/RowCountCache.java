@@ -0,0 +1,108 @@
+package com.example.store.service;
+
+import com.example.store.repository.CustomerRepository;
+import com.example.store.repository.OrderRepository;
+import com.example.store.repository.ProductRepository;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-table row count cache used to report approximate totals on count-free (slice) pages. Counts are refreshed in the
+ * background on a fixed delay and adjusted in place by the services on committed inserts and deletes, so list calls
+ * never pay a {@code SELECT COUNT(*)} round trip.
+ */
+@Component
+@Slf4j
+public class RowCountCache {
+
+    private static final long UNKNOWN = -1;
+
+    /** The tables whose row counts are cached. */
+    public enum Table {
+        CUSTOMER,
+        ORDER,
+        PRODUCT
+    }
+
+    private final Map<Table, AtomicLong> counts = new EnumMap<>(Table.class);
+    private final Map<Table, LongSupplier> counters = new EnumMap<>(Table.class);
+
+    /**
+     * Instantiates a new Row count cache.
+     *
+     * @param customerRepository the customer repository
+     * @param orderRepository the order repository
+     * @param productRepository the product repository
+     */
+    public RowCountCache(
+            CustomerRepository customerRepository,
+            OrderRepository orderRepository,
+            ProductRepository productRepository) {
+        counters.put(Table.CUSTOMER, customerRepository::count);
+        counters.put(Table.ORDER, orderRepository::count);
+        counters.put(Table.PRODUCT, productRepository::count);
+        for (Table table : Table.values()) {
+            counts.put(table, new AtomicLong(UNKNOWN));
+        }
+    }
+
+    /**
+     * Returns the cached row count of a table, or {@code null} if it has not been loaded yet.
+     *
+     * @param table the table
+     * @return the approximate row count, or {@code null} if unknown
+     */
+    public Long get(Table table) {
+        long count = counts.get(table).get();
+        return count == UNKNOWN ? null : count;
+    }
+
+    /**
+     * Adjusts the cached row count of a table after rows were inserted or deleted. Within a transaction the count is
+     * adjusted once it commits, so a rolled back insert or delete leaves it unchanged.
+     *
+     * @param table the table
+     * @param delta the number of rows inserted (positive) or deleted (negative)
+     */
+    public void adjust(Table table, long delta) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    adjustNow(table, delta);
+                }
+            });
+        } else {
+            adjustNow(table, delta);
+        }
+    }
+
+    /** Reloads the row counts of all tables. Runs in the background on a fixed delay. */
+    @Scheduled(
+            initialDelayString = "${store.pagination.count-cache.initial-delay-ms:0}",
+            fixedDelayString = "${store.pagination.count-cache.refresh-interval-ms:30000}")
+    public void refresh() {
+        for (Table table : Table.values()) {
+            try {
+                counts.get(table).set(counters.get(table).getAsLong());
+            } catch (Exception e) {
+                log.warn("Failed to refresh row count of table {}: {}", table, e.getMessage());
+            }
+        }
+        log.debug("Refreshed row counts: {}", counts);
+    }
+
+    private void adjustNow(Table table, long delta) {
+        counts.get(table).getAndUpdate(count -> count == UNKNOWN ? UNKNOWN : Math.max(0, count + delta));
+    }
+}
@@ -87,6 +87,23 @@ public class ValidationService {
         }
     }
 
+    /**
+     * Validates order description.
+     *
+     * @param description the order description to validate
+     * @throws ValidationException if validation fails
+     */
+    public void validateOrderDescription(String description) {
+        if (!StringUtils.hasText(description)) {
+            throw ValidationException.requiredField("description");
+        }
+
+        if (description.length() > MAX_NAME_LENGTH) {
+            throw ValidationException.invalidInput(
+                    "description", "Description cannot exceed " + MAX_NAME_LENGTH + " characters");
+        }
+    }
+
     /**
      * Validates product description.
      *
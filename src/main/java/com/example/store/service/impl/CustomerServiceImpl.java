@@ -1,28 +1,49 @@
 package com.example.store.service.impl;
 
+import com.example.store.dto.BatchResponse;
+import com.example.store.dto.CountMode;
 import com.example.store.dto.CustomerDTO;
+import com.example.store.dto.Include;
+import com.example.store.dto.PageCursor;
 import com.example.store.dto.PagedResponse;
+import com.example.store.dto.Projection;
 import com.example.store.entity.Customer;
 import com.example.store.exception.CustomerNotFoundException;
 import com.example.store.exception.ValidationException;
 import com.example.store.mapper.CustomerMapper;
 import com.example.store.repository.CustomerRepository;
+import com.example.store.service.BatchCacheLoader;
+import com.example.store.service.CacheTagIndex;
+import com.example.store.service.CacheTags;
+import com.example.store.service.CustomerNameIndex;
+import com.example.store.service.CustomerOrderBatchLoader;
 import com.example.store.service.CustomerService;
+import com.example.store.service.RowCountCache;
 import com.example.store.service.ValidationService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /** The type Customer service. */
 @Service
@@ -31,23 +52,62 @@ import java.util.Optional;
 @Transactional(readOnly = true)
 public class CustomerServiceImpl implements CustomerService {
 
+    private static final Set<String> KEYSET_SORT_FIELDS = Set.of("id", "name");
+    private static final Set<String> NAME_INDEX_SORT_FIELDS = Set.of("id", "name");
+
     private final CustomerRepository customerRepository;
     private final CustomerMapper customerMapper;
     private final ValidationService validationService;
+    private final RowCountCache rowCountCache;
+    private final CustomerOrderBatchLoader customerOrderBatchLoader;
+    private final CustomerNameIndex customerNameIndex;
+    private final BatchCacheLoader batchCacheLoader;
+    private final CacheTagIndex cacheTagIndex;
 
     @Override
-    @Cacheable(value = "pagedCustomers", key = "#page + '_' + #size + '_' + #sortBy + '_' + #sortOrder")
     public PagedResponse<CustomerDTO> getAllCustomers(int page, int size, String sortBy, String sortOrder) {
+        return getAllCustomers(page, size, sortBy, sortOrder, CountMode.EXACT);
+    }
+
+    @Override
+    public PagedResponse<CustomerDTO> getAllCustomers(
+            int page, int size, String sortBy, String sortOrder, CountMode countMode) {
+        return getAllCustomers(page, size, sortBy, sortOrder, countMode, Include.none());
+    }
+
+    @Override
+    @Cacheable(
+            value = "pagedCustomers",
+            key = "#include.key(#page + '_' + #size + '_' + #sortBy + '_' + #sortOrder + '_' + #countMode)",
+            sync = true)
+    public PagedResponse<CustomerDTO> getAllCustomers(
+            int page, int size, String sortBy, String sortOrder, CountMode countMode, Include include) {
         log.debug(
-                "Retrieving customers with pagination - page: {}, size: {}, sortBy: {}, sortOrder: {}",
+                "Retrieving customers with pagination - page: {}, size: {}, sortBy: {}, sortOrder: {}, count: {},"
+                        + " include: {}",
                 page,
                 size,
                 sortBy,
-                sortOrder);
+                sortOrder,
+                countMode,
+                include);
         try {
             Sort.Direction direction = "desc".equalsIgnoreCase(sortOrder) ? Sort.Direction.DESC : Sort.Direction.ASC;
             Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
 
+            if (countMode != CountMode.EXACT) {
+                Slice<Customer> customerSlice = customerRepository.findAllAsSlice(pageable);
+                Long total =
+                        countMode == CountMode.APPROXIMATE ? rowCountCache.get(RowCountCache.Table.CUSTOMER) : null;
+
+                log.debug(
+                        "Found {} customers on slice {}, hasNext: {}",
+                        customerSlice.getNumberOfElements(),
+                        page + 1,
+                        customerSlice.hasNext());
+                return PagedResponse.ofSlice(toCustomerDTOs(customerSlice, include), total, sortBy, sortOrder);
+            }
+
             Page<Customer> customerPage = customerRepository.findAll(pageable);
 
             log.debug(
@@ -55,19 +115,84 @@ public class CustomerServiceImpl implements CustomerService {
                     customerPage.getContent().size(),
                     page + 1,
                     customerPage.getTotalPages());
-            return PagedResponse.of(
-                    customerPage.map(customer -> customerMapper.customerToCustomerDTO(customer)), sortBy, sortOrder);
+            return PagedResponse.of(toCustomerDTOs(customerPage, include), sortBy, sortOrder);
         } catch (Exception e) {
             log.error("Error retrieving customers with pagination", e);
             throw new RuntimeException("Failed to retrieve customers", e);
         }
     }
 
+    @Override
+    public PagedResponse<CustomerDTO> getAllCustomersAfter(String after, int size, String sortBy, String sortOrder) {
+        return getAllCustomersAfter(after, size, sortBy, sortOrder, Include.none());
+    }
+
+    @Override
+    public PagedResponse<CustomerDTO> getAllCustomersAfter(
+            String after, int size, String sortBy, String sortOrder, Include include) {
+        log.debug(
+                "Retrieving customers with keyset pagination - after: {}, size: {}, sortBy: {}, sortOrder: {}",
+                after,
+                size,
+                sortBy,
+                sortOrder);
+
+        if (size < 1) {
+            throw ValidationException.invalidInput("size", "Page size must be positive");
+        }
+        if (!KEYSET_SORT_FIELDS.contains(sortBy)) {
+            throw ValidationException.invalidInput("sortBy", "Cursor pagination supports sorting by id or name only");
+        }
+        PageCursor cursor = StringUtils.hasText(after) ? PageCursor.decode(after, sortBy) : null;
+
+        try {
+            boolean descending = "desc".equalsIgnoreCase(sortOrder);
+            Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+            Sort sort = "id".equals(sortBy) ? Sort.by(direction, "id") : Sort.by(direction, sortBy, "id");
+            // Fetch one extra row to learn whether another page follows without counting
+            Pageable pageable = PageRequest.of(0, size + 1, sort);
+
+            List<Customer> customers;
+            if (cursor == null) {
+                customers = customerRepository.seekFirst(pageable);
+            } else if ("id".equals(sortBy)) {
+                customers = descending
+                        ? customerRepository.seekBeforeId(cursor.getId(), pageable)
+                        : customerRepository.seekAfterId(cursor.getId(), pageable);
+            } else {
+                customers = descending
+                        ? customerRepository.seekBeforeName(cursor.getSortValue(), cursor.getId(), pageable)
+                        : customerRepository.seekAfterName(cursor.getSortValue(), cursor.getId(), pageable);
+            }
+
+            boolean hasNext = customers.size() > size;
+            List<Customer> content = hasNext ? customers.subList(0, size) : customers;
+            String nextCursor = null;
+            if (hasNext) {
+                Customer last = content.get(content.size() - 1);
+                nextCursor =
+                        PageCursor.encode(sortBy, "id".equals(sortBy) ? last.getId() : last.getName(), last.getId());
+            }
+
+            log.debug("Found {} customers on keyset page, hasNext: {}", content.size(), hasNext);
+            List<CustomerDTO> customerDTOs = customerMapper.customersToCustomerDTOs(content);
+            attachOrders(customerDTOs, include);
+            return PagedResponse.ofKeyset(
+                    customerDTOs,
+                    size,
+                    hasNext,
+                    cursor != null,
+                    nextCursor,
+                    sortBy,
+                    sortOrder);
+        } catch (Exception e) {
+            log.error("Error retrieving customers with keyset pagination", e);
+            throw new RuntimeException("Failed to retrieve customers", e);
+        }
+    }
+
     @Override
     @Transactional
-    @CacheEvict(
-            value = {"customers", "pagedCustomers"},
-            allEntries = true)
     public CustomerDTO createCustomer(Customer customer) {
         log.debug("Creating new customer: {}", customer);
 
@@ -79,9 +204,15 @@ public class CustomerServiceImpl implements CustomerService {
             customer.setName(validationService.sanitizeName(customer.getName()));
 
             Customer savedCustomer = customerRepository.save(customer);
+            rowCountCache.adjust(RowCountCache.Table.CUSTOMER, 1);
+            customerNameIndex.add(savedCustomer.getId(), savedCustomer.getName());
+            cacheTagIndex.invalidate(List.of(CacheTags.CUSTOMER_LIST));
             log.info("Successfully created customer with ID: {}", savedCustomer.getId());
 
-            return customerMapper.customerToCustomerDTO(savedCustomer);
+            // A new customer has no orders yet, so there is nothing to load
+            CustomerDTO savedCustomerDTO = customerMapper.customerToCustomerDTO(savedCustomer);
+            savedCustomerDTO.setOrders(new ArrayList<>());
+            return savedCustomerDTO;
         } catch (Exception e) {
             log.error("Error creating customer: {}", customer, e);
             throw new RuntimeException("Failed to create customer", e);
@@ -91,13 +222,28 @@ public class CustomerServiceImpl implements CustomerService {
     @Override
     public PagedResponse<CustomerDTO> searchCustomersByName(
             String query, int page, int size, String sortBy, String sortOrder) {
+        return searchCustomersByName(query, page, size, sortBy, sortOrder, CountMode.EXACT);
+    }
+
+    @Override
+    public PagedResponse<CustomerDTO> searchCustomersByName(
+            String query, int page, int size, String sortBy, String sortOrder, CountMode countMode) {
+        return searchCustomersByName(query, page, size, sortBy, sortOrder, countMode, Include.none());
+    }
+
+    @Override
+    public PagedResponse<CustomerDTO> searchCustomersByName(
+            String query, int page, int size, String sortBy, String sortOrder, CountMode countMode, Include include) {
         log.debug(
-                "Searching customers with pagination - query: {}, page: {}, size: {}, sortBy: {}, sortOrder: {}",
+                "Searching customers - query: {}, page: {}, size: {}, sortBy: {}, sortOrder: {}, count: {},"
+                        + " include: {}",
                 query,
                 page,
                 size,
                 sortBy,
-                sortOrder);
+                sortOrder,
+                countMode,
+                include);
 
         try {
             // Validate search query
@@ -105,9 +251,30 @@ public class CustomerServiceImpl implements CustomerService {
 
             Sort.Direction direction = "desc".equalsIgnoreCase(sortOrder) ? Sort.Direction.DESC : Sort.Direction.ASC;
             Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
+            boolean emptyQuery = query == null || query.trim().isEmpty();
+
+            if (!emptyQuery && customerNameIndex.isReady() && NAME_INDEX_SORT_FIELDS.contains(sortBy)) {
+                return searchNameIndex(query.trim(), pageable, countMode, include);
+            }
+
+            if (countMode != CountMode.EXACT) {
+                // The row count cache only knows table totals, so it can serve an unfiltered search only
+                Slice<Customer> customerSlice;
+                Long total = null;
+                if (emptyQuery) {
+                    customerSlice = customerRepository.findAllAsSlice(pageable);
+                    if (countMode == CountMode.APPROXIMATE) {
+                        total = rowCountCache.get(RowCountCache.Table.CUSTOMER);
+                    }
+                } else {
+                    customerSlice = customerRepository.findSliceByNameContainingIgnoreCase(query.trim(), pageable);
+                }
+
+                return PagedResponse.ofSlice(toCustomerDTOs(customerSlice, include), total, sortBy, sortOrder);
+            }
 
             Page<Customer> customerPage;
-            if (query == null || query.trim().isEmpty()) {
+            if (emptyQuery) {
                 log.debug("Empty query, returning all customers with pagination");
                 customerPage = customerRepository.findAll(pageable);
             } else {
@@ -121,8 +288,7 @@ public class CustomerServiceImpl implements CustomerService {
                         customerPage.getTotalPages());
             }
 
-            return PagedResponse.of(
-                    customerPage.map(customer -> customerMapper.customerToCustomerDTO(customer)), sortBy, sortOrder);
+            return PagedResponse.of(toCustomerDTOs(customerPage, include), sortBy, sortOrder);
         } catch (ValidationException e) {
             log.warn("Validation error in search: {}", e.getMessage());
             throw e;
@@ -133,8 +299,14 @@ public class CustomerServiceImpl implements CustomerService {
     }
 
     @Override
-    @Cacheable(value = "customers", key = "#id")
+    @Cacheable(value = "customers", key = "#id", sync = true)
     public CustomerDTO getCustomerById(Long id) {
+        return getCustomerById(id, Projection.FULL);
+    }
+
+    @Override
+    @Cacheable(value = "customers", key = "#projection.key(#id)", sync = true)
+    public CustomerDTO getCustomerById(Long id, Projection projection) {
         log.debug("Retrieving customer with ID: {}", id);
 
         validationService.validateCustomerId(id);
@@ -147,7 +319,11 @@ public class CustomerServiceImpl implements CustomerService {
             }
 
             log.debug("Successfully retrieved customer with ID: {}", id);
-            return customerMapper.customerToCustomerDTO(customer.get());
+            CustomerDTO customerDTO = customerMapper.customerToCustomerDTO(customer.get());
+            if (projection == Projection.FULL) {
+                customerOrderBatchLoader.attachOrders(List.of(customerDTO));
+            }
+            return customerDTO;
         } catch (CustomerNotFoundException | ValidationException e) {
             throw e;
         } catch (Exception e) {
@@ -155,4 +331,128 @@ public class CustomerServiceImpl implements CustomerService {
             throw new RuntimeException("Failed to retrieve customer", e);
         }
     }
+
+    @Override
+    public BatchResponse<CustomerDTO> getCustomersByIds(List<Long> ids) {
+        return getCustomersByIds(ids, Projection.FULL);
+    }
+
+    @Override
+    public BatchResponse<CustomerDTO> getCustomersByIds(List<Long> ids, Projection projection) {
+        log.debug("Retrieving {} customers by ID", ids == null ? 0 : ids.size());
+        boolean full = projection == Projection.FULL;
+        Map<Long, CustomerDTO> customers = batchCacheLoader.getAll(
+                "customers",
+                ids,
+                CustomerDTO.class,
+                missing -> {
+                    List<CustomerDTO> customerDTOs =
+                            customerMapper.customersToCustomerDTOs(customerRepository.findAllById(missing));
+                    if (full) {
+                        // One query attaches the orders of every loaded customer
+                        customerOrderBatchLoader.attachOrders(customerDTOs);
+                    }
+                    Map<Long, CustomerDTO> loaded = new HashMap<>();
+                    for (CustomerDTO customerDTO : customerDTOs) {
+                        loaded.put(customerDTO.getId(), customerDTO);
+                    }
+                    return loaded;
+                },
+                full);
+        return BatchResponse.of(ids, customers);
+    }
+
+    /**
+     * Answers a name search from the in-memory name index. Matching, sorting and counting happen in memory; only the
+     * customers on the requested page are read from the database. Names are compared lower-cased, so sorting by name
+     * follows Unicode order rather than the database collation.
+     *
+     * @param query the trimmed, non-empty search query
+     * @param pageable the requested page and sort
+     * @param countMode how the total is reported
+     * @param include whether and how many orders are attached
+     * @return the paged response
+     */
+    private PagedResponse<CustomerDTO> searchNameIndex(
+            String query, Pageable pageable, CountMode countMode, Include include) {
+        List<CustomerNameIndex.Match> matches = customerNameIndex.search(query);
+        Sort.Order order = pageable.getSort().iterator().next();
+        if ("name".equals(order.getProperty())) {
+            matches.sort(Comparator.comparing(CustomerNameIndex.Match::name)
+                    .thenComparingLong(CustomerNameIndex.Match::id));
+        }
+        if (order.isDescending()) {
+            Collections.reverse(matches);
+        }
+
+        int from = (int) Math.min(pageable.getOffset(), matches.size());
+        int to = (int) Math.min((long) from + pageable.getPageSize(), matches.size());
+        List<Long> pageIds = new ArrayList<>(to - from);
+        for (CustomerNameIndex.Match match : matches.subList(from, to)) {
+            pageIds.add(match.id());
+        }
+
+        Map<Long, Customer> customersById = new HashMap<>();
+        for (Customer customer : customerRepository.findAllById(pageIds)) {
+            customersById.put(customer.getId(), customer);
+        }
+        List<Customer> customers = new ArrayList<>(pageIds.size());
+        for (Long id : pageIds) {
+            Customer customer = customersById.get(id);
+            if (customer != null) {
+                customers.add(customer);
+            }
+        }
+        log.debug("Found {} customers matching query: {} in the name index", matches.size(), query);
+
+        String sortBy = order.getProperty();
+        String sortOrder = order.isDescending() ? "desc" : "asc";
+        if (countMode == CountMode.EXACT) {
+            Page<Customer> customerPage = new PageImpl<>(customers, pageable, matches.size());
+            return PagedResponse.of(toCustomerDTOs(customerPage, include), sortBy, sortOrder);
+        }
+        Slice<Customer> customerSlice = new SliceImpl<>(customers, pageable, to < matches.size());
+        Long total = countMode == CountMode.APPROXIMATE ? (long) matches.size() : null;
+        return PagedResponse.ofSlice(toCustomerDTOs(customerSlice, include), total, sortBy, sortOrder);
+    }
+
+    /**
+     * Maps a page of customers to DTOs and, if requested, attaches their orders with one batched query.
+     *
+     * @param customers the page of customers
+     * @param include whether and how many orders are attached
+     * @return the page of customer DTOs
+     */
+    private Page<CustomerDTO> toCustomerDTOs(Page<Customer> customers, Include include) {
+        Page<CustomerDTO> customerDTOs = customers.map(customer -> customerMapper.customerToCustomerDTO(customer));
+        attachOrders(customerDTOs.getContent(), include);
+        return customerDTOs;
+    }
+
+    /**
+     * Maps a slice of customers to DTOs and, if requested, attaches their orders with one batched query.
+     *
+     * @param customers the slice of customers
+     * @param include whether and how many orders are attached
+     * @return the slice of customer DTOs
+     */
+    private Slice<CustomerDTO> toCustomerDTOs(Slice<Customer> customers, Include include) {
+        Slice<CustomerDTO> customerDTOs = customers.map(customer -> customerMapper.customerToCustomerDTO(customer));
+        attachOrders(customerDTOs.getContent(), include);
+        return customerDTOs;
+    }
+
+    /**
+     * Attaches the orders to listed customers with one batched query, at most as many per customer as requested.
+     * Customers listed without {@link Include#ORDERS} are left without orders.
+     *
+     * @param customerDTOs the customer DTOs of one page
+     * @param include whether and how many orders are attached
+     */
+    private void attachOrders(List<CustomerDTO> customerDTOs, Include include) {
+        if (include.has(Include.ORDERS)) {
+            customerOrderBatchLoader.attachOrders(
+                    customerDTOs, include.limit(customerOrderBatchLoader.getMaxOrdersPerCustomer()));
+        }
+    }
 }
@@ -0,0 +1,134 @@
+package com.example.store.service.impl;
+
+import com.example.store.dto.ExportFormat;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+
+/**
+ * Writes export rows one at a time in a fixed column order. Nothing is buffered beyond the underlying writer, and
+ * {@link #close()} flushes without closing the output so the caller keeps ownership of the response stream.
+ */
+abstract class ExportRowWriter implements Closeable {
+
+    protected final String[] columns;
+
+    private ExportRowWriter(String[] columns) {
+        this.columns = columns;
+    }
+
+    /**
+     * Opens a writer for the given format.
+     *
+     * @param format the export format
+     * @param out the output to write to
+     * @param objectMapper the object mapper used for NDJSON values
+     * @param columns the column names, in the order values are passed to {@link #write(Object...)}
+     * @return the writer
+     * @throws IOException if the header cannot be written
+     */
+    static ExportRowWriter open(ExportFormat format, OutputStream out, ObjectMapper objectMapper, String... columns)
+            throws IOException {
+        return switch (format) {
+            case NDJSON -> new NdjsonWriter(out, objectMapper, columns);
+            case CSV -> new CsvWriter(out, columns);
+        };
+    }
+
+    /**
+     * Writes one row.
+     *
+     * @param values the column values; collections are written as a JSON array or a comma-separated CSV field
+     * @throws IOException if writing fails
+     */
+    abstract void write(Object... values) throws IOException;
+
+    private static final class NdjsonWriter extends ExportRowWriter {
+        private final JsonGenerator generator;
+
+        NdjsonWriter(OutputStream out, ObjectMapper objectMapper, String[] columns) throws IOException {
+            super(columns);
+            generator = objectMapper.getFactory().createGenerator(out);
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            // Rows are terminated by a newline instead of the default space between root values
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        void write(Object... values) throws IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < columns.length; i++) {
+                generator.writeFieldName(columns[i]);
+                generator.writeObject(values[i]);
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void close() throws IOException {
+            generator.close();
+        }
+    }
+
+    private static final class CsvWriter extends ExportRowWriter {
+        private final Writer writer;
+
+        CsvWriter(OutputStream out, String[] columns) throws IOException {
+            super(columns);
+            writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            write((Object[]) columns);
+        }
+
+        @Override
+        void write(Object... values) throws IOException {
+            for (int i = 0; i < values.length; i++) {
+                if (i > 0) {
+                    writer.write(',');
+                }
+                writeField(values[i]);
+            }
+            writer.write("\r\n");
+        }
+
+        private void writeField(Object value) throws IOException {
+            if (value == null) {
+                return;
+            }
+            String text;
+            if (value instanceof Collection<?> collection) {
+                StringBuilder joined = new StringBuilder();
+                for (Object element : collection) {
+                    if (!joined.isEmpty()) {
+                        joined.append(',');
+                    }
+                    joined.append(element);
+                }
+                text = joined.toString();
+            } else {
+                text = value.toString();
+            }
+
+            if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0) {
+                writer.write(text);
+                return;
+            }
+            writer.write('"');
+            writer.write(text.replace("\"", "\"\""));
+            writer.write('"');
+        }
+
+        @Override
+        public void close() throws IOException {
+            writer.flush();
+        }
+    }
+}
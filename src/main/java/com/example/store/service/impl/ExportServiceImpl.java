@@ -0,0 +1,86 @@
+package com.example.store.service.impl;
+
+import com.example.store.dto.ExportFormat;
+import com.example.store.mapper.ProductMapper;
+import com.example.store.repository.CustomerNameRow;
+import com.example.store.repository.CustomerRepository;
+import com.example.store.repository.OrderExportRow;
+import com.example.store.repository.OrderRepository;
+import com.example.store.repository.ProductRepository;
+import com.example.store.repository.ProductView;
+import com.example.store.service.ExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/** The type Export service. */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional(readOnly = true)
+public class ExportServiceImpl implements ExportService {
+
+    private final CustomerRepository customerRepository;
+    private final OrderRepository orderRepository;
+    private final ProductRepository productRepository;
+    private final ProductMapper productMapper;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void exportCustomers(ExportFormat format, OutputStream out) throws IOException {
+        log.debug("Exporting customers as {}", format);
+        long count = 0;
+        try (Stream<CustomerNameRow> rows = customerRepository.streamAllNameRows();
+                ExportRowWriter writer = ExportRowWriter.open(format, out, objectMapper, "id", "name")) {
+            for (Iterator<CustomerNameRow> it = rows.iterator(); it.hasNext(); count++) {
+                CustomerNameRow row = it.next();
+                writer.write(row.getId(), row.getName());
+            }
+        }
+        log.debug("Exported {} customers", count);
+    }
+
+    @Override
+    public void exportOrders(ExportFormat format, OutputStream out) throws IOException {
+        log.debug("Exporting orders as {}", format);
+        long count = 0;
+        try (Stream<OrderExportRow> rows = orderRepository.streamAllExportRows();
+                ExportRowWriter writer = ExportRowWriter.open(
+                        format, out, objectMapper, "id", "description", "customerId", "customerName", "productIds")) {
+            for (Iterator<OrderExportRow> it = rows.iterator(); it.hasNext(); count++) {
+                OrderExportRow row = it.next();
+                writer.write(
+                        row.getId(),
+                        row.getDescription(),
+                        row.getCustomerId(),
+                        row.getCustomerName(),
+                        productMapper.splitOrderIds(row.getProductIds()));
+            }
+        }
+        log.debug("Exported {} orders", count);
+    }
+
+    @Override
+    public void exportProducts(ExportFormat format, OutputStream out) throws IOException {
+        log.debug("Exporting products as {}", format);
+        long count = 0;
+        try (Stream<ProductView> rows = productRepository.streamAllViews();
+                ExportRowWriter writer =
+                        ExportRowWriter.open(format, out, objectMapper, "id", "description", "orderIds")) {
+            for (Iterator<ProductView> it = rows.iterator(); it.hasNext(); count++) {
+                ProductView row = it.next();
+                writer.write(row.getId(), row.getDescription(), productMapper.splitOrderIds(row.getOrderIds()));
+            }
+        }
+        log.debug("Exported {} products", count);
+    }
+}
@@ -0,0 +1,247 @@
+package com.example.store.service.impl;
+
+import com.example.store.dto.ExportFormat;
+import com.example.store.exception.ValidationException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Reads the rows of an ingestion upload one at a time, picking out the requested columns. Gzip-compressed uploads are
+ * recognised by their magic bytes. Rows that cannot be parsed are returned with an error instead of ending the read,
+ * so one bad line only rejects itself.
+ */
+abstract class IngestRowReader implements Closeable {
+
+    private static final int GZIP_MAGIC_FIRST = 0x1f;
+    private static final int GZIP_MAGIC_SECOND = 0x8b;
+
+    protected final List<String> columns;
+    protected final BufferedReader reader;
+
+    private IngestRowReader(BufferedReader reader, List<String> columns) {
+        this.reader = reader;
+        this.columns = columns;
+    }
+
+    /**
+     * Opens a reader for the given format.
+     *
+     * @param format the upload format
+     * @param in the upload, optionally gzip-compressed
+     * @param objectMapper the object mapper used for NDJSON rows
+     * @param columns the columns to read, in the order their values are returned
+     * @return the reader
+     * @throws IOException if the upload cannot be read
+     * @throws ValidationException if a CSV header lacks one of the columns
+     */
+    static IngestRowReader open(ExportFormat format, InputStream in, ObjectMapper objectMapper, List<String> columns)
+            throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(decompress(in), StandardCharsets.UTF_8));
+        return switch (format) {
+            case NDJSON -> new NdjsonReader(reader, objectMapper, columns);
+            case CSV -> new CsvReader(reader, columns);
+        };
+    }
+
+    /**
+     * Reads the next row.
+     *
+     * @return the row, or {@code null} at the end of the upload
+     * @throws IOException if the upload cannot be read
+     */
+    abstract Row next() throws IOException;
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private static InputStream decompress(InputStream in) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(in);
+        buffered.mark(2);
+        int first = buffered.read();
+        int second = buffered.read();
+        buffered.reset();
+        return first == GZIP_MAGIC_FIRST && second == GZIP_MAGIC_SECOND ? new GZIPInputStream(buffered) : buffered;
+    }
+
+    /**
+     * A row of the upload.
+     *
+     * @param line the line the row starts on (1-based)
+     * @param values the values of the requested columns; blank values are {@code null}
+     * @param error why the row could not be parsed, or {@code null}
+     */
+    record Row(long line, String[] values, String error) {}
+
+    private static final class NdjsonReader extends IngestRowReader {
+        private final ObjectMapper objectMapper;
+        private long line;
+
+        NdjsonReader(BufferedReader reader, ObjectMapper objectMapper, List<String> columns) {
+            super(reader, columns);
+            this.objectMapper = objectMapper;
+        }
+
+        @Override
+        Row next() throws IOException {
+            String text;
+            do {
+                text = reader.readLine();
+                line++;
+                if (text == null) {
+                    return null;
+                }
+            } while (text.isBlank());
+
+            JsonNode node;
+            try {
+                node = objectMapper.readTree(text);
+            } catch (JsonProcessingException e) {
+                return new Row(line, null, "Malformed JSON");
+            }
+            if (!node.isObject()) {
+                return new Row(line, null, "Expected a JSON object");
+            }
+            String[] values = new String[columns.size()];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = text(node.get(columns.get(i)));
+            }
+            return new Row(line, values, null);
+        }
+
+        private static String text(JsonNode value) {
+            if (value == null || value.isNull()) {
+                return null;
+            }
+            if (value.isArray()) {
+                StringBuilder joined = new StringBuilder();
+                for (JsonNode element : value) {
+                    if (!joined.isEmpty()) {
+                        joined.append(',');
+                    }
+                    joined.append(element.asText());
+                }
+                return joined.toString();
+            }
+            String text = value.asText();
+            return text.isBlank() ? null : text;
+        }
+    }
+
+    private static final class CsvReader extends IngestRowReader {
+        private final int[] positions;
+        private int headerSize;
+        private long line = 1;
+
+        CsvReader(BufferedReader reader, List<String> columns) throws IOException {
+            super(reader, columns);
+            positions = new int[columns.size()];
+            List<String> header = readRecord();
+            if (header == null) {
+                headerSize = 0;
+                return;
+            }
+            headerSize = header.size();
+            for (int i = 0; i < positions.length; i++) {
+                positions[i] = -1;
+                for (int j = 0; j < header.size(); j++) {
+                    if (header.get(j).trim().toLowerCase(Locale.ROOT).equals(columns.get(i).toLowerCase(Locale.ROOT))) {
+                        positions[i] = j;
+                    }
+                }
+                if (positions[i] < 0) {
+                    throw ValidationException.invalidInput("file", "CSV header has no '" + columns.get(i) + "' column");
+                }
+            }
+        }
+
+        @Override
+        Row next() throws IOException {
+            if (headerSize == 0) {
+                return null;
+            }
+            List<String> fields;
+            long start;
+            do {
+                start = line;
+                fields = readRecord();
+                if (fields == null) {
+                    return null;
+                }
+            } while (fields.size() == 1 && fields.get(0).isEmpty());
+
+            if (fields.size() != headerSize) {
+                return new Row(start, null, "Expected " + headerSize + " fields but found " + fields.size());
+            }
+            String[] values = new String[positions.length];
+            for (int i = 0; i < values.length; i++) {
+                String value = fields.get(positions[i]);
+                values[i] = value.isBlank() ? null : value;
+            }
+            return new Row(start, values, null);
+        }
+
+        /**
+         * Reads one record as described in RFC 4180; quoted fields may contain separators, doubled quotes and line
+         * breaks.
+         *
+         * @return the fields, or {@code null} at the end of the upload
+         */
+        private List<String> readRecord() throws IOException {
+            List<String> fields = new ArrayList<>();
+            StringBuilder field = new StringBuilder();
+            boolean quoted = false;
+            boolean read = false;
+            int c;
+            while ((c = reader.read()) != -1) {
+                read = true;
+                if (quoted) {
+                    if (c == '"') {
+                        reader.mark(1);
+                        if (reader.read() == '"') {
+                            field.append('"');
+                        } else {
+                            quoted = false;
+                            reader.reset();
+                        }
+                    } else {
+                        if (c == '\n') {
+                            line++;
+                        }
+                        field.append((char) c);
+                    }
+                } else if (c == '"' && field.isEmpty()) {
+                    quoted = true;
+                } else if (c == ',') {
+                    fields.add(field.toString());
+                    field.setLength(0);
+                } else if (c == '\n') {
+                    line++;
+                    fields.add(field.toString());
+                    return fields;
+                } else if (c != '\r') {
+                    field.append((char) c);
+                }
+            }
+            if (!read) {
+                return null;
+            }
+            fields.add(field.toString());
+            return fields;
+        }
+    }
+}
@@ -0,0 +1,423 @@
+package com.example.store.service.impl;
+
+import com.example.store.dto.ExportFormat;
+import com.example.store.dto.IngestReport;
+import com.example.store.dto.IngestTarget;
+import com.example.store.exception.ValidationException;
+import com.example.store.repository.CustomerRepository;
+import com.example.store.repository.IngestRepository;
+import com.example.store.repository.OrderBatchRepository;
+import com.example.store.repository.ProductRepository;
+import com.example.store.service.CustomerNameIndex;
+import com.example.store.service.IngestService;
+import com.example.store.service.RowCountCache;
+import com.example.store.service.ValidationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** The type Ingest service. */
+@Service
+@Slf4j
+public class IngestServiceImpl implements IngestService {
+
+    private static final long POLL_MILLIS = 100;
+
+    private final ValidationService validationService;
+    private final IngestRepository ingestRepository;
+    private final CustomerRepository customerRepository;
+    private final ProductRepository productRepository;
+    private final RowCountCache rowCountCache;
+    private final CustomerNameIndex customerNameIndex;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int workers;
+    private final int queueCapacity;
+    private final int maxReportedErrors;
+    private final AtomicInteger workerNumber = new AtomicInteger();
+
+    /**
+     * Instantiates a new Ingest service.
+     *
+     * @param validationService the validation service
+     * @param ingestRepository the ingest repository
+     * @param customerRepository the customer repository
+     * @param productRepository the product repository
+     * @param rowCountCache the row count cache
+     * @param customerNameIndex the customer name index
+     * @param objectMapper the object mapper
+     * @param transactionManager the transaction manager
+     * @param batchSize the number of rows inserted per batch and transaction
+     * @param workers the number of threads validating and inserting batches
+     * @param queueCapacity the number of parsed batches that may wait for a worker
+     * @param maxReportedErrors the number of rejected rows whose reason is reported
+     */
+    public IngestServiceImpl(
+            ValidationService validationService,
+            IngestRepository ingestRepository,
+            CustomerRepository customerRepository,
+            ProductRepository productRepository,
+            RowCountCache rowCountCache,
+            CustomerNameIndex customerNameIndex,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${store.ingest.batch-size:1000}") int batchSize,
+            @Value("${store.ingest.workers:4}") int workers,
+            @Value("${store.ingest.queue-capacity:8}") int queueCapacity,
+            @Value("${store.ingest.max-reported-errors:100}") int maxReportedErrors) {
+        if (batchSize < 1 || workers < 1 || queueCapacity < 1) {
+            throw new IllegalArgumentException("store.ingest batch-size, workers and queue-capacity must be positive");
+        }
+        this.validationService = validationService;
+        this.ingestRepository = ingestRepository;
+        this.customerRepository = customerRepository;
+        this.productRepository = productRepository;
+        this.rowCountCache = rowCountCache;
+        this.customerNameIndex = customerNameIndex;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.workers = workers;
+        this.queueCapacity = queueCapacity;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    @Override
+    @CacheEvict(
+            value = {"customers", "pagedCustomers", "products", "pagedProducts", "orders", "pagedOrders"},
+            allEntries = true)
+    public IngestReport ingest(IngestTarget target, ExportFormat format, InputStream in) throws IOException {
+        log.info("Ingesting {} from {} upload", target, format);
+        long start = System.nanoTime();
+        Progress progress = new Progress(maxReportedErrors);
+        BlockingQueue<List<IngestRowReader.Row>> queue = new ArrayBlockingQueue<>(queueCapacity);
+        ExecutorService executor = Executors.newFixedThreadPool(
+                workers, runnable -> new Thread(runnable, "ingest-" + workerNumber.incrementAndGet()));
+        List<Future<?>> futures = new ArrayList<>(workers);
+        long rowsRead = 0;
+        boolean parsedAll = false;
+        try {
+            for (int i = 0; i < workers; i++) {
+                futures.add(executor.submit(() -> work(target, queue, progress)));
+            }
+            try (IngestRowReader reader = IngestRowReader.open(format, in, objectMapper, target.getColumns())) {
+                List<IngestRowReader.Row> batch = new ArrayList<>(batchSize);
+                IngestRowReader.Row row;
+                while ((row = reader.next()) != null) {
+                    rowsRead++;
+                    if (row.error() != null) {
+                        progress.reject(row.line(), row.error());
+                        continue;
+                    }
+                    batch.add(row);
+                    if (batch.size() == batchSize) {
+                        handOff(queue, batch, futures);
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    handOff(queue, batch, futures);
+                }
+            }
+            parsedAll = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Ingestion was interrupted", e);
+        } finally {
+            if (!parsedAll) {
+                // The upload fails, so batches no worker has taken yet are dropped; the ones being inserted still
+                // commit and are accounted for like a complete upload
+                queue.clear();
+            }
+            progress.parsed = true;
+            awaitWorkers(executor, futures);
+            applyInserted(target, progress.inserted.get());
+            if (!parsedAll) {
+                log.warn("Ingestion of {} failed after inserting {} rows", target, progress.inserted.get());
+            }
+        }
+
+        long inserted = progress.inserted.get();
+        long elapsedNanos = System.nanoTime() - start;
+        IngestReport report = new IngestReport();
+        report.setTarget(target.name().toLowerCase(Locale.ROOT));
+        report.setFormat(format.name().toLowerCase(Locale.ROOT));
+        report.setRowsRead(rowsRead);
+        report.setRowsInserted(inserted);
+        report.setRowsRejected(progress.rejected.get());
+        report.setElapsedMs(elapsedNanos / 1_000_000);
+        report.setRowsPerSecond(elapsedNanos == 0 ? 0 : inserted * 1_000_000_000.0 / elapsedNanos);
+        report.setErrors(progress.errors());
+        report.setErrorsTruncated(progress.rejected.get() > report.getErrors().size());
+        log.info(
+                "Ingested {} {} ({} rejected of {} read) in {} ms, {} rows/s",
+                inserted,
+                report.getTarget(),
+                report.getRowsRejected(),
+                rowsRead,
+                report.getElapsedMs(),
+                Math.round(report.getRowsPerSecond()));
+        return report;
+    }
+
+    /** Updates the cached row count and, for customers, the name index after rows were committed. */
+    private void applyInserted(IngestTarget target, long inserted) {
+        if (inserted > 0) {
+            rowCountCache.adjust(table(target), inserted);
+            if (target == IngestTarget.CUSTOMERS) {
+                // COPY does not return the generated ids, so the new names are picked up by a rebuild
+                customerNameIndex.rebuild();
+            }
+        }
+    }
+
+    /**
+     * Queues a parsed batch, waiting while the queue is full. Gives up if a worker has stopped, since the batch might
+     * then never be taken.
+     */
+    private void handOff(
+            BlockingQueue<List<IngestRowReader.Row>> queue, List<IngestRowReader.Row> batch, List<Future<?>> futures)
+            throws InterruptedException {
+        while (!queue.offer(batch, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            for (Future<?> future : futures) {
+                if (future.isDone()) {
+                    throw new IllegalStateException("Ingestion worker stopped unexpectedly");
+                }
+            }
+        }
+    }
+
+    private void awaitWorkers(ExecutorService executor, List<Future<?>> futures) {
+        executor.shutdown();
+        try {
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.error("Ingestion worker failed", e.getCause());
+        }
+    }
+
+    private void work(IngestTarget target, BlockingQueue<List<IngestRowReader.Row>> queue, Progress progress) {
+        while (true) {
+            List<IngestRowReader.Row> batch;
+            try {
+                batch = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (batch == null) {
+                if (progress.parsed) {
+                    return;
+                }
+                continue;
+            }
+            try {
+                switch (target) {
+                    case CUSTOMERS -> ingestCustomers(batch, progress);
+                    case PRODUCTS -> ingestProducts(batch, progress);
+                    case ORDERS -> ingestOrders(batch, progress);
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to ingest a batch of {} {}", batch.size(), target, e);
+            }
+        }
+    }
+
+    private void ingestCustomers(List<IngestRowReader.Row> batch, Progress progress) {
+        List<IngestRowReader.Row> accepted = new ArrayList<>(batch.size());
+        List<String> names = new ArrayList<>(batch.size());
+        for (IngestRowReader.Row row : batch) {
+            try {
+                validationService.validateCustomerName(row.values()[0]);
+                names.add(validationService.sanitizeName(row.values()[0]));
+                accepted.add(row);
+            } catch (ValidationException e) {
+                progress.reject(row.line(), e.getMessage());
+            }
+        }
+        insert(accepted, progress, () -> ingestRepository.insertCustomers(names));
+    }
+
+    private void ingestProducts(List<IngestRowReader.Row> batch, Progress progress) {
+        List<IngestRowReader.Row> accepted = new ArrayList<>(batch.size());
+        List<String> descriptions = new ArrayList<>(batch.size());
+        for (IngestRowReader.Row row : batch) {
+            try {
+                validationService.validateProductDescription(row.values()[0]);
+                descriptions.add(validationService.sanitizeDescription(row.values()[0]));
+                accepted.add(row);
+            } catch (ValidationException e) {
+                progress.reject(row.line(), e.getMessage());
+            }
+        }
+        insert(accepted, progress, () -> ingestRepository.insertProducts(descriptions));
+    }
+
+    private void ingestOrders(List<IngestRowReader.Row> batch, Progress progress) {
+        List<IngestRowReader.Row> parsedRows = new ArrayList<>(batch.size());
+        List<OrderBatchRepository.NewOrder> parsedOrders = new ArrayList<>(batch.size());
+        Set<Long> customerIds = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        for (IngestRowReader.Row row : batch) {
+            try {
+                OrderBatchRepository.NewOrder order = parseOrder(row.values());
+                parsedRows.add(row);
+                parsedOrders.add(order);
+                customerIds.add(order.customerId());
+                productIds.addAll(order.productIds());
+            } catch (ValidationException e) {
+                progress.reject(row.line(), e.getMessage());
+            }
+        }
+        if (parsedOrders.isEmpty()) {
+            return;
+        }
+
+        // One existence check per batch instead of one per row
+        Set<Long> existingCustomerIds;
+        Set<Long> existingProductIds;
+        try {
+            existingCustomerIds = new HashSet<>(customerRepository.findExistingIds(customerIds));
+            existingProductIds =
+                    productIds.isEmpty() ? Set.of() : new HashSet<>(productRepository.findExistingIds(productIds));
+        } catch (RuntimeException e) {
+            log.warn("Failed to look up the customers and products of a batch: {}", e.getMessage());
+            rejectAll(parsedRows, progress, "Customer and product lookup failed");
+            return;
+        }
+        List<IngestRowReader.Row> accepted = new ArrayList<>(parsedOrders.size());
+        List<OrderBatchRepository.NewOrder> orders = new ArrayList<>(parsedOrders.size());
+        for (int i = 0; i < parsedOrders.size(); i++) {
+            OrderBatchRepository.NewOrder order = parsedOrders.get(i);
+            if (!existingCustomerIds.contains(order.customerId())) {
+                progress.reject(parsedRows.get(i).line(), "Customer not found with ID: " + order.customerId());
+                continue;
+            }
+            Long missingProductId = order.productIds().stream()
+                    .filter(id -> !existingProductIds.contains(id))
+                    .findFirst()
+                    .orElse(null);
+            if (missingProductId != null) {
+                progress.reject(parsedRows.get(i).line(), "Product not found with ID: " + missingProductId);
+                continue;
+            }
+            accepted.add(parsedRows.get(i));
+            orders.add(order);
+        }
+        insert(accepted, progress, () -> ingestRepository.insertOrders(orders));
+    }
+
+    /** Inserts the accepted rows of a batch in one transaction, rejecting all of them if the insert fails. */
+    private void insert(List<IngestRowReader.Row> accepted, Progress progress, Runnable insert) {
+        if (accepted.isEmpty()) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> insert.run());
+            progress.inserted.addAndGet(accepted.size());
+        } catch (RuntimeException e) {
+            log.warn("Failed to insert a batch of {} rows: {}", accepted.size(), e.getMessage());
+            rejectAll(accepted, progress, "Batch insert failed");
+        }
+    }
+
+    private static void rejectAll(List<IngestRowReader.Row> rows, Progress progress, String message) {
+        for (IngestRowReader.Row row : rows) {
+            progress.reject(row.line(), message);
+        }
+    }
+
+    private OrderBatchRepository.NewOrder parseOrder(String[] values) {
+        validationService.validateOrderDescription(values[0]);
+        Long customerId = parseId("customerId", values[1]);
+        validationService.validateCustomerId(customerId);
+        Set<Long> productIds = new LinkedHashSet<>();
+        if (values[2] != null) {
+            for (String productId : values[2].split(",")) {
+                Long id = parseId("productIds", productId);
+                validationService.validateProductId(id);
+                productIds.add(id);
+            }
+        }
+        return new OrderBatchRepository.NewOrder(values[0], customerId, productIds);
+    }
+
+    private static Long parseId(String field, String value) {
+        if (value == null || value.isBlank()) {
+            throw ValidationException.requiredField(field);
+        }
+        try {
+            return Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            throw ValidationException.invalidInput(field, "'" + value.trim() + "' is not a number");
+        }
+    }
+
+    private static RowCountCache.Table table(IngestTarget target) {
+        return switch (target) {
+            case CUSTOMERS -> RowCountCache.Table.CUSTOMER;
+            case PRODUCTS -> RowCountCache.Table.PRODUCT;
+            case ORDERS -> RowCountCache.Table.ORDER;
+        };
+    }
+
+    /** Counters shared by the parsing thread and the workers of one ingestion. */
+    private static final class Progress {
+        private final AtomicLong inserted = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final int maxErrors;
+        private final List<IngestReport.RowError> errors = new ArrayList<>();
+        private volatile boolean parsed;
+
+        Progress(int maxErrors) {
+            this.maxErrors = maxErrors;
+        }
+
+        void reject(long line, String message) {
+            rejected.incrementAndGet();
+            synchronized (errors) {
+                if (errors.size() < maxErrors) {
+                    errors.add(new IngestReport.RowError(line, message));
+                }
+            }
+        }
+
+        List<IngestReport.RowError> errors() {
+            synchronized (errors) {
+                List<IngestReport.RowError> sorted = new ArrayList<>(errors);
+                sorted.sort((a, b) -> Long.compare(a.getLine(), b.getLine()));
+                return sorted;
+            }
+        }
+    }
+}
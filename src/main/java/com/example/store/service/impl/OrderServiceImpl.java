@@ -1,68 +1,234 @@
 package com.example.store.service.impl;
 
+import com.example.store.dto.BatchResponse;
+import com.example.store.dto.BulkOrderResponse;
+import com.example.store.dto.BulkOrderResult;
+import com.example.store.dto.CountMode;
 import com.example.store.dto.CreateOrderRequest;
 import com.example.store.dto.OrderDTO;
+import com.example.store.dto.PageCursor;
 import com.example.store.dto.PagedResponse;
+import com.example.store.dto.Projection;
 import com.example.store.entity.Customer;
 import com.example.store.entity.Order;
 import com.example.store.entity.Product;
+import com.example.store.exception.ValidationException;
 import com.example.store.mapper.OrderMapper;
 import com.example.store.repository.CustomerRepository;
+import com.example.store.repository.OrderBatchRepository;
 import com.example.store.repository.OrderRepository;
+import com.example.store.repository.OrderSeekKey;
 import com.example.store.repository.ProductRepository;
+import com.example.store.service.BatchCacheLoader;
+import com.example.store.service.CacheTagIndex;
+import com.example.store.service.CacheTags;
 import com.example.store.service.OrderService;
+import com.example.store.service.RowCountCache;
 
 import lombok.RequiredArgsConstructor;
 
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 /** The type Order service. */
 @Service
 @RequiredArgsConstructor
 public class OrderServiceImpl implements OrderService {
 
+    private static final Set<String> KEYSET_SORT_FIELDS = Set.of("id", "description");
+    private static final int ID_LOOKUP_CHUNK_SIZE = 1000;
+    private static final int MAX_DESCRIPTION_LENGTH = 255;
+
     private final OrderRepository orderRepository;
     private final OrderMapper orderMapper;
     private final CustomerRepository customerRepository;
     private final ProductRepository productRepository;
+    private final RowCountCache rowCountCache;
+    private final OrderBatchRepository orderBatchRepository;
+    private final BatchCacheLoader batchCacheLoader;
+    private final CacheTagIndex cacheTagIndex;
+
+    @Value("${store.order.bulk.max-items:5000}")
+    private int maxBulkItems;
 
     @Override
-    @Cacheable(value = "pagedOrders", key = "#page + '_' + #size + '_' + #sortBy + '_' + #sortOrder")
     public PagedResponse<OrderDTO> getAllOrders(int page, int size, String sortBy, String sortOrder) {
+        return getAllOrders(page, size, sortBy, sortOrder, CountMode.EXACT);
+    }
+
+    @Override
+    public PagedResponse<OrderDTO> getAllOrders(
+            int page, int size, String sortBy, String sortOrder, CountMode countMode) {
+        return getAllOrders(page, size, sortBy, sortOrder, countMode, Projection.FULL);
+    }
+
+    @Override
+    @Cacheable(
+            value = "pagedOrders",
+            key = "#projection.key(#page + '_' + #size + '_' + #sortBy + '_' + #sortOrder + '_' + #countMode)",
+            sync = true)
+    public PagedResponse<OrderDTO> getAllOrders(
+            int page, int size, String sortBy, String sortOrder, CountMode countMode, Projection projection) {
         Sort.Direction direction = "desc".equalsIgnoreCase(sortOrder) ? Sort.Direction.DESC : Sort.Direction.ASC;
         Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
 
-        Page<Order> orderPage = orderRepository.findAll(pageable);
-        return PagedResponse.of(orderPage.map(order -> orderMapper.orderToOrderDTO(order)), sortBy, sortOrder);
+        Function<Order, OrderDTO> toDTO = toDTO(projection);
+
+        // Page over ids first, then load those orders with their associations in one statement; summaries have no
+        // fetch joins and are paged directly
+        if (countMode != CountMode.EXACT) {
+            Slice<Order> orderSlice;
+            if (projection == Projection.SUMMARY) {
+                orderSlice = orderRepository.findAllAsSlice(pageable);
+            } else {
+                Slice<Long> idSlice = orderRepository.findSliceOfIds(pageable);
+                orderSlice = new SliceImpl<>(
+                        findInOrder(idSlice.getContent(), Projection.FULL), pageable, idSlice.hasNext());
+            }
+            Long total = countMode == CountMode.APPROXIMATE ? rowCountCache.get(RowCountCache.Table.ORDER) : null;
+            return PagedResponse.ofSlice(orderSlice.map(toDTO), total, sortBy, sortOrder);
+        }
+
+        Page<Order> orderPage;
+        if (projection == Projection.SUMMARY) {
+            orderPage = orderRepository.findAll(pageable);
+        } else {
+            Page<Long> idPage = orderRepository.findPageOfIds(pageable);
+            orderPage = new PageImpl<>(
+                    findInOrder(idPage.getContent(), Projection.FULL), pageable, idPage.getTotalElements());
+        }
+        return PagedResponse.of(orderPage.map(toDTO), sortBy, sortOrder);
+    }
+
+    @Override
+    public PagedResponse<OrderDTO> getAllOrdersAfter(String after, int size, String sortBy, String sortOrder) {
+        return getAllOrdersAfter(after, size, sortBy, sortOrder, Projection.FULL);
+    }
+
+    @Override
+    public PagedResponse<OrderDTO> getAllOrdersAfter(
+            String after, int size, String sortBy, String sortOrder, Projection projection) {
+        if (size < 1) {
+            throw ValidationException.invalidInput("size", "Page size must be positive");
+        }
+        if (!KEYSET_SORT_FIELDS.contains(sortBy)) {
+            throw ValidationException.invalidInput(
+                    "sortBy", "Cursor pagination supports sorting by id or description only");
+        }
+        PageCursor cursor = StringUtils.hasText(after) ? PageCursor.decode(after, sortBy) : null;
+
+        boolean descending = "desc".equalsIgnoreCase(sortOrder);
+        Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+        Sort sort = "id".equals(sortBy) ? Sort.by(direction, "id") : Sort.by(direction, sortBy, "id");
+        // Fetch one extra row to learn whether another page follows without counting
+        Pageable pageable = PageRequest.of(0, size + 1, sort);
+
+        List<OrderSeekKey> keys;
+        if (cursor == null) {
+            keys = orderRepository.seekFirst(pageable);
+        } else if ("id".equals(sortBy)) {
+            keys = descending
+                    ? orderRepository.seekBeforeId(cursor.getId(), pageable)
+                    : orderRepository.seekAfterId(cursor.getId(), pageable);
+        } else {
+            keys = descending
+                    ? orderRepository.seekBeforeDescription(cursor.getSortValue(), cursor.getId(), pageable)
+                    : orderRepository.seekAfterDescription(cursor.getSortValue(), cursor.getId(), pageable);
+        }
+
+        boolean hasNext = keys.size() > size;
+        List<OrderSeekKey> pageKeys = hasNext ? keys.subList(0, size) : keys;
+        List<Order> content = findInOrder(pageKeys.stream().map(OrderSeekKey::getId).toList(), projection);
+        String nextCursor = null;
+        if (hasNext) {
+            // From the seeked keys rather than the loaded orders, which lack any deleted in between
+            OrderSeekKey last = pageKeys.get(pageKeys.size() - 1);
+            nextCursor =
+                    PageCursor.encode(sortBy, "id".equals(sortBy) ? last.getId() : last.getDescription(), last.getId());
+        }
+
+        return PagedResponse.ofKeyset(
+                content.stream().map(toDTO(projection)).toList(),
+                size,
+                hasNext,
+                cursor != null,
+                nextCursor,
+                sortBy,
+                sortOrder);
     }
 
     @Override
-    @Cacheable(value = "orders", key = "'all'")
     public List<OrderDTO> getAllOrders() {
-        return orderMapper.ordersToOrderDTOs(orderRepository.findAll());
+        return orderMapper.ordersToOrderDTOs(orderRepository.findAllWithCustomerAndProducts());
     }
 
     @Override
-    @Cacheable(value = "orders", key = "#id")
+    @Cacheable(value = "orders", key = "#id", sync = true)
     public Optional<OrderDTO> getOrderById(Long id) {
-        return orderRepository.findById(id).map(orderMapper::orderToOrderDTO);
+        return getOrderById(id, Projection.FULL);
+    }
+
+    @Override
+    @Cacheable(value = "orders", key = "#projection.key(#id)", sync = true)
+    public Optional<OrderDTO> getOrderById(Long id, Projection projection) {
+        if (projection == Projection.SUMMARY) {
+            return orderRepository.findById(id).map(orderMapper::orderToOrderSummaryDTO);
+        }
+        return orderRepository.findWithCustomerAndProductsById(id).map(orderMapper::orderToOrderDTO);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BatchResponse<OrderDTO> getOrdersByIds(List<Long> ids) {
+        return getOrdersByIds(ids, Projection.FULL);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public BatchResponse<OrderDTO> getOrdersByIds(List<Long> ids, Projection projection) {
+        boolean full = projection == Projection.FULL;
+        Function<Order, OrderDTO> toDTO = toDTO(projection);
+        Map<Long, OrderDTO> orders = batchCacheLoader.getAll(
+                "orders",
+                ids,
+                OrderDTO.class,
+                missing -> {
+                    Map<Long, OrderDTO> loaded = new HashMap<>();
+                    List<Order> found = full
+                            ? orderRepository.findAllWithCustomerAndProductsByIdIn(missing)
+                            : orderRepository.findAllById(missing);
+                    for (Order order : found) {
+                        loaded.put(order.getId(), toDTO.apply(order));
+                    }
+                    return loaded;
+                },
+                full);
+        return BatchResponse.of(ids, orders);
     }
 
     @Override
     @Transactional
-    @CacheEvict(
-            value = {"orders", "pagedOrders"},
-            allEntries = true)
     public OrderDTO createOrder(CreateOrderRequest request) {
         // Create new order entity
         Order order = new Order();
@@ -82,7 +248,196 @@ public class OrderServiceImpl implements OrderService {
 
         // Save the order
         Order savedOrder = orderRepository.save(order);
+        rowCountCache.adjust(RowCountCache.Table.ORDER, 1);
+        List<Long> productIds = savedOrder.getProducts() == null
+                ? List.of()
+                : savedOrder.getProducts().stream().map(Product::getId).toList();
+        cacheTagIndex.invalidate(orderTags(List.of(customer.getId()), productIds));
 
         return orderMapper.orderToOrderDTO(savedOrder);
     }
+
+    @Override
+    @Transactional
+    public BulkOrderResponse createOrders(List<CreateOrderRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw ValidationException.invalidInput("orders", "At least one order is required");
+        }
+        if (requests.size() > maxBulkItems) {
+            throw ValidationException.invalidInput(
+                    "orders", "At most " + maxBulkItems + " orders can be created in one request");
+        }
+
+        Set<Long> customerIds = new HashSet<>();
+        Set<Long> productIds = new HashSet<>();
+        for (CreateOrderRequest request : requests) {
+            if (request == null) {
+                continue;
+            }
+            if (request.getCustomerId() != null) {
+                customerIds.add(request.getCustomerId());
+            }
+            if (request.getProductIds() != null) {
+                for (Long productId : request.getProductIds()) {
+                    if (productId != null) {
+                        productIds.add(productId);
+                    }
+                }
+            }
+        }
+        Set<Long> existingCustomerIds = findExistingIds(customerIds, customerRepository::findExistingIds);
+        Set<Long> existingProductIds = findExistingIds(productIds, productRepository::findExistingIds);
+
+        BulkOrderResult[] results = new BulkOrderResult[requests.size()];
+        List<OrderBatchRepository.NewOrder> orders = new ArrayList<>();
+        List<Integer> orderIndexes = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            CreateOrderRequest request = requests.get(i);
+            String error = validateBulkItem(request, existingCustomerIds, existingProductIds);
+            if (error != null) {
+                results[i] = BulkOrderResult.failed(i, error);
+                continue;
+            }
+            Collection<Long> orderProductIds =
+                    request.getProductIds() == null ? List.of() : new LinkedHashSet<>(request.getProductIds());
+            orders.add(new OrderBatchRepository.NewOrder(
+                    request.getDescription(), request.getCustomerId(), orderProductIds));
+            orderIndexes.add(i);
+        }
+
+        List<Long> ids = orderBatchRepository.insertAll(orders);
+        for (int i = 0; i < ids.size(); i++) {
+            int index = orderIndexes.get(i);
+            results[index] = BulkOrderResult.created(index, ids.get(i));
+        }
+        rowCountCache.adjust(RowCountCache.Table.ORDER, ids.size());
+        if (!ids.isEmpty()) {
+            Set<Long> orderCustomerIds = new HashSet<>();
+            Set<Long> orderProductIds = new HashSet<>();
+            for (OrderBatchRepository.NewOrder order : orders) {
+                orderCustomerIds.add(order.customerId());
+                orderProductIds.addAll(order.productIds());
+            }
+            cacheTagIndex.invalidate(orderTags(orderCustomerIds, orderProductIds));
+        }
+
+        BulkOrderResponse response = new BulkOrderResponse();
+        response.setCreated(ids.size());
+        response.setFailed(requests.size() - ids.size());
+        response.setResults(List.of(results));
+        return response;
+    }
+
+    /**
+     * Checks one item of a bulk request against the customers and products known to exist.
+     *
+     * @return the reason the item is rejected, or {@code null} if it is valid
+     */
+    private static String validateBulkItem(
+            CreateOrderRequest request, Set<Long> existingCustomerIds, Set<Long> existingProductIds) {
+        if (request == null) {
+            return "Order is required";
+        }
+        if (!StringUtils.hasText(request.getDescription())) {
+            return "Description is required";
+        }
+        if (request.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
+            return "Description must be at most " + MAX_DESCRIPTION_LENGTH + " characters";
+        }
+        if (request.getCustomerId() == null) {
+            return "Customer ID is required";
+        }
+        if (!existingCustomerIds.contains(request.getCustomerId())) {
+            return "Customer not found with ID: " + request.getCustomerId();
+        }
+        if (request.getProductIds() != null) {
+            for (Long productId : request.getProductIds()) {
+                if (productId == null) {
+                    return "Product ID must not be null";
+                }
+                if (!existingProductIds.contains(productId)) {
+                    return "Product not found with ID: " + productId;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns which of the given ids exist, querying in chunks to keep the IN lists bounded.
+     *
+     * @param ids the ids to check
+     * @param finder the repository query returning the existing ids of a chunk
+     * @return the ids that exist
+     */
+    private static Set<Long> findExistingIds(Set<Long> ids, Function<Collection<Long>, List<Long>> finder) {
+        Set<Long> existing = new HashSet<>();
+        List<Long> chunk = new ArrayList<>(ID_LOOKUP_CHUNK_SIZE);
+        for (Long id : ids) {
+            chunk.add(id);
+            if (chunk.size() == ID_LOOKUP_CHUNK_SIZE) {
+                existing.addAll(finder.apply(chunk));
+                chunk = new ArrayList<>(ID_LOOKUP_CHUNK_SIZE);
+            }
+        }
+        if (!chunk.isEmpty()) {
+            existing.addAll(finder.apply(chunk));
+        }
+        return existing;
+    }
+
+    /**
+     * Returns the cache tags invalidated by new orders: the order pages, the customers listing their orders and the
+     * products listing their order ids.
+     *
+     * @param customerIds the customers of the new orders
+     * @param productIds the products of the new orders
+     * @return the tags to invalidate
+     */
+    private static List<String> orderTags(Collection<Long> customerIds, Collection<Long> productIds) {
+        List<String> tags = new ArrayList<>();
+        tags.add(CacheTags.ORDER_LIST);
+        customerIds.forEach(id -> tags.add(CacheTags.customer(id)));
+        productIds.forEach(id -> tags.add(CacheTags.product(id)));
+        return tags;
+    }
+
+    /**
+     * Maps orders in the given projection.
+     *
+     * @param projection whether the customer and products are mapped
+     * @return the mapping function
+     */
+    private Function<Order, OrderDTO> toDTO(Projection projection) {
+        return projection == Projection.SUMMARY ? orderMapper::orderToOrderSummaryDTO : orderMapper::orderToOrderDTO;
+    }
+
+    /**
+     * Loads the orders with the given ids, together with their customer and products unless only summaries are
+     * needed, preserving the order of the ids.
+     *
+     * @param ids the order ids in the desired order
+     * @param projection whether the customer and products are fetched
+     * @return the orders in the same order as the ids
+     */
+    private List<Order> findInOrder(List<Long> ids, Projection projection) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Order> ordersById = new HashMap<>();
+        List<Order> found = projection == Projection.SUMMARY
+                ? orderRepository.findAllById(ids)
+                : orderRepository.findAllWithCustomerAndProductsByIdIn(ids);
+        for (Order order : found) {
+            ordersById.put(order.getId(), order);
+        }
+        List<Order> orders = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Order order = ordersById.get(id);
+            if (order != null) {
+                orders.add(order);
+            }
+        }
+        return orders;
+    }
 }
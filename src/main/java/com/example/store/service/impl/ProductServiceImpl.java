@@ -1,30 +1,50 @@
 package com.example.store.service.impl;
 
+import com.example.store.dto.BatchResponse;
+import com.example.store.dto.CountMode;
 import com.example.store.dto.CreateProductRequest;
+import com.example.store.dto.Include;
+import com.example.store.dto.PageCursor;
 import com.example.store.dto.PagedResponse;
 import com.example.store.dto.ProductDTO;
+import com.example.store.dto.Projection;
 import com.example.store.entity.Product;
 import com.example.store.exception.ProductNotFoundException;
 import com.example.store.exception.ValidationException;
 import com.example.store.mapper.ProductMapper;
 import com.example.store.repository.ProductRepository;
+import com.example.store.repository.ProductView;
+import com.example.store.service.BatchCacheLoader;
+import com.example.store.service.CacheTagIndex;
+import com.example.store.service.CacheTags;
+import com.example.store.service.ProductOrderBatchLoader;
 import com.example.store.service.ProductService;
+import com.example.store.service.RowCountCache;
 import com.example.store.service.ValidationService;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
-import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /** The type Product service. */
 @Service
@@ -33,32 +53,66 @@ import java.util.Optional;
 @Transactional(readOnly = true)
 public class ProductServiceImpl implements ProductService {
 
+    private static final Set<String> KEYSET_SORT_FIELDS = Set.of("id", "description");
+
     private final ProductRepository productRepository;
     private final ProductMapper productMapper;
     private final ValidationService validationService;
+    private final RowCountCache rowCountCache;
+    private final BatchCacheLoader batchCacheLoader;
+    private final CacheTagIndex cacheTagIndex;
+    private final ProductOrderBatchLoader productOrderBatchLoader;
+
+    @Value("${store.search.product-fulltext.enabled:true}")
+    private boolean fullTextEnabled;
 
     @Override
-    @Cacheable(value = "pagedProducts", key = "#page + '_' + #size + '_' + #sortBy + '_' + #sortOrder")
     public PagedResponse<ProductDTO> getAllProducts(int page, int size, String sortBy, String sortOrder) {
+        return getAllProducts(page, size, sortBy, sortOrder, CountMode.EXACT);
+    }
+
+    @Override
+    public PagedResponse<ProductDTO> getAllProducts(
+            int page, int size, String sortBy, String sortOrder, CountMode countMode) {
+        return getAllProducts(page, size, sortBy, sortOrder, countMode, Include.none());
+    }
+
+    @Override
+    @Cacheable(
+            value = "pagedProducts",
+            key = "#include.key(#page + '_' + #size + '_' + #sortBy + '_' + #sortOrder + '_' + #countMode)",
+            sync = true)
+    public PagedResponse<ProductDTO> getAllProducts(
+            int page, int size, String sortBy, String sortOrder, CountMode countMode, Include include) {
         log.debug(
-                "Retrieving products with pagination - page: {}, size: {}, sortBy: {}, sortOrder: {}",
+                "Retrieving products with pagination - page: {}, size: {}, sortBy: {}, sortOrder: {}, count: {},"
+                        + " include: {}",
                 page,
                 size,
                 sortBy,
-                sortOrder);
+                sortOrder,
+                countMode,
+                include);
         try {
             Sort.Direction direction = "desc".equalsIgnoreCase(sortOrder) ? Sort.Direction.DESC : Sort.Direction.ASC;
             Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
 
-            Page<Product> productPage = productRepository.findAll(pageable);
+            // The product table is paged on its own; order ids are only loaded, per page, when included
+            if (countMode != CountMode.EXACT) {
+                Slice<ProductDTO> productSlice = productRepository
+                        .findAllAsSlice(pageable)
+                        .map(product -> productMapper.productToProductSummaryDTO(product));
+                Long total =
+                        countMode == CountMode.APPROXIMATE ? rowCountCache.get(RowCountCache.Table.PRODUCT) : null;
+                attachOrderIds(productSlice.getContent(), include);
+                return PagedResponse.ofSlice(productSlice, total, sortBy, sortOrder);
+            }
 
-            log.debug(
-                    "Found {} products on page {} of {}",
-                    productPage.getContent().size(),
-                    page + 1,
-                    productPage.getTotalPages());
-            return PagedResponse.of(
-                    productPage.map(product -> productMapper.productToProductDTO(product)), sortBy, sortOrder);
+            Page<ProductDTO> productPage = productRepository
+                    .findAll(pageable)
+                    .map(product -> productMapper.productToProductSummaryDTO(product));
+            attachOrderIds(productPage.getContent(), include);
+            return PagedResponse.of(productPage, sortBy, sortOrder);
         } catch (Exception e) {
             log.error("Error retrieving products with pagination", e);
             throw new RuntimeException("Failed to retrieve products", e);
@@ -66,13 +120,82 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
-    @Cacheable(value = "products", key = "'all'")
+    public PagedResponse<ProductDTO> getAllProductsAfter(String after, int size, String sortBy, String sortOrder) {
+        return getAllProductsAfter(after, size, sortBy, sortOrder, Include.none());
+    }
+
+    @Override
+    public PagedResponse<ProductDTO> getAllProductsAfter(
+            String after, int size, String sortBy, String sortOrder, Include include) {
+        log.debug(
+                "Retrieving products with keyset pagination - after: {}, size: {}, sortBy: {}, sortOrder: {}",
+                after,
+                size,
+                sortBy,
+                sortOrder);
+
+        if (size < 1) {
+            throw ValidationException.invalidInput("size", "Page size must be positive");
+        }
+        if (!KEYSET_SORT_FIELDS.contains(sortBy)) {
+            throw ValidationException.invalidInput(
+                    "sortBy", "Cursor pagination supports sorting by id or description only");
+        }
+        PageCursor cursor = StringUtils.hasText(after) ? PageCursor.decode(after, sortBy) : null;
+
+        try {
+            boolean descending = "desc".equalsIgnoreCase(sortOrder);
+            Sort.Direction direction = descending ? Sort.Direction.DESC : Sort.Direction.ASC;
+            Sort sort = "id".equals(sortBy) ? Sort.by(direction, "id") : Sort.by(direction, sortBy, "id");
+            // Fetch one extra row to learn whether another page follows without counting
+            Pageable pageable = PageRequest.of(0, size + 1, sort);
+
+            List<Product> products;
+            if (cursor == null) {
+                products = productRepository.seekFirst(pageable);
+            } else if ("id".equals(sortBy)) {
+                products = descending
+                        ? productRepository.seekBeforeId(cursor.getId(), pageable)
+                        : productRepository.seekAfterId(cursor.getId(), pageable);
+            } else {
+                products = descending
+                        ? productRepository.seekBeforeDescription(cursor.getSortValue(), cursor.getId(), pageable)
+                        : productRepository.seekAfterDescription(cursor.getSortValue(), cursor.getId(), pageable);
+            }
+
+            boolean hasNext = products.size() > size;
+            List<Product> content = hasNext ? products.subList(0, size) : products;
+            String nextCursor = null;
+            if (hasNext) {
+                Product last = content.get(content.size() - 1);
+                nextCursor = PageCursor.encode(
+                        sortBy, "id".equals(sortBy) ? last.getId() : last.getDescription(), last.getId());
+            }
+
+            log.debug("Found {} products on keyset page, hasNext: {}", content.size(), hasNext);
+            List<ProductDTO> productDTOs = productMapper.productsToProductSummaryDTOs(content);
+            attachOrderIds(productDTOs, include);
+            return PagedResponse.ofKeyset(
+                    productDTOs,
+                    size,
+                    hasNext,
+                    cursor != null,
+                    nextCursor,
+                    sortBy,
+                    sortOrder);
+        } catch (Exception e) {
+            log.error("Error retrieving products with keyset pagination", e);
+            throw new RuntimeException("Failed to retrieve products", e);
+        }
+    }
+
+    @Override
     public List<ProductDTO> getAllProducts() {
         log.debug("Retrieving all products");
         try {
-            List<Product> products = productRepository.findAll();
+            List<ProductView> products = productRepository.findAllViews();
             log.debug("Found {} products", products.size());
-            return productMapper.productsToProductDTOs(products);
+            return productMapper.productViewsToProductDTOs(products);
         } catch (Exception e) {
             log.error("Error retrieving all products", e);
             throw new RuntimeException("Failed to retrieve products", e);
@@ -81,9 +204,6 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     @Transactional
-    @CacheEvict(
-            value = {"products", "pagedProducts"},
-            allEntries = true)
     public ProductDTO createProduct(CreateProductRequest createProductRequest) {
         log.debug("Creating new product: {}", createProductRequest);
 
@@ -96,6 +216,8 @@ public class ProductServiceImpl implements ProductService {
             product.setDescription(validationService.sanitizeDescription(createProductRequest.getDescription()));
 
             Product savedProduct = productRepository.save(product);
+            rowCountCache.adjust(RowCountCache.Table.PRODUCT, 1);
+            cacheTagIndex.invalidate(List.of(CacheTags.PRODUCT_LIST));
             log.info("Successfully created product with ID: {}", savedProduct.getId());
 
             return productMapper.productToProductDTO(savedProduct);
@@ -106,21 +228,29 @@ public class ProductServiceImpl implements ProductService {
     }
 
     @Override
-    @Cacheable(value = "products", key = "#id")
+    @Cacheable(value = "products", key = "#id", sync = true)
     public ProductDTO getProductById(Long id) {
+        return getProductById(id, Projection.FULL);
+    }
+
+    @Override
+    @Cacheable(value = "products", key = "#projection.key(#id)", sync = true)
+    public ProductDTO getProductById(Long id, Projection projection) {
         log.debug("Retrieving product with ID: {}", id);
 
         validationService.validateProductId(id);
 
         try {
-            Optional<Product> product = productRepository.findById(id);
+            Optional<ProductDTO> product = projection == Projection.SUMMARY
+                    ? productRepository.findById(id).map(productMapper::productToProductSummaryDTO)
+                    : productRepository.findViewById(id).map(productMapper::productViewToProductDTO);
             if (product.isEmpty()) {
                 log.warn("Product not found with ID: {}", id);
                 throw ProductNotFoundException.withId(id);
             }
 
             log.debug("Successfully retrieved product with ID: {}", id);
-            return productMapper.productToProductDTO(product.get());
+            return product.get();
         } catch (ProductNotFoundException | ValidationException e) {
             throw e;
         } catch (Exception e) {
@@ -129,11 +259,38 @@ public class ProductServiceImpl implements ProductService {
         }
     }
 
+    @Override
+    public BatchResponse<ProductDTO> getProductsByIds(List<Long> ids) {
+        return getProductsByIds(ids, Projection.FULL);
+    }
+
+    @Override
+    public BatchResponse<ProductDTO> getProductsByIds(List<Long> ids, Projection projection) {
+        log.debug("Retrieving {} products by ID", ids == null ? 0 : ids.size());
+        boolean full = projection == Projection.FULL;
+        Map<Long, ProductDTO> products = batchCacheLoader.getAll(
+                "products",
+                ids,
+                ProductDTO.class,
+                missing -> {
+                    Map<Long, ProductDTO> loaded = new HashMap<>();
+                    if (full) {
+                        for (ProductView view : productRepository.findViewsByIdIn(missing)) {
+                            loaded.put(view.getId(), productMapper.productViewToProductDTO(view));
+                        }
+                    } else {
+                        for (Product product : productRepository.findAllById(missing)) {
+                            loaded.put(product.getId(), productMapper.productToProductSummaryDTO(product));
+                        }
+                    }
+                    return loaded;
+                },
+                full);
+        return BatchResponse.of(ids, products);
+    }
+
     @Override
     @Transactional
-    @CacheEvict(
-            value = {"products", "pagedProducts"},
-            allEntries = true)
     public ProductDTO updateProduct(Long id, Product product) {
         log.debug("Updating product with ID: {}", id);
 
@@ -151,6 +308,8 @@ public class ProductServiceImpl implements ProductService {
             productToUpdate.setDescription(validationService.sanitizeDescription(product.getDescription()));
 
             Product updatedProduct = productRepository.save(productToUpdate);
+            // Pages sorted by description may reorder; other pages only change where they contain the product
+            cacheTagIndex.invalidate(List.of(CacheTags.product(id), CacheTags.productSort("description")));
             log.info("Successfully updated product with ID: {}", id);
 
             return productMapper.productToProductDTO(updatedProduct);
@@ -164,9 +323,6 @@ public class ProductServiceImpl implements ProductService {
 
     @Override
     @Transactional
-    @CacheEvict(
-            value = {"products", "pagedProducts"},
-            allEntries = true)
     public void deleteProduct(Long id) {
         log.debug("Deleting product with ID: {}", id);
 
@@ -179,6 +335,8 @@ public class ProductServiceImpl implements ProductService {
             }
 
             productRepository.deleteById(id);
+            rowCountCache.adjust(RowCountCache.Table.PRODUCT, -1);
+            cacheTagIndex.invalidate(List.of(CacheTags.product(id), CacheTags.PRODUCT_LIST));
             log.info("Successfully deleted product with ID: {}", id);
         } catch (ProductNotFoundException | ValidationException e) {
             throw e;
@@ -191,13 +349,27 @@ public class ProductServiceImpl implements ProductService {
     @Override
     public PagedResponse<ProductDTO> searchProductsByDescription(
             String query, int page, int size, String sortBy, String sortOrder) {
+        return searchProductsByDescription(query, page, size, sortBy, sortOrder, CountMode.EXACT);
+    }
+
+    @Override
+    public PagedResponse<ProductDTO> searchProductsByDescription(
+            String query, int page, int size, String sortBy, String sortOrder, CountMode countMode) {
+        return searchProductsByDescription(query, page, size, sortBy, sortOrder, countMode, Include.none());
+    }
+
+    @Override
+    public PagedResponse<ProductDTO> searchProductsByDescription(
+            String query, int page, int size, String sortBy, String sortOrder, CountMode countMode, Include include) {
         log.debug(
-                "Searching products with pagination - query: {}, page: {}, size: {}, sortBy: {}, sortOrder: {}",
+                "Searching products - query: {}, page: {}, size: {}, sortBy: {}, sortOrder: {}, count: {}, include: {}",
                 query,
                 page,
                 size,
                 sortBy,
-                sortOrder);
+                sortOrder,
+                countMode,
+                include);
 
         try {
             // Validate search query
@@ -205,9 +377,30 @@ public class ProductServiceImpl implements ProductService {
 
             Sort.Direction direction = "desc".equalsIgnoreCase(sortOrder) ? Sort.Direction.DESC : Sort.Direction.ASC;
             Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
+            boolean emptyQuery = query == null || query.trim().isEmpty();
+
+            // The product table is searched on its own; order ids are only loaded, per page, when included
+            if (countMode != CountMode.EXACT) {
+                // The row count cache only knows table totals, so it can serve an unfiltered search only
+                Slice<Product> productSlice;
+                Long total = null;
+                if (emptyQuery) {
+                    productSlice = productRepository.findAllAsSlice(pageable);
+                    if (countMode == CountMode.APPROXIMATE) {
+                        total = rowCountCache.get(RowCountCache.Table.PRODUCT);
+                    }
+                } else {
+                    productSlice = productRepository.findSliceByDescriptionContainingIgnoreCase(query.trim(), pageable);
+                }
+
+                Slice<ProductDTO> productDTOs =
+                        productSlice.map(product -> productMapper.productToProductSummaryDTO(product));
+                attachOrderIds(productDTOs.getContent(), include);
+                return PagedResponse.ofSlice(productDTOs, total, sortBy, sortOrder);
+            }
 
             Page<Product> productPage;
-            if (query == null || query.trim().isEmpty()) {
+            if (emptyQuery) {
                 log.debug("Empty query, returning all products with pagination");
                 productPage = productRepository.findAll(pageable);
             } else {
@@ -221,8 +414,10 @@ public class ProductServiceImpl implements ProductService {
                         productPage.getTotalPages());
             }
 
-            return PagedResponse.of(
-                    productPage.map(product -> productMapper.productToProductDTO(product)), sortBy, sortOrder);
+            Page<ProductDTO> productDTOs =
+                    productPage.map(product -> productMapper.productToProductSummaryDTO(product));
+            attachOrderIds(productDTOs.getContent(), include);
+            return PagedResponse.of(productDTOs, sortBy, sortOrder);
         } catch (ValidationException e) {
             log.warn("Validation error in search: {}", e.getMessage());
             throw e;
@@ -232,6 +427,56 @@ public class ProductServiceImpl implements ProductService {
         }
     }
 
+    @Override
+    public PagedResponse<ProductDTO> searchProductsByFullText(String query, int page, int size, CountMode countMode) {
+        return searchProductsByFullText(query, page, size, countMode, Include.none());
+    }
+
+    @Override
+    public PagedResponse<ProductDTO> searchProductsByFullText(
+            String query, int page, int size, CountMode countMode, Include include) {
+        log.debug(
+                "Full-text searching products - query: {}, page: {}, size: {}, count: {}, include: {}",
+                query,
+                page,
+                size,
+                countMode,
+                include);
+
+        try {
+            // Validate search query
+            validationService.validateSearchQuery(query);
+
+            String tsQuery = toPrefixTsQuery(query);
+            if (!fullTextEnabled || tsQuery == null) {
+                // Without the tsvector column, or without words to match, fall back to the substring search
+                return searchProductsByDescription(query, page, size, "id", "asc", countMode, include);
+            }
+
+            boolean exact = countMode == CountMode.EXACT;
+            // Without a count, one extra id tells whether another page follows
+            List<Long> ids = productRepository.findIdsByFullText(tsQuery, exact ? size : size + 1, (long) page * size);
+            boolean hasNext = !exact && ids.size() > size;
+            List<ProductDTO> content =
+                    productMapper.productsToProductSummaryDTOs(findInOrder(hasNext ? ids.subList(0, size) : ids));
+            attachOrderIds(content, include);
+            Pageable pageable = PageRequest.of(page, size);
+
+            if (exact) {
+                long total = productRepository.countByFullText(tsQuery);
+                log.debug("Found {} products matching full-text query: {}", total, tsQuery);
+                return PagedResponse.of(new PageImpl<>(content, pageable, total), "relevance", "desc");
+            }
+            return PagedResponse.ofSlice(new SliceImpl<>(content, pageable, hasNext), null, "relevance", "desc");
+        } catch (ValidationException e) {
+            log.warn("Validation error in search: {}", e.getMessage());
+            throw e;
+        } catch (Exception e) {
+            log.error("Error full-text searching products - query: {}", query, e);
+            throw new RuntimeException("Failed to search products", e);
+        }
+    }
+
     @Override
     public List<ProductDTO> searchProductsByDescription(String query) {
         log.debug("Searching products with query: {}", query);
@@ -240,17 +485,17 @@ public class ProductServiceImpl implements ProductService {
             // Validate search query
             validationService.validateSearchQuery(query);
 
-            List<Product> products;
+            List<ProductView> products;
             if (query == null || query.trim().isEmpty()) {
                 log.debug("Empty query, returning all products");
-                products = productRepository.findAll();
+                products = productRepository.findAllViews();
             } else {
                 String sanitizedQuery = query.trim();
-                products = productRepository.findByDescriptionContainingIgnoreCase(sanitizedQuery);
+                products = productRepository.findViewsByDescriptionContainingIgnoreCase(sanitizedQuery);
                 log.debug("Found {} products matching query: {}", products.size(), sanitizedQuery);
             }
 
-            return productMapper.productsToProductDTOs(products);
+            return productMapper.productViewsToProductDTOs(products);
         } catch (ValidationException e) {
             log.warn("Validation error in search: {}", e.getMessage());
             throw e;
@@ -272,7 +517,7 @@ public class ProductServiceImpl implements ProductService {
             Sort.Direction direction = "desc".equalsIgnoreCase(sortOrder) ? Sort.Direction.DESC : Sort.Direction.ASC;
             Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
 
-            Page<Product> productPage = productRepository.findProductsWithOrders(pageable);
+            Page<ProductView> productPage = productRepository.findViewsWithOrders(pageable);
             log.debug(
                     "Found {} products with orders on page {} of {}",
                     productPage.getContent().size(),
@@ -280,7 +525,7 @@ public class ProductServiceImpl implements ProductService {
                     productPage.getTotalPages());
 
             return PagedResponse.of(
-                    productPage.map(product -> productMapper.productToProductDTO(product)), sortBy, sortOrder);
+                    productPage.map(product -> productMapper.productViewToProductDTO(product)), sortBy, sortOrder);
         } catch (Exception e) {
             log.error("Error retrieving products with orders with pagination", e);
             throw new RuntimeException("Failed to retrieve products with orders", e);
@@ -291,9 +536,9 @@ public class ProductServiceImpl implements ProductService {
     public List<ProductDTO> getProductsWithOrders() {
         log.debug("Retrieving products with orders");
         try {
-            List<Product> products = productRepository.findProductsWithOrders();
+            List<ProductView> products = productRepository.findViewsWithOrders();
             log.debug("Found {} products with orders", products.size());
-            return productMapper.productsToProductDTOs(products);
+            return productMapper.productViewsToProductDTOs(products);
         } catch (Exception e) {
             log.error("Error retrieving products with orders", e);
             throw new RuntimeException("Failed to retrieve products with orders", e);
@@ -312,7 +557,7 @@ public class ProductServiceImpl implements ProductService {
             Sort.Direction direction = "desc".equalsIgnoreCase(sortOrder) ? Sort.Direction.DESC : Sort.Direction.ASC;
             Pageable pageable = PageRequest.of(page, size, Sort.by(direction, sortBy));
 
-            Page<Product> productPage = productRepository.findProductsWithoutOrders(pageable);
+            Page<ProductView> productPage = productRepository.findViewsWithoutOrders(pageable);
             log.debug(
                     "Found {} products without orders on page {} of {}",
                     productPage.getContent().size(),
@@ -320,7 +565,7 @@ public class ProductServiceImpl implements ProductService {
                     productPage.getTotalPages());
 
             return PagedResponse.of(
-                    productPage.map(product -> productMapper.productToProductDTO(product)), sortBy, sortOrder);
+                    productPage.map(product -> productMapper.productViewToProductDTO(product)), sortBy, sortOrder);
         } catch (Exception e) {
             log.error("Error retrieving products without orders with pagination", e);
             throw new RuntimeException("Failed to retrieve products without orders", e);
@@ -331,12 +576,73 @@ public class ProductServiceImpl implements ProductService {
     public List<ProductDTO> getProductsWithoutOrders() {
         log.debug("Retrieving products without orders");
         try {
-            List<Product> products = productRepository.findProductsWithoutOrders();
+            List<ProductView> products = productRepository.findViewsWithoutOrders();
             log.debug("Found {} products without orders", products.size());
-            return productMapper.productsToProductDTOs(products);
+            return productMapper.productViewsToProductDTOs(products);
         } catch (Exception e) {
             log.error("Error retrieving products without orders", e);
             throw new RuntimeException("Failed to retrieve products without orders", e);
         }
     }
+
+    /**
+     * Builds a {@code to_tsquery} expression requiring every word of the query as a prefix, e.g. {@code lap:* & bag:*}.
+     *
+     * @param query the raw search query
+     * @return the tsquery expression, or {@code null} if the query has no words
+     */
+    static String toPrefixTsQuery(String query) {
+        if (query == null) {
+            return null;
+        }
+        StringBuilder tsQuery = new StringBuilder();
+        for (String word : query.toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+            if (word.isEmpty()) {
+                continue;
+            }
+            if (tsQuery.length() > 0) {
+                tsQuery.append(" & ");
+            }
+            tsQuery.append(word).append(":*");
+        }
+        return tsQuery.length() == 0 ? null : tsQuery.toString();
+    }
+
+    /**
+     * Attaches the order ids to listed products with one batched query, at most as many per product as requested.
+     * Products listed without {@link Include#ORDER_IDS} are left without order ids.
+     *
+     * @param productDTOs the product DTOs of one page
+     * @param include whether and how many order ids are attached
+     */
+    private void attachOrderIds(List<ProductDTO> productDTOs, Include include) {
+        if (include.has(Include.ORDER_IDS)) {
+            productOrderBatchLoader.attachOrderIds(
+                    productDTOs, include.limit(productOrderBatchLoader.getMaxOrderIdsPerProduct()));
+        }
+    }
+
+    /**
+     * Loads the given products, preserving the order of the ids.
+     *
+     * @param ids the product ids in the desired order
+     * @return the products in the same order as the ids
+     */
+    private List<Product> findInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Map<Long, Product> productsById = new HashMap<>();
+        for (Product product : productRepository.findAllById(ids)) {
+            productsById.put(product.getId(), product);
+        }
+        List<Product> products = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Product product = productsById.get(id);
+            if (product != null) {
+                products.add(product);
+            }
+        }
+        return products;
+    }
 }
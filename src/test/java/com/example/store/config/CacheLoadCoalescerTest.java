@@ -0,0 +1,126 @@
+package com.example.store.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The type Cache load coalescer test. */
+@DisplayName("CacheLoadCoalescer Tests")
+class CacheLoadCoalescerTest {
+
+    private static final int CALLERS = 8;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConcurrentMapCache target;
+    private Cache cache;
+    private CacheLoadCoalescer coalescer;
+    private ExecutorService executor;
+
+    /** Sets up. */
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        target = new ConcurrentMapCache("pagedProducts", false);
+        coalescer = new CacheLoadCoalescer(meterRegistry, null, Duration.ofSeconds(5), Duration.ofMillis(50));
+        cache = new CoalescingCache(target, coalescer);
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    /** Tears down. */
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Should run the loader once for concurrent misses.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    @DisplayName("Should run the loader once for concurrent misses")
+    void shouldRunLoaderOnceForConcurrentMisses() throws Exception {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        // When
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> cache.get("0_20_id_asc", () -> {
+                loads.incrementAndGet();
+                release.await();
+                return "page";
+            })));
+        }
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (count("coalesced") < CALLERS - 1 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        release.countDown();
+
+        // Then
+        for (Future<String> result : results) {
+            assertEquals("page", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, count("loaded"));
+        assertEquals(CALLERS - 1, count("coalesced"));
+        assertEquals("page", target.get("0_20_id_asc", String.class));
+        assertEquals(0, coalescer.getInFlightCount());
+    }
+
+    /** Should rethrow the loader's exception and cache nothing. */
+    @Test
+    @DisplayName("Should rethrow the loader's exception and cache nothing")
+    void shouldRethrowLoaderExceptionAndCacheNothing() {
+        // Given
+        IllegalStateException failure = new IllegalStateException("database down");
+
+        // When
+        Cache.ValueRetrievalException exception = assertThrows(
+                Cache.ValueRetrievalException.class, () -> cache.get("0_20_id_asc", () -> {
+                    throw failure;
+                }));
+
+        // Then
+        assertSame(failure, exception.getCause());
+        assertNull(target.get("0_20_id_asc"));
+        assertEquals(0, coalescer.getInFlightCount());
+    }
+
+    /** Should return a null result without caching it. */
+    @Test
+    @DisplayName("Should return a null result without caching it")
+    void shouldReturnNullWithoutCachingIt() {
+        // When
+        Object value = cache.get(42L, () -> null);
+
+        // Then
+        assertNull(value);
+        assertNull(target.get(42L));
+    }
+
+    private double count(String outcome) {
+        return meterRegistry
+                .counter("store.cache.loads", "cache", "pagedProducts", "outcome", outcome)
+                .count();
+    }
+}
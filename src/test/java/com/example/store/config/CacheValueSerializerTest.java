@@ -0,0 +1,97 @@
+package com.example.store.config;
+
+import com.example.store.dto.FieldSet;
+import com.example.store.dto.OrderCustomerDTO;
+import com.example.store.dto.OrderDTO;
+import com.example.store.dto.PagedResponse;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The type Cache value serializer test. */
+@DisplayName("CacheValueSerializer Tests")
+class CacheValueSerializerTest {
+
+    /** Should round-trip a page in every format, compressed or not. */
+    @Test
+    @DisplayName("Should round-trip a page in every format, compressed or not")
+    void shouldRoundTripPageInEveryFormat() {
+        PagedResponse<OrderDTO> page = orderPage(50);
+        for (CacheValueFormat format : CacheValueFormat.values()) {
+            for (int threshold : new int[] {-1, 0}) {
+                // Given
+                CacheValueSerializer serializer = new CacheValueSerializer(format, threshold);
+
+                // When
+                Object decoded = serializer.deserialize(serializer.serialize(page));
+
+                // Then
+                assertEquals(page, decoded, format + " with threshold " + threshold);
+            }
+        }
+    }
+
+    /** Should encode pages smaller than JSON. */
+    @Test
+    @DisplayName("Should encode pages smaller than JSON")
+    void shouldEncodePagesSmallerThanJson() {
+        // Given
+        PagedResponse<OrderDTO> page = orderPage(50);
+
+        // When
+        int json = new CacheValueSerializer(CacheValueFormat.JSON, -1).serialize(page).length;
+        int smile = new CacheValueSerializer(CacheValueFormat.SMILE, -1).serialize(page).length;
+        int compressed = new CacheValueSerializer(CacheValueFormat.SMILE, 0).serialize(page).length;
+
+        // Then
+        assertTrue(smile < json, "smile " + smile + " vs json " + json);
+        assertTrue(compressed < smile, "smile+lz4 " + compressed + " vs smile " + smile);
+    }
+
+    /** Should read values written in another format or before the format header existed. */
+    @Test
+    @DisplayName("Should read values written in another format or before the format header existed")
+    void shouldReadOtherAndLegacyFormats() {
+        // Given
+        PagedResponse<OrderDTO> page = orderPage(2);
+        CacheValueSerializer serializer = new CacheValueSerializer(CacheValueFormat.SMILE, 0);
+
+        // When
+        Object fromJson = serializer.deserialize(new CacheValueSerializer(CacheValueFormat.JSON, -1).serialize(page));
+        Object fromLegacy = serializer.deserialize(new GenericJackson2JsonRedisSerializer()
+                .configure(mapper -> mapper.setFilterProvider(FieldSet.allFields()))
+                .serialize(page));
+
+        // Then
+        assertEquals(page, fromJson);
+        assertEquals(page, fromLegacy);
+    }
+
+    private static PagedResponse<OrderDTO> orderPage(int size) {
+        List<OrderDTO> orders = new ArrayList<>();
+        for (long id = 1; id <= size; id++) {
+            OrderCustomerDTO customer = new OrderCustomerDTO();
+            customer.setId(id % 5);
+            customer.setName("Customer " + id % 5);
+            OrderDTO order = new OrderDTO();
+            order.setId(id);
+            order.setDescription("Order " + id);
+            order.setCustomer(customer);
+            order.setProducts(new ArrayList<>());
+            orders.add(order);
+        }
+        PagedResponse<OrderDTO> page = new PagedResponse<>();
+        page.setContent(orders);
+        page.setSize(size);
+        page.setTotalElements(size);
+        page.setSortBy("id");
+        page.setSortOrder("asc");
+        return page;
+    }
+}
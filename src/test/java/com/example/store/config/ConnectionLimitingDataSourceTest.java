@@ -0,0 +1,82 @@
+package com.example.store.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/** The type Connection limiting data source test. */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ConnectionLimitingDataSource Tests")
+class ConnectionLimitingDataSourceTest {
+
+    @Mock
+    private DataSource pool;
+
+    @Mock
+    private Connection connection;
+
+    private ConnectionLimitingDataSource dataSource;
+
+    /** Sets up. */
+    @BeforeEach
+    void setUp() {
+        dataSource = new ConnectionLimitingDataSource(pool, 1, 50);
+    }
+
+    /**
+     * Should fail fast while every permit is taken and free the permit once.
+     *
+     * @throws SQLException the sql exception
+     */
+    @Test
+    @DisplayName("Should fail fast while every permit is taken and free the permit once")
+    void shouldLimitConnectionsToPermits() throws SQLException {
+        // Given
+        when(pool.getConnection()).thenReturn(connection);
+        Connection first = dataSource.getConnection();
+
+        // When / Then
+        assertEquals(0, dataSource.getAvailablePermits());
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        first.close();
+        first.close();
+        assertEquals(1, dataSource.getAvailablePermits());
+        verify(connection, times(2)).close();
+    }
+
+    /**
+     * Should return the permit when the pool fails.
+     *
+     * @throws SQLException the sql exception
+     */
+    @Test
+    @DisplayName("Should return the permit when the pool fails")
+    void shouldReturnPermitWhenPoolFails() throws SQLException {
+        // Given
+        when(pool.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        // When / Then
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertEquals(1, dataSource.getAvailablePermits());
+    }
+
+    /** Should reject a non-positive limit. */
+    @Test
+    @DisplayName("Should reject a non-positive limit")
+    void shouldRejectNonPositiveLimit() {
+        assertThrows(IllegalArgumentException.class, () -> new ConnectionLimitingDataSource(pool, 0, 50));
+    }
+}
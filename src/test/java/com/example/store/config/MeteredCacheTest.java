@@ -0,0 +1,93 @@
+package com.example.store.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The type Metered cache test. */
+@DisplayName("MeteredCache Tests")
+class MeteredCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private MeteredCache cache;
+
+    /** Sets up. */
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new MeteredCache(new ConcurrentMapCache("customers", false), meterRegistry);
+    }
+
+    /** Should count a loaded lookup as a miss and later lookups as hits. */
+    @Test
+    @DisplayName("Should count a loaded lookup as a miss and later lookups as hits")
+    void shouldCountMissThenHits() {
+        // When
+        cache.get(1L, () -> "John Doe");
+        cache.get(1L, () -> fail("cached entries must not be loaded"));
+        cache.get(1L);
+
+        // Then
+        assertEquals(2, gets("hit"));
+        assertEquals(1, gets("miss"));
+        assertEquals(2, meterRegistry.get("store.cache.get.latency").tag("result", "hit").timer().count());
+    }
+
+    /** Should count puts and evictions. */
+    @Test
+    @DisplayName("Should count puts and evictions")
+    void shouldCountPutsAndEvictions() {
+        // When
+        cache.put(1L, "John Doe");
+        cache.put(2L, "Jane Doe");
+        cache.evict(1L);
+
+        // Then
+        assertEquals(2, meterRegistry.get("store.cache.puts").counter().count());
+        assertEquals(1, meterRegistry.get("store.cache.evictions").counter().count());
+        assertEquals(2, meterRegistry.get("store.cache.put.latency").timer().count());
+    }
+
+    /** Should record payload sizes of serialized values. */
+    @Test
+    @DisplayName("Should record payload sizes of serialized values")
+    void shouldRecordPayloadSizes() {
+        // Given
+        MeteredRedisSerializer serializer = new MeteredRedisSerializer(
+                new CacheValueSerializer(CacheValueFormat.JSON, -1), meterRegistry, "customers");
+
+        // When
+        byte[] bytes = serializer.serialize("John Doe");
+        serializer.deserialize(bytes);
+
+        // Then
+        assertEquals(
+                bytes.length,
+                meterRegistry
+                        .get("store.cache.payload.size")
+                        .tag("operation", "write")
+                        .summary()
+                        .totalAmount());
+        assertEquals(
+                1,
+                meterRegistry
+                        .get("store.cache.payload.size")
+                        .tag("operation", "read")
+                        .summary()
+                        .count());
+    }
+
+    private double gets(String result) {
+        return meterRegistry
+                .get("store.cache.gets")
+                .tag("cache", "customers")
+                .tag("result", result)
+                .counter()
+                .count();
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.store.config;
+
+import com.example.store.service.CacheTagIndex;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/** The type Redis config test. */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RedisConfig Tests")
+class RedisConfigTest {
+
+    private static final String PAGE_KEY = "0_20_id_asc";
+
+    @Mock
+    private CacheTagIndex cacheTagIndex;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private ConcurrentMapCacheManager store;
+    private StaleCachePolicy policy;
+    private CacheManager cacheManager;
+
+    /** Sets up the decorator chain of the cache manager, with coalescing and stale entries enabled as by default. */
+    @BeforeEach
+    void setUp() {
+        store = new ConcurrentMapCacheManager("customers", "pagedProducts");
+        store.setAllowNullValues(false);
+        CacheLoadCoalescer coalescer =
+                new CacheLoadCoalescer(new SimpleMeterRegistry(), null, Duration.ofSeconds(5), Duration.ofMillis(50));
+        policy = new StaleCachePolicy(
+                Set.of("pagedProducts"), Duration.ofMinutes(1), Duration.ofMinutes(30), transactionManager, 1);
+        cacheManager = RedisConfig.decorate(
+                store,
+                cacheTagIndex,
+                coalescer,
+                policy,
+                name -> Duration.ofMinutes(3),
+                new SimpleMeterRegistry(),
+                null);
+    }
+
+    /** Tears down. */
+    @AfterEach
+    void tearDown() {
+        policy.destroy();
+    }
+
+    /** Should cache and tag a value loaded through the coalescing layer. */
+    @Test
+    @DisplayName("Should cache and tag a value loaded through the coalescing layer")
+    void shouldCacheAndTagCoalescedLoad() {
+        // Given
+        when(cacheTagIndex.generation()).thenReturn(7L);
+        when(cacheTagIndex.invalidatedSince(7L, "customers", Map.of(1L, "John Doe"))).thenReturn(Set.of());
+
+        // When
+        String value = cacheManager.getCache("customers").get(1L, () -> "John Doe");
+
+        // Then
+        assertEquals("John Doe", value);
+        assertEquals("John Doe", store.getCache("customers").get(1L, String.class));
+        verify(cacheTagIndex).tag("customers", Map.of(1L, "John Doe"));
+    }
+
+    /** Should not cache a value invalidated while it was loaded through the coalescing layer. */
+    @Test
+    @DisplayName("Should not cache a value invalidated while it was loaded through the coalescing layer")
+    void shouldNotCacheCoalescedLoadInvalidatedWhileLoading() {
+        // Given
+        when(cacheTagIndex.generation()).thenReturn(7L);
+        when(cacheTagIndex.invalidatedSince(7L, "customers", Map.of(1L, "John Doe"))).thenReturn(Set.of(1L));
+
+        // When
+        String value = cacheManager.getCache("customers").get(1L, () -> "John Doe");
+
+        // Then
+        assertEquals("John Doe", value);
+        assertNull(store.getCache("customers").get(1L));
+        verify(cacheTagIndex, never()).tag(any(), any());
+    }
+
+    /** Should not cache a page invalidated while it was loaded through the stale-while-revalidate layer. */
+    @Test
+    @DisplayName("Should not cache a page invalidated while it was loaded through the stale-while-revalidate layer")
+    void shouldNotCacheStaleWhileRevalidateLoadInvalidatedWhileLoading() {
+        // Given
+        when(cacheTagIndex.generation()).thenReturn(7L);
+        when(cacheTagIndex.invalidatedSince(eq(7L), eq("pagedProducts"), any())).thenReturn(Set.of(PAGE_KEY));
+        Cache cache = cacheManager.getCache("pagedProducts");
+
+        // When
+        String value = cache.get(PAGE_KEY, () -> "page");
+
+        // Then
+        assertEquals("page", value);
+        assertNull(store.getCache("pagedProducts").get(PAGE_KEY));
+        verify(cacheTagIndex, never()).tag(any(), any());
+    }
+}
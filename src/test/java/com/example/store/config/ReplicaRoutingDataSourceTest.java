@@ -0,0 +1,160 @@
+package com.example.store.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/** The type Replica routing data source test. */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ReplicaRoutingDataSource Tests")
+class ReplicaRoutingDataSourceTest {
+
+    @Mock
+    private DataSource primary;
+
+    @Mock
+    private DataSource replica1;
+
+    @Mock
+    private DataSource replica2;
+
+    @Mock
+    private Connection primaryConnection;
+
+    @Mock
+    private Connection replica1Connection;
+
+    @Mock
+    private Connection replica2Connection;
+
+    private ReplicaRoutingDataSource dataSource;
+
+    /**
+     * Sets up.
+     *
+     * @throws SQLException the sql exception
+     */
+    @BeforeEach
+    void setUp() throws SQLException {
+        lenient().when(primary.getConnection()).thenReturn(primaryConnection);
+        lenient().when(replica1.getConnection()).thenReturn(replica1Connection);
+        lenient().when(replica2.getConnection()).thenReturn(replica2Connection);
+        lenient().when(replica1Connection.isValid(anyInt())).thenReturn(true);
+        lenient().when(replica2Connection.isValid(anyInt())).thenReturn(true);
+        dataSource = new ReplicaRoutingDataSource(primary, List.of(replica1, replica2), 0);
+    }
+
+    /** Tear down. */
+    @AfterEach
+    void tearDown() {
+        ReplicaRoutingContext.clear();
+    }
+
+    /**
+     * Should alternate between replicas.
+     *
+     * @throws SQLException the sql exception
+     */
+    @Test
+    @DisplayName("Should alternate between replicas")
+    void shouldAlternateBetweenReplicas() throws SQLException {
+        assertSame(replica1Connection, dataSource.getConnection());
+        assertSame(replica2Connection, dataSource.getConnection());
+        assertSame(replica1Connection, dataSource.getConnection());
+        verify(primary, never()).getConnection();
+    }
+
+    /**
+     * Should skip a failing replica until it passes a health check.
+     *
+     * @throws SQLException the sql exception
+     */
+    @Test
+    @DisplayName("Should skip a failing replica until it passes a health check")
+    void shouldSkipFailingReplicaUntilHealthy() throws SQLException {
+        // Given
+        when(replica1.getConnection()).thenThrow(new SQLException("connection refused"));
+
+        // When / Then
+        assertSame(replica2Connection, dataSource.getConnection());
+        assertSame(replica2Connection, dataSource.getConnection());
+        assertEquals(1, dataSource.getHealthyReplicaCount());
+        verify(replica1, times(1)).getConnection();
+
+        // When the replica recovers
+        doReturn(replica1Connection).when(replica1).getConnection();
+        dataSource.checkHealth();
+
+        // Then
+        assertEquals(2, dataSource.getHealthyReplicaCount());
+    }
+
+    /**
+     * Should fall back to the primary when no replica is usable.
+     *
+     * @throws SQLException the sql exception
+     */
+    @Test
+    @DisplayName("Should fall back to the primary when no replica is usable")
+    void shouldFallBackToPrimary() throws SQLException {
+        // Given
+        when(replica1Connection.isValid(anyInt())).thenReturn(false);
+        when(replica2.getConnection()).thenThrow(new SQLException("connection refused"));
+        dataSource.checkHealth();
+
+        // When / Then
+        assertEquals(0, dataSource.getHealthyReplicaCount());
+        assertSame(primaryConnection, dataSource.getConnection());
+    }
+
+    /**
+     * Should use the primary while the thread is pinned.
+     *
+     * @throws SQLException the sql exception
+     */
+    @Test
+    @DisplayName("Should use the primary while the thread is pinned")
+    void shouldUsePrimaryWhilePinned() throws SQLException {
+        // Given
+        ReplicaRoutingContext.pinToPrimary();
+
+        // When / Then
+        assertSame(primaryConnection, dataSource.getConnection());
+        verify(replica1, never()).getConnection();
+        verify(replica2, never()).getConnection();
+
+        ReplicaRoutingContext.clear();
+        assertSame(replica1Connection, dataSource.getConnection());
+    }
+
+    /**
+     * Should take connections for explicit credentials from the primary.
+     *
+     * @throws SQLException the sql exception
+     */
+    @Test
+    @DisplayName("Should take connections for explicit credentials from the primary")
+    void shouldUsePrimaryForExplicitCredentials() throws SQLException {
+        // Given
+        when(primary.getConnection("reporting", "secret")).thenReturn(primaryConnection);
+
+        // When / Then
+        assertSame(primaryConnection, dataSource.getConnection("reporting", "secret"));
+        verify(replica1, never()).getConnection();
+        verify(replica2, never()).getConnection();
+    }
+}
@@ -0,0 +1,156 @@
+package com.example.store.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The type Stale while revalidate cache test. */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("StaleWhileRevalidateCache Tests")
+class StaleWhileRevalidateCacheTest {
+
+    private static final String KEY = "0_20_id_asc";
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private MutableClock clock;
+    private ConcurrentMapCache target;
+    private StaleCachePolicy policy;
+    private StaleWhileRevalidateCache cache;
+    private MockHttpServletRequest request;
+
+    /** Sets up. */
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock();
+        target = new ConcurrentMapCache("pagedProducts", false);
+        policy = new StaleCachePolicy(
+                Set.of("pagedProducts"), Duration.ofMinutes(1), Duration.ofMinutes(30), transactionManager, 1);
+        cache = new StaleWhileRevalidateCache(target, Duration.ofMinutes(3), policy, null, clock);
+        request = new MockHttpServletRequest();
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+        cache.put(KEY, "old page");
+    }
+
+    /** Tears down. */
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+        policy.destroy();
+    }
+
+    /** Should serve a fresh entry without loading. */
+    @Test
+    @DisplayName("Should serve a fresh entry without loading")
+    void shouldServeFreshEntryWithoutLoading() {
+        // Given
+        clock.advance(Duration.ofMinutes(2));
+
+        // When
+        String value = cache.get(KEY, () -> fail("fresh entries must not be loaded"));
+
+        // Then
+        assertEquals("old page", value);
+        assertNull(request.getAttribute(StaleWhileRevalidateCache.STALE_ATTRIBUTE));
+    }
+
+    /**
+     * Should serve a stale entry at once and refresh it in the background.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    @DisplayName("Should serve a stale entry at once and refresh it in the background")
+    void shouldServeStaleEntryAndRefreshInBackground() throws Exception {
+        // Given
+        clock.advance(Duration.ofMinutes(3).plusSeconds(30));
+
+        // When
+        String value = cache.get(KEY, () -> "new page");
+
+        // Then
+        assertEquals("old page", value);
+        assertEquals(Boolean.TRUE, request.getAttribute(StaleWhileRevalidateCache.STALE_ATTRIBUTE));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!"new page".equals(cache.get(KEY, String.class)) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("new page", cache.get(KEY, String.class));
+    }
+
+    /** Should serve a stale entry when reloading it fails. */
+    @Test
+    @DisplayName("Should serve a stale entry when reloading it fails")
+    void shouldServeStaleEntryWhenReloadFails() {
+        // Given
+        clock.advance(Duration.ofMinutes(10));
+
+        // When
+        String value = cache.get(KEY, () -> {
+            throw new IllegalStateException("database down");
+        });
+
+        // Then
+        assertEquals("old page", value);
+        assertEquals(Boolean.TRUE, request.getAttribute(StaleWhileRevalidateCache.STALE_ATTRIBUTE));
+    }
+
+    /** Should fail once the entry is past its hard expiry. */
+    @Test
+    @DisplayName("Should fail once the entry is past its hard expiry")
+    void shouldFailPastHardExpiry() {
+        // Given
+        clock.advance(Duration.ofMinutes(40));
+
+        // When & Then
+        assertThrows(Cache.ValueRetrievalException.class, () -> cache.get(KEY, () -> {
+            throw new IllegalStateException("database down");
+        }));
+        assertNull(request.getAttribute(StaleWhileRevalidateCache.STALE_ATTRIBUTE));
+    }
+
+    /** Settable clock. */
+    private static final class MutableClock extends Clock {
+        private volatile Instant now = Instant.parse("2025-01-01T00:00:00Z");
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
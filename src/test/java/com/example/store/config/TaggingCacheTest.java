@@ -0,0 +1,70 @@
+package com.example.store.config;
+
+import com.example.store.service.CacheTagIndex;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/** The type Tagging cache test. */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TaggingCache Tests")
+class TaggingCacheTest {
+
+    @Mock
+    private CacheTagIndex tagIndex;
+
+    private ConcurrentMapCache target;
+    private TaggingCache cache;
+
+    /** Sets up. */
+    @BeforeEach
+    void setUp() {
+        target = new ConcurrentMapCache("customers", false);
+        cache = new TaggingCache(target, tagIndex);
+    }
+
+    /** Should cache and tag a loaded value. */
+    @Test
+    @DisplayName("Should cache and tag a loaded value")
+    void shouldCacheAndTagLoadedValue() {
+        // Given
+        when(tagIndex.generation()).thenReturn(7L);
+        when(tagIndex.invalidatedSince(7L, "customers", Map.of(1L, "John Doe"))).thenReturn(Set.of());
+
+        // When
+        String value = cache.get(1L, () -> "John Doe");
+
+        // Then
+        assertEquals("John Doe", value);
+        assertEquals("John Doe", target.get(1L, String.class));
+        verify(tagIndex).tag("customers", Map.of(1L, "John Doe"));
+    }
+
+    /** Should not cache a value whose tags were invalidated while it was loaded. */
+    @Test
+    @DisplayName("Should not cache a value whose tags were invalidated while it was loaded")
+    void shouldNotCacheValueInvalidatedWhileLoading() {
+        // Given
+        when(tagIndex.generation()).thenReturn(7L);
+        when(tagIndex.invalidatedSince(7L, "customers", Map.of(1L, "John Doe"))).thenReturn(Set.of(1L));
+
+        // When
+        String value = cache.get(1L, () -> "John Doe");
+
+        // Then
+        assertEquals("John Doe", value);
+        assertNull(target.get(1L));
+        verify(tagIndex, never()).tag(any(), any());
+    }
+}
@@ -0,0 +1,120 @@
+package com.example.store.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/** The type Two tier cache manager test. */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("TwoTierCacheManager Tests")
+class TwoTierCacheManagerTest {
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private ConcurrentMapCacheManager remote;
+    private TwoTierCacheManager cacheManager;
+
+    /** Sets up. */
+    @BeforeEach
+    void setUp() {
+        remote = new ConcurrentMapCacheManager("customers");
+        cacheManager = new TwoTierCacheManager(remote, redisTemplate, 100, Duration.ofMinutes(1), name -> null);
+        cacheManager.afterPropertiesSet();
+    }
+
+    /** Should serve repeated reads from the local tier. */
+    @Test
+    @DisplayName("Should serve repeated reads from the local tier")
+    void shouldServeRepeatedReadsLocally() {
+        // Given
+        remote.getCache("customers").put(1L, "John Doe");
+        Cache cache = cacheManager.getCache("customers");
+
+        // When
+        assertEquals("John Doe", cache.get(1L, String.class));
+        remote.getCache("customers").put(1L, "changed behind the cache's back");
+
+        // Then
+        assertEquals("John Doe", cache.get(1L, String.class));
+        assertEquals("John Doe", cacheManager.getTwoTierCache("customers").getLocal(1L));
+    }
+
+    /** Should evict both tiers and announce the eviction. */
+    @Test
+    @DisplayName("Should evict both tiers and announce the eviction")
+    void shouldEvictBothTiersAndAnnounce() {
+        // Given
+        Cache cache = cacheManager.getCache("customers");
+        cache.put(1L, "John Doe");
+        clearInvocations(redisTemplate);
+
+        // When
+        cache.evict(1L);
+
+        // Then
+        assertNull(remote.getCache("customers").get(1L));
+        assertNull(cacheManager.getTwoTierCache("customers").getLocal(1L));
+        verify(redisTemplate).convertAndSend(eq(TwoTierCacheManager.INVALIDATION_CHANNEL), endsWith("\ncustomers\n1"));
+    }
+
+    /** Should announce writes, so that other instances drop their old copies. */
+    @Test
+    @DisplayName("Should announce writes")
+    void shouldAnnounceWrites() {
+        // Given
+        Cache cache = cacheManager.getCache("customers");
+
+        // When
+        cache.put(1L, "John Doe");
+
+        // Then
+        assertEquals("John Doe", remote.getCache("customers").get(1L, String.class));
+        assertEquals("John Doe", cacheManager.getTwoTierCache("customers").getLocal(1L));
+        verify(redisTemplate).convertAndSend(eq(TwoTierCacheManager.INVALIDATION_CHANNEL), endsWith("\ncustomers\n1"));
+    }
+
+    /** Should drop local entries on invalidations from other instances only. */
+    @Test
+    @DisplayName("Should drop local entries on invalidations from other instances only")
+    void shouldDropLocalEntriesOnRemoteInvalidation() {
+        // Given
+        Cache cache = cacheManager.getCache("customers");
+        cache.put(1L, "John Doe");
+        cache.put(2L, "Jane Doe");
+        TwoTierCache twoTierCache = cacheManager.getTwoTierCache("customers");
+
+        // When
+        cacheManager.onMessage(message("other-node\ncustomers\n1"), null);
+
+        // Then
+        assertNull(twoTierCache.getLocal(1L));
+        assertEquals("Jane Doe", twoTierCache.getLocal(2L));
+
+        // When
+        cacheManager.onMessage(message("other-node\ncustomers\n*"), null);
+
+        // Then
+        assertNull(twoTierCache.getLocal(2L));
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(
+                TwoTierCacheManager.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.store.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The type Two tier cache test. */
+@DisplayName("TwoTierCache Tests")
+class TwoTierCacheTest {
+
+    private static final Duration LOCAL_TTL = Duration.ofMinutes(1);
+
+    private ConcurrentMapCache remote;
+    private com.github.benmanes.caffeine.cache.Cache<String, Object> local;
+    private Map<Object, Duration> remoteTtls;
+    private List<String> published;
+    private TwoTierCache cache;
+
+    /** Sets up. */
+    @BeforeEach
+    void setUp() {
+        remote = new ConcurrentMapCache("customers", false);
+        local = Caffeine.newBuilder().expireAfter(TwoTierCache.localExpiry(LOCAL_TTL)).build();
+        remoteTtls = new HashMap<>();
+        published = new ArrayList<>();
+        cache = new TwoTierCache("customers", remote, local, LOCAL_TTL, remoteTtls::get, (name, key) -> {
+            published.add(name + "::" + key);
+        });
+    }
+
+    /** Should keep an entry filled from Redis no longer than the Redis key has left. */
+    @Test
+    @DisplayName("Should cap the local TTL of an entry filled from Redis at its remaining Redis TTL")
+    void shouldCapLocalTtlAtRemainingRemoteTtl() {
+        // Given
+        remote.put(1L, "John Doe");
+        remoteTtls.put(1L, Duration.ofSeconds(10));
+
+        // When
+        cache.get(1L);
+
+        // Then
+        Duration expiresAfter = local.policy().expireVariably().orElseThrow().getExpiresAfter("1").orElseThrow();
+        assertTrue(expiresAfter.compareTo(Duration.ofSeconds(10)) <= 0);
+    }
+
+    /** Should keep the local TTL for entries whose Redis key lives longer. */
+    @Test
+    @DisplayName("Should keep the local TTL for entries whose Redis key lives longer")
+    void shouldKeepLocalTtlWhenRemoteLivesLonger() {
+        // Given
+        remote.put(1L, "John Doe");
+        remoteTtls.put(1L, Duration.ofMinutes(10));
+
+        // When
+        cache.get(1L);
+
+        // Then
+        Duration expiresAfter = local.policy().expireVariably().orElseThrow().getExpiresAfter("1").orElseThrow();
+        assertTrue(expiresAfter.compareTo(Duration.ofSeconds(50)) > 0);
+        assertTrue(expiresAfter.compareTo(LOCAL_TTL) <= 0);
+    }
+
+    /** Should not fill the local tier from a Redis key that has just expired. */
+    @Test
+    @DisplayName("Should not fill the local tier from a Redis key that has just expired")
+    void shouldNotFillFromExpiredRemoteKey() {
+        // Given
+        remote.put(1L, "John Doe");
+        remoteTtls.put(1L, Duration.ZERO);
+
+        // When
+        Object value = cache.get(1L).get();
+
+        // Then
+        assertEquals("John Doe", value);
+        assertNull(cache.getLocal(1L));
+    }
+
+    /** Should fill the local tier with an entry written to Redis by other means and announce it. */
+    @Test
+    @DisplayName("Should fill the local tier with an entry written to Redis by other means and announce it")
+    void shouldAnnounceEntryWrittenRemotely() {
+        // Given
+        remote.put(1L, "John Doe");
+
+        // When
+        cache.putWrittenRemotely(1L, "John Doe");
+
+        // Then
+        assertEquals("John Doe", cache.getLocal(1L));
+        assertEquals(List.of("customers::1"), published);
+    }
+}
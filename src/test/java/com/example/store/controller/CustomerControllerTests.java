@@ -1,8 +1,15 @@
 package com.example.store.controller;
 
+import com.example.store.dto.CountMode;
 import com.example.store.dto.CustomerDTO;
+import com.example.store.dto.CustomerOrderDTO;
+import com.example.store.dto.ExportFormat;
+import com.example.store.dto.Include;
+import com.example.store.dto.PagedResponse;
+import com.example.store.dto.Projection;
 import com.example.store.entity.Customer;
 import com.example.store.mapper.CustomerMapper;
+import com.example.store.service.ExportService;
 import com.example.store.service.CustomerService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -11,9 +18,15 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
 
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -33,6 +46,9 @@ class CustomerControllerTests {
     @MockitoBean
     private CustomerService customerService;
 
+    @MockitoBean
+    private ExportService exportService;
+
     private Customer customer;
     private CustomerDTO customerDTO;
 
@@ -71,11 +87,63 @@ class CustomerControllerTests {
      */
     @Test
     void testGetCustomerById() throws Exception {
-        when(customerService.getCustomerById(1L)).thenReturn(customerDTO);
+        when(customerService.getCustomerById(1L, Projection.FULL)).thenReturn(customerDTO);
 
         mockMvc.perform(get("/customer/{id}", 1L))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.name").value("John Doe"));
     }
+
+    /**
+     * Test get customers paged lists customers without orders unless they are included.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testGetCustomersPagedIncludesOrdersOnRequest() throws Exception {
+        when(customerService.getAllCustomers(0, 20, "id", "asc", CountMode.EXACT, Include.none()))
+                .thenReturn(PagedResponse.of(new PageImpl<>(List.of(customerDTO)), "id", "asc"));
+        CustomerDTO withOrders = new CustomerDTO();
+        withOrders.setId(1L);
+        withOrders.setName("John Doe");
+        withOrders.setOrders(List.of(new CustomerOrderDTO()));
+        when(customerService.getAllCustomers(0, 20, "id", "asc", CountMode.EXACT, Include.of(Include.ORDERS, 5)))
+                .thenReturn(PagedResponse.of(new PageImpl<>(List.of(withOrders)), "id", "asc"));
+
+        mockMvc.perform(get("/customer/all"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].name").value("John Doe"))
+                .andExpect(jsonPath("$.content[0].orders").doesNotExist());
+        mockMvc.perform(get("/customer/all").param("include", "orders").param("includeLimit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].orders.length()").value(1))
+                .andExpect(jsonPath("$.content[0].ordersTruncated").value(false));
+    }
+
+    /**
+     * Test export streams the rows written by the export service.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testExportCustomersAsCsv() throws Exception {
+        String csv = "id,name\r\n1,John Doe\r\n";
+        doAnswer(invocation -> {
+                    invocation.getArgument(1, OutputStream.class).write(csv.getBytes(StandardCharsets.UTF_8));
+                    return null;
+                })
+                .when(exportService)
+                .exportCustomers(eq(ExportFormat.CSV), any(OutputStream.class));
+
+        MvcResult result = mockMvc.perform(get("/customer/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("text/csv;charset=UTF-8"))
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"customers.csv\""))
+                .andExpect(content().string(csv));
+    }
 }
@@ -0,0 +1,126 @@
+package com.example.store.controller;
+
+import com.example.store.dto.CustomerDTO;
+import com.example.store.dto.CustomerOrderDTO;
+import com.example.store.dto.FieldSet;
+import com.example.store.dto.OrderCustomerDTO;
+import com.example.store.dto.OrderDTO;
+import com.example.store.dto.PagedResponse;
+import com.example.store.dto.ProductDTO;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The type ETags test. */
+@DisplayName("ETags Tests")
+class ETagsTest {
+
+    /** Should be weak, quoted and stable for equal versions. */
+    @Test
+    @DisplayName("Should be weak, quoted and stable for equal versions")
+    void shouldBeStableForEqualVersions() {
+        String etag = ETags.of(product(1L, 0L, List.of(1L, 2L)));
+
+        assertTrue(etag.startsWith("W/\"") && etag.endsWith("\""));
+        assertEquals(etag, ETags.of(product(1L, 0L, List.of(1L, 2L))));
+        assertNotEquals(etag, ETags.of(product(1L, 1L, List.of(1L, 2L))));
+        assertNotEquals(etag, ETags.of(product(1L, 0L, List.of(1L, 2L, 3L))));
+        assertNotEquals(etag, ETags.of(product(2L, 0L, List.of(1L, 2L))));
+    }
+
+    /** Should change the order tag when a nested product or the customer changes. */
+    @Test
+    @DisplayName("Should change the order tag when a nested product or the customer changes")
+    void shouldChangeOrderTagWithNestedEntities() {
+        OrderDTO order = order(product(5L, 0L, null));
+        String etag = ETags.of(order);
+
+        order.getProducts().get(0).setVersion(1L);
+        String afterProductUpdate = ETags.of(order);
+        order.getCustomer().setVersion(1L);
+
+        assertNotEquals(etag, afterProductUpdate);
+        assertNotEquals(afterProductUpdate, ETags.of(order));
+    }
+
+    /** Should change the customer tag when an order is added. */
+    @Test
+    @DisplayName("Should change the customer tag when an order is added")
+    void shouldChangeCustomerTagWhenOrderAdded() {
+        CustomerDTO customer = new CustomerDTO();
+        customer.setId(1L);
+        customer.setVersion(0L);
+        customer.setOrders(new ArrayList<>(List.of(customerOrder(10L))));
+        String etag = ETags.of(customer);
+
+        customer.getOrders().add(customerOrder(11L));
+
+        assertNotEquals(etag, ETags.of(customer));
+    }
+
+    /** Should change the page tag when the total or an element changes. */
+    @Test
+    @DisplayName("Should change the page tag when the total or an element changes")
+    void shouldChangePageTagWithTotalOrElements() {
+        ProductDTO product = product(1L, 0L, List.of());
+        PagedResponse<ProductDTO> page =
+                new PagedResponse<>(List.of(product), 0, 1, 2, 2, true, true, false, true, false, "id", "asc", null);
+        String etag = ETags.ofPage(page, ETags::hash);
+
+        page.setTotalElements(3);
+        String afterInsert = ETags.ofPage(page, ETags::hash);
+        product.setVersion(1L);
+
+        assertNotEquals(etag, afterInsert);
+        assertNotEquals(afterInsert, ETags.ofPage(page, ETags::hash));
+    }
+
+    /** Should keep the tag for all fields and tell different field sets apart. */
+    @Test
+    @DisplayName("Should keep the tag for all fields and tell different field sets apart")
+    void shouldTagFieldSets() {
+        String etag = ETags.of(product(1L, 0L, List.of()));
+
+        String description = ETags.withFields(etag, FieldSet.fromParam(FieldSet.Resource.PRODUCT, "description"));
+
+        assertEquals(etag, ETags.withFields(etag, FieldSet.fromParam(FieldSet.Resource.PRODUCT, null)));
+        assertTrue(description.startsWith("W/\"") && description.endsWith("\""));
+        assertNotEquals(etag, description);
+        assertEquals(
+                description, ETags.withFields(etag, FieldSet.fromParam(FieldSet.Resource.PRODUCT, "description,id")));
+        assertNotEquals(description, ETags.withFields(etag, FieldSet.fromParam(FieldSet.Resource.PRODUCT, "version")));
+    }
+
+    private static ProductDTO product(Long id, Long version, List<Long> orderIds) {
+        ProductDTO product = new ProductDTO();
+        product.setId(id);
+        product.setVersion(version);
+        product.setDescription("Laptop Computer");
+        product.setOrderIds(orderIds);
+        return product;
+    }
+
+    private static OrderDTO order(ProductDTO product) {
+        OrderCustomerDTO customer = new OrderCustomerDTO();
+        customer.setId(1L);
+        customer.setVersion(0L);
+        OrderDTO order = new OrderDTO();
+        order.setId(7L);
+        order.setVersion(0L);
+        order.setCustomer(customer);
+        order.setProducts(List.of(product));
+        return order;
+    }
+
+    private static CustomerOrderDTO customerOrder(Long id) {
+        CustomerOrderDTO order = new CustomerOrderDTO();
+        order.setId(id);
+        order.setVersion(0L);
+        return order;
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.store.controller;
+
+import com.example.store.dto.ExportFormat;
+import com.example.store.dto.IngestReport;
+import com.example.store.dto.IngestTarget;
+import com.example.store.service.IngestService;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.InputStream;
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/** The type Ingest controller tests. */
+@WebMvcTest(IngestController.class)
+class IngestControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockitoBean
+    private IngestService ingestService;
+
+    /**
+     * Test ingest passes the request body to the service.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testIngestCustomers() throws Exception {
+        IngestReport report = new IngestReport();
+        report.setTarget("customers");
+        report.setRowsInserted(2);
+        report.setErrors(List.of());
+        when(ingestService.ingest(eq(IngestTarget.CUSTOMERS), eq(ExportFormat.CSV), any(InputStream.class)))
+                .thenReturn(report);
+
+        mockMvc.perform(post("/ingest/customers")
+                        .param("format", "csv")
+                        .contentType(MediaType.TEXT_PLAIN)
+                        .content("name\nJohn Doe\nJane Smith\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.target").value("customers"))
+                .andExpect(jsonPath("$.rowsInserted").value(2));
+    }
+
+    /**
+     * Test ingest rejects an unknown target.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testIngestRejectsUnknownTarget() throws Exception {
+        mockMvc.perform(post("/ingest/invoices").content("{}")).andExpect(status().isBadRequest());
+        verifyNoInteractions(ingestService);
+    }
+}
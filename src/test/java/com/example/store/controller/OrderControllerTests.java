@@ -1,23 +1,40 @@
 package com.example.store.controller;
 
+import com.example.store.dto.BatchResponse;
+import com.example.store.dto.BulkOrderResponse;
+import com.example.store.dto.BulkOrderResult;
+import com.example.store.dto.CountMode;
 import com.example.store.dto.CreateOrderRequest;
+import com.example.store.dto.OrderCustomerDTO;
 import com.example.store.dto.OrderDTO;
+import com.example.store.dto.PagedResponse;
+import com.example.store.dto.Projection;
 import com.example.store.entity.Customer;
 import com.example.store.mapper.CustomerMapper;
+import com.example.store.service.ExportService;
 import com.example.store.service.OrderService;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.List;
+import java.util.Map;
 
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -36,6 +53,9 @@ class OrderControllerTests {
     @MockitoBean
     private OrderService orderService;
 
+    @MockitoBean
+    private ExportService exportService;
+
     private CreateOrderRequest createOrderRequest;
     private Customer customer;
     private OrderDTO orderDTO;
@@ -73,4 +93,108 @@ class OrderControllerTests {
                 .andExpect(status().isCreated())
                 .andExpect(jsonPath("$.description").value("Test Order"));
     }
+
+    /**
+     * Test bulk create order.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testCreateOrdersInBulk() throws Exception {
+        List<CreateOrderRequest> requests = List.of(createOrderRequest, new CreateOrderRequest());
+        BulkOrderResponse response = new BulkOrderResponse();
+        response.setCreated(1);
+        response.setFailed(1);
+        response.setResults(
+                List.of(BulkOrderResult.created(0, 5L), BulkOrderResult.failed(1, "Customer ID is required")));
+        when(orderService.createOrders(requests)).thenReturn(response);
+
+        mockMvc.perform(post("/order/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(requests)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.results[0].id").value(5))
+                .andExpect(jsonPath("$.results[1].status").value("FAILED"));
+    }
+
+    /**
+     * Test get orders by ids.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testGetOrdersByIds() throws Exception {
+        when(orderService.getOrdersByIds(List.of(1L, 9L), Projection.FULL))
+                .thenReturn(BatchResponse.of(List.of(1L, 9L), Map.of(1L, orderDTO)));
+
+        mockMvc.perform(get("/order/batch").param("ids", "1,9"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.found").value(1))
+                .andExpect(jsonPath("$.items[0].status").value("FOUND"))
+                .andExpect(jsonPath("$.items[0].data.description").value("Test Order"))
+                .andExpect(jsonPath("$.items[1].id").value(9))
+                .andExpect(jsonPath("$.items[1].status").value("NOT_FOUND"));
+    }
+
+    /**
+     * Test get orders by ids keeps the requested association and drops the other one.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testGetOrdersByIdsWithFields() throws Exception {
+        OrderCustomerDTO orderCustomer = new OrderCustomerDTO();
+        orderCustomer.setId(1L);
+        orderCustomer.setName("John Doe");
+        orderDTO.setCustomer(orderCustomer);
+        orderDTO.setProducts(List.of());
+        when(orderService.getOrdersByIds(List.of(1L), Projection.FULL))
+                .thenReturn(BatchResponse.of(List.of(1L), Map.of(1L, orderDTO)));
+
+        mockMvc.perform(get("/order/batch").param("ids", "1").param("fields", "customer"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.found").value(1))
+                .andExpect(jsonPath("$.items[0].data.id").value(1))
+                .andExpect(jsonPath("$.items[0].data.customer.name").value("John Doe"))
+                .andExpect(jsonPath("$.items[0].data.description").doesNotExist())
+                .andExpect(jsonPath("$.items[0].data.products").doesNotExist());
+    }
+
+    /**
+     * Test get orders paged answers in Smile when asked and keeps JSON as the default.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testGetOrdersPagedNegotiatesSmile() throws Exception {
+        when(orderService.getAllOrders(0, 20, "id", "asc", CountMode.EXACT, Projection.SUMMARY))
+                .thenReturn(PagedResponse.of(new PageImpl<>(List.of(orderDTO)), "id", "asc"));
+        MediaType smile = MediaType.parseMediaType("application/x-jackson-smile");
+
+        MvcResult result = mockMvc.perform(get("/order").param("fields", "id,description").accept(smile))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(smile))
+                .andExpect(header().string("Vary", containsString("Accept")))
+                .andReturn();
+        JsonNode page = new ObjectMapper(new SmileFactory()).readTree(result.getResponse().getContentAsByteArray());
+        assertEquals("Test Order", page.at("/content/0/description").asText());
+        assertTrue(page.at("/content/0/customer").isMissingNode());
+
+        mockMvc.perform(get("/order").param("fields", "id,description"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.content[0].description").value("Test Order"));
+    }
+
+    /**
+     * Test export rejects an unknown format.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testExportOrdersRejectsUnknownFormat() throws Exception {
+        mockMvc.perform(get("/order/export").param("format", "xml")).andExpect(status().isBadRequest());
+        verifyNoInteractions(exportService);
+    }
 }
@@ -1,8 +1,13 @@
 package com.example.store.controller;
 
+import com.example.store.dto.CountMode;
 import com.example.store.dto.CreateProductRequest;
+import com.example.store.dto.Include;
+import com.example.store.dto.PagedResponse;
 import com.example.store.dto.ProductDTO;
+import com.example.store.dto.Projection;
 import com.example.store.mapper.ProductMapper;
+import com.example.store.service.ExportService;
 import com.example.store.service.ProductService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -11,12 +16,15 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.ComponentScan;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
 
 import java.util.List;
 
+import static org.hamcrest.Matchers.not;
+import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -35,6 +43,9 @@ class ProductControllerTests {
     @MockitoBean
     private ProductService productService;
 
+    @MockitoBean
+    private ExportService exportService;
+
     private CreateProductRequest product;
     private ProductDTO productDTO;
 
@@ -73,11 +84,182 @@ class ProductControllerTests {
      */
     @Test
     void testGetProductById() throws Exception {
-        when(productService.getProductById(1L)).thenReturn(productDTO);
+        when(productService.getProductById(1L, Projection.FULL)).thenReturn(productDTO);
 
         mockMvc.perform(get("/products/{id}", 1L))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.id").value(1))
                 .andExpect(jsonPath("$.description").value("Laptop Computer"));
     }
+
+    /**
+     * Test get product by id answers a matching If-None-Match with 304.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testGetProductByIdNotModified() throws Exception {
+        productDTO.setVersion(3L);
+        when(productService.getProductById(1L, Projection.FULL)).thenReturn(productDTO);
+        String etag = ETags.of(productDTO);
+
+        mockMvc.perform(get("/products/{id}", 1L))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag));
+        mockMvc.perform(get("/products/{id}", 1L).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        productDTO.setVersion(4L);
+        mockMvc.perform(get("/products/{id}", 1L).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(4));
+    }
+
+    /**
+     * Test get products paged answers a matching If-None-Match with 304.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testGetProductsPagedNotModified() throws Exception {
+        PagedResponse<ProductDTO> page = PagedResponse.of(new PageImpl<>(List.of(productDTO)), "id", "asc");
+        when(productService.getAllProducts(0, 20, "id", "asc", CountMode.EXACT, Include.of(Include.ORDER_IDS, null)))
+                .thenReturn(page);
+        String etag = ETags.ofPage(page, ETags::hash);
+
+        mockMvc.perform(get("/products").param("include", "orderIds").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        productDTO.setOrderIds(List.of(1L, 2L, 3L));
+        mockMvc.perform(get("/products").param("include", "orderIds").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", ETags.ofPage(page, ETags::hash)));
+    }
+
+    /**
+     * Test get product by id writes only the requested fields from a summary.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testGetProductByIdWithFields() throws Exception {
+        productDTO.setVersion(3L);
+        when(productService.getProductById(1L, Projection.SUMMARY)).thenReturn(productDTO);
+
+        mockMvc.perform(get("/products/{id}", 1L).param("fields", "description"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.description").value("Laptop Computer"))
+                .andExpect(jsonPath("$.version").doesNotExist())
+                .andExpect(jsonPath("$.orderIds").doesNotExist())
+                .andExpect(header().string("ETag", not(ETags.of(productDTO))));
+        verify(productService, never()).getProductById(1L, Projection.FULL);
+    }
+
+    /**
+     * Test get products paged loads the full projection when an association is requested.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testGetProductsPagedWithAssociationField() throws Exception {
+        PagedResponse<ProductDTO> page = PagedResponse.of(new PageImpl<>(List.of(productDTO)), "id", "asc");
+        when(productService.getAllProducts(0, 20, "id", "asc", CountMode.EXACT, Include.of(Include.ORDER_IDS, null)))
+                .thenReturn(page);
+
+        mockMvc.perform(get("/products").param("fields", "orderIds"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.content[0].orderIds[1]").value(2))
+                .andExpect(jsonPath("$.content[0].description").doesNotExist())
+                .andExpect(jsonPath("$.totalElements").value(1));
+    }
+
+    /**
+     * Test get products paged lists lightweight rows unless order ids are included.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testGetProductsPagedWithoutIncludeListsLightweightRows() throws Exception {
+        productDTO.setOrderIds(null);
+        when(productService.getAllProducts(0, 20, "id", "asc", CountMode.EXACT, Include.none()))
+                .thenReturn(PagedResponse.of(new PageImpl<>(List.of(productDTO)), "id", "asc"));
+
+        mockMvc.perform(get("/products"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].description").value("Laptop Computer"))
+                .andExpect(jsonPath("$.content[0].orderIds").doesNotExist())
+                .andExpect(jsonPath("$.content[0].orderIdsTruncated").doesNotExist());
+    }
+
+    /**
+     * Test get products paged passes the requested relations and limit.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testGetProductsPagedWithIncludeLimit() throws Exception {
+        when(productService.getAllProducts(0, 20, "id", "asc", CountMode.EXACT, Include.of(Include.ORDER_IDS, 1)))
+                .thenReturn(PagedResponse.of(new PageImpl<>(List.of(productDTO)), "id", "asc"));
+
+        mockMvc.perform(get("/products").param("include", "orderIds").param("includeLimit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].orderIds[0]").value(1))
+                .andExpect(jsonPath("$.content[0].orderIdsTruncated").value(false));
+    }
+
+    /**
+     * Test get products paged rejects a relation products cannot include.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testGetProductsPagedRejectsUnknownInclude() throws Exception {
+        mockMvc.perform(get("/products").param("include", "orders")).andExpect(status().isBadRequest());
+        mockMvc.perform(get("/products").param("include", "orderIds").param("includeLimit", "0"))
+                .andExpect(status().isBadRequest());
+        verifyNoInteractions(productService);
+    }
+
+    /**
+     * Test get product by id rejects an unknown field.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testGetProductByIdRejectsUnknownField() throws Exception {
+        mockMvc.perform(get("/products/{id}", 1L).param("fields", "id,price")).andExpect(status().isBadRequest());
+        verifyNoInteractions(productService);
+    }
+
+    /**
+     * Test full-text search mode.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testSearchProductsFullText() throws Exception {
+        when(productService.searchProductsByFullText("laptop", 0, 20, CountMode.EXACT, Include.none()))
+                .thenReturn(PagedResponse.of(new PageImpl<>(List.of(productDTO)), "relevance", "desc"));
+
+        mockMvc.perform(get("/products/search").param("q", "laptop").param("mode", "fulltext"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.sortBy").value("relevance"));
+        verify(productService, never())
+                .searchProductsByDescription(anyString(), anyInt(), anyInt(), anyString(), anyString(), any(), any());
+    }
+
+    /**
+     * Test search rejects an unknown mode.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    void testSearchProductsRejectsUnknownMode() throws Exception {
+        mockMvc.perform(get("/products/search").param("q", "laptop").param("mode", "fuzzy"))
+                .andExpect(status().isBadRequest());
+    }
 }
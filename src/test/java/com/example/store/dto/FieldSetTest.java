@@ -0,0 +1,103 @@
+package com.example.store.dto;
+
+import com.example.store.exception.ValidationException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The type Field set test. */
+@DisplayName("FieldSet Tests")
+class FieldSetTest {
+
+    /** Should load the full projection when no fields or an association are requested. */
+    @Test
+    @DisplayName("Should load the full projection when no fields or an association are requested")
+    void shouldChooseProjection() {
+        // When
+        FieldSet all = FieldSet.fromParam(FieldSet.Resource.ORDER, null);
+        FieldSet summary = FieldSet.fromParam(FieldSet.Resource.ORDER, " description , ");
+        FieldSet withProducts = FieldSet.fromParam(FieldSet.Resource.ORDER, "description,products");
+
+        // Then
+        assertTrue(all.isAll());
+        assertEquals(Projection.FULL, all.getProjection());
+        assertEquals(Set.of("id", "description"), summary.getFields());
+        assertEquals(Projection.SUMMARY, summary.getProjection());
+        assertEquals(Projection.FULL, withProducts.getProjection());
+        assertEquals(
+                Projection.FULL,
+                FieldSet.fromParam(FieldSet.Resource.CUSTOMER, "ordersTruncated").getProjection());
+    }
+
+    /** Should drop the associations of a listing that did not load them. */
+    @Test
+    @DisplayName("Should drop the associations of a listing that did not load them")
+    void shouldDropAssociations() {
+        // When
+        FieldSet all = FieldSet.fromParam(FieldSet.Resource.PRODUCT, null).withoutAssociations();
+        FieldSet some = FieldSet.fromParam(FieldSet.Resource.CUSTOMER, "name").withoutAssociations();
+
+        // Then
+        assertEquals(Set.of("id", "version", "description"), all.getFields());
+        assertFalse(all.isAll());
+        assertEquals(Set.of("id", "name"), some.getFields());
+    }
+
+    /** Should reject a field the resource does not have. */
+    @Test
+    @DisplayName("Should reject a field the resource does not have")
+    void shouldRejectUnknownField() {
+        // When & Then
+        assertThrows(ValidationException.class, () -> FieldSet.fromParam(FieldSet.Resource.PRODUCT, "id,name"));
+    }
+
+    /**
+     * Should write only the requested fields of the resource and nested DTOs in full.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    @DisplayName("Should write only the requested fields of the resource and nested DTOs in full")
+    void shouldFilterOnlyTheRequestedResource() throws Exception {
+        // Given
+        ProductDTO product = new ProductDTO();
+        product.setId(5L);
+        product.setVersion(0L);
+        product.setDescription("Laptop Computer");
+        product.setOrderIds(List.of(7L));
+        OrderDTO order = new OrderDTO();
+        order.setId(7L);
+        order.setVersion(2L);
+        order.setDescription("Test Order");
+        order.setProducts(List.of(product));
+        ObjectMapper mapper = new ObjectMapper();
+
+        // When
+        String filtered = mapper.writer(
+                        FieldSet.fromParam(FieldSet.Resource.ORDER, "products").getFilters())
+                .writeValueAsString(order);
+        String all = mapper.writer(FieldSet.allFields()).writeValueAsString(order);
+
+        // Then
+        assertEquals(
+                "{\"id\":7,\"products\":[{\"id\":5,\"version\":0,\"description\":\"Laptop Computer\","
+                        + "\"orderIds\":[7]}]}",
+                filtered);
+        assertTrue(all.contains("\"description\":\"Test Order\""));
+    }
+
+    /** Should keep the plain cache key for the full projection only. */
+    @Test
+    @DisplayName("Should keep the plain cache key for the full projection only")
+    void shouldDeriveCacheKeys() {
+        // When & Then
+        assertEquals(5L, Projection.FULL.key(5L));
+        assertEquals("5_SUMMARY", Projection.SUMMARY.key(5L));
+    }
+}
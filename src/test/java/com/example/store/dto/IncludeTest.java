@@ -0,0 +1,75 @@
+package com.example.store.dto;
+
+import com.example.store.exception.ValidationException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The type Include test. */
+@DisplayName("Include Tests")
+class IncludeTest {
+
+    /** Should include nothing unless asked. */
+    @Test
+    @DisplayName("Should include nothing unless asked")
+    void shouldIncludeNothingByDefault() {
+        // When
+        Include include = Include.fromParam(FieldSet.fromParam(FieldSet.Resource.CUSTOMER, null), " ", null);
+
+        // Then
+        assertTrue(include.isEmpty());
+        assertFalse(include.has(Include.ORDERS));
+        assertEquals(Include.none(), include);
+    }
+
+    /** Should include a relation named in include or in fields. */
+    @Test
+    @DisplayName("Should include a relation named in include or in fields")
+    void shouldIncludeRequestedRelation() {
+        // When
+        Include byParam = Include.fromParam(FieldSet.fromParam(FieldSet.Resource.PRODUCT, null), "orderIds", 5);
+        Include byField =
+                Include.fromParam(FieldSet.fromParam(FieldSet.Resource.CUSTOMER, "name,ordersTruncated"), null, null);
+
+        // Then
+        assertEquals(Include.of(Include.ORDER_IDS, 5), byParam);
+        assertEquals(5, byParam.limit(100));
+        assertTrue(byField.has(Include.ORDERS));
+        assertEquals(100, byField.limit(100));
+    }
+
+    /** Should cap the requested limit at the configured maximum. */
+    @Test
+    @DisplayName("Should cap the requested limit at the configured maximum")
+    void shouldCapLimit() {
+        // When & Then
+        assertEquals(100, Include.of(Include.ORDERS, 500).limit(100));
+    }
+
+    /** Should reject relations the resource cannot include and non-positive limits. */
+    @Test
+    @DisplayName("Should reject relations the resource cannot include and non-positive limits")
+    void shouldRejectInvalidParameters() {
+        // Given
+        FieldSet products = FieldSet.fromParam(FieldSet.Resource.PRODUCT, null);
+
+        // When & Then
+        assertThrows(ValidationException.class, () -> Include.fromParam(products, "orders", null));
+        assertThrows(
+                ValidationException.class,
+                () -> Include.fromParam(FieldSet.fromParam(FieldSet.Resource.ORDER, null), "products", null));
+        assertThrows(ValidationException.class, () -> Include.fromParam(products, "orderIds", 0));
+    }
+
+    /** Should derive distinct cache keys per relation and limit. */
+    @Test
+    @DisplayName("Should derive distinct cache keys per relation and limit")
+    void shouldDeriveCacheKeys() {
+        // When & Then
+        assertEquals("0_SUMMARY", Include.none().key("0"));
+        assertEquals("0_orders_max", Include.of(Include.ORDERS, null).key("0"));
+        assertEquals("0_orders_5", Include.of(Include.ORDERS, 5).key("0"));
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.store.dto;
+
+import com.example.store.exception.ValidationException;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The type Page cursor test. */
+@DisplayName("PageCursor Tests")
+class PageCursorTest {
+
+    /** Should round trip cursor. */
+    @Test
+    @DisplayName("Should round trip cursor")
+    void shouldRoundTripCursor() {
+        // When
+        PageCursor cursor = PageCursor.decode(PageCursor.encode("name", "O'Connor | Sons", 42L), "name");
+
+        // Then
+        assertEquals("name", cursor.getSortBy());
+        assertEquals(42L, cursor.getId());
+        assertEquals("O'Connor | Sons", cursor.getSortValue());
+    }
+
+    /** Should reject cursor issued for another sort field. */
+    @Test
+    @DisplayName("Should reject cursor issued for another sort field")
+    void shouldRejectCursorIssuedForAnotherSortField() {
+        // Given
+        String cursor = PageCursor.encode("id", 42L, 42L);
+
+        // When & Then
+        assertThrows(ValidationException.class, () -> PageCursor.decode(cursor, "name"));
+    }
+
+    /** Should reject malformed cursor. */
+    @Test
+    @DisplayName("Should reject malformed cursor")
+    void shouldRejectMalformedCursor() {
+        // When & Then
+        assertThrows(ValidationException.class, () -> PageCursor.decode("not a cursor!", "id"));
+        assertThrows(ValidationException.class, () -> PageCursor.decode("aWQKeA", "id"));
+    }
+}
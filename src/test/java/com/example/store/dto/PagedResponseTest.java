@@ -7,6 +7,8 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 
 import java.util.Arrays;
 import java.util.List;
@@ -38,6 +40,7 @@ class PagedResponseTest {
         assertEquals(10, result.getSize());
         assertEquals(3, result.getTotalElements());
         assertEquals(1, result.getTotalPages());
+        assertTrue(result.isTotalExact());
         assertTrue(result.isFirst());
         assertTrue(result.isLast());
         assertFalse(result.isHasNext());
@@ -241,4 +244,64 @@ class PagedResponseTest {
         assertEquals(sortBy, result.getSortBy());
         assertEquals(sortOrder, result.getSortOrder());
     }
+
+    /** Should create keyset paged response without totals. */
+    @Test
+    @DisplayName("Should create keyset paged response without totals")
+    void shouldCreateKeysetPagedResponseWithoutTotals() {
+        // Given
+        List<String> content = Arrays.asList("item1", "item2");
+
+        // When
+        PagedResponse<String> result = PagedResponse.ofKeyset(content, 2, true, false, "cursor", "id", "asc");
+
+        // Then
+        assertEquals(content, result.getContent());
+        assertEquals(-1, result.getPage());
+        assertEquals(2, result.getSize());
+        assertEquals(-1, result.getTotalElements());
+        assertEquals(-1, result.getTotalPages());
+        assertTrue(result.isFirst());
+        assertFalse(result.isLast());
+        assertTrue(result.isHasNext());
+        assertFalse(result.isHasPrevious());
+        assertEquals("cursor", result.getNextCursor());
+    }
+
+    /** Should create slice paged response with approximate total. */
+    @Test
+    @DisplayName("Should create slice paged response with approximate total")
+    void shouldCreateSlicePagedResponseWithApproximateTotal() {
+        // Given
+        Slice<String> slice = new SliceImpl<>(Arrays.asList("item1", "item2"), PageRequest.of(1, 2), true);
+
+        // When
+        PagedResponse<String> result = PagedResponse.ofSlice(slice, 7L, "id", "asc");
+
+        // Then
+        assertEquals(1, result.getPage());
+        assertEquals(2, result.getSize());
+        assertEquals(7, result.getTotalElements());
+        assertEquals(4, result.getTotalPages());
+        assertFalse(result.isTotalExact());
+        assertTrue(result.isHasNext());
+        assertTrue(result.isHasPrevious());
+    }
+
+    /** Should create slice paged response without total. */
+    @Test
+    @DisplayName("Should create slice paged response without total")
+    void shouldCreateSlicePagedResponseWithoutTotal() {
+        // Given
+        Slice<String> slice = new SliceImpl<>(Arrays.asList("item1"), PageRequest.of(0, 2), false);
+
+        // When
+        PagedResponse<String> result = PagedResponse.ofSlice(slice, null, "id", "asc");
+
+        // Then
+        assertEquals(-1, result.getTotalElements());
+        assertEquals(-1, result.getTotalPages());
+        assertFalse(result.isTotalExact());
+        assertTrue(result.isLast());
+    }
 }
@@ -8,6 +8,8 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.List;
@@ -258,4 +260,50 @@ class CustomerRepositoryIntegrationTest {
         // Then
         assertEquals(3, count);
     }
+
+    /** Should seek customers by name and id. */
+    @Test
+    @DisplayName("Should seek customers by name and id")
+    void shouldSeekCustomersByNameAndId() {
+        // Given
+        PageRequest firstPage = PageRequest.of(0, 2, Sort.by(Sort.Direction.ASC, "name", "id"));
+
+        // When
+        List<Customer> first = customerRepository.seekFirst(firstPage);
+        Customer last = first.get(first.size() - 1);
+        List<Customer> next = customerRepository.seekAfterName(last.getName(), last.getId(), firstPage);
+
+        // Then
+        assertEquals(2, first.size());
+        assertEquals("Bob Johnson", first.get(0).getName());
+        assertEquals("Jane Smith", first.get(1).getName());
+        assertEquals(1, next.size());
+        assertEquals("John Doe", next.get(0).getName());
+    }
+
+    /** Should seek customers by id in descending order. */
+    @Test
+    @DisplayName("Should seek customers by id in descending order")
+    void shouldSeekCustomersByIdDescending() {
+        // When
+        List<Customer> next = customerRepository.seekBeforeId(
+                customer3.getId(), PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "id")));
+
+        // Then
+        assertEquals(2, next.size());
+        assertEquals(customer2.getId(), next.get(0).getId());
+        assertEquals(customer1.getId(), next.get(1).getId());
+    }
+
+    /** Should return only the ids of existing customers. */
+    @Test
+    @DisplayName("Should find existing customer ids")
+    void shouldFindExistingCustomerIds() {
+        // When
+        List<Long> ids = customerRepository.findExistingIds(List.of(customer1.getId(), customer3.getId(), -1L));
+
+        // Then
+        assertEquals(2, ids.size());
+        assertTrue(ids.containsAll(List.of(customer1.getId(), customer3.getId())));
+    }
 }
@@ -0,0 +1,153 @@
+package com.example.store.repository;
+
+import com.example.store.entity.Customer;
+import com.example.store.entity.Order;
+import com.example.store.entity.Product;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The type Order repository integration test. */
+@DataJpaTest
+@ActiveProfiles("test")
+@DisplayName("OrderRepository Integration Tests")
+class OrderRepositoryIntegrationTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    private Order order1;
+    private Order order2;
+
+    /** Sets up. */
+    @BeforeEach
+    void setUp() {
+        Customer customer = new Customer();
+        customer.setName("John Doe");
+        entityManager.persist(customer);
+
+        Product laptop = new Product();
+        laptop.setDescription("Laptop Computer");
+        entityManager.persist(laptop);
+
+        Product phone = new Product();
+        phone.setDescription("Smartphone Device");
+        entityManager.persist(phone);
+
+        order1 = new Order();
+        order1.setDescription("Order for laptop");
+        order1.setCustomer(customer);
+        order1.setProducts(Arrays.asList(laptop, phone));
+        entityManager.persist(order1);
+
+        order2 = new Order();
+        order2.setDescription("Order for phone");
+        order2.setCustomer(customer);
+        order2.setProducts(Arrays.asList(phone));
+        entityManager.persist(order2);
+
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    /** Should page over order ids in sort order. */
+    @Test
+    @DisplayName("Should page over order ids")
+    void shouldPageOverOrderIds() {
+        // When
+        Page<Long> ids = orderRepository.findPageOfIds(PageRequest.of(0, 1, Sort.by(Sort.Direction.DESC, "id")));
+
+        // Then
+        assertEquals(List.of(order2.getId()), ids.getContent());
+        assertEquals(2, ids.getTotalElements());
+    }
+
+    /** Should load orders with customer and products initialized. */
+    @Test
+    @DisplayName("Should load orders with customer and products initialized")
+    void shouldLoadOrdersWithCustomerAndProductsInitialized() {
+        // When
+        List<Order> orders =
+                orderRepository.findAllWithCustomerAndProductsByIdIn(List.of(order1.getId(), order2.getId()));
+
+        // Then
+        assertEquals(2, orders.size());
+        for (Order order : orders) {
+            assertTrue(Hibernate.isInitialized(order.getCustomer()));
+            assertTrue(Hibernate.isInitialized(order.getProducts()));
+        }
+        Order laptopOrder = orders.stream()
+                .filter(o -> o.getId().equals(order1.getId()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(2, laptopOrder.getProducts().size());
+        assertEquals("John Doe", laptopOrder.getCustomer().getName());
+    }
+
+    /** Should load a single order with its associations through the entity graph. */
+    @Test
+    @DisplayName("Should load single order with associations")
+    void shouldLoadSingleOrderWithAssociations() {
+        // When
+        Optional<Order> order = orderRepository.findWithCustomerAndProductsById(order2.getId());
+
+        // Then
+        assertTrue(order.isPresent());
+        assertTrue(Hibernate.isInitialized(order.get().getCustomer()));
+        assertTrue(Hibernate.isInitialized(order.get().getProducts()));
+        assertEquals(1, order.get().getProducts().size());
+    }
+
+    /** Should find capped order rows per customer. */
+    @Test
+    @DisplayName("Should find capped order rows per customer")
+    void shouldFindCappedOrderRowsPerCustomer() {
+        // When
+        List<CustomerOrderRow> rows = orderRepository.findCustomerOrderRows(List.of(order1.getCustomer().getId()), 1);
+
+        // Then
+        assertEquals(1, rows.size());
+        assertEquals(order1.getId(), rows.get(0).getId());
+        assertEquals(order1.getCustomer().getId(), rows.get(0).getCustomerId());
+        assertEquals(order1.getVersion(), rows.get(0).getVersion());
+        assertEquals("Order for laptop", rows.get(0).getDescription());
+    }
+
+    /** Should stream export rows with aggregated product ids. */
+    @Test
+    @DisplayName("Should stream export rows with aggregated product ids")
+    void shouldStreamExportRowsWithAggregatedProductIds() {
+        // When
+        List<OrderExportRow> rows;
+        try (Stream<OrderExportRow> stream = orderRepository.streamAllExportRows()) {
+            rows = stream.toList();
+        }
+
+        // Then
+        assertEquals(2, rows.size());
+        assertEquals(order1.getId(), rows.get(0).getId());
+        assertEquals("John Doe", rows.get(0).getCustomerName());
+        assertEquals(2, rows.get(0).getProductIds().split(",").length);
+        assertEquals(order2.getId(), rows.get(1).getId());
+        assertEquals(1, rows.get(1).getProductIds().split(",").length);
+    }
+}
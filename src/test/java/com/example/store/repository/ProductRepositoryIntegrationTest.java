@@ -9,9 +9,13 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.util.List;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -222,6 +226,28 @@ class ProductRepositoryIntegrationTest {
         assertEquals(0, whitespaceQueryProducts.size()); // Whitespace should return 0 products
     }
 
+    /** Should treat like wildcards in the query literally. */
+    @Test
+    @DisplayName("Should treat LIKE wildcards in the query literally")
+    void shouldTreatLikeWildcardsInQueryLiterally() {
+        // Given
+        Product discounted = new Product();
+        discounted.setDescription("Laptop_Bag 50% off");
+        entityManager.persistAndFlush(discounted);
+        entityManager.clear();
+
+        // When
+        List<Product> underscoreProducts = productRepository.findByDescriptionContainingIgnoreCase("_");
+        List<Product> percentProducts = productRepository.findByDescriptionContainingIgnoreCase("50%");
+        List<Product> wildcardProducts = productRepository.findByDescriptionContainingIgnoreCase("laptop%computer");
+
+        // Then
+        assertEquals(1, underscoreProducts.size());
+        assertEquals("Laptop_Bag 50% off", underscoreProducts.get(0).getDescription());
+        assertEquals(1, percentProducts.size());
+        assertTrue(wildcardProducts.isEmpty());
+    }
+
     /** Should find products with orders. */
     @Test
     @DisplayName("Should find products with orders")
@@ -263,6 +289,95 @@ class ProductRepositoryIntegrationTest {
         assertTrue(productsWithoutOrders.stream().anyMatch(p -> "Tablet Computer".equals(p.getDescription())));
     }
 
+    /** Should aggregate order ids into product views. */
+    @Test
+    @DisplayName("Should aggregate order ids into product views")
+    void shouldAggregateOrderIdsIntoProductViews() {
+        // Given
+        Order firstOrder = new Order();
+        firstOrder.setDescription("First Order");
+        firstOrder.getProducts().add(product1);
+        firstOrder.getProducts().add(product2);
+        entityManager.persist(firstOrder);
+
+        Order secondOrder = new Order();
+        secondOrder.setDescription("Second Order");
+        secondOrder.getProducts().add(product1);
+        entityManager.persist(secondOrder);
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<ProductView> views = productRepository.findAllViews();
+        Optional<ProductView> laptop = productRepository.findViewById(product1.getId());
+
+        // Then
+        assertEquals(3, views.size());
+        assertEquals(product1.getId(), views.get(0).getId());
+        assertEquals(firstOrder.getId() + "," + secondOrder.getId(), views.get(0).getOrderIds());
+        assertEquals(String.valueOf(firstOrder.getId()), views.get(1).getOrderIds());
+        assertNull(views.get(2).getOrderIds());
+        assertTrue(laptop.isPresent());
+        assertEquals("Laptop Computer", laptop.get().getDescription());
+        assertEquals(firstOrder.getId() + "," + secondOrder.getId(), laptop.get().getOrderIds());
+    }
+
+    /** Should find at most the given number of order ids per product. */
+    @Test
+    @DisplayName("Should find at most the given number of order ids per product")
+    void shouldFindProductOrderRowsUpToLimit() {
+        // Given
+        Order firstOrder = new Order();
+        firstOrder.setDescription("First Order");
+        firstOrder.getProducts().add(product1);
+        firstOrder.getProducts().add(product2);
+        entityManager.persist(firstOrder);
+
+        Order secondOrder = new Order();
+        secondOrder.setDescription("Second Order");
+        secondOrder.getProducts().add(product1);
+        entityManager.persist(secondOrder);
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<ProductOrderRow> rows = productRepository.findProductOrderRows(
+                List.of(product1.getId(), product2.getId(), product3.getId()), 1);
+
+        // Then
+        assertEquals(2, rows.size());
+        assertEquals(product1.getId(), rows.get(0).getProductId());
+        assertEquals(firstOrder.getId(), rows.get(0).getOrderId());
+        assertEquals(product2.getId(), rows.get(1).getProductId());
+        assertEquals(firstOrder.getId(), rows.get(1).getOrderId());
+    }
+
+    /** Should page product views with and without orders. */
+    @Test
+    @DisplayName("Should page product views with and without orders")
+    void shouldPageProductViewsWithAndWithoutOrders() {
+        // Given
+        Order order = new Order();
+        order.setDescription("Test Order");
+        order.getProducts().add(product1);
+        order.getProducts().add(product2);
+        entityManager.persistAndFlush(order);
+        entityManager.clear();
+        PageRequest pageable = PageRequest.of(0, 1, Sort.by(Sort.Direction.ASC, "description"));
+
+        // When
+        Page<ProductView> withOrders = productRepository.findViewsWithOrders(pageable);
+        Page<ProductView> withoutOrders = productRepository.findViewsWithoutOrders(pageable);
+
+        // Then
+        assertEquals(2, withOrders.getTotalElements());
+        assertEquals("Laptop Computer", withOrders.getContent().get(0).getDescription());
+        assertEquals(String.valueOf(order.getId()), withOrders.getContent().get(0).getOrderIds());
+        assertEquals(1, withoutOrders.getTotalElements());
+        assertEquals("Tablet Computer", withoutOrders.getContent().get(0).getDescription());
+        assertNull(withoutOrders.getContent().get(0).getOrderIds());
+    }
+
     /** Should count total products. */
     @Test
     @DisplayName("Should count total products")
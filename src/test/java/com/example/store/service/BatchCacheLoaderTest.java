@@ -0,0 +1,160 @@
+package com.example.store.service;
+
+import com.example.store.config.StaleCachePolicy;
+import com.example.store.config.StaleWhileRevalidateCacheManager;
+import com.example.store.config.StampedValue;
+import com.example.store.dto.BatchItem;
+import com.example.store.dto.BatchResponse;
+import com.example.store.exception.ValidationException;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/** The type Batch cache loader test. */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BatchCacheLoader Tests")
+class BatchCacheLoaderTest {
+
+    @Mock
+    private RedisConnectionFactory redisConnectionFactory;
+
+    @Mock
+    private CacheTagIndex cacheTagIndex;
+
+    private ConcurrentMapCacheManager cacheManager;
+    private BatchCacheLoader loader;
+    private List<Set<Long>> loads;
+
+    /** Sets up. */
+    @BeforeEach
+    void setUp() {
+        cacheManager = new ConcurrentMapCacheManager("orders");
+        loader = new BatchCacheLoader(cacheManager, redisConnectionFactory, cacheTagIndex);
+        ReflectionTestUtils.setField(loader, "maxIds", 3);
+        loads = new ArrayList<>();
+    }
+
+    /** Should load only the misses, once, and cache them. */
+    @Test
+    @DisplayName("Should load only the misses, once, and cache them")
+    void shouldLoadOnlyMissesAndCacheThem() {
+        // Given
+        cacheManager.getCache("orders").put(1L, "cached");
+
+        // When
+        Map<Long, String> first = loader.getAll("orders", List.of(2L, 1L, 2L), String.class, this::load);
+        Map<Long, String> second = loader.getAll("orders", List.of(1L, 2L), String.class, this::load);
+
+        // Then
+        assertEquals(Map.of(1L, "cached", 2L, "loaded-2"), first);
+        assertEquals(first, second);
+        assertEquals(List.of(Set.of(2L)), loads);
+        verifyNoInteractions(redisConnectionFactory);
+    }
+
+    /** Should report unknown ids as not found in request order. */
+    @Test
+    @DisplayName("Should report unknown ids as not found in request order")
+    void shouldReportUnknownIdsAsNotFound() {
+        // When
+        List<Long> ids = List.of(3L, -1L, 2L);
+        BatchResponse<String> response =
+                BatchResponse.of(ids, loader.getAll("orders", ids, String.class, this::load));
+
+        // Then
+        assertEquals(2, response.getFound());
+        assertEquals(1, response.getNotFound());
+        assertEquals(List.of(3L, -1L, 2L), response.getItems().stream().map(BatchItem::getId).toList());
+        assertEquals(BatchItem.Status.NOT_FOUND, response.getItems().get(1).getStatus());
+        assertEquals("loaded-2", response.getItems().get(2).getData());
+    }
+
+    /** Should reject empty and oversized requests. */
+    @Test
+    @DisplayName("Should reject empty and oversized requests")
+    void shouldRejectEmptyAndOversizedRequests() {
+        assertThrows(ValidationException.class, () -> loader.getAll("orders", List.of(), String.class, this::load));
+        assertThrows(
+                ValidationException.class,
+                () -> loader.getAll("orders", List.of(1L, 2L, 3L, 4L), String.class, this::load));
+        assertTrue(loads.isEmpty());
+    }
+
+    /** Should reject a null id. */
+    @Test
+    @DisplayName("Should reject a null id")
+    void shouldRejectNullId() {
+        // Given
+        List<Long> ids = new ArrayList<>();
+        ids.add(1L);
+        ids.add(null);
+
+        // When
+        ValidationException exception =
+                assertThrows(ValidationException.class, () -> loader.getAll("orders", ids, String.class, this::load));
+
+        // Then
+        assertEquals("Invalid input for field 'ids': Ids must not contain null", exception.getMessage());
+        assertTrue(loads.isEmpty());
+    }
+
+    /** Should read and write entries through a decorator that stamps them. */
+    @Test
+    @DisplayName("Should read and write entries through a decorator that stamps them")
+    void shouldReadAndWriteThroughStampingDecorator() {
+        // Given
+        StaleCachePolicy policy = new StaleCachePolicy(
+                Set.of("orders"),
+                Duration.ofMinutes(1),
+                Duration.ofMinutes(30),
+                mock(PlatformTransactionManager.class),
+                1);
+        StaleWhileRevalidateCacheManager staleCacheManager =
+                new StaleWhileRevalidateCacheManager(cacheManager, policy, name -> Duration.ofMinutes(3), null);
+        BatchCacheLoader staleLoader = new BatchCacheLoader(staleCacheManager, redisConnectionFactory, cacheTagIndex);
+        ReflectionTestUtils.setField(staleLoader, "maxIds", 3);
+        staleCacheManager.getCache("orders").put(1L, "cached");
+
+        try {
+            // When
+            Map<Long, String> entries = staleLoader.getAll("orders", List.of(1L, 2L), String.class, this::load);
+
+            // Then
+            assertEquals(Map.of(1L, "cached", 2L, "loaded-2"), entries);
+            assertEquals(List.of(Set.of(2L)), loads);
+            assertInstanceOf(StampedValue.class, cacheManager.getCache("orders").get(2L).get());
+            assertEquals("loaded-2", staleCacheManager.getCache("orders").get(2L, String.class));
+        } finally {
+            policy.destroy();
+        }
+    }
+
+    private Map<Long, String> load(Set<Long> ids) {
+        loads.add(Set.copyOf(ids));
+        Map<Long, String> loaded = new HashMap<>();
+        for (Long id : ids) {
+            if (id > 0) {
+                loaded.put(id, "loaded-" + id);
+            }
+        }
+        return loaded;
+    }
+}
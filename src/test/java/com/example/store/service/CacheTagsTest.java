@@ -0,0 +1,109 @@
+package com.example.store.service;
+
+import com.example.store.dto.CustomerDTO;
+import com.example.store.dto.CustomerOrderDTO;
+import com.example.store.dto.OrderCustomerDTO;
+import com.example.store.dto.OrderDTO;
+import com.example.store.dto.PagedResponse;
+import com.example.store.dto.ProductDTO;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The type Cache tags test. */
+@DisplayName("CacheTags Tests")
+class CacheTagsTest {
+
+    /** Should tag an order with its customer and products. */
+    @Test
+    @DisplayName("Should tag an order with its customer and products")
+    void shouldTagOrderWithCustomerAndProducts() {
+        // When
+        Set<String> tags = CacheTags.of("orders", order(5L, 1L, 2L, 3L));
+
+        // Then
+        assertEquals(Set.of("order:5", "customer:1", "product:2", "product:3"), tags);
+    }
+
+    /** Should tag a customer with its nested orders. */
+    @Test
+    @DisplayName("Should tag a customer with its nested orders")
+    void shouldTagCustomerWithNestedOrders() {
+        // Given
+        CustomerDTO customer = new CustomerDTO();
+        customer.setId(1L);
+        CustomerOrderDTO order = new CustomerOrderDTO();
+        order.setId(7L);
+        customer.setOrders(List.of(order));
+
+        // When
+        Set<String> tags = CacheTags.of("customers", customer);
+
+        // Then
+        assertEquals(Set.of("customer:1", "order:7"), tags);
+    }
+
+    /** Should tag a product page with the list, its sort field and every product. */
+    @Test
+    @DisplayName("Should tag a product page with the list, its sort field and every product")
+    void shouldTagProductPage() {
+        // Given
+        PagedResponse<ProductDTO> page = new PagedResponse<>();
+        page.setSortBy("description");
+        page.setContent(List.of(product(2L), product(3L)));
+
+        // When
+        Set<String> tags = CacheTags.of("pagedProducts", page);
+
+        // Then
+        assertEquals(Set.of("product-list", "product-list:description", "product:2", "product:3"), tags);
+    }
+
+    /** Should tag an order page with the list and the entities of every order. */
+    @Test
+    @DisplayName("Should tag an order page with the list and the entities of every order")
+    void shouldTagOrderPage() {
+        // Given
+        PagedResponse<OrderDTO> page = new PagedResponse<>();
+        page.setContent(List.of(order(5L, 1L, 2L), order(6L, 4L)));
+
+        // When
+        Set<String> tags = CacheTags.of("pagedOrders", page);
+
+        // Then
+        assertEquals(Set.of("order-list", "order:5", "customer:1", "product:2", "order:6", "customer:4"), tags);
+    }
+
+    /** Should not tag values of unknown type. */
+    @Test
+    @DisplayName("Should not tag values of unknown type")
+    void shouldNotTagUnknownValues() {
+        assertTrue(CacheTags.of("other", "value").isEmpty());
+    }
+
+    private static OrderDTO order(Long id, Long customerId, Long... productIds) {
+        OrderDTO order = new OrderDTO();
+        order.setId(id);
+        OrderCustomerDTO customer = new OrderCustomerDTO();
+        customer.setId(customerId);
+        order.setCustomer(customer);
+        List<ProductDTO> products = new ArrayList<>();
+        for (Long productId : productIds) {
+            products.add(product(productId));
+        }
+        order.setProducts(products);
+        return order;
+    }
+
+    private static ProductDTO product(Long id) {
+        ProductDTO product = new ProductDTO();
+        product.setId(id);
+        return product;
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.store.service;
+
+import com.example.store.config.HotKeyRecorder;
+import com.example.store.dto.CountMode;
+import com.example.store.dto.Include;
+import com.example.store.dto.Projection;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.health.Status;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/** The type Cache warm up test. */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CacheWarmUp Tests")
+class CacheWarmUpTest {
+
+    @Mock
+    private CustomerService customerService;
+
+    @Mock
+    private OrderService orderService;
+
+    @Mock
+    private ProductService productService;
+
+    @Mock
+    private ObjectProvider<HotKeyRecorder> hotKeyRecorderProvider;
+
+    @Mock
+    private HotKeyRecorder hotKeyRecorder;
+
+    /**
+     * Should load leading pages and hot ids in batches before reporting ready.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    @DisplayName("Should load leading pages and hot ids in batches before reporting ready")
+    void shouldLoadPagesAndHotIdsBeforeReportingReady() throws Exception {
+        // Given
+        when(hotKeyRecorderProvider.getIfAvailable()).thenReturn(hotKeyRecorder);
+        when(hotKeyRecorder.getHottest("customers", 500)).thenReturn(List.of("1", "2", "3"));
+        when(hotKeyRecorder.getHottest("orders", 500)).thenReturn(List.of("7", "not-an-id"));
+        when(hotKeyRecorder.getHottest("products", 500)).thenReturn(List.of());
+        CacheWarmUp warmUp = warmUp(Duration.ofSeconds(10));
+        assertEquals(Status.OUT_OF_SERVICE, warmUp.health().getStatus());
+
+        // When
+        warmUp.warmUp().get(10, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(Status.UP, warmUp.health().getStatus());
+        assertEquals("completed", warmUp.health().getDetails().get("state"));
+        verify(customerService).getAllCustomers(0, 20, "id", "asc", CountMode.EXACT, Include.none());
+        verify(customerService).getAllCustomers(1, 20, "id", "asc", CountMode.EXACT, Include.none());
+        verify(orderService).getAllOrders(1, 20, "id", "asc", CountMode.EXACT, Projection.FULL);
+        verify(productService).getAllProducts(1, 20, "id", "asc", CountMode.EXACT, Include.none());
+        verify(customerService).getCustomersByIds(List.of(1L, 2L));
+        verify(customerService).getCustomersByIds(List.of(3L));
+        verify(orderService).getOrdersByIds(List.of(7L));
+        verify(productService, never()).getProductsByIds(anyList());
+    }
+
+    /**
+     * Should report ready when a load fails.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    @DisplayName("Should report ready when a load fails")
+    void shouldReportReadyWhenLoadFails() throws Exception {
+        // Given
+        when(customerService.getAllCustomers(anyInt(), anyInt(), anyString(), anyString(), any(), any()))
+                .thenThrow(new IllegalStateException("database unavailable"));
+        CacheWarmUp warmUp = warmUp(Duration.ofSeconds(10));
+
+        // When
+        warmUp.warmUp().get(10, TimeUnit.SECONDS);
+
+        // Then
+        assertEquals(Status.UP, warmUp.health().getStatus());
+        assertEquals(2, warmUp.health().getDetails().get("failed"));
+        assertEquals(4, warmUp.health().getDetails().get("warmed"));
+    }
+
+    /**
+     * Should report ready once the warm-up times out.
+     *
+     * @throws Exception the exception
+     */
+    @Test
+    @DisplayName("Should report ready once the warm-up times out")
+    void shouldReportReadyOnTimeout() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        when(customerService.getAllCustomers(anyInt(), anyInt(), anyString(), anyString(), any(), any()))
+                .thenAnswer(invocation -> {
+                    release.await();
+                    return null;
+                });
+        CacheWarmUp warmUp = warmUp(Duration.ofMillis(100));
+
+        // When
+        try {
+            warmUp.warmUp().get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+        }
+
+        // Then
+        assertEquals(Status.UP, warmUp.health().getStatus());
+        assertEquals("timed out", warmUp.health().getDetails().get("state"));
+    }
+
+    /** Should report ready when disabled. */
+    @Test
+    @DisplayName("Should report ready when disabled")
+    void shouldReportReadyWhenDisabled() {
+        // Given
+        CacheWarmUp warmUp = new CacheWarmUp(
+                customerService,
+                orderService,
+                productService,
+                hotKeyRecorderProvider,
+                false,
+                2,
+                20,
+                500,
+                2,
+                2,
+                Duration.ofSeconds(10));
+
+        // When
+        warmUp.onApplicationReady();
+
+        // Then
+        assertEquals(Status.UP, warmUp.health().getStatus());
+        verifyNoInteractions(customerService, orderService, productService);
+    }
+
+    private CacheWarmUp warmUp(Duration timeout) {
+        return new CacheWarmUp(
+                customerService, orderService, productService, hotKeyRecorderProvider, true, 2, 20, 500, 2, 2, timeout);
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.store.service;
+
+import com.example.store.repository.CustomerNameRow;
+import com.example.store.repository.CustomerRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/** The type Customer name index test. */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CustomerNameIndex Tests")
+class CustomerNameIndexTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    private CustomerNameIndex index;
+
+    /** Sets up. */
+    @BeforeEach
+    void setUp() {
+        index = new CustomerNameIndex(customerRepository, redisTemplate, true);
+    }
+
+    /** Should not be ready before the first build. */
+    @Test
+    @DisplayName("Should not be ready before the first build")
+    void shouldNotBeReadyBeforeFirstBuild() {
+        assertFalse(index.isReady());
+    }
+
+    /** Should find substring matches ignoring case. */
+    @Test
+    @DisplayName("Should find substring matches ignoring case")
+    void shouldFindSubstringMatchesIgnoringCase() {
+        // Given
+        when(customerRepository.findAllNameRows())
+                .thenReturn(List.of(row(1L, "John Doe"), row(2L, "Jane Smith"), row(3L, "Johnny Cash")));
+        index.rebuild();
+
+        // When
+        List<CustomerNameIndex.Match> johns = index.search("JOHN");
+        List<CustomerNameIndex.Match> smiths = index.search("smith");
+        List<CustomerNameIndex.Match> none = index.search("xyz");
+
+        // Then
+        assertTrue(index.isReady());
+        assertEquals(List.of(1L, 3L), johns.stream().map(CustomerNameIndex.Match::id).toList());
+        assertEquals("jane smith", smiths.get(0).name());
+        assertTrue(none.isEmpty());
+    }
+
+    /** Should reject candidates that share trigrams but do not contain the query. */
+    @Test
+    @DisplayName("Should reject candidates that share trigrams but do not contain the query")
+    void shouldRejectCandidatesThatDoNotContainQuery() {
+        // Given
+        when(customerRepository.findAllNameRows()).thenReturn(List.of(row(1L, "abcd bcde"), row(2L, "abcde")));
+        index.rebuild();
+
+        // When
+        List<CustomerNameIndex.Match> matches = index.search("abcde");
+
+        // Then
+        assertEquals(List.of(2L), matches.stream().map(CustomerNameIndex.Match::id).toList());
+    }
+
+    /** Should answer short queries by scanning names. */
+    @Test
+    @DisplayName("Should answer short queries by scanning names")
+    void shouldAnswerShortQueriesByScanningNames() {
+        // Given
+        when(customerRepository.findAllNameRows()).thenReturn(List.of(row(2L, "Al Green"), row(1L, "Bob Alton")));
+        index.rebuild();
+
+        // When
+        List<CustomerNameIndex.Match> matches = index.search("al");
+
+        // Then
+        assertEquals(List.of(1L, 2L), matches.stream().map(CustomerNameIndex.Match::id).toList());
+    }
+
+    /** Should make added customers searchable. */
+    @Test
+    @DisplayName("Should make added customers searchable")
+    void shouldMakeAddedCustomersSearchable() {
+        // Given
+        when(customerRepository.findAllNameRows()).thenReturn(List.of(row(5L, "John Doe")));
+        index.rebuild();
+
+        // When
+        index.add(7L, "Johanna Doe");
+        index.add(3L, "Doe Junior");
+
+        // Then
+        assertEquals(List.of(3L, 5L, 7L), index.search("doe").stream().map(CustomerNameIndex.Match::id).toList());
+        verify(redisTemplate).convertAndSend(eq(CustomerNameIndex.ADDITIONS_CHANNEL), endsWith("\n7\nJohanna Doe"));
+    }
+
+    /** Should index customers added on other instances. */
+    @Test
+    @DisplayName("Should index customers added on other instances")
+    void shouldIndexCustomersAddedOnOtherInstances() {
+        // Given
+        when(customerRepository.findAllNameRows()).thenReturn(List.of(row(5L, "John Doe")));
+        index.rebuild();
+        byte[] channel = CustomerNameIndex.ADDITIONS_CHANNEL.getBytes(StandardCharsets.UTF_8);
+        byte[] body = "other-node\n9\nJane Doe".getBytes(StandardCharsets.UTF_8);
+
+        // When
+        index.onMessage(new DefaultMessage(channel, body), null);
+
+        // Then
+        assertEquals(List.of(5L, 9L), index.search("doe").stream().map(CustomerNameIndex.Match::id).toList());
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+    }
+
+    /** Should stay unavailable when disabled. */
+    @Test
+    @DisplayName("Should stay unavailable when disabled")
+    void shouldStayUnavailableWhenDisabled() {
+        // Given
+        CustomerNameIndex disabled = new CustomerNameIndex(customerRepository, redisTemplate, false);
+
+        // When
+        disabled.rebuild();
+
+        // Then
+        assertFalse(disabled.isReady());
+        verifyNoInteractions(customerRepository);
+    }
+
+    private static CustomerNameRow row(Long id, String name) {
+        return new CustomerNameRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+}
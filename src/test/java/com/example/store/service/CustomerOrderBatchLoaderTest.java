@@ -0,0 +1,144 @@
+package com.example.store.service;
+
+import com.example.store.dto.CustomerDTO;
+import com.example.store.repository.CustomerOrderRow;
+import com.example.store.repository.OrderRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/** The type Customer order batch loader test. */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CustomerOrderBatchLoader Tests")
+class CustomerOrderBatchLoaderTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    private CustomerOrderBatchLoader loader;
+
+    /** Sets up. */
+    @BeforeEach
+    void setUp() {
+        loader = new CustomerOrderBatchLoader(orderRepository, 2);
+    }
+
+    /** Should attach orders of all customers with one query. */
+    @Test
+    @DisplayName("Should attach orders of all customers with one query")
+    void shouldAttachOrdersOfAllCustomersWithOneQuery() {
+        // Given
+        CustomerDTO john = customer(1L);
+        CustomerDTO jane = customer(2L);
+        CustomerDTO bob = customer(3L);
+        when(orderRepository.findCustomerOrderRows(Set.of(1L, 2L, 3L), 3))
+                .thenReturn(List.of(row(1L, 10L, "First"), row(2L, 20L, "Second"), row(2L, 21L, "Third")));
+
+        // When
+        loader.attachOrders(List.of(john, jane, bob));
+
+        // Then
+        assertEquals(1, john.getOrders().size());
+        assertEquals("First", john.getOrders().get(0).getDescription());
+        assertEquals(2, jane.getOrders().size());
+        assertEquals(21L, jane.getOrders().get(1).getId());
+        assertFalse(jane.isOrdersTruncated());
+        assertTrue(bob.getOrders().isEmpty());
+        verify(orderRepository, times(1)).findCustomerOrderRows(anyCollection(), anyInt());
+    }
+
+    /** Should cap orders per customer and flag truncation. */
+    @Test
+    @DisplayName("Should cap orders per customer and flag truncation")
+    void shouldCapOrdersPerCustomerAndFlagTruncation() {
+        // Given
+        CustomerDTO john = customer(1L);
+        when(orderRepository.findCustomerOrderRows(Set.of(1L), 3))
+                .thenReturn(List.of(row(1L, 10L, "First"), row(1L, 11L, "Second"), row(1L, 12L, "Third")));
+
+        // When
+        loader.attachOrders(List.of(john));
+
+        // Then
+        assertEquals(2, john.getOrders().size());
+        assertEquals(11L, john.getOrders().get(1).getId());
+        assertTrue(john.isOrdersTruncated());
+    }
+
+    /** Should cap orders at a requested limit below the configured maximum. */
+    @Test
+    @DisplayName("Should cap orders at a requested limit below the configured maximum")
+    void shouldCapOrdersAtRequestedLimit() {
+        // Given
+        CustomerDTO john = customer(1L);
+        when(orderRepository.findCustomerOrderRows(Set.of(1L), 2))
+                .thenReturn(List.of(row(1L, 10L, "First"), row(1L, 11L, "Second")));
+
+        // When
+        loader.attachOrders(List.of(john), 1);
+
+        // Then
+        assertEquals(1, john.getOrders().size());
+        assertEquals(10L, john.getOrders().get(0).getId());
+        assertTrue(john.isOrdersTruncated());
+    }
+
+    /** Should not query for an empty page. */
+    @Test
+    @DisplayName("Should not query for an empty page")
+    void shouldNotQueryForEmptyPage() {
+        // When
+        loader.attachOrders(List.of());
+
+        // Then
+        verifyNoInteractions(orderRepository);
+    }
+
+    /** Should reject a non-positive cap. */
+    @Test
+    @DisplayName("Should reject a non-positive cap")
+    void shouldRejectNonPositiveCap() {
+        assertThrows(IllegalArgumentException.class, () -> new CustomerOrderBatchLoader(orderRepository, 0));
+    }
+
+    private static CustomerDTO customer(Long id) {
+        CustomerDTO customer = new CustomerDTO();
+        customer.setId(id);
+        return customer;
+    }
+
+    private static CustomerOrderRow row(Long customerId, Long id, String description) {
+        return new CustomerOrderRow() {
+            @Override
+            public Long getCustomerId() {
+                return customerId;
+            }
+
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public Long getVersion() {
+                return 0L;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+        };
+    }
+}
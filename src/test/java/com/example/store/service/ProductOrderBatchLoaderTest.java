@@ -0,0 +1,113 @@
+package com.example.store.service;
+
+import com.example.store.dto.ProductDTO;
+import com.example.store.repository.ProductOrderRow;
+import com.example.store.repository.ProductRepository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/** The type Product order batch loader test. */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ProductOrderBatchLoader Tests")
+class ProductOrderBatchLoaderTest {
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private ProductOrderBatchLoader loader;
+
+    /** Sets up. */
+    @BeforeEach
+    void setUp() {
+        loader = new ProductOrderBatchLoader(productRepository, 2);
+    }
+
+    /** Should attach order ids of all products with one query. */
+    @Test
+    @DisplayName("Should attach order ids of all products with one query")
+    void shouldAttachOrderIdsOfAllProductsWithOneQuery() {
+        // Given
+        ProductDTO laptop = product(1L);
+        ProductDTO mouse = product(2L);
+        ProductDTO cable = product(3L);
+        when(productRepository.findProductOrderRows(Set.of(1L, 2L, 3L), 3))
+                .thenReturn(List.of(row(1L, 10L), row(2L, 10L), row(2L, 20L)));
+
+        // When
+        loader.attachOrderIds(List.of(laptop, mouse, cable), 5);
+
+        // Then
+        assertEquals(List.of(10L), laptop.getOrderIds());
+        assertEquals(List.of(10L, 20L), mouse.getOrderIds());
+        assertFalse(mouse.isOrderIdsTruncated());
+        assertTrue(cable.getOrderIds().isEmpty());
+        verify(productRepository, times(1)).findProductOrderRows(anyCollection(), anyInt());
+    }
+
+    /** Should cap order ids at the requested limit and flag truncation. */
+    @Test
+    @DisplayName("Should cap order ids at the requested limit and flag truncation")
+    void shouldCapOrderIdsAndFlagTruncation() {
+        // Given
+        ProductDTO laptop = product(1L);
+        when(productRepository.findProductOrderRows(Set.of(1L), 2)).thenReturn(List.of(row(1L, 10L), row(1L, 11L)));
+
+        // When
+        loader.attachOrderIds(List.of(laptop), 1);
+
+        // Then
+        assertEquals(List.of(10L), laptop.getOrderIds());
+        assertTrue(laptop.isOrderIdsTruncated());
+    }
+
+    /** Should not query for an empty page. */
+    @Test
+    @DisplayName("Should not query for an empty page")
+    void shouldNotQueryForEmptyPage() {
+        // When
+        loader.attachOrderIds(List.of(), 2);
+
+        // Then
+        verifyNoInteractions(productRepository);
+    }
+
+    /** Should reject a non-positive cap. */
+    @Test
+    @DisplayName("Should reject a non-positive cap")
+    void shouldRejectNonPositiveCap() {
+        assertThrows(IllegalArgumentException.class, () -> new ProductOrderBatchLoader(productRepository, 0));
+        assertThrows(IllegalArgumentException.class, () -> loader.attachOrderIds(List.of(product(1L)), 0));
+    }
+
+    private static ProductDTO product(Long id) {
+        ProductDTO product = new ProductDTO();
+        product.setId(id);
+        return product;
+    }
+
+    private static ProductOrderRow row(Long productId, Long orderId) {
+        return new ProductOrderRow() {
+            @Override
+            public Long getProductId() {
+                return productId;
+            }
+
+            @Override
+            public Long getOrderId() {
+                return orderId;
+            }
+        };
+    }
+}
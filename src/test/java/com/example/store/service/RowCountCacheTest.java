@@ -0,0 +1,94 @@
+package com.example.store.service;
+
+import com.example.store.repository.CustomerRepository;
+import com.example.store.repository.OrderRepository;
+import com.example.store.repository.ProductRepository;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/** The type Row count cache test. */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RowCountCache Tests")
+class RowCountCacheTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    private RowCountCache rowCountCache;
+
+    /** Sets up. */
+    @BeforeEach
+    void setUp() {
+        when(customerRepository.count()).thenReturn(10L);
+        rowCountCache = new RowCountCache(customerRepository, orderRepository, productRepository);
+        rowCountCache.refresh();
+    }
+
+    /** Tears down. */
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    /** Should adjust the count at once outside a transaction. */
+    @Test
+    @DisplayName("Should adjust the count at once outside a transaction")
+    void shouldAdjustAtOnceOutsideTransaction() {
+        // When
+        rowCountCache.adjust(RowCountCache.Table.CUSTOMER, 2);
+
+        // Then
+        assertEquals(12L, rowCountCache.get(RowCountCache.Table.CUSTOMER));
+    }
+
+    /** Should adjust the count only once the transaction commits. */
+    @Test
+    @DisplayName("Should adjust the count only once the transaction commits")
+    void shouldAdjustOnlyAfterCommit() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        rowCountCache.adjust(RowCountCache.Table.CUSTOMER, 2);
+
+        // Then
+        assertEquals(10L, rowCountCache.get(RowCountCache.Table.CUSTOMER));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertEquals(12L, rowCountCache.get(RowCountCache.Table.CUSTOMER));
+    }
+
+    /** Should leave the count unchanged when the transaction rolls back. */
+    @Test
+    @DisplayName("Should leave the count unchanged when the transaction rolls back")
+    void shouldLeaveCountUnchangedOnRollback() {
+        // Given
+        TransactionSynchronizationManager.initSynchronization();
+
+        // When
+        rowCountCache.adjust(RowCountCache.Table.CUSTOMER, -3);
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        // Then
+        assertEquals(10L, rowCountCache.get(RowCountCache.Table.CUSTOMER));
+    }
+}
@@ -449,4 +449,13 @@ class ValidationServiceTest {
         // Then
         assertNull(result);
     }
+
+    /** Should validate order description. */
+    @Test
+    @DisplayName("Should validate order description")
+    void shouldValidateOrderDescription() {
+        assertDoesNotThrow(() -> validationService.validateOrderDescription("Order #1, rush"));
+        assertThrows(ValidationException.class, () -> validationService.validateOrderDescription(" "));
+        assertThrows(ValidationException.class, () -> validationService.validateOrderDescription("x".repeat(256)));
+    }
 }
@@ -1,11 +1,19 @@
 package com.example.store.service.impl;
 
+import com.example.store.dto.CountMode;
 import com.example.store.dto.CustomerDTO;
+import com.example.store.dto.Include;
+import com.example.store.dto.PageCursor;
+import com.example.store.dto.PagedResponse;
 import com.example.store.entity.Customer;
 import com.example.store.exception.CustomerNotFoundException;
 import com.example.store.exception.ValidationException;
 import com.example.store.mapper.CustomerMapper;
 import com.example.store.repository.CustomerRepository;
+import com.example.store.service.CacheTagIndex;
+import com.example.store.service.CustomerNameIndex;
+import com.example.store.service.CustomerOrderBatchLoader;
+import com.example.store.service.RowCountCache;
 import com.example.store.service.ValidationService;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -19,6 +27,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
@@ -41,6 +50,18 @@ class CustomerServiceImplTest {
     @Mock
     private ValidationService validationService;
 
+    @Mock
+    private RowCountCache rowCountCache;
+
+    @Mock
+    private CustomerOrderBatchLoader customerOrderBatchLoader;
+
+    @Mock
+    private CustomerNameIndex customerNameIndex;
+
+    @Mock
+    private CacheTagIndex cacheTagIndex;
+
     @InjectMocks
     private CustomerServiceImpl customerService;
 
@@ -88,6 +109,7 @@ class CustomerServiceImplTest {
         verify(validationService).sanitizeName("Jane Smith");
         verify(customerRepository).save(customerToCreate);
         verify(customerMapper).customerToCustomerDTO(savedCustomer);
+        verify(customerNameIndex).add(2L, "Jane Smith");
     }
 
     /** Should throw validation exception when creating customer with invalid name. */
@@ -129,6 +151,7 @@ class CustomerServiceImplTest {
         verify(validationService).validateCustomerId(customerId);
         verify(customerRepository).findById(customerId);
         verify(customerMapper).customerToCustomerDTO(customer);
+        verify(customerOrderBatchLoader).attachOrders(List.of(customerDTO));
     }
 
     /** Should throw customer not found exception when customer not found by id. */
@@ -168,6 +191,7 @@ class CustomerServiceImplTest {
         // Then
         verify(validationService).validateSearchQuery(query);
         verify(customerRepository).findByNameContainingIgnoreCase(eq(query), any(Pageable.class));
+        verifyNoInteractions(customerOrderBatchLoader);
     }
 
     /** Should return all customers when search query is empty. */
@@ -181,13 +205,33 @@ class CustomerServiceImplTest {
 
         doNothing().when(validationService).validateSearchQuery(query);
         when(customerRepository.findAll(any(Pageable.class))).thenReturn(customerPage);
+        when(customerOrderBatchLoader.getMaxOrdersPerCustomer()).thenReturn(100);
 
         // When
-        customerService.searchCustomersByName(query, 0, 10, "name", "asc");
+        customerService.searchCustomersByName(
+                query, 0, 10, "name", "asc", CountMode.EXACT, Include.of(Include.ORDERS, 5));
 
         // Then
         verify(validationService).validateSearchQuery(query);
         verify(customerRepository).findAll(any(Pageable.class));
+        verify(customerOrderBatchLoader).attachOrders(anyList(), eq(5));
+    }
+
+    /** Should search customers without querying their orders unless included. */
+    @Test
+    @DisplayName("Should search customers without querying their orders unless included")
+    void shouldSearchCustomersWithoutOrdersUnlessIncluded() {
+        // Given
+        String query = "john";
+        doNothing().when(validationService).validateSearchQuery(query);
+        when(customerRepository.findByNameContainingIgnoreCase(eq(query), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(customer)));
+
+        // When
+        customerService.searchCustomersByName(query, 0, 10, "name", "asc", CountMode.EXACT, Include.none());
+
+        // Then
+        verifyNoInteractions(customerOrderBatchLoader);
     }
 
     /** Should throw validation exception when search query is invalid. */
@@ -268,4 +312,93 @@ class CustomerServiceImplTest {
         verify(validationService).validateCustomerId(customerId);
         verify(customerRepository).findById(customerId);
     }
+
+    /** Should get first keyset page and next cursor. */
+    @Test
+    @DisplayName("Should get first keyset page and next cursor")
+    void shouldGetFirstKeysetPageAndNextCursor() {
+        // Given
+        Customer second = new Customer();
+        second.setId(2L);
+        second.setName("Jane Smith");
+        when(customerRepository.seekFirst(any(Pageable.class))).thenReturn(Arrays.asList(customer, second));
+        when(customerMapper.customersToCustomerDTOs(List.of(customer))).thenReturn(List.of(customerDTO));
+
+        // When
+        PagedResponse<CustomerDTO> result = customerService.getAllCustomersAfter("", 1, "name", "asc");
+
+        // Then
+        assertEquals(List.of(customerDTO), result.getContent());
+        assertTrue(result.isHasNext());
+        assertFalse(result.isHasPrevious());
+        assertEquals(-1, result.getTotalElements());
+        PageCursor cursor = PageCursor.decode(result.getNextCursor(), "name");
+        assertEquals(1L, cursor.getId());
+        assertEquals("John Doe", cursor.getSortValue());
+        verifyNoInteractions(customerOrderBatchLoader);
+    }
+
+    /** Should seek after cursor on keyset page. */
+    @Test
+    @DisplayName("Should seek after cursor on keyset page")
+    void shouldSeekAfterCursorOnKeysetPage() {
+        // Given
+        String after = PageCursor.encode("name", "John Doe", 1L);
+        when(customerRepository.seekAfterName(eq("John Doe"), eq(1L), any(Pageable.class)))
+                .thenReturn(List.of());
+        when(customerMapper.customersToCustomerDTOs(List.of())).thenReturn(List.of());
+
+        // When
+        PagedResponse<CustomerDTO> result = customerService.getAllCustomersAfter(after, 10, "name", "asc");
+
+        // Then
+        assertTrue(result.getContent().isEmpty());
+        assertFalse(result.isHasNext());
+        assertTrue(result.isHasPrevious());
+        assertNull(result.getNextCursor());
+    }
+
+    /** Should reject keyset page with unsupported sort field. */
+    @Test
+    @DisplayName("Should reject keyset page with unsupported sort field")
+    void shouldRejectKeysetPageWithUnsupportedSortField() {
+        // When & Then
+        assertThrows(
+                ValidationException.class, () -> customerService.getAllCustomersAfter("", 10, "orders", "asc"));
+        verifyNoInteractions(customerRepository);
+    }
+
+    /** Should answer search from the name index and hydrate only the requested page. */
+    @Test
+    @DisplayName("Should answer search from the name index and hydrate only the requested page")
+    void shouldAnswerSearchFromNameIndex() {
+        // Given
+        String query = "doe";
+        Customer jane = new Customer();
+        jane.setId(3L);
+        jane.setName("Jane Doe");
+        CustomerDTO janeDTO = new CustomerDTO();
+        janeDTO.setId(3L);
+
+        doNothing().when(validationService).validateSearchQuery(query);
+        when(customerNameIndex.isReady()).thenReturn(true);
+        when(customerNameIndex.search(query))
+                .thenReturn(new ArrayList<>(List.of(
+                        new CustomerNameIndex.Match(1L, "john doe"),
+                        new CustomerNameIndex.Match(2L, "adam doe"),
+                        new CustomerNameIndex.Match(3L, "jane doe"))));
+        when(customerRepository.findAllById(List.of(1L, 3L))).thenReturn(List.of(customer, jane));
+        when(customerMapper.customerToCustomerDTO(customer)).thenReturn(customerDTO);
+        when(customerMapper.customerToCustomerDTO(jane)).thenReturn(janeDTO);
+
+        // When
+        PagedResponse<CustomerDTO> result = customerService.searchCustomersByName(query, 0, 2, "name", "desc");
+
+        // Then
+        assertEquals(List.of(customerDTO, janeDTO), result.getContent());
+        assertEquals(3, result.getTotalElements());
+        assertEquals(2, result.getTotalPages());
+        assertTrue(result.isHasNext());
+        verify(customerRepository, never()).findByNameContainingIgnoreCase(any(), any(Pageable.class));
+    }
 }
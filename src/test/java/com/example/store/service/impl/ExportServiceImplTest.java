@@ -0,0 +1,173 @@
+package com.example.store.service.impl;
+
+import com.example.store.dto.ExportFormat;
+import com.example.store.mapper.ProductMapper;
+import com.example.store.repository.CustomerNameRow;
+import com.example.store.repository.CustomerRepository;
+import com.example.store.repository.OrderExportRow;
+import com.example.store.repository.OrderRepository;
+import com.example.store.repository.ProductRepository;
+import com.example.store.repository.ProductView;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Answers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/** The type Export service impl test. */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("ExportServiceImpl Tests")
+class ExportServiceImplTest {
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock(answer = Answers.CALLS_REAL_METHODS)
+    private ProductMapper productMapper;
+
+    private ExportServiceImpl exportService;
+    private ByteArrayOutputStream out;
+
+    /** Sets up. */
+    @BeforeEach
+    void setUp() {
+        exportService = new ExportServiceImpl(
+                customerRepository, orderRepository, productRepository, productMapper, new ObjectMapper());
+        out = new ByteArrayOutputStream();
+    }
+
+    /** Should write one JSON object per line and close the stream. */
+    @Test
+    @DisplayName("Should export customers as NDJSON")
+    void shouldExportCustomersAsNdjson() throws Exception {
+        // Given
+        AtomicBoolean closed = new AtomicBoolean();
+        when(customerRepository.streamAllNameRows())
+                .thenReturn(Stream.of(customer(1L, "John Doe"), customer(2L, "Jane \"JJ\" Smith"))
+                        .onClose(() -> closed.set(true)));
+
+        // When
+        exportService.exportCustomers(ExportFormat.NDJSON, out);
+
+        // Then
+        assertEquals(
+                "{\"id\":1,\"name\":\"John Doe\"}\n{\"id\":2,\"name\":\"Jane \\\"JJ\\\" Smith\"}\n",
+                out.toString(StandardCharsets.UTF_8));
+        assertTrue(closed.get());
+    }
+
+    /** Should write a header row and quote fields containing separators. */
+    @Test
+    @DisplayName("Should export orders as CSV")
+    void shouldExportOrdersAsCsv() throws Exception {
+        // Given
+        when(orderRepository.streamAllExportRows())
+                .thenReturn(Stream.of(
+                        order(10L, "Laptop, bag", 1L, "John Doe", "3,4"), order(11L, "Empty", 2L, "Jane", null)));
+
+        // When
+        exportService.exportOrders(ExportFormat.CSV, out);
+
+        // Then
+        assertEquals(
+                "id,description,customerId,customerName,productIds\r\n"
+                        + "10,\"Laptop, bag\",1,John Doe,\"3,4\"\r\n"
+                        + "11,Empty,2,Jane,\r\n",
+                out.toString(StandardCharsets.UTF_8));
+    }
+
+    /** Should write aggregated order ids as a JSON array. */
+    @Test
+    @DisplayName("Should export products as NDJSON")
+    void shouldExportProductsAsNdjson() throws Exception {
+        // Given
+        ProductView laptop = mock(ProductView.class);
+        when(laptop.getId()).thenReturn(1L);
+        when(laptop.getDescription()).thenReturn("Laptop");
+        when(laptop.getOrderIds()).thenReturn("5,7");
+        when(productRepository.streamAllViews()).thenReturn(Stream.of(laptop));
+
+        // When
+        exportService.exportProducts(ExportFormat.NDJSON, out);
+
+        // Then
+        assertEquals(
+                "{\"id\":1,\"description\":\"Laptop\",\"orderIds\":[5,7]}\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    /** Should write only the header for an empty table. */
+    @Test
+    @DisplayName("Should export header only for empty table")
+    void shouldExportHeaderOnlyForEmptyTable() throws Exception {
+        // Given
+        when(productRepository.streamAllViews()).thenReturn(Stream.empty());
+
+        // When
+        exportService.exportProducts(ExportFormat.CSV, out);
+
+        // Then
+        assertEquals("id,description,orderIds\r\n", out.toString(StandardCharsets.UTF_8));
+    }
+
+    private static CustomerNameRow customer(Long id, String name) {
+        return new CustomerNameRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getName() {
+                return name;
+            }
+        };
+    }
+
+    private static OrderExportRow order(
+            Long id, String description, Long customerId, String customerName, String productIds) {
+        return new OrderExportRow() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+
+            @Override
+            public Long getCustomerId() {
+                return customerId;
+            }
+
+            @Override
+            public String getCustomerName() {
+                return customerName;
+            }
+
+            @Override
+            public String getProductIds() {
+                return productIds;
+            }
+        };
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.store.service.impl;
+
+import com.example.store.dto.ExportFormat;
+import com.example.store.dto.IngestReport;
+import com.example.store.dto.IngestTarget;
+import com.example.store.exception.ValidationException;
+import com.example.store.repository.CustomerRepository;
+import com.example.store.repository.IngestRepository;
+import com.example.store.repository.OrderBatchRepository;
+import com.example.store.repository.ProductRepository;
+import com.example.store.service.CustomerNameIndex;
+import com.example.store.service.RowCountCache;
+import com.example.store.service.ValidationService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/** The type Ingest service impl test. */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("IngestServiceImpl Tests")
+class IngestServiceImplTest {
+
+    @Mock
+    private IngestRepository ingestRepository;
+
+    @Mock
+    private CustomerRepository customerRepository;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private RowCountCache rowCountCache;
+
+    @Mock
+    private CustomerNameIndex customerNameIndex;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private IngestServiceImpl ingestService;
+
+    /** Sets up. */
+    @BeforeEach
+    void setUp() {
+        ingestService = new IngestServiceImpl(
+                new ValidationService(),
+                ingestRepository,
+                customerRepository,
+                productRepository,
+                rowCountCache,
+                customerNameIndex,
+                new ObjectMapper(),
+                transactionManager,
+                2,
+                2,
+                1,
+                10);
+    }
+
+    /** Should insert valid customers in batches and report rejected lines. */
+    @Test
+    @DisplayName("Should ingest customers from NDJSON")
+    void shouldIngestCustomersFromNdjson() throws Exception {
+        // Given
+        String upload = "{\"name\":\"john doe\"}\n"
+                + "not json\n"
+                + "\n"
+                + "{\"id\":7,\"name\":\"Jane Smith\"}\n"
+                + "{\"name\":\"R2-D2\"}\n"
+                + "{\"name\":\"Bob Johnson\"}\n";
+        List<String> inserted = new ArrayList<>();
+        doAnswer(invocation -> {
+                    synchronized (inserted) {
+                        inserted.addAll(invocation.getArgument(0));
+                    }
+                    return null;
+                })
+                .when(ingestRepository)
+                .insertCustomers(anyList());
+
+        // When
+        IngestReport report = ingestService.ingest(IngestTarget.CUSTOMERS, ExportFormat.NDJSON, stream(upload));
+
+        // Then
+        assertEquals(5, report.getRowsRead());
+        assertEquals(3, report.getRowsInserted());
+        assertEquals(2, report.getRowsRejected());
+        assertEquals(2, report.getErrors().get(0).getLine());
+        assertEquals("Malformed JSON", report.getErrors().get(0).getMessage());
+        assertEquals(5, report.getErrors().get(1).getLine());
+        assertEquals(Set.of("John Doe", "Jane Smith", "Bob Johnson"), Set.copyOf(inserted));
+        verify(rowCountCache).adjust(RowCountCache.Table.CUSTOMER, 3);
+        verify(customerNameIndex).rebuild();
+    }
+
+    /** Should read gzip-compressed CSV and check referenced ids once per batch. */
+    @Test
+    @DisplayName("Should ingest orders from gzip-compressed CSV")
+    void shouldIngestOrdersFromGzipCsv() throws Exception {
+        // Given
+        String upload = "id,description,customerId,customerName,productIds\r\n"
+                + "1,\"Laptop, with bag\",1,John,\"1,2\"\r\n"
+                + "2,Unknown customer,9,Nobody,\r\n";
+        when(customerRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+        when(productRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L, 2L));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OrderBatchRepository.NewOrder>> orders = ArgumentCaptor.forClass(List.class);
+
+        // When
+        IngestReport report = ingestService.ingest(IngestTarget.ORDERS, ExportFormat.CSV, gzip(upload));
+
+        // Then
+        assertEquals(1, report.getRowsInserted());
+        assertEquals(1, report.getRowsRejected());
+        assertEquals("Customer not found with ID: 9", report.getErrors().get(0).getMessage());
+        assertEquals(3, report.getErrors().get(0).getLine());
+        verify(ingestRepository).insertOrders(orders.capture());
+        assertEquals("Laptop, with bag", orders.getValue().get(0).description());
+        assertEquals(List.of(1L, 2L), List.copyOf(orders.getValue().get(0).productIds()));
+        verify(customerRepository, times(1)).findExistingIds(anyCollection());
+    }
+
+    /** Should reject every row of a batch whose insert fails. */
+    @Test
+    @DisplayName("Should reject rows of a failed batch")
+    void shouldRejectRowsOfFailedBatch() throws Exception {
+        // Given
+        doThrow(new RuntimeException("Connection reset")).when(ingestRepository).insertProducts(anyList());
+
+        // When
+        IngestReport report =
+                ingestService.ingest(IngestTarget.PRODUCTS, ExportFormat.CSV, stream("description\nLaptop\nPhone\n"));
+
+        // Then
+        assertEquals(0, report.getRowsInserted());
+        assertEquals(2, report.getRowsRejected());
+        assertEquals("Batch insert failed", report.getErrors().get(0).getMessage());
+        verifyNoInteractions(rowCountCache);
+    }
+
+    /** Should reject a CSV upload whose header lacks a required column. */
+    @Test
+    @DisplayName("Should reject CSV without required column")
+    void shouldRejectCsvWithoutRequiredColumn() {
+        assertThrows(
+                ValidationException.class,
+                () -> ingestService.ingest(IngestTarget.CUSTOMERS, ExportFormat.CSV, stream("id,title\n1,x\n")));
+        verifyNoInteractions(ingestRepository);
+    }
+
+    /** Should still account for the batches committed before the upload failed to read. */
+    @Test
+    @DisplayName("Should adjust counts for committed batches when reading fails")
+    void shouldAdjustCountsWhenReadingFails() {
+        // Given
+        CountDownLatch firstBatchInserted = new CountDownLatch(1);
+        doAnswer(invocation -> {
+                    firstBatchInserted.countDown();
+                    return null;
+                })
+                .when(ingestRepository)
+                .insertCustomers(anyList());
+        InputStream broken = new InputStream() {
+            @Override
+            public int read() throws IOException {
+                try {
+                    firstBatchInserted.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                throw new IOException("Connection reset");
+            }
+        };
+        InputStream upload = new SequenceInputStream(stream("name\nJohn Doe\nJane Smith\n"), broken);
+
+        // When
+        IOException exception = assertThrows(
+                IOException.class, () -> ingestService.ingest(IngestTarget.CUSTOMERS, ExportFormat.CSV, upload));
+
+        // Then
+        assertEquals("Connection reset", exception.getMessage());
+        verify(rowCountCache).adjust(RowCountCache.Table.CUSTOMER, 2);
+        verify(customerNameIndex).rebuild();
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static InputStream gzip(String content) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream out = new GZIPOutputStream(compressed)) {
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+        }
+        return new ByteArrayInputStream(compressed.toByteArray());
+    }
+}
@@ -1,15 +1,25 @@
 package com.example.store.service.impl;
 
+import com.example.store.dto.BulkOrderResponse;
+import com.example.store.dto.BulkOrderResult;
+import com.example.store.dto.CountMode;
 import com.example.store.dto.CreateOrderRequest;
 import com.example.store.dto.OrderDTO;
+import com.example.store.dto.PageCursor;
 import com.example.store.dto.PagedResponse;
+import com.example.store.dto.Projection;
 import com.example.store.entity.Customer;
 import com.example.store.entity.Order;
 import com.example.store.entity.Product;
 import com.example.store.mapper.OrderMapper;
+import com.example.store.exception.ValidationException;
 import com.example.store.repository.CustomerRepository;
+import com.example.store.repository.OrderBatchRepository;
 import com.example.store.repository.OrderRepository;
+import com.example.store.repository.OrderSeekKey;
 import com.example.store.repository.ProductRepository;
+import com.example.store.service.CacheTagIndex;
+import com.example.store.service.RowCountCache;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -21,6 +31,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Arrays;
 import java.util.List;
@@ -47,6 +58,15 @@ class OrderServiceImplTest {
     @Mock
     private ProductRepository productRepository;
 
+    @Mock
+    private RowCountCache rowCountCache;
+
+    @Mock
+    private OrderBatchRepository orderBatchRepository;
+
+    @Mock
+    private CacheTagIndex cacheTagIndex;
+
     @InjectMocks
     private OrderServiceImpl orderService;
 
@@ -88,11 +108,11 @@ class OrderServiceImplTest {
     @DisplayName("Should get all orders with pagination successfully")
     void shouldGetAllOrdersWithPaginationSuccessfully() {
         // Given
-        List<Order> orders = Arrays.asList(order);
-        Page<Order> orderPage = new PageImpl<>(orders);
-        List<OrderDTO> orderDTOs = Arrays.asList(orderDTO);
+        Page<Long> idPage = new PageImpl<>(Arrays.asList(1L));
 
-        when(orderRepository.findAll(any(Pageable.class))).thenReturn(orderPage);
+        when(orderRepository.findPageOfIds(any(Pageable.class))).thenReturn(idPage);
+        when(orderRepository.findAllWithCustomerAndProductsByIdIn(Arrays.asList(1L)))
+                .thenReturn(Arrays.asList(order));
         when(orderMapper.orderToOrderDTO(any(Order.class))).thenReturn(orderDTO);
 
         // When
@@ -100,17 +120,97 @@ class OrderServiceImplTest {
 
         // Then
         assertNotNull(result);
-        verify(orderRepository).findAll(any(Pageable.class));
+        assertEquals(1, result.getContent().size());
+        verify(orderRepository).findPageOfIds(any(Pageable.class));
+        verify(orderRepository).findAllWithCustomerAndProductsByIdIn(Arrays.asList(1L));
         verify(orderMapper, atLeastOnce()).orderToOrderDTO(any(Order.class));
     }
 
+    /** Should page order summaries directly without loading their associations. */
+    @Test
+    @DisplayName("Should page order summaries directly without loading their associations")
+    void shouldPageOrderSummariesWithoutAssociations() {
+        // Given
+        when(orderRepository.findAll(any(Pageable.class))).thenReturn(new PageImpl<>(Arrays.asList(order)));
+        when(orderMapper.orderToOrderSummaryDTO(order)).thenReturn(orderDTO);
+
+        // When
+        PagedResponse<OrderDTO> result =
+                orderService.getAllOrders(0, 10, "id", "asc", CountMode.EXACT, Projection.SUMMARY);
+
+        // Then
+        assertEquals(List.of(orderDTO), result.getContent());
+        verify(orderRepository, never()).findPageOfIds(any(Pageable.class));
+        verify(orderRepository, never()).findAllWithCustomerAndProductsByIdIn(any());
+        verify(orderMapper, never()).orderToOrderDTO(any(Order.class));
+    }
+
+    /** Should keep the id order of the page when loading orders with their associations. */
+    @Test
+    @DisplayName("Should keep page order when loading orders with associations")
+    void shouldKeepPageOrderWhenLoadingOrdersWithAssociations() {
+        // Given
+        Order secondOrder = new Order();
+        secondOrder.setId(2L);
+        secondOrder.setDescription("Order for phone");
+        OrderDTO secondOrderDTO = new OrderDTO();
+        secondOrderDTO.setId(2L);
+
+        when(orderRepository.findPageOfIds(any(Pageable.class))).thenReturn(new PageImpl<>(Arrays.asList(2L, 1L)));
+        when(orderRepository.findAllWithCustomerAndProductsByIdIn(Arrays.asList(2L, 1L)))
+                .thenReturn(Arrays.asList(order, secondOrder));
+        when(orderMapper.orderToOrderDTO(order)).thenReturn(orderDTO);
+        when(orderMapper.orderToOrderDTO(secondOrder)).thenReturn(secondOrderDTO);
+
+        // When
+        PagedResponse<OrderDTO> result = orderService.getAllOrders(0, 10, "id", "desc");
+
+        // Then
+        assertEquals(Arrays.asList(secondOrderDTO, orderDTO), result.getContent());
+        verify(orderRepository, never()).findAll(any(Pageable.class));
+    }
+
+    /** Should build the next cursor from the seeked keys when an order was deleted before it was loaded. */
+    @Test
+    @DisplayName("Should build the next cursor from the seeked keys when an order was deleted")
+    void shouldBuildNextCursorFromSeekedKeys() {
+        // Given
+        when(orderRepository.seekFirst(any(Pageable.class)))
+                .thenReturn(List.of(key(1L, "Order for laptop"), key(2L, "Deleted order"), key(3L, "Next order")));
+        when(orderRepository.findAllWithCustomerAndProductsByIdIn(List.of(1L, 2L))).thenReturn(List.of(order));
+        when(orderMapper.orderToOrderDTO(order)).thenReturn(orderDTO);
+
+        // When
+        PagedResponse<OrderDTO> result = orderService.getAllOrdersAfter("", 2, "description", "asc");
+
+        // Then
+        assertEquals(List.of(orderDTO), result.getContent());
+        assertTrue(result.isHasNext());
+        assertEquals(PageCursor.encode("description", "Deleted order", 2L), result.getNextCursor());
+    }
+
+    /** Should skip the association query when the page of ids is empty. */
+    @Test
+    @DisplayName("Should skip association query for an empty page")
+    void shouldSkipAssociationQueryForEmptyPage() {
+        // Given
+        when(orderRepository.findPageOfIds(any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+
+        // When
+        PagedResponse<OrderDTO> result = orderService.getAllOrders(0, 10, "id", "asc");
+
+        // Then
+        assertTrue(result.getContent().isEmpty());
+        verify(orderRepository, never()).findAllWithCustomerAndProductsByIdIn(any());
+    }
+
     /** Should get all orders successfully. */
     @Test
     @DisplayName("Should get all orders successfully")
     void shouldGetAllOrdersSuccessfully() {
         // Given
         List<Order> orders = Arrays.asList(order);
-        when(orderRepository.findAll()).thenReturn(orders);
+        when(orderRepository.findAllWithCustomerAndProducts()).thenReturn(orders);
         List<OrderDTO> orderDTOs = Arrays.asList(orderDTO);
         when(orderMapper.ordersToOrderDTOs(orders)).thenReturn(orderDTOs);
 
@@ -121,7 +221,7 @@ class OrderServiceImplTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(orderDTO, result.get(0));
-        verify(orderRepository).findAll();
+        verify(orderRepository).findAllWithCustomerAndProducts();
         verify(orderMapper).ordersToOrderDTOs(orders);
     }
 
@@ -131,7 +231,7 @@ class OrderServiceImplTest {
     void shouldGetOrderByIdSuccessfully() {
         // Given
         Long orderId = 1L;
-        when(orderRepository.findById(orderId)).thenReturn(Optional.of(order));
+        when(orderRepository.findWithCustomerAndProductsById(orderId)).thenReturn(Optional.of(order));
         when(orderMapper.orderToOrderDTO(order)).thenReturn(orderDTO);
 
         // When
@@ -140,7 +240,7 @@ class OrderServiceImplTest {
         // Then
         assertTrue(result.isPresent());
         assertEquals(orderDTO, result.get());
-        verify(orderRepository).findById(orderId);
+        verify(orderRepository).findWithCustomerAndProductsById(orderId);
         verify(orderMapper).orderToOrderDTO(order);
     }
 
@@ -150,14 +250,14 @@ class OrderServiceImplTest {
     void shouldReturnEmptyOptionalWhenOrderNotFoundById() {
         // Given
         Long orderId = 999L;
-        when(orderRepository.findById(orderId)).thenReturn(Optional.empty());
+        when(orderRepository.findWithCustomerAndProductsById(orderId)).thenReturn(Optional.empty());
 
         // When
         Optional<OrderDTO> result = orderService.getOrderById(orderId);
 
         // Then
         assertFalse(result.isPresent());
-        verify(orderRepository).findById(orderId);
+        verify(orderRepository).findWithCustomerAndProductsById(orderId);
         verify(orderMapper, never()).orderToOrderDTO(any());
     }
 
@@ -191,6 +291,7 @@ class OrderServiceImplTest {
         verify(productRepository).findAllById(Arrays.asList(1L));
         verify(orderRepository).save(any(Order.class));
         verify(orderMapper).orderToOrderDTO(savedOrder);
+        verify(cacheTagIndex).invalidate(List.of("order-list", "customer:1", "product:1"));
     }
 
     /** Should create order without products successfully. */
@@ -284,12 +385,13 @@ class OrderServiceImplTest {
     @DisplayName("Should handle repository exception in get all orders gracefully")
     void shouldHandleRepositoryExceptionInGetAllOrdersGracefully() {
         // Given
-        when(orderRepository.findAll()).thenThrow(new RuntimeException("Database connection failed"));
+        when(orderRepository.findAllWithCustomerAndProducts())
+                .thenThrow(new RuntimeException("Database connection failed"));
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> orderService.getAllOrders());
         assertEquals("Database connection failed", exception.getMessage());
-        verify(orderRepository).findAll();
+        verify(orderRepository).findAllWithCustomerAndProducts();
     }
 
     /** Should handle repository exception in get order by id gracefully. */
@@ -298,12 +400,13 @@ class OrderServiceImplTest {
     void shouldHandleRepositoryExceptionInGetOrderByIdGracefully() {
         // Given
         Long orderId = 1L;
-        when(orderRepository.findById(orderId)).thenThrow(new RuntimeException("Database connection failed"));
+        when(orderRepository.findWithCustomerAndProductsById(orderId))
+                .thenThrow(new RuntimeException("Database connection failed"));
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> orderService.getOrderById(orderId));
         assertEquals("Database connection failed", exception.getMessage());
-        verify(orderRepository).findById(orderId);
+        verify(orderRepository).findWithCustomerAndProductsById(orderId);
     }
 
     /** Should handle repository exception in create order gracefully. */
@@ -329,13 +432,82 @@ class OrderServiceImplTest {
     @DisplayName("Should handle repository exception in get all orders with pagination gracefully")
     void shouldHandleRepositoryExceptionInGetAllOrdersWithPaginationGracefully() {
         // Given
-        when(orderRepository.findAll(any(Pageable.class)))
+        when(orderRepository.findPageOfIds(any(Pageable.class)))
                 .thenThrow(new RuntimeException("Database connection failed"));
 
         // When & Then
         RuntimeException exception =
                 assertThrows(RuntimeException.class, () -> orderService.getAllOrders(0, 10, "id", "asc"));
         assertEquals("Database connection failed", exception.getMessage());
-        verify(orderRepository).findAll(any(Pageable.class));
+        verify(orderRepository).findPageOfIds(any(Pageable.class));
+    }
+
+    /** Should create valid bulk items and report invalid ones individually. */
+    @Test
+    @DisplayName("Should create valid bulk items and report invalid ones")
+    void shouldCreateValidBulkItemsAndReportInvalidOnes() {
+        // Given
+        ReflectionTestUtils.setField(orderService, "maxBulkItems", 10);
+        CreateOrderRequest unknownCustomer = bulkItem("Second", 9L, List.of(1L));
+        CreateOrderRequest unknownProduct = bulkItem("Third", 1L, List.of(1L, 8L));
+        CreateOrderRequest duplicateProducts = bulkItem("Fourth", 1L, List.of(1L, 1L));
+        when(customerRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+        when(productRepository.findExistingIds(anyCollection())).thenReturn(List.of(1L));
+        when(orderBatchRepository.insertAll(anyList())).thenReturn(List.of(100L, 101L));
+
+        // When
+        BulkOrderResponse response = orderService.createOrders(
+                List.of(createOrderRequest, unknownCustomer, unknownProduct, duplicateProducts));
+
+        // Then
+        assertEquals(2, response.getCreated());
+        assertEquals(2, response.getFailed());
+        assertEquals(BulkOrderResult.Status.CREATED, response.getResults().get(0).getStatus());
+        assertEquals(100L, response.getResults().get(0).getId());
+        assertEquals("Customer not found with ID: 9", response.getResults().get(1).getError());
+        assertEquals("Product not found with ID: 8", response.getResults().get(2).getError());
+        assertEquals(101L, response.getResults().get(3).getId());
+        assertEquals(3, response.getResults().get(3).getIndex());
+        verify(orderBatchRepository)
+                .insertAll(argThat(orders -> orders.size() == 2 && orders.get(1).productIds().size() == 1));
+        verify(customerRepository, times(1)).findExistingIds(anyCollection());
+        verify(productRepository, times(1)).findExistingIds(anyCollection());
+        verify(rowCountCache).adjust(RowCountCache.Table.ORDER, 2);
+    }
+
+    /** Should reject a bulk request above the configured size. */
+    @Test
+    @DisplayName("Should reject oversized bulk request")
+    void shouldRejectOversizedBulkRequest() {
+        // Given
+        ReflectionTestUtils.setField(orderService, "maxBulkItems", 1);
+
+        // When & Then
+        assertThrows(
+                ValidationException.class,
+                () -> orderService.createOrders(List.of(createOrderRequest, createOrderRequest)));
+        verifyNoInteractions(orderBatchRepository);
+    }
+
+    private static CreateOrderRequest bulkItem(String description, Long customerId, List<Long> productIds) {
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setDescription(description);
+        request.setCustomerId(customerId);
+        request.setProductIds(productIds);
+        return request;
+    }
+
+    private static OrderSeekKey key(Long id, String description) {
+        return new OrderSeekKey() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+        };
     }
 }
@@ -1,12 +1,19 @@
 package com.example.store.service.impl;
 
+import com.example.store.dto.CountMode;
 import com.example.store.dto.CreateProductRequest;
+import com.example.store.dto.Include;
+import com.example.store.dto.PagedResponse;
 import com.example.store.dto.ProductDTO;
 import com.example.store.entity.Product;
 import com.example.store.exception.ProductNotFoundException;
 import com.example.store.exception.ValidationException;
 import com.example.store.mapper.ProductMapper;
 import com.example.store.repository.ProductRepository;
+import com.example.store.repository.ProductView;
+import com.example.store.service.CacheTagIndex;
+import com.example.store.service.ProductOrderBatchLoader;
+import com.example.store.service.RowCountCache;
 import com.example.store.service.ValidationService;
 
 import org.junit.jupiter.api.BeforeEach;
@@ -16,6 +23,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.util.Arrays;
 import java.util.List;
@@ -39,10 +52,20 @@ class ProductServiceImplTest {
     @Mock
     private ValidationService validationService;
 
+    @Mock
+    private RowCountCache rowCountCache;
+
+    @Mock
+    private CacheTagIndex cacheTagIndex;
+
+    @Mock
+    private ProductOrderBatchLoader productOrderBatchLoader;
+
     @InjectMocks
     private ProductServiceImpl productService;
 
     private Product product;
+    private ProductView productView;
     private ProductDTO productDTO;
 
     /** Sets up. */
@@ -52,6 +75,8 @@ class ProductServiceImplTest {
         product.setId(1L);
         product.setDescription("Laptop Computer");
 
+        productView = mock(ProductView.class);
+
         productDTO = new ProductDTO();
         productDTO.setId(1L);
         productDTO.setDescription("Laptop Computer");
@@ -63,10 +88,10 @@ class ProductServiceImplTest {
     @DisplayName("Should retrieve all products successfully")
     void shouldRetrieveAllProductsSuccessfully() {
         // Given
-        List<Product> products = Arrays.asList(product);
+        List<ProductView> products = Arrays.asList(productView);
         List<ProductDTO> productDTOs = Arrays.asList(productDTO);
-        when(productRepository.findAll()).thenReturn(products);
-        when(productMapper.productsToProductDTOs(products)).thenReturn(productDTOs);
+        when(productRepository.findAllViews()).thenReturn(products);
+        when(productMapper.productViewsToProductDTOs(products)).thenReturn(productDTOs);
 
         // When
         List<ProductDTO> result = productService.getAllProducts();
@@ -75,8 +100,9 @@ class ProductServiceImplTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(productDTO, result.get(0));
-        verify(productRepository).findAll();
-        verify(productMapper).productsToProductDTOs(products);
+        verify(productRepository).findAllViews();
+        verify(productRepository, never()).findAll();
+        verify(productMapper).productViewsToProductDTOs(products);
     }
 
     /** Should create product successfully. */
@@ -139,8 +165,8 @@ class ProductServiceImplTest {
         // Given
         Long productId = 1L;
         doNothing().when(validationService).validateProductId(productId);
-        when(productRepository.findById(productId)).thenReturn(Optional.of(product));
-        when(productMapper.productToProductDTO(product)).thenReturn(productDTO);
+        when(productRepository.findViewById(productId)).thenReturn(Optional.of(productView));
+        when(productMapper.productViewToProductDTO(productView)).thenReturn(productDTO);
 
         // When
         ProductDTO result = productService.getProductById(productId);
@@ -149,8 +175,8 @@ class ProductServiceImplTest {
         assertNotNull(result);
         assertEquals(productDTO, result);
         verify(validationService).validateProductId(productId);
-        verify(productRepository).findById(productId);
-        verify(productMapper).productToProductDTO(product);
+        verify(productRepository).findViewById(productId);
+        verify(productMapper).productViewToProductDTO(productView);
     }
 
     /** Should throw product not found exception when product not found by id. */
@@ -160,15 +186,15 @@ class ProductServiceImplTest {
         // Given
         Long productId = 999L;
         doNothing().when(validationService).validateProductId(productId);
-        when(productRepository.findById(productId)).thenReturn(Optional.empty());
+        when(productRepository.findViewById(productId)).thenReturn(Optional.empty());
 
         // When & Then
         ProductNotFoundException exception =
                 assertThrows(ProductNotFoundException.class, () -> productService.getProductById(productId));
         assertEquals("Product not found with ID: 999", exception.getMessage());
         verify(validationService).validateProductId(productId);
-        verify(productRepository).findById(productId);
-        verify(productMapper, never()).productToProductDTO(any());
+        verify(productRepository).findViewById(productId);
+        verify(productMapper, never()).productViewToProductDTO(any());
     }
 
     /** Should update product successfully. */
@@ -205,6 +231,7 @@ class ProductServiceImplTest {
         verify(validationService).sanitizeDescription("Updated Laptop");
         verify(productRepository).save(any(Product.class));
         verify(productMapper).productToProductDTO(savedProduct);
+        verify(cacheTagIndex).invalidate(List.of("product:1", "product-list:description"));
     }
 
     /** Should throw product not found exception when updating non existent product. */
@@ -235,12 +262,12 @@ class ProductServiceImplTest {
     @DisplayName("Should handle repository exception gracefully")
     void shouldHandleRepositoryExceptionGracefully() {
         // Given
-        when(productRepository.findAll()).thenThrow(new RuntimeException("Database connection failed"));
+        when(productRepository.findAllViews()).thenThrow(new RuntimeException("Database connection failed"));
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> productService.getAllProducts());
         assertEquals("Failed to retrieve products", exception.getMessage());
-        verify(productRepository).findAll();
+        verify(productRepository).findAllViews();
     }
 
     /** Should delete product successfully. */
@@ -259,6 +286,8 @@ class ProductServiceImplTest {
         verify(validationService).validateProductId(productId);
         verify(productRepository).existsById(productId);
         verify(productRepository).deleteById(productId);
+        verify(rowCountCache).adjust(RowCountCache.Table.PRODUCT, -1);
+        verify(cacheTagIndex).invalidate(List.of("product:1", "product-list"));
     }
 
     /** Should throw product not found exception when deleting non-existent product. */
@@ -285,12 +314,12 @@ class ProductServiceImplTest {
     void shouldSearchProductsByDescriptionSuccessfully() {
         // Given
         String query = "laptop";
-        List<Product> products = Arrays.asList(product);
+        List<ProductView> products = Arrays.asList(productView);
         List<ProductDTO> productDTOs = Arrays.asList(productDTO);
 
         doNothing().when(validationService).validateSearchQuery(query);
-        when(productRepository.findByDescriptionContainingIgnoreCase(query)).thenReturn(products);
-        when(productMapper.productsToProductDTOs(products)).thenReturn(productDTOs);
+        when(productRepository.findViewsByDescriptionContainingIgnoreCase(query)).thenReturn(products);
+        when(productMapper.productViewsToProductDTOs(products)).thenReturn(productDTOs);
 
         // When
         List<ProductDTO> result = productService.searchProductsByDescription(query);
@@ -300,8 +329,8 @@ class ProductServiceImplTest {
         assertEquals(1, result.size());
         assertEquals(productDTO, result.get(0));
         verify(validationService).validateSearchQuery(query);
-        verify(productRepository).findByDescriptionContainingIgnoreCase(query);
-        verify(productMapper).productsToProductDTOs(products);
+        verify(productRepository).findViewsByDescriptionContainingIgnoreCase(query);
+        verify(productMapper).productViewsToProductDTOs(products);
     }
 
     /** Should return all products when search query is empty. */
@@ -310,12 +339,12 @@ class ProductServiceImplTest {
     void shouldReturnAllProductsWhenSearchQueryIsEmpty() {
         // Given
         String query = "";
-        List<Product> products = Arrays.asList(product);
+        List<ProductView> products = Arrays.asList(productView);
         List<ProductDTO> productDTOs = Arrays.asList(productDTO);
 
         doNothing().when(validationService).validateSearchQuery(query);
-        when(productRepository.findAll()).thenReturn(products);
-        when(productMapper.productsToProductDTOs(products)).thenReturn(productDTOs);
+        when(productRepository.findAllViews()).thenReturn(products);
+        when(productMapper.productViewsToProductDTOs(products)).thenReturn(productDTOs);
 
         // When
         List<ProductDTO> result = productService.searchProductsByDescription(query);
@@ -325,8 +354,8 @@ class ProductServiceImplTest {
         assertEquals(1, result.size());
         assertEquals(productDTO, result.get(0));
         verify(validationService).validateSearchQuery(query);
-        verify(productRepository).findAll();
-        verify(productMapper).productsToProductDTOs(products);
+        verify(productRepository).findAllViews();
+        verify(productMapper).productViewsToProductDTOs(products);
     }
 
     /** Should throw validation exception when search query is invalid. */
@@ -345,7 +374,7 @@ class ProductServiceImplTest {
                 assertThrows(ValidationException.class, () -> productService.searchProductsByDescription(invalidQuery));
         assertEquals("Invalid search query", exception.getMessage());
         verify(validationService).validateSearchQuery(invalidQuery);
-        verify(productRepository, never()).findByDescriptionContainingIgnoreCase(any());
+        verify(productRepository, never()).findViewsByDescriptionContainingIgnoreCase(any());
     }
 
     /** Should get products with orders successfully. */
@@ -353,10 +382,10 @@ class ProductServiceImplTest {
     @DisplayName("Should get products with orders successfully")
     void shouldGetProductsWithOrdersSuccessfully() {
         // Given
-        List<Product> products = Arrays.asList(product);
+        List<ProductView> products = Arrays.asList(productView);
         List<ProductDTO> productDTOs = Arrays.asList(productDTO);
-        when(productRepository.findProductsWithOrders()).thenReturn(products);
-        when(productMapper.productsToProductDTOs(products)).thenReturn(productDTOs);
+        when(productRepository.findViewsWithOrders()).thenReturn(products);
+        when(productMapper.productViewsToProductDTOs(products)).thenReturn(productDTOs);
 
         // When
         List<ProductDTO> result = productService.getProductsWithOrders();
@@ -365,8 +394,8 @@ class ProductServiceImplTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(productDTO, result.get(0));
-        verify(productRepository).findProductsWithOrders();
-        verify(productMapper).productsToProductDTOs(products);
+        verify(productRepository).findViewsWithOrders();
+        verify(productMapper).productViewsToProductDTOs(products);
     }
 
     /** Should get products without orders successfully. */
@@ -374,10 +403,10 @@ class ProductServiceImplTest {
     @DisplayName("Should get products without orders successfully")
     void shouldGetProductsWithoutOrdersSuccessfully() {
         // Given
-        List<Product> products = Arrays.asList(product);
+        List<ProductView> products = Arrays.asList(productView);
         List<ProductDTO> productDTOs = Arrays.asList(productDTO);
-        when(productRepository.findProductsWithoutOrders()).thenReturn(products);
-        when(productMapper.productsToProductDTOs(products)).thenReturn(productDTOs);
+        when(productRepository.findViewsWithoutOrders()).thenReturn(products);
+        when(productMapper.productViewsToProductDTOs(products)).thenReturn(productDTOs);
 
         // When
         List<ProductDTO> result = productService.getProductsWithoutOrders();
@@ -386,8 +415,8 @@ class ProductServiceImplTest {
         assertNotNull(result);
         assertEquals(1, result.size());
         assertEquals(productDTO, result.get(0));
-        verify(productRepository).findProductsWithoutOrders();
-        verify(productMapper).productsToProductDTOs(products);
+        verify(productRepository).findViewsWithoutOrders();
+        verify(productMapper).productViewsToProductDTOs(products);
     }
 
     /** Should handle repository exception in search gracefully. */
@@ -397,7 +426,7 @@ class ProductServiceImplTest {
         // Given
         String query = "laptop";
         doNothing().when(validationService).validateSearchQuery(query);
-        when(productRepository.findByDescriptionContainingIgnoreCase(query))
+        when(productRepository.findViewsByDescriptionContainingIgnoreCase(query))
                 .thenThrow(new RuntimeException("Database connection failed"));
 
         // When & Then
@@ -405,7 +434,7 @@ class ProductServiceImplTest {
                 assertThrows(RuntimeException.class, () -> productService.searchProductsByDescription(query));
         assertEquals("Failed to search products", exception.getMessage());
         verify(validationService).validateSearchQuery(query);
-        verify(productRepository).findByDescriptionContainingIgnoreCase(query);
+        verify(productRepository).findViewsByDescriptionContainingIgnoreCase(query);
     }
 
     /** Should handle repository exception in get products with orders gracefully. */
@@ -413,12 +442,12 @@ class ProductServiceImplTest {
     @DisplayName("Should handle repository exception in get products with orders gracefully")
     void shouldHandleRepositoryExceptionInGetProductsWithOrdersGracefully() {
         // Given
-        when(productRepository.findProductsWithOrders()).thenThrow(new RuntimeException("Database connection failed"));
+        when(productRepository.findViewsWithOrders()).thenThrow(new RuntimeException("Database connection failed"));
 
         // When & Then
         RuntimeException exception = assertThrows(RuntimeException.class, () -> productService.getProductsWithOrders());
         assertEquals("Failed to retrieve products with orders", exception.getMessage());
-        verify(productRepository).findProductsWithOrders();
+        verify(productRepository).findViewsWithOrders();
     }
 
     /** Should handle repository exception in get products without orders gracefully. */
@@ -426,14 +455,14 @@ class ProductServiceImplTest {
     @DisplayName("Should handle repository exception in get products without orders gracefully")
     void shouldHandleRepositoryExceptionInGetProductsWithoutOrdersGracefully() {
         // Given
-        when(productRepository.findProductsWithoutOrders())
+        when(productRepository.findViewsWithoutOrders())
                 .thenThrow(new RuntimeException("Database connection failed"));
 
         // When & Then
         RuntimeException exception =
                 assertThrows(RuntimeException.class, () -> productService.getProductsWithoutOrders());
         assertEquals("Failed to retrieve products without orders", exception.getMessage());
-        verify(productRepository).findProductsWithoutOrders();
+        verify(productRepository).findViewsWithoutOrders();
     }
 
     /** Should handle repository exception in delete gracefully. */
@@ -456,4 +485,169 @@ class ProductServiceImplTest {
         verify(productRepository).existsById(productId);
         verify(productRepository).deleteById(productId);
     }
+
+    /** Should get products slice with approximate total without counting. */
+    @Test
+    @DisplayName("Should get products slice with approximate total without counting")
+    void shouldGetProductsSliceWithApproximateTotalWithoutCounting() {
+        // Given
+        Slice<Product> productSlice = new SliceImpl<>(List.of(product), PageRequest.of(0, 1), true);
+        when(productRepository.findAllAsSlice(any(Pageable.class))).thenReturn(productSlice);
+        when(rowCountCache.get(RowCountCache.Table.PRODUCT)).thenReturn(42L);
+        when(productMapper.productToProductSummaryDTO(product)).thenReturn(productDTO);
+
+        // When
+        PagedResponse<ProductDTO> result = productService.getAllProducts(0, 1, "id", "asc", CountMode.APPROXIMATE);
+
+        // Then
+        assertEquals(List.of(productDTO), result.getContent());
+        assertEquals(42, result.getTotalElements());
+        assertEquals(42, result.getTotalPages());
+        assertFalse(result.isTotalExact());
+        assertTrue(result.isHasNext());
+        verifyNoInteractions(productOrderBatchLoader);
+        verify(productRepository, never()).findAll(any(Pageable.class));
+        verify(productRepository, never()).findViewsByIdIn(any());
+    }
+
+    /** Should list products without querying their order ids by default. */
+    @Test
+    @DisplayName("Should list products without querying their order ids by default")
+    void shouldListProductsWithoutOrderIdsByDefault() {
+        // Given
+        Slice<Product> productSlice = new SliceImpl<>(List.of(product), PageRequest.of(0, 1), false);
+        when(productRepository.findAllAsSlice(any(Pageable.class))).thenReturn(productSlice);
+        when(productMapper.productToProductSummaryDTO(product)).thenReturn(productDTO);
+
+        // When
+        PagedResponse<ProductDTO> result =
+                productService.getAllProducts(0, 1, "id", "asc", CountMode.NONE, Include.none());
+
+        // Then
+        assertEquals(List.of(productDTO), result.getContent());
+        verify(productRepository, never()).findViewsByIdIn(any());
+        verifyNoInteractions(productOrderBatchLoader);
+    }
+
+    /** Should attach the included order ids of a page with the requested limit. */
+    @Test
+    @DisplayName("Should attach the included order ids of a page with the requested limit")
+    void shouldAttachIncludedOrderIdsWithRequestedLimit() {
+        // Given
+        Slice<Product> productSlice = new SliceImpl<>(List.of(product), PageRequest.of(0, 1), false);
+        when(productRepository.findAllAsSlice(any(Pageable.class))).thenReturn(productSlice);
+        when(productMapper.productToProductSummaryDTO(product)).thenReturn(productDTO);
+        when(productOrderBatchLoader.getMaxOrderIdsPerProduct()).thenReturn(100);
+
+        // When
+        productService.getAllProducts(0, 1, "id", "asc", CountMode.NONE, Include.of(Include.ORDER_IDS, 5));
+
+        // Then
+        verify(productOrderBatchLoader).attachOrderIds(List.of(productDTO), 5);
+        verify(productRepository, never()).findViewsByIdIn(any());
+    }
+
+    /** Should search products slice without total. */
+    @Test
+    @DisplayName("Should search products slice without total")
+    void shouldSearchProductsSliceWithoutTotal() {
+        // Given
+        String query = "laptop";
+        Slice<Product> productSlice = new SliceImpl<>(List.of(product), PageRequest.of(0, 10), false);
+        doNothing().when(validationService).validateSearchQuery(query);
+        when(productRepository.findSliceByDescriptionContainingIgnoreCase(eq(query), any(Pageable.class)))
+                .thenReturn(productSlice);
+        when(productMapper.productToProductSummaryDTO(product)).thenReturn(productDTO);
+
+        // When
+        PagedResponse<ProductDTO> result =
+                productService.searchProductsByDescription(query, 0, 10, "id", "asc", CountMode.NONE, Include.none());
+
+        // Then
+        assertEquals(-1, result.getTotalElements());
+        assertFalse(result.isTotalExact());
+        assertTrue(result.isLast());
+        verify(productRepository, never()).findByDescriptionContainingIgnoreCase(eq(query), any(Pageable.class));
+        verifyNoInteractions(rowCountCache, productOrderBatchLoader);
+    }
+
+    /** Should attach the included order ids of a search page with the requested limit. */
+    @Test
+    @DisplayName("Should attach the included order ids of a search page with the requested limit")
+    void shouldAttachIncludedOrderIdsToSearchPage() {
+        // Given
+        String query = "laptop";
+        doNothing().when(validationService).validateSearchQuery(query);
+        when(productRepository.findByDescriptionContainingIgnoreCase(eq(query), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(product)));
+        when(productMapper.productToProductSummaryDTO(product)).thenReturn(productDTO);
+        when(productOrderBatchLoader.getMaxOrderIdsPerProduct()).thenReturn(100);
+
+        // When
+        productService.searchProductsByDescription(
+                query, 0, 10, "id", "asc", CountMode.EXACT, Include.of(Include.ORDER_IDS, 5));
+
+        // Then
+        verify(productOrderBatchLoader).attachOrderIds(List.of(productDTO), 5);
+        verify(productRepository, never()).findViewsByIdIn(any());
+    }
+
+    /** Should rank full-text matches and keep the relevance order when hydrating. */
+    @Test
+    @DisplayName("Should rank full-text matches and keep relevance order")
+    void shouldRankFullTextMatchesAndKeepRelevanceOrder() {
+        // Given
+        ReflectionTestUtils.setField(productService, "fullTextEnabled", true);
+        String query = "laptop bag";
+        Product secondProduct = new Product();
+        secondProduct.setId(2L);
+        doNothing().when(validationService).validateSearchQuery(query);
+        when(productRepository.findIdsByFullText("laptop:* & bag:*", 10, 0L)).thenReturn(List.of(2L, 1L));
+        when(productRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(product, secondProduct));
+        when(productRepository.countByFullText("laptop:* & bag:*")).thenReturn(2L);
+        when(productMapper.productsToProductSummaryDTOs(List.of(secondProduct, product)))
+                .thenReturn(List.of(productDTO, productDTO));
+
+        // When
+        PagedResponse<ProductDTO> result =
+                productService.searchProductsByFullText(query, 0, 10, CountMode.EXACT, Include.none());
+
+        // Then
+        assertEquals(2, result.getContent().size());
+        assertEquals(2, result.getTotalElements());
+        assertEquals("relevance", result.getSortBy());
+        verify(productRepository, never()).findByDescriptionContainingIgnoreCase(any(), any(Pageable.class));
+        verifyNoInteractions(productOrderBatchLoader);
+    }
+
+    /** Should fall back to substring search when full-text search is disabled. */
+    @Test
+    @DisplayName("Should fall back to substring search when full-text search is disabled")
+    void shouldFallBackToSubstringSearchWhenFullTextDisabled() {
+        // Given
+        ReflectionTestUtils.setField(productService, "fullTextEnabled", false);
+        String query = "laptop";
+        doNothing().when(validationService).validateSearchQuery(query);
+        when(productRepository.findByDescriptionContainingIgnoreCase(eq(query), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(product)));
+        when(productMapper.productToProductSummaryDTO(product)).thenReturn(productDTO);
+
+        // When
+        PagedResponse<ProductDTO> result =
+                productService.searchProductsByFullText(query, 0, 10, CountMode.EXACT, Include.none());
+
+        // Then
+        assertEquals(List.of(productDTO), result.getContent());
+        verify(productRepository, never()).findIdsByFullText(anyString(), anyInt(), anyLong());
+    }
+
+    /** Should build prefix tsqueries from query words. */
+    @Test
+    @DisplayName("Should build prefix tsqueries from query words")
+    void shouldBuildPrefixTsQueriesFromQueryWords() {
+        assertEquals("laptop:* & bag:*", ProductServiceImpl.toPrefixTsQuery("  Laptop  BAG "));
+        assertEquals("o:* & neil:* & x:*", ProductServiceImpl.toPrefixTsQuery("O'Neil-x"));
+        assertNull(ProductServiceImpl.toPrefixTsQuery(" - "));
+        assertNull(ProductServiceImpl.toPrefixTsQuery(null));
+    }
 }
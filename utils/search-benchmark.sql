@@ -0,0 +1,67 @@
+-- Substring search benchmark: sequential scan vs pg_trgm GIN index at 1M rows.
+--
+-- Runs against a scratch schema so application data is untouched:
+--   psql -h localhost -p 5433 -U admin -d store -f search-benchmark.sql
+--
+-- Each query is run with EXPLAIN (ANALYZE, BUFFERS) before and after the trigram indexes are
+-- created. The predicates mirror the ones issued by CustomerRepository and ProductRepository:
+-- lower(column) LIKE '%q%'.
+
+\timing on
+SET client_min_messages = warning;
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+DROP SCHEMA IF EXISTS search_bench CASCADE;
+CREATE SCHEMA search_bench;
+SET search_path = search_bench, public;
+
+CREATE TABLE customer (id BIGSERIAL PRIMARY KEY, name VARCHAR(255) NOT NULL);
+CREATE TABLE product (id BIGSERIAL PRIMARY KEY, description VARCHAR(500) NOT NULL);
+
+-- 1M pseudo-random names and descriptions assembled from word lists
+INSERT INTO customer (name)
+SELECT (ARRAY['Anna','Bruno','Carla','Daniel','Elena','Felix','Greta','Hugo','Ines','Jonas',
+              'Klara','Lukas','Mila','Noah','Olga','Paul','Rosa','Simon','Tara','Viktor'])[1 + (random() * 19)::int]
+       || ' ' ||
+       (ARRAY['Meyer','Schmidt','Fischer','Weber','Wagner','Becker','Hoffmann','Koch','Richter','Klein',
+              'Wolf','Neumann','Schwarz','Zimmermann','Braun','Hartmann','Lange','Werner','Krause','Lehmann'])[1 + (random() * 19)::int]
+       || '-' || g
+FROM generate_series(1, 1000000) g;
+
+INSERT INTO product (description)
+SELECT (ARRAY['Compact','Wireless','Refurbished','Premium','Portable','Smart','Ergonomic','Rugged'])[1 + (random() * 7)::int]
+       || ' ' ||
+       (ARRAY['laptop','keyboard','monitor','headset','router','tablet','camera','speaker','charger','printer'])[1 + (random() * 9)::int]
+       || ' model ' || g
+FROM generate_series(1, 1000000) g;
+
+-- Existing btree indexes from db.changelog-3-indexes.yaml, for a like-for-like comparison
+CREATE INDEX idx_customer_name ON customer (name);
+CREATE INDEX idx_product_description ON product (description);
+ANALYZE customer;
+ANALYZE product;
+
+\echo '=== Before: btree indexes only ==='
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM customer WHERE lower(name) LIKE '%hartmann-4242%' LIMIT 20;
+EXPLAIN (ANALYZE, BUFFERS) SELECT count(*) FROM customer WHERE lower(name) LIKE '%hartmann-4242%';
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM product WHERE lower(description) LIKE '%headset model 7777%' LIMIT 20;
+
+-- Same DDL as db.changelog-5-trigram-indexes.yaml
+CREATE INDEX idx_customer_name_trgm ON customer USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX idx_product_description_trgm ON product USING gin (lower(description) gin_trgm_ops);
+ANALYZE customer;
+ANALYZE product;
+
+\echo '=== After: pg_trgm GIN indexes ==='
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM customer WHERE lower(name) LIKE '%hartmann-4242%' LIMIT 20;
+EXPLAIN (ANALYZE, BUFFERS) SELECT count(*) FROM customer WHERE lower(name) LIKE '%hartmann-4242%';
+EXPLAIN (ANALYZE, BUFFERS) SELECT * FROM product WHERE lower(description) LIKE '%headset model 7777%' LIMIT 20;
+
+-- Prepared statements, as issued through JDBC, with a bound pattern
+PREPARE customer_search(text) AS SELECT * FROM customer WHERE lower(name) LIKE $1 LIMIT 20;
+EXPLAIN (ANALYZE, BUFFERS) EXECUTE customer_search('%hartmann-4242%');
+
+-- Patterns shorter than three characters produce no trigrams and cannot be narrowed by the index
+EXPLAIN (ANALYZE, BUFFERS) SELECT count(*) FROM customer WHERE lower(name) LIKE '%ha%';
+
+DROP SCHEMA search_bench CASCADE;